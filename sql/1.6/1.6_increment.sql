@@ -0,0 +1,42 @@
+CREATE TABLE `schedule_job_log_chunk`
+(
+    `id`           int(11)                      NOT NULL AUTO_INCREMENT,
+    `job_id`       varchar(64) COLLATE utf8_bin NOT NULL COMMENT '实例id',
+    `chunk_index`  int(11)                      NOT NULL COMMENT '分片序号，从0开始',
+    `raw_length`   int(11)                      NOT NULL COMMENT '分片压缩前的字符数',
+    `content`      mediumblob                   NOT NULL COMMENT '压缩后的日志分片',
+    `gmt_create`   datetime                     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '新增时间',
+    `gmt_modified` datetime                     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '修改时间',
+    `is_deleted`   tinyint(1)                   NOT NULL DEFAULT '0' COMMENT '0正常 1逻辑删除',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `index_job_chunk` (`job_id`, `chunk_index`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8
+  COLLATE = utf8_bin COMMENT ='实例引擎日志分片表';
+
+CREATE TABLE `schedule_job_log_queue`
+(
+    `id`             int(11)                      NOT NULL AUTO_INCREMENT,
+    `job_id`         varchar(64) COLLATE utf8_bin NOT NULL COMMENT '实例id',
+    `node_address`   varchar(64) COLLATE utf8_bin NOT NULL COMMENT '获取日志的节点',
+    `job_resource`   varchar(256) COLLATE utf8_bin         DEFAULT NULL COMMENT '计算资源',
+    `schedule_type`  tinyint(2)                   NOT NULL DEFAULT '0' COMMENT '实例类型',
+    `compute_type`   tinyint(1)                   NOT NULL DEFAULT '1' COMMENT '计算类型',
+    `job_identifier` mediumtext COLLATE utf8_bin  NOT NULL COMMENT '获取日志需要的实例信息json',
+    `gmt_create`     datetime                     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '新增时间',
+    `gmt_modified`   datetime                     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '修改时间',
+    `is_deleted`     tinyint(1)                   NOT NULL DEFAULT '0' COMMENT '0正常 1逻辑删除',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `index_job_id` (`job_id`),
+    KEY `index_node_address` (`node_address`, `schedule_type`, `id`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8
+  COLLATE = utf8_bin COMMENT ='等待获取引擎日志的实例';
+
+ALTER TABLE `schedule_fill_data_job`
+    ADD COLUMN `begin_time` varchar(16) COLLATE utf8_bin DEFAULT NULL COMMENT '每天补数据的开始时间HH:mm' AFTER `fill_generate_status`,
+    ADD COLUMN `end_time` varchar(16) COLLATE utf8_bin DEFAULT NULL COMMENT '每天补数据的结束时间HH:mm' AFTER `begin_time`,
+    ADD COLUMN `node_address` varchar(64) COLLATE utf8_bin DEFAULT NULL COMMENT '生成补数据实例的节点' AFTER `end_time`,
+    ADD COLUMN `fill_cursor` varchar(64) COLLATE utf8_bin DEFAULT NULL COMMENT '补数据实例生成游标：最后一个已保存的业务日期和任务分片 yyyy-MM-dd,分片序号' AFTER `node_address`;
+
+COMMIT;
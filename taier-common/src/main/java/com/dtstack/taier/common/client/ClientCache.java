@@ -23,16 +23,12 @@ import com.dtstack.taier.common.exception.ClientAccessException;
 import com.dtstack.taier.common.exception.TaierDefineException;
 import com.dtstack.taier.pluginapi.client.IClient;
 import com.dtstack.taier.pluginapi.constrant.ConfigConstant;
-import com.dtstack.taier.pluginapi.util.MD5Util;
-import com.dtstack.taier.pluginapi.util.MathUtil;
-import com.dtstack.taier.pluginapi.util.PublicUtil;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
-import java.util.Properties;
 
 /**
  * 插件客户端
@@ -46,8 +42,6 @@ public class ClientCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientCache.class);
 
-    private static final String MD5_SUM_KEY = "md5sum";
-    private static final String MD5_ZIP_KEY = "md5zip";
     private String pluginPath;
 
     private Map<String, IClient> defaultClientMap = Maps.newConcurrentMap();
@@ -72,28 +66,13 @@ public class ClientCache {
     public IClient getClient(String pluginInfo) throws ClientAccessException {
         String typeName = "";
         try {
-            if (StringUtils.isBlank(pluginInfo)) {
-                throw new TaierDefineException("plugin info is empty");
-            }
-
-            Properties properties = PublicUtil.jsonStrToObjectWithOutNull(pluginInfo, Properties.class);
-            typeName = properties.getProperty(ConfigConstant.TYPE_NAME_KEY);
+            // 相同的 pluginInfo 只解析一次
+            PluginInfoKey pluginInfoKey = PluginInfoKey.of(pluginInfo);
+            typeName = pluginInfoKey.getTypeName();
             if (StringUtils.isBlank(typeName)) {
                 throw new TaierDefineException("typeName  is empty");
             }
-            if ("DataX".equals(typeName)) {
-                typeName = "script-standalone";
-            }
-            String md5plugin = MD5Util.getMd5String(pluginInfo);
-            String md5sum = null;
-            if (!properties.containsKey(MD5_SUM_KEY) || (md5sum = MathUtil.getString(properties.get(MD5_SUM_KEY))) == null) {
-                String md5zip = MathUtil.getString(properties.get(MD5_ZIP_KEY));
-                if (md5zip == null) {
-                    md5zip = "";
-                }
-                md5sum = md5zip + md5plugin;
-                properties.setProperty(MD5_SUM_KEY, md5sum);
-            }
+            String md5sum = pluginInfoKey.getMd5sum();
 
             Map<String, IClient> clientMap = cache.computeIfAbsent(typeName, k -> Maps.newConcurrentMap());
             IClient client = clientMap.get(md5sum);
@@ -102,7 +81,7 @@ public class ClientCache {
                     client = clientMap.get(md5sum);
                     if (client == null) {
                         client = ClientFactory.buildPluginClient(pluginInfo, pluginPath);
-                        client.init(properties);
+                        client.init(pluginInfoKey.newProperties());
                         clientMap.putIfAbsent(md5sum, client);
                     }
                 }
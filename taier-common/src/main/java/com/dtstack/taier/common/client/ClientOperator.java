@@ -34,7 +34,9 @@ import com.google.common.base.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -91,6 +93,42 @@ public class ClientOperator {
         }
     }
 
+    /**
+     * 同一个 pluginInfo 下的任务批量获取状态
+     *
+     * @param pluginInfo     集群配置
+     * @param jobIdentifiers 任务标识
+     * @return key 为 jobId，value 为任务状态，获取失败的任务为 NOTFOUND
+     * 批量请求失败时逐个获取，只有单独获取也失败的任务为 NOTFOUND，避免整批任务累计 NOTFOUND 次数后被置为失败
+     */
+    public Map<String, TaskStatus> getJobStatuses(String pluginInfo, List<JobIdentifier> jobIdentifiers) {
+        if (null == pluginInfo || null == jobIdentifiers) {
+            throw new IllegalArgumentException("pluginInfo|jobIdentifiers is null.");
+        }
+
+        Map<String, TaskStatus> jobStatuses = new HashMap<>(jobIdentifiers.size());
+        try {
+            IClient client = clientCache.getClient(pluginInfo);
+            Map<String, TaskStatus> result = client.getJobStatuses(jobIdentifiers);
+            if (result != null) {
+                jobStatuses.putAll(result);
+            }
+        } catch (Exception e) {
+            LOGGER.error("getStatuses happens error, size:{}, fallback to single job status", jobIdentifiers.size(), e);
+            for (JobIdentifier jobIdentifier : jobIdentifiers) {
+                TaskStatus taskStatus;
+                try {
+                    taskStatus = getJobStatus(pluginInfo, jobIdentifier);
+                } catch (Exception ex) {
+                    LOGGER.error("getStatus happens error：{}", jobIdentifier.getJobId(), ex);
+                    taskStatus = TaskStatus.NOTFOUND;
+                }
+                jobStatuses.put(jobIdentifier.getJobId(), taskStatus);
+            }
+        }
+        return jobStatuses;
+    }
+
 
     public String getEngineLog(String pluginInfo, JobIdentifier jobIdentifier) {
         checkoutOperator(pluginInfo, jobIdentifier);
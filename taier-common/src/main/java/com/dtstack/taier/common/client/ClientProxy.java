@@ -37,6 +37,7 @@ import com.dtstack.taier.pluginapi.pojo.JudgeResult;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -154,6 +155,27 @@ public class ClientProxy implements IClient {
         }
     }
 
+    @Override
+    public Map<String, TaskStatus> getJobStatuses(List<JobIdentifier> jobIdentifiers) throws IOException {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return ClassLoaderCallBackMethod.callbackAndReset(new CallBack<Map<String, TaskStatus>>() {
+
+                        @Override
+                        public Map<String, TaskStatus> execute() throws Exception {
+                            return targetClient.getJobStatuses(jobIdentifiers);
+                        }
+                    }, targetClient.getClass().getClassLoader(), true);
+                } catch (Exception e) {
+                    throw new TaierDefineException(e);
+                }
+            }, executorService).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            throw new TaierDefineException(e);
+        }
+    }
+
     @Override
     public String getJobMaster(JobIdentifier jobIdentifier) {
         try {
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.common.client;
+
+import com.dtstack.taier.common.exception.TaierDefineException;
+import com.dtstack.taier.pluginapi.constrant.ConfigConstant;
+import com.dtstack.taier.pluginapi.util.MD5Util;
+import com.dtstack.taier.pluginapi.util.MathUtil;
+import com.dtstack.taier.pluginapi.util.PublicUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 集群配置 pluginInfo 解析后的结果，相同的 pluginInfo 只解析一次
+ * <p>
+ * 获取插件客户端、判断 pluginInfo 是否为空都从这里取，不再重复解析 json 和计算 md5
+ */
+public final class PluginInfoKey {
+
+    private static final String MD5_SUM_KEY = "md5sum";
+
+    private static final String MD5_ZIP_KEY = "md5zip";
+
+    private static final int MAX_CACHE_SIZE = 1000;
+
+    private static final Cache<String, PluginInfoKey> KEY_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHE_SIZE)
+            .build();
+
+    /**
+     * 插件类型，pluginInfo 为空时为 null
+     */
+    private final String typeName;
+
+    /**
+     * 插件包 md5 + pluginInfo md5，区分同一类型插件的不同配置
+     */
+    private final String md5sum;
+
+    private final Properties properties;
+
+    /**
+     * pluginInfo 是空 json
+     */
+    private final boolean empty;
+
+    private PluginInfoKey(String pluginInfo) throws Exception {
+        Properties parsed = PublicUtil.jsonStrToObjectWithOutNull(pluginInfo, Properties.class);
+        this.properties = parsed == null ? new Properties() : parsed;
+        this.empty = properties.isEmpty();
+
+        String type = properties.getProperty(ConfigConstant.TYPE_NAME_KEY);
+        if ("DataX".equals(type)) {
+            type = "script-standalone";
+        }
+        this.typeName = type;
+
+        String sum = MathUtil.getString(properties.get(MD5_SUM_KEY));
+        if (sum == null) {
+            String md5zip = MathUtil.getString(properties.get(MD5_ZIP_KEY));
+            if (md5zip == null) {
+                md5zip = "";
+            }
+            sum = md5zip + MD5Util.getMd5String(pluginInfo);
+            properties.setProperty(MD5_SUM_KEY, sum);
+        }
+        this.md5sum = sum;
+    }
+
+    /**
+     * 获得 pluginInfo 对应的 key，相同的 pluginInfo 返回同一个对象
+     *
+     * @param pluginInfo 集群配置信息
+     * @return 解析后的 key
+     */
+    public static PluginInfoKey of(String pluginInfo) {
+        if (StringUtils.isBlank(pluginInfo)) {
+            throw new TaierDefineException("plugin info is empty");
+        }
+        try {
+            return KEY_CACHE.get(pluginInfo, () -> new PluginInfoKey(pluginInfo));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new TaierDefineException("parse plugin info error", e.getCause());
+        }
+    }
+
+    /**
+     * pluginInfo 为空或者是空 json
+     *
+     * @param pluginInfo 集群配置信息
+     */
+    public static boolean isEmpty(String pluginInfo) {
+        return StringUtils.isBlank(pluginInfo) || of(pluginInfo).empty;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getMd5sum() {
+        return md5sum;
+    }
+
+    /**
+     * 初始化插件客户端使用的配置，返回副本，客户端修改不会影响缓存
+     */
+    public Properties newProperties() {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+}
@@ -118,12 +118,21 @@ public class EnvironmentContext implements InitializingBean {
     @Value("${job.log.delay:5}")
     private long jobLogDelay;
 
+    @Value("${job.log.queue.size:5000}")
+    private int jobLogQueueSize;
+
+    @Value("${job.log.resource.concurrent:5}")
+    private int jobLogResourceConcurrent;
+
     @Value("${job.log.pool:2}")
     private Integer jobLogPool;
 
     @Value("${job.submit.concurrent:10}")
     private int jobSubmitConcurrent;
 
+    @Value("${job.submit.executor.thread:20}")
+    private int jobSubmitExecutorThread;
+
     @Value("${job.graph.builder:false}")
     private boolean jobGraphBuilderSwitch;
 
@@ -154,6 +163,21 @@ public class EnvironmentContext implements InitializingBean {
     @Value("${task.status.dealer.pool.size:5}")
     private int taskStatusDealerPoolSize;
 
+    @Value("${task.status.dealer.batch.size:200}")
+    private int taskStatusDealerBatchSize;
+
+    @Value("${job.status.index.size:100000}")
+    private int jobStatusIndexSize;
+
+    @Value("${job.status.index.expire:600000}")
+    private long jobStatusIndexExpire;
+
+    @Value("${job.status.index.fresh.time:3000}")
+    private long jobStatusIndexFreshTime;
+
+    @Value("${job.readiness.max.size:100000}")
+    private int jobReadinessMaxSize;
+
     @Value("${test.connect.timeout:60}")
     private int testConnectTimeout;
 
@@ -175,6 +199,30 @@ public class EnvironmentContext implements InitializingBean {
     @Value("${fork.join.timeout:300}")
     private Long forkJoinResultTimeOut;
 
+    @Value("${restart.child.max.level:500}")
+    private int restartChildMaxLevel;
+
+    @Value("${restart.child.max.size:100000}")
+    private int restartChildMaxSize;
+
+    @Value("${failover.thread:4}")
+    private int failoverThread;
+
+    @Value("${failover.chunk.size:5000}")
+    private int failoverChunkSize;
+
+    @Value("${job.log.store:db}")
+    private String jobLogStore;
+
+    @Value("${job.log.store.dir:./joblog}")
+    private String jobLogStoreDir;
+
+    @Value("${job.log.chunk.size:262144}")
+    private int jobLogChunkSize;
+
+    @Value("${job.log.tail.size:65536}")
+    private int jobLogTailSize;
+
     @Value("${job.schedule:true}")
     private boolean openJobSchedule;
 
@@ -220,6 +268,12 @@ public class EnvironmentContext implements InitializingBean {
     @Value("${fill.data.limit.size:2000}")
     private Integer fillDataLimitSize;
 
+    /**
+     * 补数据同时生成中的任务分片数，超过后等最早的分片保存完再生成下一个
+     */
+    @Value("${fill.data.pipeline.size:2}")
+    private Integer fillDataPipelineSize;
+
     @Value("${fillData.max.level.size:1000}")
     private Integer fillDataRootTaskMaxLevel;
 
@@ -235,9 +289,45 @@ public class EnvironmentContext implements InitializingBean {
     @Value("${max.task.build.thread:20}")
     private Integer maxTaskBuildThread;
 
+    /**
+     * 集群视图中各节点队列信息的刷新间隔，毫秒
+     */
+    @Value("${queue.info.refresh.interval:5000}")
+    private Long queueInfoRefreshInterval;
+
+    /**
+     * 实例分配策略: queue 按等待提交的实例数分配，weighted 结合节点心跳上报的负载指标加权分配
+     */
+    @Value("${job.partition.strategy:queue}")
+    private String jobPartitionStrategy;
+
+    /**
+     * 实例状态延迟合并写入: 开启后轮询得到的状态先在内存合并，按间隔批量写库
+     */
+    @Value("${job.status.write.behind:true}")
+    private Boolean jobStatusWriteBehind;
+
+    /**
+     * 实例状态合并写入的间隔，毫秒
+     */
+    @Value("${job.status.flush.interval:200}")
+    private Long jobStatusFlushInterval;
+
+    @Value("${job.status.flush.batch.size:500}")
+    private Integer jobStatusFlushBatchSize;
+
     @Value("${job.graph.task.limit.size:50}")
     private Integer jobGraphTaskLimitSize;
 
+    @Value("${job.graph.writer.thread:4}")
+    private Integer jobGraphWriterThread;
+
+    @Value("${job.graph.writer.queue.size:1000}")
+    private Integer jobGraphWriterQueueSize;
+
+    @Value("${job.graph.writer.flush.size:2000}")
+    private Integer jobGraphWriterFlushSize;
+
     @Value("${select.limit:50}")
     private Integer selectLimit;
 
@@ -413,11 +503,23 @@ public class EnvironmentContext implements InitializingBean {
         return jobLogDelay;
     }
 
+    public int getJobLogQueueSize() {
+        return jobLogQueueSize;
+    }
+
+    public int getJobLogResourceConcurrent() {
+        return jobLogResourceConcurrent;
+    }
+
 
     public int getJobSubmitConcurrent() {
         return jobSubmitConcurrent;
     }
 
+    public int getJobSubmitExecutorThread() {
+        return jobSubmitExecutorThread;
+    }
+
     public boolean isJobGraphBuilderSwitch() {
         return jobGraphBuilderSwitch;
     }
@@ -458,6 +560,26 @@ public class EnvironmentContext implements InitializingBean {
         return taskStatusDealerPoolSize;
     }
 
+    public int getTaskStatusDealerBatchSize() {
+        return taskStatusDealerBatchSize;
+    }
+
+    public int getJobStatusIndexSize() {
+        return jobStatusIndexSize;
+    }
+
+    public long getJobStatusIndexExpire() {
+        return jobStatusIndexExpire;
+    }
+
+    public long getJobStatusIndexFreshTime() {
+        return jobStatusIndexFreshTime;
+    }
+
+    public int getJobReadinessMaxSize() {
+        return jobReadinessMaxSize;
+    }
+
     public int getTestConnectTimeout() {
         return testConnectTimeout;
     }
@@ -486,6 +608,38 @@ public class EnvironmentContext implements InitializingBean {
         return forkJoinResultTimeOut;
     }
 
+    public int getRestartChildMaxLevel() {
+        return restartChildMaxLevel;
+    }
+
+    public int getRestartChildMaxSize() {
+        return restartChildMaxSize;
+    }
+
+    public int getFailoverThread() {
+        return failoverThread;
+    }
+
+    public int getFailoverChunkSize() {
+        return failoverChunkSize;
+    }
+
+    public String getJobLogStore() {
+        return jobLogStore;
+    }
+
+    public String getJobLogStoreDir() {
+        return jobLogStoreDir;
+    }
+
+    public int getJobLogChunkSize() {
+        return jobLogChunkSize;
+    }
+
+    public int getJobLogTailSize() {
+        return jobLogTailSize;
+    }
+
     public boolean isOpenJobSchedule() {
         return openJobSchedule;
     }
@@ -546,6 +700,10 @@ public class EnvironmentContext implements InitializingBean {
         return fillDataLimitSize;
     }
 
+    public Integer getFillDataPipelineSize() {
+        return fillDataPipelineSize;
+    }
+
     public Integer getFillDataRootTaskMaxLevel() {
         return fillDataRootTaskMaxLevel;
     }
@@ -566,10 +724,42 @@ public class EnvironmentContext implements InitializingBean {
         return maxTaskBuildThread;
     }
 
+    public Long getQueueInfoRefreshInterval() {
+        return queueInfoRefreshInterval;
+    }
+
+    public String getJobPartitionStrategy() {
+        return jobPartitionStrategy;
+    }
+
+    public Boolean getJobStatusWriteBehind() {
+        return jobStatusWriteBehind;
+    }
+
+    public Long getJobStatusFlushInterval() {
+        return jobStatusFlushInterval;
+    }
+
+    public Integer getJobStatusFlushBatchSize() {
+        return jobStatusFlushBatchSize;
+    }
+
     public Integer getJobGraphTaskLimitSize() {
         return jobGraphTaskLimitSize;
     }
 
+    public Integer getJobGraphWriterThread() {
+        return jobGraphWriterThread;
+    }
+
+    public Integer getJobGraphWriterQueueSize() {
+        return jobGraphWriterQueueSize;
+    }
+
+    public Integer getJobGraphWriterFlushSize() {
+        return jobGraphWriterFlushSize;
+    }
+
     public String getCreateTableType() {
         return createTableType;
     }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.common.metric;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的耗时直方图(毫秒)，线程安全，记录时不加锁
+ * <p>
+ * 百分位返回所在桶的上界，超过最大桶的返回记录到的最大值
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500,
+            1000, 2000, 5000, 10000, 20000, 60000, 120000, 300000, 600000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public void record(long millis) {
+        long value = Math.max(0L, millis);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long total = count.sum();
+        return total == 0 ? 0L : sum.sum() / total;
+    }
+
+    /**
+     * @param percentile 0 - 100
+     * @return 百分位所在桶的上界
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100D);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int bucketOf(long value) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (value <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " mean=" + getMean() + "ms p50=" + getPercentile(50)
+                + "ms p99=" + getPercentile(99) + "ms max=" + getMax() + "ms";
+    }
+}
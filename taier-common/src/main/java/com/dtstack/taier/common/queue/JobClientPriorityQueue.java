@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.common.queue;
+
+import com.dtstack.taier.pluginapi.JobClient;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按 jobId 建立索引的优先级队列，priority 越小越先出队，priority 相同时先进先出
+ * <p>
+ * 入队、出队、删除、调整优先级 O(log n)，判断是否存在 O(1)。
+ * 入队时记录 priority，之后修改 JobClient 的 priority 不影响队列顺序，需要调用 {@link #updatePriority}
+ */
+public class JobClientPriorityQueue {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Map<String, Node> index;
+
+    private Node[] heap;
+
+    private int size;
+
+    private long sequence;
+
+    public JobClientPriorityQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public JobClientPriorityQueue(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.heap = new Node[capacity];
+        this.index = new HashMap<>(capacity);
+    }
+
+    /**
+     * 入队，jobId 已经存在时替换原来的 JobClient 并按新的 priority 调整位置
+     *
+     * @param jobClient 实例
+     * @return jobId 原来不存在时返回true
+     */
+    public boolean put(JobClient jobClient) {
+        String jobId = checkJobId(jobClient);
+        lock.lock();
+        try {
+            Node node = index.get(jobId);
+            if (node != null) {
+                node.jobClient = jobClient;
+                changePriority(node, jobClient.getPriority());
+                return false;
+            }
+            node = new Node(jobClient, jobClient.getPriority(), sequence++);
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size << 1);
+            }
+            node.position = size;
+            heap[size++] = node;
+            index.put(jobId, node);
+            siftUp(node.position);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出 priority 最小的实例，队列为空时阻塞
+     */
+    public JobClient take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return removeAt(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出 priority 最小的实例，超时返回null
+     */
+    public JobClient poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return removeAt(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出 priority 最小的实例，队列为空时返回null
+     */
+    public JobClient poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : removeAt(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 查看 priority 最小的实例，不出队
+     */
+    public JobClient peek() {
+        lock.lock();
+        try {
+            return size == 0 ? null : heap[0].jobClient;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(String jobId) {
+        lock.lock();
+        try {
+            return index.containsKey(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(JobClient jobClient) {
+        return jobClient != null && contains(jobClient.getJobId());
+    }
+
+    /**
+     * 按 jobId 删除
+     *
+     * @return 删除的实例，不存在时返回null
+     */
+    public JobClient remove(String jobId) {
+        lock.lock();
+        try {
+            Node node = index.get(jobId);
+            return node == null ? null : removeAt(node.position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean remove(JobClient jobClient) {
+        return jobClient != null && remove(jobClient.getJobId()) != null;
+    }
+
+    /**
+     * 调整队列中实例的优先级，同时修改 JobClient 的 priority
+     *
+     * @return 实例不在队列中时返回false
+     */
+    public boolean updatePriority(String jobId, long priority) {
+        lock.lock();
+        try {
+            Node node = index.get(jobId);
+            if (node == null) {
+                return false;
+            }
+            node.jobClient.setPriority(priority);
+            changePriority(node, priority);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private String checkJobId(JobClient jobClient) {
+        if (jobClient == null || jobClient.getJobId() == null) {
+            throw new IllegalArgumentException("jobClient and jobId must not be null");
+        }
+        return jobClient.getJobId();
+    }
+
+    private void changePriority(Node node, long priority) {
+        long oldPriority = node.priority;
+        node.priority = priority;
+        if (priority < oldPriority) {
+            siftUp(node.position);
+        } else if (priority > oldPriority) {
+            siftDown(node.position);
+        }
+    }
+
+    private JobClient removeAt(int position) {
+        Node node = heap[position];
+        index.remove(node.jobClient.getJobId());
+        int last = --size;
+        if (position != last) {
+            Node moved = heap[last];
+            heap[position] = moved;
+            moved.position = position;
+            heap[last] = null;
+            siftDown(position);
+            if (heap[position] == moved) {
+                siftUp(position);
+            }
+        } else {
+            heap[last] = null;
+        }
+        return node.jobClient;
+    }
+
+    private void siftUp(int position) {
+        Node node = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            Node parentNode = heap[parent];
+            if (!less(node, parentNode)) {
+                break;
+            }
+            heap[position] = parentNode;
+            parentNode.position = position;
+            position = parent;
+        }
+        heap[position] = node;
+        node.position = position;
+    }
+
+    private void siftDown(int position) {
+        Node node = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], node)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heap[position].position = position;
+            position = child;
+        }
+        heap[position] = node;
+        node.position = position;
+    }
+
+    private static boolean less(Node a, Node b) {
+        if (a.priority != b.priority) {
+            return a.priority < b.priority;
+        }
+        return a.sequence < b.sequence;
+    }
+
+    private static class Node {
+
+        private JobClient jobClient;
+
+        private long priority;
+
+        private final long sequence;
+
+        private int position;
+
+        private Node(JobClient jobClient, long priority, long sequence) {
+            this.jobClient = jobClient;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.common.queue;
+
+import com.dtstack.taier.common.queue.comparator.JobClientComparator;
+import com.dtstack.taier.pluginapi.JobClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JobClientPriorityQueueTest {
+
+    @Test
+    public void testSameOrderAsPriorityBlockingQueue() {
+        JobClientPriorityQueue queue = new JobClientPriorityQueue(4);
+        PriorityBlockingQueue<JobClient> expected = new PriorityBlockingQueue<>(4, new JobClientComparator());
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            JobClient jobClient = jobClient("job" + i, random.nextInt(100000) * 10L + i % 10);
+            queue.put(jobClient);
+            expected.put(jobClient);
+        }
+        while (!expected.isEmpty()) {
+            Assert.assertEquals(expected.poll().getPriority(), queue.poll().getPriority());
+        }
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testIndexedOperation() {
+        JobClientPriorityQueue queue = new JobClientPriorityQueue();
+        queue.put(jobClient("a", 3));
+        queue.put(jobClient("b", 1));
+        queue.put(jobClient("c", 2));
+        queue.put(jobClient("d", 2));
+
+        Assert.assertTrue(queue.contains("a"));
+        Assert.assertFalse(queue.put(jobClient("a", 5)));
+        Assert.assertEquals(4, queue.size());
+
+        Assert.assertNotNull(queue.remove("b"));
+        Assert.assertNull(queue.remove("b"));
+        Assert.assertFalse(queue.contains("b"));
+
+        Assert.assertTrue(queue.updatePriority("a", 0));
+        Assert.assertFalse(queue.updatePriority("x", 0));
+
+        Assert.assertEquals("a", queue.poll().getJobId());
+        // priority 相同时先进先出
+        Assert.assertEquals("c", queue.poll().getJobId());
+        Assert.assertEquals("d", queue.poll().getJobId());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentPutAndTake() throws Exception {
+        JobClientPriorityQueue queue = new JobClientPriorityQueue();
+        int producers = 4;
+        int perProducer = 5000;
+        int total = producers * perProducer;
+        ExecutorService executorService = Executors.newFixedThreadPool(producers + 2);
+        Set<String> taken = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicate = new AtomicInteger();
+        CountDownLatch consumed = new CountDownLatch(total);
+
+        for (int c = 0; c < 2; c++) {
+            executorService.submit(() -> {
+                while (consumed.getCount() > 0) {
+                    JobClient jobClient = queue.poll(10, TimeUnit.MILLISECONDS);
+                    if (jobClient == null) {
+                        continue;
+                    }
+                    if (!taken.add(jobClient.getJobId())) {
+                        duplicate.incrementAndGet();
+                    }
+                    consumed.countDown();
+                }
+                return null;
+            });
+        }
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executorService.submit(() -> {
+                Random random = new Random(producer);
+                List<String> jobIds = new ArrayList<>();
+                for (int i = 0; i < perProducer; i++) {
+                    String jobId = producer + "_" + i;
+                    jobIds.add(jobId);
+                    queue.put(jobClient(jobId, random.nextInt(1000)));
+                    if (i % 3 == 0) {
+                        queue.updatePriority(jobIds.get(random.nextInt(jobIds.size())), random.nextInt(1000));
+                    }
+                }
+            });
+        }
+
+        Assert.assertTrue(consumed.await(60, TimeUnit.SECONDS));
+        executorService.shutdownNow();
+        Assert.assertEquals(0, duplicate.get());
+        Assert.assertEquals(total, taken.size());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    private JobClient jobClient(String jobId, long priority) {
+        JobClient jobClient = new JobClient();
+        jobClient.setJobId(jobId);
+        jobClient.setPriority(priority);
+        return jobClient;
+    }
+}
@@ -95,6 +95,25 @@ public class ScheduleFillDataJob implements Serializable {
      */
     private Integer fillGenerateStatus;
 
+    /**
+     * 每天补数据的开始时间 HH:mm
+     */
+    private String beginTime;
+
+    /**
+     * 每天补数据的结束时间 HH:mm
+     */
+    private String endTime;
+
+    /**
+     * 生成补数据实例的节点
+     */
+    private String nodeAddress;
+
+    /**
+     * 补数据实例生成游标
+     */
+    private String fillCursor;
 
     public Long getId() {
         return id;
@@ -191,4 +210,36 @@ public class ScheduleFillDataJob implements Serializable {
     public void setFillGenerateStatus(Integer fillGenerateStatus) {
         this.fillGenerateStatus = fillGenerateStatus;
     }
+
+    public String getBeginTime() {
+        return beginTime;
+    }
+
+    public void setBeginTime(String beginTime) {
+        this.beginTime = beginTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getNodeAddress() {
+        return nodeAddress;
+    }
+
+    public void setNodeAddress(String nodeAddress) {
+        this.nodeAddress = nodeAddress;
+    }
+
+    public String getFillCursor() {
+        return fillCursor;
+    }
+
+    public void setFillCursor(String fillCursor) {
+        this.fillCursor = fillCursor;
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dtstack.taier.dao.domain.ScheduleJobLogQueue;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+public interface ScheduleJobLogQueueMapper extends BaseMapper<ScheduleJobLogQueue> {
+
+    /**
+     * 批量暂存，同一个实例只保留一条
+     */
+    Integer insertIgnoreBatch(@Param("logQueues") List<ScheduleJobLogQueue> logQueues);
+
+    /**
+     * 把节点暂存的请求转移到其他节点
+     */
+    Integer updateNodeAddress(@Param("nodeAddress") String nodeAddress, @Param("targetAddress") String targetAddress, @Param("limit") Integer limit);
+
+    /**
+     * 按写入顺序查询节点暂存的请求
+     */
+    List<ScheduleJobLogQueue> listByNodeAddress(@Param("nodeAddress") String nodeAddress, @Param("limit") Integer limit);
+}
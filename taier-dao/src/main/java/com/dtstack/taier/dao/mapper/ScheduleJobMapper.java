@@ -21,6 +21,7 @@ package com.dtstack.taier.dao.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.dtstack.taier.dao.domain.ScheduleJob;
 import com.dtstack.taier.dao.domain.po.CountFillDataJobStatusPO;
+import com.dtstack.taier.dao.domain.po.IdRangePO;
 import com.dtstack.taier.dao.domain.po.JobsStatusStatisticsPO;
 import com.dtstack.taier.dao.domain.po.SimpleScheduleJobPO;
 import com.dtstack.taier.dao.domain.po.StatusCountPO;
@@ -130,5 +131,47 @@ public interface ScheduleJobMapper extends BaseMapper<ScheduleJob> {
      */
     Integer updateJobStatusAndExecTime(@Param("jobId") String jobId, @Param("status") int status);
 
+    /**
+     * 按实例分别更新状态，一条语句完成
+     *
+     * @param jobs 实例 id 和目标状态
+     * @return 更新数
+     */
+    Integer updateJobStatusByCase(@Param("jobs") List<ScheduleJob> jobs);
+
+    /**
+     * 按实例分别更新状态和运行时间，一条语句完成，用于结束状态
+     *
+     * @param jobs 实例 id 和目标状态
+     * @return 更新数
+     */
+    Integer updateJobStatusAndExecTimeByCase(@Param("jobs") List<ScheduleJob> jobs);
+
+    /**
+     * 统计节点上未完成实例的 id 范围，node_address 为空的实例也算在内
+     *
+     * @param nodeAddress 节点
+     * @param statuses    未完成状态
+     * @param type        实例类型
+     * @return id 范围和数量
+     */
+    IdRangePO getIdRangeByStatusAddress(@Param("nodeAddress") String nodeAddress, @Param("statuses") List<Integer> statuses, @Param("type") Integer type);
+
+    /**
+     * 把 id 范围内节点上的未完成实例迁移到目标节点，已入队的实例重置为未入队
+     *
+     * @param startId       开始id(包含)
+     * @param endId         结束id(包含)
+     * @param nodeAddress   原节点
+     * @param statuses      未完成状态
+     * @param type          实例类型
+     * @param targetAddress 目标节点
+     * @param joinTheTeam   已入队
+     * @param create        未入队
+     * @return 更新数
+     */
+    Integer updateNodeAddressByIdRange(@Param("startId") Long startId, @Param("endId") Long endId, @Param("nodeAddress") String nodeAddress,
+                                       @Param("statuses") List<Integer> statuses, @Param("type") Integer type, @Param("targetAddress") String targetAddress,
+                                       @Param("joinTheTeam") Integer joinTheTeam, @Param("create") Integer create);
 
 }
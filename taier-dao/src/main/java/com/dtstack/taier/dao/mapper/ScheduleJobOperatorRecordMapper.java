@@ -51,5 +51,16 @@ public interface ScheduleJobOperatorRecordMapper extends BaseMapper<ScheduleJobO
 
     Integer insertIgnoreBatch(@Param("records") Collection<ScheduleJobOperatorRecord> records);
 
+    /**
+     * 操作记录跟随 id 范围内已经迁移到目标节点的实例
+     *
+     * @param startId     实例开始id(包含)
+     * @param endId       实例结束id(包含)
+     * @param type        实例类型
+     * @param nodeAddress 目标节点
+     * @return 更新数
+     */
+    Integer updateNodeAddressByJobIdRange(@Param("startId") Long startId, @Param("endId") Long endId, @Param("type") Integer type, @Param("nodeAddress") String nodeAddress);
+
 
 }
@@ -26,7 +26,9 @@ import com.dtstack.taier.develop.mapstruct.job.ActionMapStructTransfer;
 import com.dtstack.taier.develop.service.schedule.ActionService;
 import com.dtstack.taier.develop.service.schedule.JobService;
 import com.dtstack.taier.develop.vo.schedule.ActionJobKillVO;
+import com.dtstack.taier.develop.vo.schedule.QueryEngineLogVO;
 import com.dtstack.taier.develop.vo.schedule.QueryJobLogVO;
+import com.dtstack.taier.develop.vo.schedule.ReturnEngineLogVO;
 import com.dtstack.taier.develop.vo.schedule.ReturnJobLogVO;
 import com.dtstack.taier.pluginapi.constrant.ConfigConstant;
 import com.dtstack.taier.pluginapi.enums.TaskStatus;
@@ -131,6 +133,23 @@ public class OperationActionController {
         return R.ok(actionService.queryJobLog(vo.getJobId(), vo.getPageInfo()));
     }
 
+    @ApiOperation(value = "按范围查看实例引擎日志")
+    @PostMapping(value = "/queryEngineLog")
+    public R<ReturnEngineLogVO> queryEngineLog(@RequestBody @Valid QueryEngineLogVO vo, HttpServletResponse response) {
+        ScheduleJob job = jobService.getScheduleJob(vo.getJobId());
+        if (Objects.isNull(job)) {
+            return null;
+        }
+        // 本地文件存储的日志只在获取日志的节点上
+        String nodeAddress = job.getNodeAddress();
+        if (!environmentContext.getLocalAddress().equalsIgnoreCase(nodeAddress)) {
+            response.setHeader("location", String.format("http://%s%s%s", nodeAddress, ConfigConstant.REQUEST_PREFIX, "/action/queryEngineLog"));
+            response.setStatus(HttpStatus.SC_TEMPORARY_REDIRECT);
+            return null;
+        }
+        return R.ok(actionService.queryEngineLog(vo.getJobId(), vo.getOffset(), vo.getLength()));
+    }
+
     @ApiOperation(value = "查看实例状态")
     @PostMapping(value = "/status")
     @ApiImplicitParams({
@@ -26,6 +26,7 @@ import com.dtstack.taier.develop.service.develop.ITaskRunner;
 import com.dtstack.taier.develop.service.develop.TaskConfiguration;
 import com.dtstack.taier.develop.service.schedule.JobExpandService;
 import com.dtstack.taier.develop.utils.develop.common.IDownload;
+import com.dtstack.taier.scheduler.service.ScheduleJobExpandService;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,9 @@ public class DevelopDownloadService {
     @Autowired
     private JobExpandService jobExpandService;
 
+    @Autowired
+    private ScheduleJobExpandService scheduleJobExpandService;
+
     @Autowired
     private TaskConfiguration taskConfiguration;
 
@@ -165,9 +169,10 @@ public class DevelopDownloadService {
                     log.append(scheduleJobExpand.getLogInfo().replace("\\n", "\n").replace("\\t", " "));
                 }
                 log.append("\n\n\n");
-                if (StringUtils.isNotBlank(scheduleJobExpand.getEngineLog())) {
+                String engineLog = scheduleJobExpandService.getFullEngineLog(scheduleJobExpand);
+                if (StringUtils.isNotBlank(engineLog)) {
                     log.append("=====================运行日志========================\n");
-                    log.append(scheduleJobExpand.getEngineLog().replace("\\n", "\n").replace("\\t", " "));
+                    log.append(engineLog.replace("\\n", "\n").replace("\\t", " "));
                     log.append("\n\n\n");
                 }
             }
@@ -33,6 +33,7 @@ import com.dtstack.taier.dao.domain.ScheduleJobExpand;
 import com.dtstack.taier.dao.domain.ScheduleTaskShade;
 import com.dtstack.taier.dao.dto.ScheduleTaskParamShade;
 import com.dtstack.taier.develop.service.develop.impl.DevelopServerLogService;
+import com.dtstack.taier.develop.vo.schedule.ReturnEngineLogVO;
 import com.dtstack.taier.develop.vo.schedule.ReturnJobLogVO;
 import com.dtstack.taier.pluginapi.enums.EDeployMode;
 import com.dtstack.taier.scheduler.dto.schedule.ActionJobKillDTO;
@@ -40,6 +41,7 @@ import com.dtstack.taier.scheduler.enums.RestartType;
 import com.dtstack.taier.scheduler.jobdealer.JobStopDealer;
 import com.dtstack.taier.scheduler.server.action.restart.RestartJobRunnable;
 import com.dtstack.taier.scheduler.server.pipeline.JobParamReplace;
+import com.dtstack.taier.scheduler.service.ScheduleJobExpandService;
 import com.dtstack.taier.scheduler.service.ScheduleTaskShadeInfoService;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
@@ -96,6 +98,9 @@ public class ActionService {
     @Autowired
     private DevelopServerLogService developServerLogService;
 
+    @Autowired
+    private ScheduleJobExpandService scheduleJobExpandService;
+
     /**
      * 重跑实例
      *
@@ -155,6 +160,26 @@ public class ActionService {
         return jobStopDealer.addStopJobs(scheduleJobList);
     }
 
+    /**
+     * 按范围查看实例的完整引擎日志，扩展表中只保存了日志摘要时用于分页展示
+     *
+     * @param jobId  实例id
+     * @param offset 开始位置(字符)
+     * @param length 读取的字符数，不超过 job.log.chunk.size
+     * @return 日志片段
+     */
+    public ReturnEngineLogVO queryEngineLog(String jobId, Long offset, Integer length) {
+        long start = offset == null ? 0L : Math.max(0L, offset);
+        int chunkSize = environmentContext.getJobLogChunkSize();
+        int readLength = length == null || length <= 0 ? chunkSize : Math.min(length, chunkSize);
+
+        ReturnEngineLogVO engineLogVO = new ReturnEngineLogVO();
+        engineLogVO.setOffset(start);
+        engineLogVO.setTotalLength(scheduleJobExpandService.getEngineLogLength(jobId));
+        engineLogVO.setEngineLog(scheduleJobExpandService.getEngineLog(jobId, start, readLength));
+        return engineLogVO;
+    }
+
     /**
      * 查看周期实例日志
      *
@@ -211,6 +236,7 @@ public class ActionService {
             if (scheduleJobExpand != null) {
                 jobLogVO.setLogInfo(scheduleJobExpand.getLogInfo());
                 jobLogVO.setEngineLog(scheduleJobExpand.getEngineLog());
+                jobLogVO.setEngineLogLength(scheduleJobExpandService.getEngineLogLength(jobId));
             }
             if (EComponentType.SCRIPT.equals(EScheduleJobType.getByTaskType(scheduleJob.getTaskType()).getComponentType()) || EComponentType.DATAX.equals(EScheduleJobType.getByTaskType(scheduleJob.getTaskType()).getComponentType())) {
                 String jobExtraInfo = scheduleJobExpand.getJobExtraInfo();
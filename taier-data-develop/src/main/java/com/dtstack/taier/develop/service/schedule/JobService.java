@@ -24,6 +24,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.dtstack.taier.common.enums.Deleted;
 import com.dtstack.taier.common.enums.EScheduleType;
+import com.dtstack.taier.common.env.EnvironmentContext;
 import com.dtstack.taier.common.exception.ErrorCode;
 import com.dtstack.taier.common.exception.TaierDefineException;
 import com.dtstack.taier.dao.domain.ScheduleFillDataJob;
@@ -107,6 +108,10 @@ public class JobService extends ServiceImpl<ScheduleJobMapper, ScheduleJob> {
 
     @Autowired
     private FillStatusUpdateFinishEvent fillStatusUpdateFinishEvent;
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
     /**
      * 查询周期实例列表
      *
@@ -470,6 +475,9 @@ public class JobService extends ServiceImpl<ScheduleJobMapper, ScheduleJob> {
 
         scheduleFillDataJob.setFillDataInfo(JSON.toJSONString(scheduleFillJobParticipateDTO.getFillDataInfo()));
         scheduleFillDataJob.setFillGenerateStatus(FillGeneratStatusEnum.REALLY_GENERATED.getType());
+        scheduleFillDataJob.setBeginTime(scheduleFillJobParticipateDTO.getBeginTime());
+        scheduleFillDataJob.setEndTime(scheduleFillJobParticipateDTO.getEndTime());
+        scheduleFillDataJob.setNodeAddress(environmentContext.getLocalAddress());
         scheduleFillDataJob.setFromDay(scheduleFillJobParticipateDTO.getStartDay());
         scheduleFillDataJob.setToDay(scheduleFillJobParticipateDTO.getEndDay());
         scheduleFillDataJob.setJobName(scheduleFillJobParticipateDTO.getFillName());
@@ -20,22 +20,21 @@ package com.dtstack.taier.develop.utils.develop.service.impl;
 
 import com.dtstack.taier.datasource.api.base.ClientCache;
 import com.dtstack.taier.datasource.api.client.IClient;
+import com.dtstack.taier.datasource.api.dto.ResultTable;
 import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.dto.source.ISourceDTO;
 import com.dtstack.taier.datasource.api.dto.source.RdbmsSourceDTO;
 import com.dtstack.taier.datasource.api.source.DataSourceType;
 import com.dtstack.taier.datasource.api.utils.DBUtil;
 import com.dtstack.taier.develop.service.develop.IJdbcService;
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * @author chener
@@ -81,21 +80,20 @@ public class JdbcServiceImpl implements IJdbcService {
         // 处理 variables SQL
         try {
             sourceDTO.setConnection(con);
-            List<Map<String, Object>> list = new ArrayList<>();
+            ResultTable resultTable = null;
             for (int i = 0; i < sqls.size(); i++) {
                 LOGGER.info("jdbc run sql:{}", sqls.get(i));
                 client.executeSqlWithoutResultSet(sourceDTO, SqlQueryDTO.builder().sql(sqls.get(i)).build());
                 if (i == sqls.size() - 1) {
-                    list = client.executeQuery(sourceDTO, SqlQueryDTO.builder().sql(sqls.get(i)).limit(limit).build());
+                    resultTable = client.executeQueryTable(sourceDTO, SqlQueryDTO.builder().sql(sqls.get(i)).limit(limit).build());
                 }
             }
 
-            //数据源插件化 查询出值不符合要求  进行转化
-            if (CollectionUtils.isNotEmpty(list)) {
-                returnList.add(list.get(0).keySet().stream().collect(Collectors.toList()));
-                for (Map<String, Object> result : list) {
-                    List<Object> value = new ArrayList<>(result.values());
-                    returnList.add(value);
+            // 第一行为字段名, 之后每行为数据
+            if (resultTable != null && resultTable.getRowCount() > 0) {
+                returnList.add(new ArrayList<>(resultTable.getColumnNames()));
+                for (int i = 0; i < resultTable.getRowCount(); i++) {
+                    returnList.add(new ArrayList<>(Arrays.asList(resultTable.getRow(i))));
                 }
             }
         } finally {
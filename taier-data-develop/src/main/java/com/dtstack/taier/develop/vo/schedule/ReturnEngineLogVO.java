@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.develop.vo.schedule;
+
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * 按范围读取的引擎日志
+ */
+public class ReturnEngineLogVO {
+
+    @ApiModelProperty(value = "引擎日志片段", example = "123")
+    private String engineLog;
+
+    @ApiModelProperty(value = "片段开始位置(字符)", example = "0")
+    private Long offset;
+
+    @ApiModelProperty(value = "引擎日志总字符数", example = "1048576")
+    private Long totalLength;
+
+    public String getEngineLog() {
+        return engineLog;
+    }
+
+    public void setEngineLog(String engineLog) {
+        this.engineLog = engineLog;
+    }
+
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    public Long getTotalLength() {
+        return totalLength;
+    }
+
+    public void setTotalLength(Long totalLength) {
+        this.totalLength = totalLength;
+    }
+}
@@ -34,6 +34,9 @@ public class ReturnJobLogVO {
     @ApiModelProperty(value = "引擎日志",example = "123")
     private String engineLog;
 
+    @ApiModelProperty(value = "引擎日志总字符数，大于 engineLog 长度时通过 queryEngineLog 按范围读取",example = "1048576")
+    private Long engineLogLength;
+
     @ApiModelProperty(value = "任务信息",example = "select...")
     private String sqlText;
 
@@ -81,6 +84,14 @@ public class ReturnJobLogVO {
         this.engineLog = engineLog;
     }
 
+    public Long getEngineLogLength() {
+        return engineLogLength;
+    }
+
+    public void setEngineLogLength(Long engineLogLength) {
+        this.engineLogLength = engineLogLength;
+    }
+
     public String getSqlText() {
         return sqlText;
     }
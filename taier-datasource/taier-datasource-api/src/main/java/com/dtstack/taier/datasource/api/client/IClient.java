@@ -22,6 +22,7 @@ import com.dtstack.taier.datasource.api.base.Client;
 import com.dtstack.taier.datasource.api.downloader.IDownloader;
 import com.dtstack.taier.datasource.api.dto.ColumnMetaDTO;
 import com.dtstack.taier.datasource.api.dto.Database;
+import com.dtstack.taier.datasource.api.dto.ResultTable;
 import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.dto.Table;
 import com.dtstack.taier.datasource.api.dto.TableInfo;
@@ -67,6 +68,16 @@ public interface IClient extends Client {
      */
     List<Map<String, Object>> executeQuery(ISourceDTO source, SqlQueryDTO queryDTO);
 
+    /**
+     * 执行 sql, 返回结果表, 字段名只保存一份, 每行数据为数组
+     * <p>sql: 需要执行的 sql {@link SqlQueryDTO#setSql}
+     *
+     * @param source   数据源信息
+     * @param queryDTO sql 执行条件
+     * @return sql 执行结果
+     */
+    ResultTable executeQueryTable(ISourceDTO source, SqlQueryDTO queryDTO);
+
     /**
      * 执行查询,engine plugin迁移至此
      *
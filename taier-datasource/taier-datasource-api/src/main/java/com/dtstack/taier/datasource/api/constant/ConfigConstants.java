@@ -44,4 +44,6 @@ public final class ConfigConstants {
     public static final String EXECUTE_POOL_MAX_SIZE = CONFIG_PREFIX + "executePoolMaxSize";
     public static final String EXECUTE_POOL_KEEPALIVE_TIME = CONFIG_PREFIX + "executeKeepaliveTime";
     public static final String EXECUTE_POOL_QUEUE_SIZE = CONFIG_PREFIX + "executeQueueSize";
+    public static final String EXECUTE_POOL_MAX_LIMIT = CONFIG_PREFIX + "executePoolMaxLimit";
+    public static final String ASYNC_METHODS = CONFIG_PREFIX + "asyncMethods";
 }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.datasource.api.dto;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * sql 查询结果表
+ * <p>
+ * 字段名、字段类型只保存一份，每行数据保存为按字段顺序排列的数组，
+ * 避免 {@code List<Map<String, Object>>} 每行都创建 map 并重复保存字段名。
+ * 需要旧格式的调用方通过 {@link #toMapList()} 转换
+ */
+public class ResultTable {
+
+    /**
+     * 字段名, 重复字段已经按 字段名(n) 区分
+     */
+    private final List<String> columnNames;
+
+    /**
+     * 字段类型, 和 columnNames 一一对应, 无法获取时为 null
+     */
+    private final List<String> columnTypes;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    public ResultTable(List<String> columnNames, List<String> columnTypes) {
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.columnTypes = columnTypes == null ?
+                Collections.nCopies(columnNames.size(), null) : Collections.unmodifiableList(new ArrayList<>(columnTypes));
+    }
+
+    /**
+     * 没有结果集的执行结果, 如 ddl、dml
+     *
+     * @return 空结果表
+     */
+    public static ResultTable empty() {
+        return new ResultTable(Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * 将旧格式的查询结果转换为结果表, 字段以第一行为准
+     *
+     * @param mapList 旧格式查询结果
+     * @return 结果表
+     */
+    public static ResultTable fromMapList(List<Map<String, Object>> mapList) {
+        if (mapList == null || mapList.isEmpty()) {
+            return empty();
+        }
+        List<String> columnNames = new ArrayList<>(mapList.get(0).keySet());
+        ResultTable table = new ResultTable(columnNames, null);
+        for (Map<String, Object> map : mapList) {
+            Object[] row = new Object[columnNames.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = map.get(columnNames.get(i));
+            }
+            table.addRow(row);
+        }
+        return table;
+    }
+
+    /**
+     * 追加一行数据
+     *
+     * @param row 按字段顺序排列的数据
+     */
+    public void addRow(Object[] row) {
+        if (row.length != columnNames.size()) {
+            throw new IllegalArgumentException(String.format("row size %s not match column size %s", row.length, columnNames.size()));
+        }
+        rows.add(row);
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public List<String> getColumnTypes() {
+        return columnTypes;
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * 获取指定位置的值
+     *
+     * @param rowIndex    行号, 从 0 开始
+     * @param columnIndex 列号, 从 0 开始
+     * @return 值
+     */
+    public Object getValue(int rowIndex, int columnIndex) {
+        return rows.get(rowIndex)[columnIndex];
+    }
+
+    /**
+     * 获取第 rowIndex 行数据, 返回的数组不允许修改
+     */
+    public Object[] getRow(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    /**
+     * 按行返回数据, 不复制数据
+     *
+     * @return 每行数据的 list 视图
+     */
+    public List<List<Object>> getRows() {
+        return new AbstractList<List<Object>>() {
+            @Override
+            public List<Object> get(int index) {
+                return Collections.unmodifiableList(Arrays.asList(rows.get(index)));
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    /**
+     * 转换为旧格式的查询结果, 兼容 {@code executeQuery} 的调用方
+     *
+     * @return 每行一个 map 的查询结果
+     */
+    public List<Map<String, Object>> toMapList() {
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        int columnCount = columnNames.size();
+        for (Object[] row : rows) {
+            Map<String, Object> map = new LinkedHashMap<>((int) (columnCount / 0.75f) + 1);
+            for (int i = 0; i < columnCount; i++) {
+                map.put(columnNames.get(i), row[i]);
+            }
+            result.add(map);
+        }
+        return result;
+    }
+}
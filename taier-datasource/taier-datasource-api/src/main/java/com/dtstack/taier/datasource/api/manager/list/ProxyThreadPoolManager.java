@@ -31,6 +31,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -92,17 +94,65 @@ public class ProxyThreadPoolManager extends AbstractManager {
      * @return 线程池
      */
     public ThreadPoolExecutor getThreadPoolExecutor(ClassLoader classLoader) {
+        ThreadPoolExecutor executor = threadPoolExecutorMap.get(classLoader);
+        if (executor != null) {
+            return executor;
+        }
+        return threadPoolExecutorMap.computeIfAbsent(classLoader, this::createThreadPoolExecutor);
+    }
+
+    private ThreadPoolExecutor createThreadPoolExecutor(ClassLoader classLoader) {
         String pluginName = getManagerFactory().getManager(ClassloaderManager.class).getPluginNameByClassloader(classLoader);
-        ProxyThreadFactory proxyThreadFactory = new ProxyThreadFactory(classLoader, pluginName);
         Config config = getRuntimeContext().getConfig();
-        return threadPoolExecutorMap.computeIfAbsent(
-                classLoader,
-                key -> new ThreadPoolExecutor(
-                        config.getConfig(ConfigConstants.EXECUTE_POOL_CORE_SIZE, Integer.class, 10),
-                        config.getConfig(ConfigConstants.EXECUTE_POOL_MAX_SIZE, Integer.class, 10),
-                        config.getConfig(ConfigConstants.EXECUTE_POOL_KEEPALIVE_TIME, Integer.class, 10),
-                        TimeUnit.SECONDS,
-                        new ArrayBlockingQueue<>(config.getConfig(ConfigConstants.EXECUTE_POOL_QUEUE_SIZE, Integer.class, 100)),
-                        proxyThreadFactory));
+        int maxSize = config.getConfig(ConfigConstants.EXECUTE_POOL_MAX_SIZE, Integer.class, 10);
+        int maxLimit = Math.max(maxSize, config.getConfig(ConfigConstants.EXECUTE_POOL_MAX_LIMIT, Integer.class, 50));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                config.getConfig(ConfigConstants.EXECUTE_POOL_CORE_SIZE, Integer.class, 10),
+                maxSize,
+                config.getConfig(ConfigConstants.EXECUTE_POOL_KEEPALIVE_TIME, Integer.class, 10),
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getConfig(ConfigConstants.EXECUTE_POOL_QUEUE_SIZE, Integer.class, 100)),
+                new ProxyThreadFactory(classLoader, pluginName),
+                new ExpandOnRejectPolicy(pluginName, maxLimit));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 线程和队列都满时按拒绝情况扩容线程池, 直到 executePoolMaxLimit, 空闲线程超时后自动回收
+     */
+    private static class ExpandOnRejectPolicy implements RejectedExecutionHandler {
+
+        private final String pluginName;
+
+        private final int maxLimit;
+
+        private ExpandOnRejectPolicy(String pluginName, int maxLimit) {
+            this.pluginName = pluginName;
+            this.maxLimit = maxLimit;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("proxy thread pool of " + pluginName + " is shutdown");
+            }
+            synchronized (this) {
+                int maxSize = executor.getMaximumPoolSize();
+                // 其他被拒绝的任务可能已经完成扩容, 还有空余线程时直接重新提交
+                if (executor.getPoolSize() >= maxSize) {
+                    if (maxSize >= maxLimit) {
+                        throw new RejectedExecutionException(String.format("proxy thread pool of %s is full, active: %s, queue: %s, max: %s",
+                                pluginName, executor.getActiveCount(), executor.getQueue().size(), maxSize));
+                    }
+                    int newSize = Math.min(maxLimit, Math.max(maxSize + 1, maxSize * 2));
+                    executor.setMaximumPoolSize(newSize);
+                    executor.setCorePoolSize(newSize);
+                    log.warn("proxy thread pool of {} is full, expand pool size from {} to {}, active: {}, queue: {}, completed: {}",
+                            pluginName, maxSize, newSize, executor.getActiveCount(), executor.getQueue().size(), executor.getCompletedTaskCount());
+                }
+            }
+            executor.execute(r);
+        }
     }
 }
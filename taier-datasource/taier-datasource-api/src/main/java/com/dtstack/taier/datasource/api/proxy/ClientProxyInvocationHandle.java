@@ -25,14 +25,22 @@ import com.dtstack.taier.datasource.api.manager.ManagerFactory;
 import com.dtstack.taier.datasource.api.manager.list.ProxyThreadPoolManager;
 import com.dtstack.taier.datasource.api.utils.ClassloaderUtils;
 import com.dtstack.taier.datasource.api.utils.RetryUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 动态代理 client, 提供 client 一些通用处理的能力, 如重试、方法执行超时等
+ * <p>
+ * 每个方法的重试、超时配置和是否需要异步执行在第一次调用时计算并缓存,
+ * 只有 taier.datasource.asyncMethods 配置的方法(默认执行 sql、预览、下载等耗时方法)交给线程池执行并控制超时,
+ * 其余元数据方法在调用线程切换 classloader 后直接执行
  *
  * @author ：wangchuan
  * date：Created in 13:46 2022/9/23
@@ -40,12 +48,21 @@ import java.lang.reflect.Proxy;
  */
 public class ClientProxyInvocationHandle<T> implements InvocationHandler {
 
+    /**
+     * 默认需要异步执行的方法名前缀, 配置为 * 时所有方法都异步执行
+     */
+    private static final String DEFAULT_ASYNC_METHODS = "execute,getPreview,getDownloader,writeByFile";
+
+    private static final String ALL_METHODS = "*";
+
     private final T client;
 
     private final Config config;
 
     private final ManagerFactory managerFactory;
 
+    private final Map<Method, InvocationPlan> invocationPlans = new ConcurrentHashMap<>();
+
     public ClientProxyInvocationHandle(T client, Config config, ManagerFactory managerFactory) {
         this.client = client;
         this.config = config;
@@ -59,35 +76,27 @@ public class ClientProxyInvocationHandle<T> implements InvocationHandler {
     }
 
     protected Object invokeMethod(Method method, Object[] args) throws Throwable {
+        InvocationPlan plan = invocationPlans.computeIfAbsent(method, this::buildPlan);
         try {
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
-            // 重试次数
-            Integer retryTimes = config.getConfig(ConfigConstants.RETRY_TIMES, Integer.class, 1);
-            Long retryIntervalTime = config.getConfig(ConfigConstants.RETRY_INTERVAL_TIME, Long.class, 1000L);
-            Long executeTimeout;
-            // sql 执行超时时间设置为 5 小时
-            if (method.getName().contains("executeBatchQuery")) {
-                executeTimeout = config.getConfig(ConfigConstants.SQL_EXECUTE_TIMEOUT, Long.class, 5 * 60 * 60 * 1000L);
+            Object result;
+            if (plan.async) {
+                result = RetryUtils.asyncExecuteWithRetry(() -> {
+                            try {
+                                return method.invoke(client, args);
+                            } catch (InvocationTargetException e) {
+                                Throwable targetException = e.getTargetException();
+                                throw new Exception(targetException);
+                            }
+                        },
+                        plan.retryTimes,
+                        plan.retryIntervalTime,
+                        false,
+                        plan.executeTimeout,
+                        managerFactory.getManager(ProxyThreadPoolManager.class).getThreadPoolExecutor(client.getClass().getClassLoader()));
             } else {
-                executeTimeout = config.getConfig(ConfigConstants.EXECUTE_TIMEOUT, Long.class, 5 * 60 * 1000L);
+                result = executeDirect(() -> method.invoke(client, args), plan);
             }
 
-            Object result = RetryUtils.asyncExecuteWithRetry(() -> {
-                        try {
-                            return method.invoke(client, args);
-                        } catch (InvocationTargetException e) {
-                            Throwable targetException = e.getTargetException();
-                            throw new Exception(targetException);
-                        }
-                    },
-                    retryTimes,
-                    retryIntervalTime,
-                    false,
-                    executeTimeout,
-                    managerFactory.getManager(ProxyThreadPoolManager.class).getThreadPoolExecutor(client.getClass().getClassLoader()));
-
             // 如果返回值是 IDownloader 的子类, 则需要返回该子类对象的代理类, 在调用内部方法时设置线程上下文类加载器为加载插件的 ChildFirstClassLoader
             if (result instanceof IDownloader) {
                 ClassLoader oldClassLoader = result.getClass().getClassLoader();
@@ -103,4 +112,70 @@ public class ClientProxyInvocationHandle<T> implements InvocationHandler {
             throw e.getCause();
         }
     }
+
+    /**
+     * 在调用线程执行, 执行期间线程上下文类加载器切换为加载插件的 classloader
+     */
+    private Object executeDirect(Callable<Object> callable, InvocationPlan plan) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader oldClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(client.getClass().getClassLoader());
+        try {
+            return RetryUtils.executeWithRetry(callable, plan.retryTimes, plan.retryIntervalTime, false);
+        } finally {
+            thread.setContextClassLoader(oldClassLoader);
+        }
+    }
+
+    private InvocationPlan buildPlan(Method method) {
+        if (!method.isAccessible()) {
+            method.setAccessible(true);
+        }
+        // 重试次数
+        Integer retryTimes = config.getConfig(ConfigConstants.RETRY_TIMES, Integer.class, 1);
+        Long retryIntervalTime = config.getConfig(ConfigConstants.RETRY_INTERVAL_TIME, Long.class, 1000L);
+        Long executeTimeout;
+        // sql 执行超时时间设置为 5 小时
+        if (method.getName().contains("executeBatchQuery")) {
+            executeTimeout = config.getConfig(ConfigConstants.SQL_EXECUTE_TIMEOUT, Long.class, 5 * 60 * 60 * 1000L);
+        } else {
+            executeTimeout = config.getConfig(ConfigConstants.EXECUTE_TIMEOUT, Long.class, 5 * 60 * 1000L);
+        }
+        return new InvocationPlan(retryTimes, retryIntervalTime, executeTimeout, isAsyncMethod(method.getName()));
+    }
+
+    private boolean isAsyncMethod(String methodName) {
+        String asyncMethods = config.getConfig(ConfigConstants.ASYNC_METHODS, String.class, DEFAULT_ASYNC_METHODS);
+        for (String prefix : StringUtils.split(StringUtils.defaultString(asyncMethods), ',')) {
+            String trimPrefix = prefix.trim();
+            if (ALL_METHODS.equals(trimPrefix) || (StringUtils.isNotEmpty(trimPrefix) && methodName.startsWith(trimPrefix))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 方法的执行计划
+     */
+    private static class InvocationPlan {
+
+        private final int retryTimes;
+
+        private final long retryIntervalTime;
+
+        private final long executeTimeout;
+
+        /**
+         * 是否交给线程池执行并控制超时
+         */
+        private final boolean async;
+
+        private InvocationPlan(int retryTimes, long retryIntervalTime, long executeTimeout, boolean async) {
+            this.retryTimes = retryTimes;
+            this.retryIntervalTime = retryIntervalTime;
+            this.executeTimeout = executeTimeout;
+            this.async = async;
+        }
+    }
 }
@@ -65,6 +65,23 @@ public final class RetryUtils {
         return retry.doRetry(callable, retryTimes, sleepTimeInMilliSecond, exponential);
     }
 
+    /**
+     * 在当前线程执行并且重试，不限制单次执行时间
+     *
+     * @param callable               实际逻辑
+     * @param retryTimes             最大重试次数（>1）
+     * @param sleepTimeInMilliSecond 运行失败后休眠对应时间再重试
+     * @param exponential            休眠时间是否指数递增
+     * @param <T>                    返回值类型
+     * @return 经过重试的callable的执行结果
+     */
+    public static <T> T executeWithRetry(Callable<T> callable,
+                                         int retryTimes,
+                                         long sleepTimeInMilliSecond,
+                                         boolean exponential) throws Exception {
+        return new Retry().doRetry(callable, retryTimes, sleepTimeInMilliSecond, exponential);
+    }
+
 
     /**
      * 重试抽象
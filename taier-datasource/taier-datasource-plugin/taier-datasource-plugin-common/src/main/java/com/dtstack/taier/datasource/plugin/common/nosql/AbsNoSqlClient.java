@@ -22,6 +22,7 @@ import com.dtstack.taier.datasource.plugin.common.exception.ErrorCode;
 import com.dtstack.taier.datasource.api.client.IClient;
 import com.dtstack.taier.datasource.api.dto.ColumnMetaDTO;
 import com.dtstack.taier.datasource.api.dto.Database;
+import com.dtstack.taier.datasource.api.dto.ResultTable;
 import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.dto.Table;
 import com.dtstack.taier.datasource.api.dto.WriteFileDTO;
@@ -53,6 +54,14 @@ public abstract class AbsNoSqlClient implements IClient {
         throw new SourceException(ErrorCode.NOT_SUPPORT.getDesc());
     }
 
+    /**
+     * 非关系型数据源由 {@link #executeQuery} 的结果转换
+     */
+    @Override
+    public ResultTable executeQueryTable(ISourceDTO source, SqlQueryDTO queryDTO) {
+        return ResultTable.fromMapList(executeQuery(source, queryDTO));
+    }
+
     @Override
     public Map<String, List<Map<String, Object>>> executeMultiQuery(ISourceDTO source, SqlQueryDTO queryDTO) {
         throw new SourceException(ErrorCode.NOT_SUPPORT.getDesc());
@@ -19,6 +19,7 @@
 package com.dtstack.taier.datasource.plugin.common.utils;
 
 import com.dtstack.taier.datasource.plugin.common.base.CallBack;
+import com.dtstack.taier.datasource.api.dto.ResultTable;
 import com.dtstack.taier.datasource.api.dto.SqlMultiDTO;
 import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.exception.SourceException;
@@ -35,6 +36,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
@@ -126,8 +128,41 @@ public class DBUtil {
      * @return 执行结果
      */
     public static List<Map<String, Object>> executeSql(Connection conn, String sql, Integer limit, Integer queryTimeout, Boolean setMaxRow, CallBack<Object, Object> fieldProcess) {
+        return doExecuteSql(conn, sql, limit, queryTimeout, setMaxRow,
+                (res, isSetMaxRow, maxRow) -> readMapList(res, isSetMaxRow, maxRow, fieldProcess), Lists.newArrayList());
+    }
+
+    /**
+     * 直接执行 sql, 返回结果表
+     *
+     * @param conn         jdbc connection
+     * @param sql          需要执行的 sql
+     * @param limit        限制条数
+     * @param queryTimeout 查询超时时间
+     * @param setMaxRow    是否设置最大条数
+     * @param fieldProcess 结果处理
+     * @return 执行结果
+     */
+    public static ResultTable executeSqlTable(Connection conn, String sql, Integer limit, Integer queryTimeout, Boolean setMaxRow, CallBack<Object, Object> fieldProcess) {
+        return doExecuteSql(conn, sql, limit, queryTimeout, setMaxRow,
+                (res, isSetMaxRow, maxRow) -> readResultTable(res, isSetMaxRow, maxRow, fieldProcess), ResultTable.empty());
+    }
+
+    /**
+     * 直接执行 sql, 由 reader 读取结果集
+     *
+     * @param conn         jdbc connection
+     * @param sql          需要执行的 sql
+     * @param limit        限制条数
+     * @param queryTimeout 查询超时时间
+     * @param setMaxRow    是否设置最大条数
+     * @param reader       结果集读取
+     * @param empty        没有结果集时的返回值
+     * @return 执行结果
+     */
+    private static <T> T doExecuteSql(Connection conn, String sql, Integer limit, Integer queryTimeout, Boolean setMaxRow, ResultSetReader<T> reader, T empty) {
         AssertUtils.notBlank(sql, "execute sql can't be null.");
-        List<Map<String, Object>> result = Lists.newArrayList();
+        T result = empty;
         ResultSet res = null;
         Statement statement = null;
         try {
@@ -149,30 +184,7 @@ public class DBUtil {
 
             if (statement.execute(sql)) {
                 res = statement.getResultSet();
-                int columns = res.getMetaData().getColumnCount();
-                List<String> columnName = Lists.newArrayList();
-                for (int i = 0; i < columns; i++) {
-                    columnName.add(res.getMetaData().getColumnLabel(i + 1));
-                }
-
-                int num = 0;
-                while (res.next()) {
-                    if (isSetMaxRow && num++ >= maxRow) {
-                        break;
-                    }
-                    Map<String, Object> row = Maps.newLinkedHashMap();
-                    Map<String, Integer> columnRepeatSign = Maps.newHashMap();
-                    for (int i = 0; i < columns; i++) {
-                        String column = dealRepeatColumn(row, columnName.get(i), columnRepeatSign);
-                        Object value = res.getObject(i + 1);
-                        // 增加字段处理
-                        if (Objects.nonNull(fieldProcess)) {
-                            value = fieldProcess.execute(value);
-                        }
-                        row.put(column, value);
-                    }
-                    result.add(row);
-                }
+                result = reader.read(res, isSetMaxRow, maxRow);
             }
 
         } catch (Exception e) {
@@ -196,8 +208,42 @@ public class DBUtil {
      * @return 执行的结果集
      */
     public static List<Map<String, Object>> executePreSql(Connection conn, String sql, Integer limit, List<Object> preFields, Integer queryTimeout, Boolean setMaxRow, CallBack<Object, Object> fieldProcess) {
+        return doExecutePreSql(conn, sql, limit, preFields, queryTimeout, setMaxRow,
+                (res, isSetMaxRow, maxRow) -> readMapList(res, isSetMaxRow, maxRow, fieldProcess));
+    }
+
+    /**
+     * 根据 SQL 查询, 调用 PreparedStatement 执行预编译 sql, 返回结果表
+     *
+     * @param conn         jdbc 链接
+     * @param sql          需要执行的 sql, 可以带 ? 占位符
+     * @param limit        限制条数
+     * @param preFields    预编译字段值
+     * @param queryTimeout 查询超时时间
+     * @param setMaxRow    是否设置最大返回条数
+     * @param fieldProcess 结果集处理回调
+     * @return 执行的结果集
+     */
+    public static ResultTable executePreSqlTable(Connection conn, String sql, Integer limit, List<Object> preFields, Integer queryTimeout, Boolean setMaxRow, CallBack<Object, Object> fieldProcess) {
+        return doExecutePreSql(conn, sql, limit, preFields, queryTimeout, setMaxRow,
+                (res, isSetMaxRow, maxRow) -> readResultTable(res, isSetMaxRow, maxRow, fieldProcess));
+    }
+
+    /**
+     * 调用 PreparedStatement 执行预编译 sql, 由 reader 读取结果集
+     *
+     * @param conn         jdbc 链接
+     * @param sql          需要执行的 sql, 可以带 ? 占位符
+     * @param limit        限制条数
+     * @param preFields    预编译字段值
+     * @param queryTimeout 查询超时时间
+     * @param setMaxRow    是否设置最大返回条数
+     * @param reader       结果集读取
+     * @return 执行的结果集
+     */
+    private static <T> T doExecutePreSql(Connection conn, String sql, Integer limit, List<Object> preFields, Integer queryTimeout, Boolean setMaxRow, ResultSetReader<T> reader) {
         AssertUtils.notBlank(sql, "execute sql can't be null.");
-        List<Map<String, Object>> result = Lists.newArrayList();
+        T result;
         ResultSet res = null;
         PreparedStatement statement = null;
         try {
@@ -224,38 +270,127 @@ public class DBUtil {
                 }
             }
             res = statement.executeQuery();
-            int columns = res.getMetaData().getColumnCount();
-            List<String> columnName = Lists.newArrayList();
+            result = reader.read(res, isSetMaxRow, maxRow);
+        } catch (Exception e) {
+            throw new SourceException(String.format("SQL executed exception, %s", e.getMessage()), e);
+        } finally {
+            DBUtil.closeDBResources(res, statement, null);
+        }
+        return result;
+    }
+
+    /**
+     * 读取结果集, 字段名只处理一次重复
+     *
+     * @param res          结果集
+     * @param isSetMaxRow  是否限制最大条数
+     * @param maxRow       最大条数
+     * @param fieldProcess 结果处理
+     * @return 结果表
+     * @throws SQLException 读取异常
+     */
+    private static ResultTable readResultTable(ResultSet res, boolean isSetMaxRow, int maxRow, CallBack<Object, Object> fieldProcess) throws SQLException {
+        ResultSetMetaData metaData = res.getMetaData();
+        int columns = metaData.getColumnCount();
+        List<String> columnName = readColumnName(metaData);
+        List<String> columnType = Lists.newArrayListWithCapacity(columns);
+        for (int i = 0; i < columns; i++) {
+            columnType.add(metaData.getColumnTypeName(i + 1));
+        }
+
+        ResultTable result = new ResultTable(columnName, columnType);
+        int num = 0;
+        while (res.next()) {
+            if (isSetMaxRow && num++ >= maxRow) {
+                break;
+            }
+            Object[] row = new Object[columns];
             for (int i = 0; i < columns; i++) {
-                columnName.add(res.getMetaData().getColumnLabel(i + 1));
+                Object value = res.getObject(i + 1);
+                // 增加字段处理
+                if (Objects.nonNull(fieldProcess)) {
+                    value = fieldProcess.execute(value);
+                }
+                row[i] = value;
             }
+            result.addRow(row);
+        }
+        return result;
+    }
 
-            int num = 0;
-            while (res.next()) {
-                if (isSetMaxRow && num++ >= maxRow) {
-                    break;
-                }
-                Map<String, Object> row = Maps.newLinkedHashMap();
-                Map<String, Integer> columnRepeatSign = Maps.newHashMap();
-                for (int i = 0; i < columns; i++) {
-                    String column = dealRepeatColumn(row, columnName.get(i), columnRepeatSign);
-                    Object value = res.getObject(i + 1);
-                    // 增加字段处理
-                    if (Objects.nonNull(fieldProcess)) {
-                        value = fieldProcess.execute(value);
-                    }
-                    row.put(column, value);
+    /**
+     * 读取结果集为 map 列表, 字段名只处理一次重复
+     *
+     * @param res          结果集
+     * @param isSetMaxRow  是否限制最大条数
+     * @param maxRow       最大条数
+     * @param fieldProcess 结果处理
+     * @return 执行结果
+     * @throws SQLException 读取异常
+     */
+    private static List<Map<String, Object>> readMapList(ResultSet res, boolean isSetMaxRow, int maxRow, CallBack<Object, Object> fieldProcess) throws SQLException {
+        List<String> columnName = readColumnName(res.getMetaData());
+        int columns = columnName.size();
+        List<Map<String, Object>> result = Lists.newArrayList();
+        int num = 0;
+        while (res.next()) {
+            if (isSetMaxRow && num++ >= maxRow) {
+                break;
+            }
+            Map<String, Object> row = Maps.newLinkedHashMapWithExpectedSize(columns);
+            for (int i = 0; i < columns; i++) {
+                Object value = res.getObject(i + 1);
+                // 增加字段处理
+                if (Objects.nonNull(fieldProcess)) {
+                    value = fieldProcess.execute(value);
                 }
-                result.add(row);
+                row.put(columnName.get(i), value);
             }
-        } catch (Exception e) {
-            throw new SourceException(String.format("SQL executed exception, %s", e.getMessage()), e);
-        } finally {
-            DBUtil.closeDBResources(res, statement, null);
+            result.add(row);
         }
         return result;
     }
 
+    /**
+     * 读取结果集字段名, 重复字段在 column 后增加 (1),(2)... 区分处理
+     *
+     * @param metaData 结果集元数据
+     * @return 去重后的字段名
+     * @throws SQLException 读取异常
+     */
+    private static List<String> readColumnName(ResultSetMetaData metaData) throws SQLException {
+        int columns = metaData.getColumnCount();
+        List<String> columnName = Lists.newArrayListWithCapacity(columns);
+        Map<String, Object> distinctColumn = Maps.newHashMap();
+        Map<String, Integer> columnRepeatSign = Maps.newHashMap();
+        for (int i = 0; i < columns; i++) {
+            String column = dealRepeatColumn(distinctColumn, metaData.getColumnLabel(i + 1), columnRepeatSign);
+            distinctColumn.put(column, null);
+            columnName.add(column);
+        }
+        return columnName;
+    }
+
+    /**
+     * 结果集读取
+     *
+     * @param <T> 读取结果类型
+     */
+    @FunctionalInterface
+    private interface ResultSetReader<T> {
+
+        /**
+         * 读取结果集
+         *
+         * @param res         结果集
+         * @param isSetMaxRow 是否限制最大条数
+         * @param maxRow      最大条数
+         * @return 读取结果
+         * @throws SQLException 读取异常
+         */
+        T read(ResultSet res, boolean isSetMaxRow, int maxRow) throws SQLException;
+    }
+
     /**
      * 根据 sql, 预编译执行 update、insert 等语句
      *
@@ -348,30 +483,7 @@ public class DBUtil {
                 List<Map<String, Object>> singleResult = Lists.newArrayList();
                 if (statement.execute(sqlMultiDTO.getSql())) {
                     res = statement.getResultSet();
-                    int columns = res.getMetaData().getColumnCount();
-                    List<String> columnName = Lists.newArrayList();
-                    for (int i = 0; i < columns; i++) {
-                        columnName.add(res.getMetaData().getColumnLabel(i + 1));
-                    }
-
-                    int num = 0;
-                    while (res.next()) {
-                        if (isSetMaxRow && num++ >= maxRow) {
-                            break;
-                        }
-                        Map<String, Object> row = Maps.newLinkedHashMap();
-                        Map<String, Integer> columnRepeatSign = Maps.newHashMap();
-                        for (int i = 0; i < columns; i++) {
-                            String column = dealRepeatColumn(row, columnName.get(i), columnRepeatSign);
-                            Object value = res.getObject(i + 1);
-                            // 增加字段处理
-                            if (Objects.nonNull(fieldProcess)) {
-                                value = fieldProcess.execute(value);
-                            }
-                            row.put(column, value);
-                        }
-                        singleResult.add(row);
-                    }
+                    singleResult = readMapList(res, isSetMaxRow, maxRow, fieldProcess);
                 }
                 result.put(sqlMultiDTO.getUniqueKey(), singleResult);
             }
@@ -38,6 +38,30 @@ public class EnvUtil {
     // 测试连通性超时时间。单位：秒
     private final static int TEST_CONN_TIMEOUT = 30;
 
+    /**
+     * 单个插件内 hikari 连接池最大个数对应环境变量
+     */
+    private final static String HIKARI_MAX_POOLS_KEY = "LOADER_HIKARI_MAX_POOLS";
+
+    // hikari 连接池最大个数
+    private final static int HIKARI_MAX_POOLS = 64;
+
+    /**
+     * 单个插件内所有 hikari 连接池最大连接数之和对应环境变量
+     */
+    private final static String HIKARI_MAX_TOTAL_CONNECTIONS_KEY = "LOADER_HIKARI_MAX_TOTAL_CONNECTIONS";
+
+    // 所有 hikari 连接池最大连接数之和
+    private final static int HIKARI_MAX_TOTAL_CONNECTIONS = 512;
+
+    /**
+     * hikari 连接池空闲回收时间对应环境变量
+     */
+    private final static String HIKARI_POOL_IDLE_TIMEOUT_KEY = "LOADER_HIKARI_POOL_IDLE_TIMEOUT";
+
+    // hikari 连接池空闲回收时间。单位：秒
+    private final static int HIKARI_POOL_IDLE_TIMEOUT = 30 * 60;
+
     /**
      * 获取测试连通性超时时间
      *
@@ -54,9 +78,40 @@ public class EnvUtil {
      * @return 超时时间
      */
     public static int getTestConnTimeout(int def) {
-        String timeout = System.getenv(TEST_CONN_TIMEOUT_KEY);
-        if (StringUtils.isNotBlank(timeout) && NumberUtils.isNumber(timeout)) {
-            return NumberUtils.toInt(timeout);
+        return getIntEnv(TEST_CONN_TIMEOUT_KEY, def);
+    }
+
+    /**
+     * 获取 hikari 连接池最大个数, 超过后按最近最少使用回收空闲连接池
+     *
+     * @return 连接池最大个数
+     */
+    public static int getHikariMaxPools() {
+        return getIntEnv(HIKARI_MAX_POOLS_KEY, HIKARI_MAX_POOLS);
+    }
+
+    /**
+     * 获取所有 hikari 连接池最大连接数之和
+     *
+     * @return 最大连接数之和
+     */
+    public static int getHikariMaxTotalConnections() {
+        return getIntEnv(HIKARI_MAX_TOTAL_CONNECTIONS_KEY, HIKARI_MAX_TOTAL_CONNECTIONS);
+    }
+
+    /**
+     * 获取 hikari 连接池空闲回收时间
+     *
+     * @return 空闲回收时间。单位：秒
+     */
+    public static int getHikariPoolIdleTimeout() {
+        return getIntEnv(HIKARI_POOL_IDLE_TIMEOUT_KEY, HIKARI_POOL_IDLE_TIMEOUT);
+    }
+
+    private static int getIntEnv(String key, int def) {
+        String value = System.getenv(key);
+        if (StringUtils.isNotBlank(value) && NumberUtils.isNumber(value)) {
+            return NumberUtils.toInt(value);
         }
         return def;
     }
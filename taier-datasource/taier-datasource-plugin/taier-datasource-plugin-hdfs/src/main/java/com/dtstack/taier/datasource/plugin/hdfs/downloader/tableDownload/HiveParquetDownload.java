@@ -22,10 +22,9 @@ import com.dtstack.taier.datasource.plugin.common.enums.ColumnType;
 import com.dtstack.taier.datasource.plugin.common.utils.ListUtil;
 import com.dtstack.taier.datasource.plugin.common.utils.StringUtil;
 import com.dtstack.taier.datasource.plugin.kerberos.core.hdfs.HdfsOperator;
-import com.dtstack.taier.datasource.plugin.kerberos.core.util.KerberosLoginUtil;
+import com.dtstack.taier.datasource.plugin.kerberos.core.hdfs.HdfsRowBuffer;
 import com.dtstack.taier.datasource.api.downloader.IDownloader;
 import com.dtstack.taier.datasource.api.dto.ColumnMetaDTO;
-import com.dtstack.taier.datasource.api.exception.SourceException;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
@@ -47,7 +46,6 @@ import org.apache.parquet.schema.Type;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.security.PrivilegedAction;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -100,6 +98,8 @@ public class HiveParquetDownload implements IDownloader {
 
     private final Map<String, Object> kerberosConfig;
 
+    private final HdfsRowBuffer rowBuffer;
+
     /**
      * 按分区下载
      */
@@ -123,6 +123,7 @@ public class HiveParquetDownload implements IDownloader {
         this.filterPartition = filterPartition;
         this.partitions = partitions;
         this.kerberosConfig = kerberosConfig;
+        this.rowBuffer = new HdfsRowBuffer(kerberosConfig, this::readRow);
     }
 
     @Override
@@ -188,14 +189,17 @@ public class HiveParquetDownload implements IDownloader {
 
     @Override
     public List<String> readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new SourceException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        return rowBuffer.poll();
+    }
+
+    /**
+     * 读取下一行，在 {@link HdfsRowBuffer} 的 UGI 中批量调用
+     */
+    private List<String> readRow() throws Exception {
+        if (!nextRecord()) {
+            return null;
+        }
+        return readNextWithKerberos();
     }
 
     private List<String> readNextWithKerberos() {
@@ -373,14 +377,7 @@ public class HiveParquetDownload implements IDownloader {
 
     @Override
     public boolean reachedEnd() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<Boolean>) ()->{
-                    try {
-                        return !nextRecord();
-                    } catch (Exception e){
-                        throw new SourceException(String.format("Download file is abnormal,%s", e.getMessage()), e);
-                    }
-                });
+        return rowBuffer.reachedEnd();
     }
 
     @Override
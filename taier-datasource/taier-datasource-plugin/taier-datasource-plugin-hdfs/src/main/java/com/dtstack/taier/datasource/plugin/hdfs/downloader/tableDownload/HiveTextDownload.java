@@ -21,7 +21,7 @@ package com.dtstack.taier.datasource.plugin.hdfs.downloader.tableDownload;
 import com.dtstack.taier.datasource.plugin.common.utils.HiveUtil;
 import com.dtstack.taier.datasource.plugin.common.utils.ListUtil;
 import com.dtstack.taier.datasource.plugin.kerberos.core.hdfs.HdfsOperator;
-import com.dtstack.taier.datasource.plugin.kerberos.core.util.KerberosLoginUtil;
+import com.dtstack.taier.datasource.plugin.kerberos.core.hdfs.HdfsRowBuffer;
 import com.dtstack.taier.datasource.api.downloader.IDownloader;
 import com.dtstack.taier.datasource.api.exception.SourceException;
 import com.google.common.collect.Lists;
@@ -46,7 +46,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -88,6 +87,7 @@ public class HiveTextDownload implements IDownloader {
     private int splitIndex = 0;
     private final List<String> partitionColumns;
     private final Map<String, Object> kerberosConfig;
+    private final HdfsRowBuffer rowBuffer;
 
     /**
      * 按分区下载
@@ -116,6 +116,7 @@ public class HiveTextDownload implements IDownloader {
         this.configuration = configuration;
         this.filterPartition = filterPartition;
         this.kerberosConfig = kerberosConfig;
+        this.rowBuffer = new HdfsRowBuffer(kerberosConfig, this::readRow);
         this.partitions = partitions;
         this.needIndex = needIndex;
     }
@@ -295,15 +296,18 @@ public class HiveTextDownload implements IDownloader {
     }
 
     @Override
-    public List<String> readNext(){
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new SourceException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+    public List<String> readNext() {
+        return rowBuffer.poll();
+    }
+
+    /**
+     * 读取下一行，在 {@link HdfsRowBuffer} 的 UGI 中批量调用
+     */
+    private List<String> readRow() throws IOException {
+        if (recordReader == null || !nextRecord()) {
+            return null;
+        }
+        return readNextWithKerberos();
     }
 
     public List<String> readNextWithKerberos(){
@@ -330,14 +334,7 @@ public class HiveTextDownload implements IDownloader {
 
     @Override
     public boolean reachedEnd() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<Boolean>) ()->{
-                    try {
-                        return recordReader == null || !nextRecord();
-                    } catch (Exception e){
-                        throw new SourceException(String.format("Download file is abnormal,%s", e.getMessage()), e);
-                    }
-                });
+        return rowBuffer.reachedEnd();
     }
 
     @Override
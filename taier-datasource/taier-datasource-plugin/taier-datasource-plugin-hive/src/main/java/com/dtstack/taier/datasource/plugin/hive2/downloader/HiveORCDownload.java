@@ -21,10 +21,8 @@ package com.dtstack.taier.datasource.plugin.hive2.downloader;
 import com.alibaba.fastjson.JSON;
 import com.dtstack.taier.datasource.plugin.common.utils.ListUtil;
 import com.dtstack.taier.datasource.plugin.kerberos.core.hdfs.HdfsOperator;
-import com.dtstack.taier.datasource.plugin.kerberos.core.util.KerberosLoginUtil;
+import com.dtstack.taier.datasource.plugin.kerberos.core.hdfs.HdfsRowBuffer;
 import com.dtstack.taier.datasource.api.downloader.IDownloader;
-import com.dtstack.taier.datasource.api.exception.SourceException;
-import com.google.common.collect.Lists;
 import jodd.util.StringUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
@@ -46,8 +44,8 @@ import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 
 import java.io.IOException;
-import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -82,7 +80,12 @@ public class HiveORCDownload implements IDownloader {
     private InputSplit[] splits;
     private int splitIndex = 0;
 
-    private InputSplit currentSplit;
+    /**
+     * 当前 split 的分区字段值，切换 split 时解析
+     */
+    private List<String> currentPartData = Collections.emptyList();
+
+    private final HdfsRowBuffer rowBuffer;
 
     private final List<String> partitionColumns;
 
@@ -108,6 +111,7 @@ public class HiveORCDownload implements IDownloader {
         this.needIndex = needIndex;
         this.partitions = partitions;
         this.kerberosConfig = kerberosConfig;
+        this.rowBuffer = new HdfsRowBuffer(kerberosConfig, this::readRow);
     }
 
     @Override
@@ -152,26 +156,24 @@ public class HiveORCDownload implements IDownloader {
 
     @Override
     public List<String> readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new SourceException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        return rowBuffer.poll();
+    }
+
+    /**
+     * 读取下一行，在 {@link HdfsRowBuffer} 的 UGI 中批量调用
+     */
+    private List<String> readRow() throws IOException {
+        if (recordReader == null || !nextRecord()) {
+            return null;
+        }
+        return readNextWithKerberos();
     }
 
     public List<String> readNextWithKerberos() {
         List<String> row = new ArrayList<>();
 
         // 分区字段的值
-        List<String> partitions = Lists.newArrayList();
-        if(CollectionUtils.isNotEmpty(partitionColumns)){
-            String path = ((OrcSplit)currentSplit).getPath().toString();
-            List<String> partData = HdfsOperator.parsePartitionDataFromUrl(path,partitionColumns);
-            partitions.addAll(partData);
-        }
+        List<String> partitions = currentPartData;
 
         // needIndex不为空表示获取指定字段
         if (CollectionUtils.isNotEmpty(needIndex)) {
@@ -238,7 +240,6 @@ public class HiveORCDownload implements IDownloader {
             return false;
         }
         OrcSplit orcSplit = (OrcSplit)splits[splitIndex];
-        currentSplit = splits[splitIndex];
         splitIndex++;
 
         if(recordReader != null){
@@ -250,6 +251,10 @@ public class HiveORCDownload implements IDownloader {
             return initRecordReader();
         }
 
+        if (CollectionUtils.isNotEmpty(partitionColumns)) {
+            currentPartData = HdfsOperator.parsePartitionDataFromUrl(orcSplit.getPath().toString(), partitionColumns);
+        }
+
         recordReader = inputFormat.getRecordReader(orcSplit, conf, Reporter.NULL);
         return true;
     }
@@ -268,14 +273,7 @@ public class HiveORCDownload implements IDownloader {
 
     @Override
     public boolean reachedEnd() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<Boolean>) ()->{
-                    try {
-                        return recordReader == null || !nextRecord();
-                    } catch (Exception e){
-                        throw new SourceException(String.format("Download file is abnormal,%s", e.getMessage()), e);
-                    }
-                });
+        return rowBuffer.reachedEnd();
     }
 
     @Override
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.datasource.plugin.kerberos.core.hdfs;
+
+import com.dtstack.taier.datasource.api.exception.SourceException;
+import com.dtstack.taier.datasource.plugin.kerberos.core.util.KerberosLoginUtil;
+
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * hdfs 表下载的行缓冲
+ * <p>
+ * 每次进入 kerberos UGI 连续读取一批数据放入缓冲，readNext 和 reachedEnd 只消费缓冲，
+ * 避免每读一行都重新登录和切换 UGI
+ */
+public class HdfsRowBuffer {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final Map<String, Object> kerberosConfig;
+
+    private final RowReader rowReader;
+
+    private final int batchSize;
+
+    private final Deque<List<String>> rows;
+
+    /**
+     * 文件已经读完
+     */
+    private boolean exhausted;
+
+    public HdfsRowBuffer(Map<String, Object> kerberosConfig, RowReader rowReader) {
+        this(kerberosConfig, rowReader, DEFAULT_BATCH_SIZE);
+    }
+
+    public HdfsRowBuffer(Map<String, Object> kerberosConfig, RowReader rowReader, int batchSize) {
+        this.kerberosConfig = kerberosConfig;
+        this.rowReader = rowReader;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.rows = new ArrayDeque<>(this.batchSize);
+    }
+
+    /**
+     * 取出下一行
+     *
+     * @return 下一行数据，没有数据时返回 null
+     */
+    public List<String> poll() {
+        fillIfEmpty();
+        return rows.poll();
+    }
+
+    /**
+     * 是否已经没有数据，可以重复调用
+     *
+     * @return 是否读取到最后一行
+     */
+    public boolean reachedEnd() {
+        fillIfEmpty();
+        return rows.isEmpty();
+    }
+
+    private void fillIfEmpty() {
+        if (!rows.isEmpty() || exhausted) {
+            return;
+        }
+        KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<Void>) () -> {
+                    try {
+                        while (rows.size() < batchSize) {
+                            List<String> row = rowReader.read();
+                            if (row == null) {
+                                exhausted = true;
+                                break;
+                            }
+                            rows.add(row);
+                        }
+                    } catch (Exception e) {
+                        throw new SourceException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * 在 UGI 中逐行读取文件
+     */
+    @FunctionalInterface
+    public interface RowReader {
+
+        /**
+         * 读取下一行
+         *
+         * @return 下一行数据，没有数据时返回 null
+         * @throws Exception 读取异常
+         */
+        List<String> read() throws Exception;
+    }
+}
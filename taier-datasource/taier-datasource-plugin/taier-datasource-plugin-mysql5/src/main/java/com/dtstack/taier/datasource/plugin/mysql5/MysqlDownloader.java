@@ -18,21 +18,12 @@
 
 package com.dtstack.taier.datasource.plugin.mysql5;
 
-import com.dtstack.taier.datasource.api.downloader.IDownloader;
-import com.dtstack.taier.datasource.api.dto.Column;
-import com.dtstack.taier.datasource.api.exception.SourceException;
-import com.dtstack.taier.datasource.plugin.common.utils.DBUtil;
-import com.dtstack.taier.datasource.plugin.common.utils.SqlFormatUtil;
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
+import com.dtstack.taier.datasource.plugin.rdbms.downloader.RdbmsCursorDownloader;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * @company: www.dts
@@ -41,115 +32,23 @@ import java.util.stream.Collectors;
  * @Date ：Created in 下午4:44 2020/5/29
  * @Description：mysql表下载
  */
-
-public class MysqlDownloader implements IDownloader {
-
-    private int pageNum;
-
-    private int pageAll;
-
-    private List<Column> columnNames;
-
-    private int totalLine;
-
-    private Connection connection;
-
-    private String sql;
-
-    private String schema;
-
-    private Statement statement;
-
-    private int pageSize;
-
-    private int columnCount;
+public class MysqlDownloader extends RdbmsCursorDownloader {
 
     public MysqlDownloader(Connection connection, String sql, String schema) {
-        this.connection = connection;
-        this.sql = SqlFormatUtil.formatSql(sql);
-        this.schema = schema;
-    }
-
-    @Override
-    public boolean configure() throws Exception {
-        if (null == connection || StringUtils.isEmpty(sql)) {
-            throw new SourceException("file is not exist");
-        }
-        totalLine = 0;
-        pageSize = 100;
-        pageNum = 1;
-        statement = connection.createStatement();
-
-        if (StringUtils.isNotEmpty(schema)) {
-            //选择schema
-            String useSchema = String.format("USE %s", schema);
-            statement.execute(useSchema);
-        }
-        String countSQL = String.format("SELECT COUNT(*) FROM (%s) temp", sql);
-        String showColumns = String.format("SELECT * FROM (%s) t limit 1", sql);
-
-        try (ResultSet totalResultSet = statement.executeQuery(countSQL);
-             ResultSet columnsResultSet = statement.executeQuery(showColumns)) {
-            while (totalResultSet.next()) {
-                //获取总行数
-                totalLine = totalResultSet.getInt(1);
-            }
-            //获取列信息
-            columnNames = new ArrayList<>();
-            columnCount = columnsResultSet.getMetaData().getColumnCount();
-            for (int i = 1; i <= columnCount; i++) {
-                Column column = new Column();
-                column.setName(columnsResultSet.getMetaData().getColumnName(i));
-                column.setType(columnsResultSet.getMetaData().getColumnTypeName(i));
-                column.setIndex(i);
-                columnNames.add(column);
-            }
-            //获取总页数
-            pageAll = (int) Math.ceil(totalLine / (double) pageSize);
-        } catch (Exception e) {
-            throw new SourceException("build Mysql downloader message exception : " + e.getMessage(), e);
-        }
-        return true;
-    }
-
-    @Override
-    public List<String> getMetaInfo() {
-        if (CollectionUtils.isNotEmpty(columnNames)) {
-            return columnNames.stream().map(Column::getName).collect(Collectors.toList());
-        }
-        return Collections.emptyList();
-    }
-
-    @Override
-    public List<List<String>> readNext() {
-        //分页查询，一次一百条
-        String limitSQL = String.format("SELECT * FROM (%s) t limit %s,%s", sql, pageSize * (pageNum - 1), pageSize);
-        List<List<String>> pageTemp = new ArrayList<>(100);
-
-        try (ResultSet resultSet = statement.executeQuery(limitSQL)) {
-            while (resultSet.next()) {
-                List<String> columns = new ArrayList<>(columnCount);
-                for (int i = 1; i <= columnCount; i++) {
-                    columns.add(resultSet.getString(i));
-                }
-                pageTemp.add(columns);
-            }
-        } catch (Exception e) {
-            throw new SourceException("read Mysql message exception : " + e.getMessage(), e);
-        }
-
-        pageNum++;
-        return pageTemp;
+        super(connection, sql, schema);
     }
 
     @Override
-    public boolean reachedEnd() {
-        return pageAll < pageNum;
+    protected void switchSchema(Connection connection, String schema) throws SQLException {
+        //选择schema
+        execute(connection, String.format("USE %s", schema));
     }
 
     @Override
-    public boolean close() throws Exception {
-        DBUtil.closeDBResources(null, statement, connection);
-        return true;
+    protected Statement createStatement(Connection connection, int batchSize) throws SQLException {
+        // mysql 驱动只有 fetchSize 为 Integer.MIN_VALUE 时逐行流式读取，否则一次读取全部结果
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(Integer.MIN_VALUE);
+        return statement;
     }
 }
@@ -18,20 +18,13 @@
 
 package com.dtstack.taier.datasource.plugin.postgresql;
 
-import com.dtstack.taier.datasource.api.downloader.IDownloader;
-import com.dtstack.taier.datasource.api.exception.SourceException;
-import com.dtstack.taier.datasource.plugin.common.utils.DBUtil;
-import com.dtstack.taier.datasource.plugin.common.utils.SqlFormatUtil;
-import com.google.common.collect.Lists;
+import com.dtstack.taier.datasource.plugin.rdbms.downloader.RdbmsCursorDownloader;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
 import java.sql.Connection;
-import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 
 /**
  * Postgresql download
@@ -41,107 +34,34 @@ import java.util.Objects;
  * company: www.dtstack.com
  */
 @Slf4j
-public class PostgresqlDownloader implements IDownloader {
-
-    private final List<String> columnNames = Lists.newArrayList();
-
-    private final Connection connection;
-
-    private final String sql;
-
-    private final String schema;
-
-    private Statement statement;
-
-    private int pageNum = 1;
-
-    private final int pageSize = 100;
-
-    private int pageAll;
-
-    private int columnCount;
+public class PostgresqlDownloader extends RdbmsCursorDownloader {
 
     // 切换 schema 命令
     private static final String SWITCH_SCHEMA = "set search_path to %s";
 
     public PostgresqlDownloader(Connection connection, String sql, String schema) {
-        this.connection = connection;
-        this.sql = SqlFormatUtil.formatSql(sql);
-        this.schema = schema;
-    }
-
-    @Override
-    public boolean configure() throws Exception {
-        if (Objects.isNull(connection) || StringUtils.isEmpty(sql)) {
-            throw new SourceException("connection is close or sql is null");
-        }
-        int totalLine = 0;
-        statement = connection.createStatement();
-        if (StringUtils.isNotBlank(schema)) {
-            try {
-                // 切换 schema
-                statement.execute(String.format(SWITCH_SCHEMA, schema));
-            } catch (Exception e) {
-                log.error("switch schema to {} error", schema);
-            }
-        }
-
-        String countSQL = String.format("SELECT COUNT(1) FROM (%s) temp", sql);
-        String showColumns = String.format("SELECT * FROM (%s) t limit 1", sql);
-        try (ResultSet totalResultSet = statement.executeQuery(countSQL);
-             ResultSet columnsResultSet = statement.executeQuery(showColumns)) {
-            while (totalResultSet.next()) {
-                //获取总行数
-                totalLine = totalResultSet.getInt(1);
-            }
-            //获取列信息
-            columnCount = columnsResultSet.getMetaData().getColumnCount();
-            for (int i = 1; i <= columnCount; i++) {
-                columnNames.add(columnsResultSet.getMetaData().getColumnLabel(i));
-            }
-            // 获取总页数
-            pageAll = (int) Math.ceil(totalLine / (double) pageSize);
-        } catch (Exception e) {
-            throw new SourceException("build Postgresql downloader message exception : " + e.getMessage(), e);
-        }
-        return true;
+        super(connection, sql, schema);
     }
 
     @Override
-    public List<String> getMetaInfo() {
-        return columnNames;
-    }
-
-    @Override
-    public List<List<String>> readNext() {
-        //分页查询，一次一百条
-        String limitSQL = String.format("SELECT * FROM (%s) t limit %s offset %s", sql, pageSize, pageSize * (pageNum - 1));
-        List<List<String>> pageTemp = new ArrayList<>(100);
-
-        try (ResultSet resultSet = statement.executeQuery(limitSQL)) {
-            while (resultSet.next()) {
-                List<String> columns = new ArrayList<>(columnCount);
-                for (int i = 1; i <= columnCount; i++) {
-                    columns.add(resultSet.getString(i));
-                }
-                pageTemp.add(columns);
-            }
+    protected void switchSchema(Connection connection, String schema) {
+        try {
+            // 切换 schema
+            execute(connection, String.format(SWITCH_SCHEMA, schema));
         } catch (Exception e) {
-            throw new SourceException("read Postgresql message exception : " + e.getMessage(), e);
+            log.error("switch schema to {} error", schema);
         }
-
-        pageNum++;
-        return pageTemp;
     }
 
     @Override
-    public boolean reachedEnd() {
-        return pageAll < pageNum;
+    protected Statement createStatement(Connection connection, int batchSize) throws SQLException {
+        // postgresql 驱动只有在事务中才按 fetchSize 使用游标读取，否则一次读取全部结果
+        disableAutoCommit(connection);
+        return super.createStatement(connection, batchSize);
     }
 
     @Override
-    public boolean close() throws Exception {
-        DBUtil.closeDBResources(null, statement, connection);
-        return true;
+    protected String getColumnName(ResultSetMetaData metaData, int index) throws SQLException {
+        return metaData.getColumnLabel(index);
     }
 }
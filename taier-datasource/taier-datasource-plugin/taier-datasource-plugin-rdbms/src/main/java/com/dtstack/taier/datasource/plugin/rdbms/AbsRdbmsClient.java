@@ -33,6 +33,7 @@ import com.dtstack.taier.datasource.plugin.common.utils.StringUtil;
 import com.dtstack.taier.datasource.api.client.IClient;
 import com.dtstack.taier.datasource.api.dto.ColumnMetaDTO;
 import com.dtstack.taier.datasource.api.dto.Database;
+import com.dtstack.taier.datasource.api.dto.ResultTable;
 import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.dto.Table;
 import com.dtstack.taier.datasource.api.dto.TableInfo;
@@ -321,11 +322,36 @@ public abstract class AbsRdbmsClient implements IClient {
         }
     }
 
+    /**
+     * 执行 sql 返回结果表, 执行结束后关闭 connection
+     *
+     * @param connection jdbc 链接
+     * @param queryDTO   查询条件
+     * @param closeConn  是否关闭 connection
+     * @return 执行结果
+     */
+    public ResultTable executeQueryTable(Connection connection, SqlQueryDTO queryDTO, boolean closeConn) {
+        try {
+            // 预编译字段
+            if (CollectionUtils.isNotEmpty(queryDTO.getPreFields())) {
+                return DBUtil.executePreSqlTable(connection, queryDTO.getSql(), queryDTO.getLimit(), queryDTO.getPreFields(), queryDTO.getQueryTimeout(), queryDTO.getSetMaxRow(), this::dealResult);
+            }
+            return DBUtil.executeSqlTable(connection, queryDTO.getSql(), queryDTO.getLimit(), queryDTO.getQueryTimeout(), queryDTO.getSetMaxRow(), this::dealResult);
+        } finally {
+            DBUtil.closeDBResources(null, null, closeConn ? connection : null);
+        }
+    }
+
     @Override
     public List<Map<String, Object>> executeQuery(ISourceDTO sourceDTO, SqlQueryDTO queryDTO) {
         return executeQuery(getCon(sourceDTO, queryDTO), queryDTO, true);
     }
 
+    @Override
+    public ResultTable executeQueryTable(ISourceDTO sourceDTO, SqlQueryDTO queryDTO) {
+        return executeQueryTable(getCon(sourceDTO, queryDTO), queryDTO, true);
+    }
+
     @Override
     public Map<String, List<Map<String, Object>>> executeMultiQuery(ISourceDTO sourceDTO, SqlQueryDTO queryDTO) {
         Connection connection = getCon(sourceDTO, queryDTO);
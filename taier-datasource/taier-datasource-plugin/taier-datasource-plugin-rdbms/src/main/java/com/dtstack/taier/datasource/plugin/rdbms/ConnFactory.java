@@ -32,6 +32,7 @@ import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.dto.source.ISourceDTO;
 import com.dtstack.taier.datasource.api.dto.source.RdbmsSourceDTO;
 import com.dtstack.taier.datasource.api.exception.SourceException;
+import com.dtstack.taier.datasource.plugin.rdbms.pool.HikariPoolRegistry;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.MapUtils;
@@ -42,7 +43,6 @@ import java.sql.DriverManager;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -69,8 +69,6 @@ public class ConnFactory {
 
     protected String testSql;
 
-    private static final ConcurrentHashMap<String, Object> HIKARI_DATA_SOURCES = new ConcurrentHashMap<>();
-
     private AtomicBoolean isFirstLoaded = new AtomicBoolean(true);
 
     private static final String CP_POOL_KEY = "url:%s,username:%s,password:%s,properties:%s";
@@ -131,18 +129,7 @@ public class ConnFactory {
         RdbmsSourceDTO rdbmsSourceDTO = (RdbmsSourceDTO) source;
         String poolKey = getPrimaryKey(rdbmsSourceDTO);
         log.info("datasource connected(Hikari), url : {}, userName : {}, kerberosConfig : {}", rdbmsSourceDTO.getUrl(), rdbmsSourceDTO.getUsername(), rdbmsSourceDTO.getKerberosConfig());
-        HikariDataSource hikariData = (HikariDataSource) HIKARI_DATA_SOURCES.get(poolKey);
-        if (hikariData == null) {
-            synchronized (ConnFactory.class) {
-                hikariData = (HikariDataSource) HIKARI_DATA_SOURCES.get(poolKey);
-                if (hikariData == null) {
-                    hikariData = transHikari(source);
-                    HIKARI_DATA_SOURCES.put(poolKey, hikariData);
-                }
-            }
-        }
-
-        return hikariData.getConnection();
+        return HikariPoolRegistry.getConnection(poolKey, () -> transHikari(source));
     }
 
     /**
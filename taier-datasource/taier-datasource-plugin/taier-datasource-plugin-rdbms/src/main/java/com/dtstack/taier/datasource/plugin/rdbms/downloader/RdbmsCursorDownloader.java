@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.datasource.plugin.rdbms.downloader;
+
+import com.dtstack.taier.datasource.api.downloader.IDownloader;
+import com.dtstack.taier.datasource.api.dto.Column;
+import com.dtstack.taier.datasource.api.exception.SourceException;
+import com.dtstack.taier.datasource.plugin.common.utils.DBUtil;
+import com.dtstack.taier.datasource.plugin.common.utils.SqlFormatUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 关系型数据库游标下载器
+ * <p>
+ * sql 只执行一次，通过只读、只向前的游标按 fetchSize 从服务端分批拉取，
+ * 不再预先 count 总行数，也不再按 limit/offset 重复执行查询。
+ * 各数据源通过覆盖 {@link #switchSchema} 和 {@link #createStatement} 处理切换 schema 和驱动的流式读取参数
+ */
+@Slf4j
+public class RdbmsCursorDownloader implements IDownloader {
+
+    /**
+     * 每次 readNext 默认返回的行数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final Connection connection;
+
+    private final String sql;
+
+    protected final String schema;
+
+    private final int batchSize;
+
+    private Statement statement;
+
+    private ResultSet resultSet;
+
+    private List<Column> columns;
+
+    private int columnCount;
+
+    /**
+     * 游标是否已经没有数据，configure 和 readNext 时预读一行得到
+     */
+    private boolean reachedEnd;
+
+    /**
+     * 为了使用服务端游标修改了 autoCommit 时，关闭前还原
+     */
+    private Boolean originalAutoCommit;
+
+    public RdbmsCursorDownloader(Connection connection, String sql, String schema) {
+        this(connection, sql, schema, DEFAULT_BATCH_SIZE);
+    }
+
+    public RdbmsCursorDownloader(Connection connection, String sql, String schema, int batchSize) {
+        this.connection = connection;
+        this.sql = SqlFormatUtil.formatSql(sql);
+        this.schema = schema;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    @Override
+    public boolean configure() throws Exception {
+        if (null == connection || StringUtils.isEmpty(sql)) {
+            throw new SourceException("connection is close or sql is null");
+        }
+        try {
+            if (StringUtils.isNotBlank(schema)) {
+                switchSchema(connection, schema);
+            }
+            statement = createStatement(connection, batchSize);
+            resultSet = statement.executeQuery(sql);
+
+            //获取列信息
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            columnCount = metaData.getColumnCount();
+            columns = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                Column column = new Column();
+                column.setName(getColumnName(metaData, i));
+                column.setType(metaData.getColumnTypeName(i));
+                column.setIndex(i);
+                columns.add(column);
+            }
+            reachedEnd = !resultSet.next();
+        } catch (Exception e) {
+            throw new SourceException(String.format("build %s message exception : %s", getClass().getSimpleName(), e.getMessage()), e);
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> getMetaInfo() {
+        if (CollectionUtils.isNotEmpty(columns)) {
+            return columns.stream().map(Column::getName).collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<List<String>> readNext() {
+        if (reachedEnd) {
+            return Collections.emptyList();
+        }
+        List<List<String>> batch = new ArrayList<>(batchSize);
+        try {
+            while (!reachedEnd && batch.size() < batchSize) {
+                List<String> row = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    row.add(resultSet.getString(i));
+                }
+                batch.add(row);
+                reachedEnd = !resultSet.next();
+            }
+        } catch (Exception e) {
+            throw new SourceException(String.format("read %s message exception : %s", getClass().getSimpleName(), e.getMessage()), e);
+        }
+        return batch;
+    }
+
+    @Override
+    public boolean reachedEnd() {
+        return reachedEnd;
+    }
+
+    @Override
+    public boolean close() throws Exception {
+        DBUtil.closeDBResources(resultSet, statement, null);
+        if (originalAutoCommit != null) {
+            try {
+                connection.commit();
+                connection.setAutoCommit(originalAutoCommit);
+            } catch (SQLException e) {
+                log.warn("restore autoCommit error: {}", e.getMessage());
+            }
+        }
+        DBUtil.closeDBResources(null, null, connection);
+        return true;
+    }
+
+    /**
+     * 切换 schema，默认不切换
+     *
+     * @param connection 连接
+     * @param schema     schema
+     */
+    protected void switchSchema(Connection connection, String schema) throws SQLException {
+    }
+
+    /**
+     * 创建只读、只向前的查询，默认按 batchSize 设置 fetchSize
+     *
+     * @param connection 连接
+     * @param batchSize  每批行数
+     * @return statement
+     */
+    protected Statement createStatement(Connection connection, int batchSize) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(batchSize);
+        return statement;
+    }
+
+    /**
+     * 关闭 autoCommit，部分驱动(例如 postgresql)只有在事务中才使用服务端游标，关闭下载器时还原
+     *
+     * @param connection 连接
+     */
+    protected void disableAutoCommit(Connection connection) throws SQLException {
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+            originalAutoCommit = Boolean.TRUE;
+        }
+    }
+
+    /**
+     * 获取列名，默认使用 columnName
+     *
+     * @param metaData 结果集元数据
+     * @param index    列下标，从 1 开始
+     * @return 列名
+     */
+    protected String getColumnName(ResultSetMetaData metaData, int index) throws SQLException {
+        return metaData.getColumnName(index);
+    }
+
+    /**
+     * 执行切换 schema 等不返回结果的语句
+     *
+     * @param connection 连接
+     * @param sql        sql
+     */
+    protected static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
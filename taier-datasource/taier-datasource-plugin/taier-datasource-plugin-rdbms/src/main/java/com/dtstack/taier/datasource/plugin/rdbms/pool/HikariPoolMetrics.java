@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.datasource.plugin.rdbms.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 注册表中的单个 hikari 连接池及其指标
+ * <p>
+ * 获取连接的等待时间通过 hikari 的 {@link MetricsTrackerFactory} 采集，
+ * 使用中、空闲连接数直接读取 {@link HikariPoolMXBean}
+ */
+public class HikariPoolMetrics implements HikariPoolMetricsMBean, MetricsTrackerFactory {
+
+    private final String poolName;
+
+    private volatile HikariDataSource dataSource;
+
+    /**
+     * 最近一次获取连接的时间
+     */
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    /**
+     * 正在获取连接的线程数, 大于 0 时不允许回收
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 是否已经被回收, 回收后不再对外提供连接
+     */
+    private volatile boolean closed = false;
+
+    private final AtomicLong acquireCount = new AtomicLong();
+
+    private final AtomicLong acquireNanos = new AtomicLong();
+
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+
+    private final AtomicLong acquireTimeoutCount = new AtomicLong();
+
+    HikariPoolMetrics(String poolName) {
+        this.poolName = poolName;
+    }
+
+    String getPoolName() {
+        return poolName;
+    }
+
+    HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    void setDataSource(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 开始获取连接, 返回 false 表示连接池已经被回收, 需要重新从注册表获取
+     */
+    boolean enter() {
+        inFlight.incrementAndGet();
+        if (closed) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        lastAccessTime = System.currentTimeMillis();
+        return true;
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 尝试标记为回收, 有线程正在获取连接或者有连接未归还时放弃
+     * <p>
+     * 先写 closed 再读 inFlight, 与 {@link #enter} 的顺序相反, 两边至少有一方能看到对方的修改
+     */
+    boolean tryClose() {
+        if (dataSource == null) {
+            return false;
+        }
+        closed = true;
+        if (inFlight.get() > 0 || getActiveConnections() > 0) {
+            closed = false;
+            return false;
+        }
+        return true;
+    }
+
+    private HikariPoolMXBean getPoolBean() {
+        HikariDataSource current = dataSource;
+        // 第一次获取连接前连接池还未启动
+        return current == null || current.isClosed() ? null : current.getHikariPoolMXBean();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        HikariPoolMXBean bean = getPoolBean();
+        return bean == null ? 0 : bean.getActiveConnections();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        HikariPoolMXBean bean = getPoolBean();
+        return bean == null ? 0 : bean.getIdleConnections();
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        HikariDataSource current = dataSource;
+        return current == null ? 0 : current.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getThreadsAwaitingConnection() {
+        HikariPoolMXBean bean = getPoolBean();
+        return bean == null ? 0 : bean.getThreadsAwaitingConnection();
+    }
+
+    @Override
+    public long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    @Override
+    public double getAvgAcquireWaitMillis() {
+        long count = acquireCount.get();
+        return count == 0 ? 0 : acquireNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public double getMaxAcquireWaitMillis() {
+        return maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getAcquireTimeoutCount() {
+        return acquireTimeoutCount.get();
+    }
+
+    @Override
+    public long getIdleMillis() {
+        return System.currentTimeMillis() - lastAccessTime;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.incrementAndGet();
+                acquireNanos.addAndGet(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                acquireTimeoutCount.incrementAndGet();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pool:%s, active:%s, idle:%s, max:%s, awaiting:%s, acquire:%s, avgWait:%.2fms, maxWait:%.2fms, timeout:%s",
+                poolName, getActiveConnections(), getIdleConnections(), getMaximumPoolSize(), getThreadsAwaitingConnection(),
+                getAcquireCount(), getAvgAcquireWaitMillis(), getMaxAcquireWaitMillis(), getAcquireTimeoutCount());
+    }
+}
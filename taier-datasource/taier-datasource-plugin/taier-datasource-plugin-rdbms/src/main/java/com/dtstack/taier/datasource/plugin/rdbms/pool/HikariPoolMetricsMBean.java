@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.datasource.plugin.rdbms.pool;
+
+/**
+ * hikari 连接池 JMX 指标
+ */
+public interface HikariPoolMetricsMBean {
+
+    /**
+     * @return 使用中的连接数
+     */
+    int getActiveConnections();
+
+    /**
+     * @return 空闲连接数
+     */
+    int getIdleConnections();
+
+    /**
+     * @return 连接池最大连接数
+     */
+    int getMaximumPoolSize();
+
+    /**
+     * @return 等待获取连接的线程数
+     */
+    int getThreadsAwaitingConnection();
+
+    /**
+     * @return 获取连接次数
+     */
+    long getAcquireCount();
+
+    /**
+     * @return 获取连接平均等待时间, 单位: 毫秒
+     */
+    double getAvgAcquireWaitMillis();
+
+    /**
+     * @return 获取连接最大等待时间, 单位: 毫秒
+     */
+    double getMaxAcquireWaitMillis();
+
+    /**
+     * @return 获取连接超时次数
+     */
+    long getAcquireTimeoutCount();
+
+    /**
+     * @return 距离上次使用的时间, 单位: 毫秒
+     */
+    long getIdleMillis();
+}
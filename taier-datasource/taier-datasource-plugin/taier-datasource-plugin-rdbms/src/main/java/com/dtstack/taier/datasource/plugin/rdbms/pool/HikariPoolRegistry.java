@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.datasource.plugin.rdbms.pool;
+
+import com.dtstack.taier.datasource.plugin.common.DtClassThreadFactory;
+import com.dtstack.taier.datasource.plugin.common.utils.EnvUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * hikari 连接池注册表
+ * <p>
+ * 1. 按 key 加锁创建连接池，某个数据源创建慢不影响其他数据源
+ * 2. 连接池超过 LOADER_HIKARI_POOL_IDLE_TIMEOUT 秒未使用时回收
+ * 3. 连接池个数超过 LOADER_HIKARI_MAX_POOLS 时按最近最少使用回收
+ * 4. 所有连接池最大连接数之和不超过 LOADER_HIKARI_MAX_TOTAL_CONNECTIONS，超过时回收空闲连接池，仍不够时缩小新连接池
+ * 5. 有连接未归还或者正在获取连接的连接池不会被回收
+ * <p>
+ * 每个连接池的使用中、空闲连接数和获取连接等待时间通过 JMX 暴露，
+ * ObjectName 为 com.dtstack.taier.datasource:type=HikariPool,name=连接池名称
+ */
+@Slf4j
+public class HikariPoolRegistry {
+
+    private static final String POOL_NAME_PREFIX = "taier-hikari-";
+
+    private static final String OBJECT_NAME_PATTERN = "com.dtstack.taier.datasource:type=HikariPool,name=%s";
+
+    private static final Map<String, HikariPoolMetrics> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * 容量统计锁, 只保护 poolCount 和 totalConnections, 不在锁内关闭连接池
+     */
+    private static final Object CAPACITY_LOCK = new Object();
+
+    private static int poolCount = 0;
+
+    private static int totalConnections = 0;
+
+    private static final ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE =
+            new ScheduledThreadPoolExecutor(1, new DtClassThreadFactory("hikariPoolRegistry"));
+
+    static {
+        SCHEDULED_EXECUTOR_SERVICE.scheduleWithFixedDelay(HikariPoolRegistry::evictIdlePools, 60L, 60L, TimeUnit.SECONDS);
+    }
+
+    private HikariPoolRegistry() {
+    }
+
+    /**
+     * 从 key 对应的连接池获取连接, 连接池不存在时通过 creator 创建
+     *
+     * @param poolKey 连接池唯一 key
+     * @param creator 连接池创建方法, 只需要设置连接参数, 不需要启动连接池
+     * @return jdbc connection
+     * @throws SQLException 获取连接异常
+     */
+    public static Connection getConnection(String poolKey, Supplier<HikariDataSource> creator) throws SQLException {
+        while (true) {
+            HikariPoolMetrics pool = POOLS.computeIfAbsent(poolKey, k -> new HikariPoolMetrics(POOL_NAME_PREFIX + k));
+            if (pool.getDataSource() == null) {
+                synchronized (pool) {
+                    // 创建失败的连接池已经从注册表移除, 重新获取
+                    if (POOLS.get(poolKey) != pool) {
+                        continue;
+                    }
+                    if (pool.getDataSource() == null) {
+                        createDataSource(poolKey, pool, creator);
+                    }
+                }
+            }
+            if (!pool.enter()) {
+                // 已经被回收, 重新创建
+                POOLS.remove(poolKey, pool);
+                continue;
+            }
+            try {
+                return pool.getDataSource().getConnection();
+            } finally {
+                pool.exit();
+            }
+        }
+    }
+
+    private static void createDataSource(String poolKey, HikariPoolMetrics pool, Supplier<HikariDataSource> creator) {
+        HikariDataSource dataSource;
+        try {
+            dataSource = creator.get();
+        } catch (RuntimeException e) {
+            POOLS.remove(poolKey, pool);
+            throw e;
+        }
+        dataSource.setPoolName(pool.getPoolName());
+        dataSource.setMetricsTrackerFactory(pool);
+        dataSource.setMaximumPoolSize(reserve(pool.getPoolName(), dataSource.getMaximumPoolSize()));
+        pool.setDataSource(dataSource);
+        registerMBean(pool);
+        log.info("hikari pool {} created, maximumPoolSize: {}, pools: {}, totalConnections: {}",
+                pool.getPoolName(), dataSource.getMaximumPoolSize(), poolCount, totalConnections);
+    }
+
+    /**
+     * 为新连接池预留连接数, 超过限制时先按最近最少使用回收空闲连接池, 仍然不够时缩小新连接池
+     *
+     * @param poolName        连接池名称
+     * @param maximumPoolSize 新连接池最大连接数
+     * @return 实际分配的最大连接数
+     */
+    private static int reserve(String poolName, int maximumPoolSize) {
+        int maxPools = EnvUtil.getHikariMaxPools();
+        int maxTotalConnections = EnvUtil.getHikariMaxTotalConnections();
+        List<HikariPoolMetrics> evicted = new ArrayList<>();
+        int size;
+        synchronized (CAPACITY_LOCK) {
+            if (poolCount + 1 > maxPools || totalConnections + maximumPoolSize > maxTotalConnections) {
+                List<Map.Entry<String, HikariPoolMetrics>> candidates = new ArrayList<>(POOLS.entrySet());
+                candidates.sort(Comparator.comparingLong(entry -> entry.getValue().getLastAccessTime()));
+                for (Map.Entry<String, HikariPoolMetrics> candidate : candidates) {
+                    if (poolCount + 1 <= maxPools && totalConnections + maximumPoolSize <= maxTotalConnections) {
+                        break;
+                    }
+                    HikariPoolMetrics pool = candidate.getValue();
+                    if (pool.tryClose()) {
+                        POOLS.remove(candidate.getKey(), pool);
+                        release(pool);
+                        evicted.add(pool);
+                    }
+                }
+            }
+            size = Math.max(1, Math.min(maximumPoolSize, maxTotalConnections - totalConnections));
+            if (size < maximumPoolSize || poolCount + 1 > maxPools) {
+                log.warn("hikari pools reach limit, pools: {}/{}, totalConnections: {}/{}, maximumPoolSize of {} shrink from {} to {}",
+                        poolCount, maxPools, totalConnections, maxTotalConnections, poolName, maximumPoolSize, size);
+            }
+            poolCount++;
+            totalConnections += size;
+        }
+        for (HikariPoolMetrics pool : evicted) {
+            log.info("hikari pool {} evicted by lru, idle {} ms", pool.getPoolName(), pool.getIdleMillis());
+            closePool(pool);
+        }
+        return size;
+    }
+
+    /**
+     * 必须在 CAPACITY_LOCK 内调用
+     */
+    private static void release(HikariPoolMetrics pool) {
+        poolCount--;
+        totalConnections -= pool.getMaximumPoolSize();
+    }
+
+    /**
+     * 定时回收长时间未使用的连接池
+     */
+    private static void evictIdlePools() {
+        try {
+            long idleTimeout = TimeUnit.SECONDS.toMillis(EnvUtil.getHikariPoolIdleTimeout());
+            List<HikariPoolMetrics> evicted = new ArrayList<>();
+            synchronized (CAPACITY_LOCK) {
+                for (Map.Entry<String, HikariPoolMetrics> entry : POOLS.entrySet()) {
+                    HikariPoolMetrics pool = entry.getValue();
+                    if (log.isDebugEnabled() && pool.getDataSource() != null) {
+                        log.debug("hikari pool stats, {}", pool);
+                    }
+                    if (pool.getIdleMillis() > idleTimeout && pool.tryClose()) {
+                        POOLS.remove(entry.getKey(), pool);
+                        release(pool);
+                        evicted.add(pool);
+                    }
+                }
+            }
+            for (HikariPoolMetrics pool : evicted) {
+                log.info("hikari pool {} evicted by idle timeout, idle {} ms", pool.getPoolName(), pool.getIdleMillis());
+                closePool(pool);
+            }
+        } catch (Throwable e) {
+            log.error("evict idle hikari pools error", e);
+        }
+    }
+
+    private static void closePool(HikariPoolMetrics pool) {
+        unregisterMBean(pool);
+        try {
+            pool.getDataSource().close();
+        } catch (Exception e) {
+            log.warn("close hikari pool {} error: {}", pool.getPoolName(), e.getMessage(), e);
+        }
+    }
+
+    private static void registerMBean(HikariPoolMetrics pool) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(String.format(OBJECT_NAME_PATTERN, pool.getPoolName()));
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(pool, objectName);
+            }
+        } catch (Exception e) {
+            log.warn("register mbean of hikari pool {} error: {}", pool.getPoolName(), e.getMessage());
+        }
+    }
+
+    private static void unregisterMBean(HikariPoolMetrics pool) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(String.format(OBJECT_NAME_PATTERN, pool.getPoolName()));
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.warn("unregister mbean of hikari pool {} error: {}", pool.getPoolName(), e.getMessage());
+        }
+    }
+}
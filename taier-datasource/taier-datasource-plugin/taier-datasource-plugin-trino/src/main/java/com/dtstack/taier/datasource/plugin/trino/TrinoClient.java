@@ -26,6 +26,7 @@ import com.dtstack.taier.datasource.plugin.rdbms.AbsRdbmsClient;
 import com.dtstack.taier.datasource.plugin.rdbms.ConnFactory;
 import com.dtstack.taier.datasource.plugin.trino.download.TrinoDownloader;
 import com.dtstack.taier.datasource.api.dto.ColumnMetaDTO;
+import com.dtstack.taier.datasource.api.dto.ResultTable;
 import com.dtstack.taier.datasource.api.dto.SqlQueryDTO;
 import com.dtstack.taier.datasource.api.dto.source.ISourceDTO;
 import com.dtstack.taier.datasource.api.dto.source.RdbmsSourceDTO;
@@ -359,14 +360,27 @@ public class TrinoClient extends AbsRdbmsClient {
         try {
             return super.executeQuery(sourceDTO, queryDTO);
         } catch (SourceException e) {
-            //当语句为预编译查询且catalog or schema or table名称以数字开头则不兼容
-            if (e.getCause() instanceof SQLException
-                    && e.getMessage().contains("Formatted query does not parse")) {
-                throw new SourceException(
-                        "Precompiled statements do not support starting with illegal characters such as numbers", e);
-            }
-            throw e;
+            throw dealPreSqlException(e);
+        }
+    }
+
+    @Override
+    public ResultTable executeQueryTable(ISourceDTO sourceDTO, SqlQueryDTO queryDTO) {
+        try {
+            return super.executeQueryTable(sourceDTO, queryDTO);
+        } catch (SourceException e) {
+            throw dealPreSqlException(e);
+        }
+    }
+
+    private SourceException dealPreSqlException(SourceException e) {
+        //当语句为预编译查询且catalog or schema or table名称以数字开头则不兼容
+        if (e.getCause() instanceof SQLException
+                && e.getMessage().contains("Formatted query does not parse")) {
+            return new SourceException(
+                    "Precompiled statements do not support starting with illegal characters such as numbers", e);
         }
+        return e;
     }
 
     @Override
@@ -18,8 +18,8 @@
 
 package com.dtstack.taier.scheduler;
 
-import com.alibaba.fastjson.JSONObject;
 import com.dtstack.taier.common.client.ClientOperator;
+import com.dtstack.taier.common.client.PluginInfoKey;
 import com.dtstack.taier.common.exception.TaierDefineException;
 import com.dtstack.taier.pluginapi.JobClient;
 import com.dtstack.taier.pluginapi.JobIdentifier;
@@ -37,6 +37,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -53,8 +55,7 @@ public class WorkerOperator {
 
     private void buildPluginInfo(JobClient jobClient) {
         try {
-            JSONObject info = JSONObject.parseObject(jobClient.getPluginInfo());
-            if (null != info && !info.isEmpty()) {
+            if (!PluginInfoKey.isEmpty(jobClient.getPluginInfo())) {
                 return;
             }
             pluginWrapper.wrapperJobClient(jobClient);
@@ -66,8 +67,8 @@ public class WorkerOperator {
 
     private String getPluginInfo(JobIdentifier jobIdentifier) {
         if (null != jobIdentifier) {
-            JSONObject info = JSONObject.parseObject(jobIdentifier.getPluginInfo());
-            if (null != info && !info.isEmpty()) {
+            // 解析结果按 pluginInfo 缓存，状态轮询时不再重复解析
+            if (!PluginInfoKey.isEmpty(jobIdentifier.getPluginInfo())) {
                 return jobIdentifier.getPluginInfo();
             }
         }
@@ -106,6 +107,33 @@ public class WorkerOperator {
         return status;
     }
 
+    /**
+     * 批量获取任务状态，相同集群配置的任务合并为一次插件调用
+     *
+     * @param jobIdentifiers 任务标识
+     * @return key 为 jobId，value 为任务状态
+     */
+    public Map<String, TaskStatus> getJobStatuses(List<JobIdentifier> jobIdentifiers) {
+        Map<String, List<JobIdentifier>> pluginInfoJobs = new LinkedHashMap<>();
+        for (JobIdentifier jobIdentifier : jobIdentifiers) {
+            pluginInfoJobs.computeIfAbsent(this.getPluginInfo(jobIdentifier), k -> Lists.newArrayList()).add(jobIdentifier);
+        }
+
+        Map<String, TaskStatus> jobStatuses = new HashMap<>(jobIdentifiers.size());
+        for (Map.Entry<String, List<JobIdentifier>> entry : pluginInfoJobs.entrySet()) {
+            if (null == entry.getKey()) {
+                continue;
+            }
+            jobStatuses.putAll(clientOperator.getJobStatuses(entry.getKey(), entry.getValue()));
+        }
+        for (JobIdentifier jobIdentifier : jobIdentifiers) {
+            if (null == jobStatuses.get(jobIdentifier.getJobId())) {
+                jobStatuses.put(jobIdentifier.getJobId(), TaskStatus.NOTFOUND);
+            }
+        }
+        return jobStatuses;
+    }
+
     public String getEngineLog(JobIdentifier jobIdentifier) {
         String engineLog = clientOperator.getEngineLog(this.getPluginInfo(jobIdentifier), jobIdentifier);
         if (null == engineLog) {
@@ -23,8 +23,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.CollectionUtils;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author yuebai
@@ -39,7 +39,7 @@ public class ScheduleJobEventPublisher {
     private List<ScheduleJobEventLister> scheduleJobEventMulticaster;
 
     private ScheduleJobEventPublisher() {
-        this.scheduleJobEventMulticaster = new ArrayList<>();
+        this.scheduleJobEventMulticaster = new CopyOnWriteArrayList<>();
     }
 
     public static ScheduleJobEventPublisher getInstance() {
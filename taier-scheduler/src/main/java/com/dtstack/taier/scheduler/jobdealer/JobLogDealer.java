@@ -18,8 +18,10 @@
 
 package com.dtstack.taier.scheduler.jobdealer;
 
+import com.alibaba.fastjson.JSONObject;
+import com.dtstack.taier.common.enums.EScheduleType;
 import com.dtstack.taier.common.env.EnvironmentContext;
-import com.dtstack.taier.common.queue.DelayBlockingQueue;
+import com.dtstack.taier.dao.domain.ScheduleJobLogQueue;
 import com.dtstack.taier.pluginapi.CustomThreadFactory;
 import com.dtstack.taier.pluginapi.JobIdentifier;
 import com.dtstack.taier.pluginapi.exception.ExceptionUtil;
@@ -27,6 +29,9 @@ import com.dtstack.taier.scheduler.WorkerOperator;
 import com.dtstack.taier.scheduler.enums.EJobLogType;
 import com.dtstack.taier.scheduler.jobdealer.bo.JobLogInfo;
 import com.dtstack.taier.scheduler.service.ScheduleJobExpandService;
+import com.dtstack.taier.scheduler.service.ScheduleJobLogQueueService;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,66 +39,236 @@ import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 获取任务运行结束日志 需要延迟
  * 获取任务重试日志  无需延迟
+ * <p>
+ * 1. 添加请求不阻塞，同一个实例等待中的请求只保留一个
+ * 2. 每个 jobResource 最多同时获取 job.log.resource.concurrent 个日志，某个集群获取日志慢不影响其他集群
+ * 3. 优先获取重试日志和临时运行的日志
+ * 4. 等待的请求超过 job.log.queue.size 时，周期实例的请求由后台线程批量暂存到数据库，队列空闲后再取回
  */
 @Component
 public class JobLogDealer implements ApplicationListener<ApplicationStartedEvent>, Runnable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JobLogDealer.class);
 
+    private static final int RETRY_LOG_PRIORITY = 0;
+
+    private static final int TEMP_JOB_PRIORITY = 1;
+
+    private static final int BATCH_JOB_PRIORITY = 2;
+
+    private static final long LOAD_SPILLED_INTERVAL = 10L;
+
+    private static final long FLUSH_SPILL_INTERVAL = 1L;
+
     @Autowired
     private WorkerOperator workerOperator;
 
     @Autowired
     private ScheduleJobExpandService scheduleJobExpandService;
 
+    @Autowired
+    private ScheduleJobLogQueueService scheduleJobLogQueueService;
+
     @Autowired
     private EnvironmentContext environmentContext;
 
-    private DelayBlockingQueue<JobLogInfo> delayBlockingQueue = new DelayBlockingQueue<>(1000);
+    private final DelayQueue<JobLogInfo> delayQueue = new DelayQueue<>();
+
+    /**
+     * jobId -> 等待获取日志的请求
+     */
+    private final Map<String, JobLogInfo> pendingJobs = new ConcurrentHashMap<>();
+
+    private final Map<String, ResourceLane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 等待写入数据库的暂存请求
+     */
+    private LinkedBlockingQueue<JobLogInfo> spillQueue;
+
     private ExecutorService logExecutePool = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
             new LinkedBlockingQueue<>(1), new CustomThreadFactory(this.getClass().getSimpleName()));
 
     private ExecutorService logGetPool;
 
+    private ScheduledExecutorService spilledLoader;
+
 
     @Override
     public void run() {
         while (true) {
             try {
-                JobLogInfo taskInfo = delayBlockingQueue.take();
+                JobLogInfo taskInfo = delayQueue.take();
                 EJobLogType logType = taskInfo.getLogType();
                 switch (logType) {
                     case FINISH_LOG:
-                        logGetPool.execute(() -> updateJobEngineLog(taskInfo));
+                        dispatch(taskInfo.getJobResource(), getPriority(taskInfo), () -> {
+                            pendingJobs.remove(taskInfo.getJobId(), taskInfo);
+                            updateJobEngineLog(taskInfo);
+                        });
                 }
 
+            } catch (InterruptedException e) {
+                LOGGER.warn("job log dealer interrupted");
+                return;
             } catch (Exception e) {
                 LOGGER.error("", e);
             }
         }
     }
 
-    public void executeLogRunnable(Runnable runnable) {
-        logGetPool.execute(runnable);
+    /**
+     * 获取重试日志，优先于其他日志
+     *
+     * @param jobResource 计算资源
+     * @param runnable    获取日志
+     */
+    public void executeLogRunnable(String jobResource, Runnable runnable) {
+        dispatch(jobResource, RETRY_LOG_PRIORITY, runnable);
     }
 
     public void addJobInfo(JobLogInfo jobLogInfo) {
+        String jobId = jobLogInfo.getJobId();
+        if (pendingJobs.putIfAbsent(jobId, jobLogInfo) != null) {
+            LOGGER.info("job {} is already waiting in log dealer", jobId);
+            return;
+        }
+        // 暂存队列也满时留在内存中
+        if (getPriority(jobLogInfo) == BATCH_JOB_PRIORITY && pendingJobs.size() > environmentContext.getJobLogQueueSize()
+                && spillQueue.offer(jobLogInfo)) {
+            pendingJobs.remove(jobId, jobLogInfo);
+            return;
+        }
+        LOGGER.info("add job {} into log dealer", jobId);
+        delayQueue.offer(jobLogInfo);
+    }
+
+    private int getPriority(JobLogInfo jobLogInfo) {
+        return EScheduleType.TEMP_JOB.getType().equals(jobLogInfo.getScheduleType()) ? TEMP_JOB_PRIORITY : BATCH_JOB_PRIORITY;
+    }
+
+    private void dispatch(String jobResource, int priority, Runnable runnable) {
+        ResourceLane lane = lanes.computeIfAbsent(StringUtils.defaultString(jobResource), k -> new ResourceLane());
+        synchronized (lane) {
+            lane.ready.offer(new LogTask(priority, sequence.incrementAndGet(), runnable));
+        }
+        schedule(lane);
+    }
+
+    private void schedule(ResourceLane lane) {
+        int concurrent = Math.max(1, environmentContext.getJobLogResourceConcurrent());
+        synchronized (lane) {
+            while (lane.running < concurrent && !lane.ready.isEmpty()) {
+                LogTask logTask = lane.ready.poll();
+                lane.running++;
+                logGetPool.execute(() -> {
+                    try {
+                        logTask.runnable.run();
+                    } catch (Throwable e) {
+                        LOGGER.error("", e);
+                    } finally {
+                        synchronized (lane) {
+                            lane.running--;
+                        }
+                        schedule(lane);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 批量写入暂存的请求，写入失败的请求放回内存
+     */
+    private void flushSpilled() {
+        List<JobLogInfo> jobLogInfos = Lists.newArrayList();
+        int batchSize = Math.max(1, environmentContext.getBatchInsertSize());
+        while (spillQueue.drainTo(jobLogInfos, batchSize) > 0) {
+            try {
+                List<ScheduleJobLogQueue> logQueues = Lists.newArrayListWithCapacity(jobLogInfos.size());
+                for (JobLogInfo jobLogInfo : jobLogInfos) {
+                    ScheduleJobLogQueue logQueue = new ScheduleJobLogQueue();
+                    logQueue.setJobId(jobLogInfo.getJobId());
+                    logQueue.setNodeAddress(environmentContext.getLocalAddress());
+                    logQueue.setJobResource(jobLogInfo.getJobResource());
+                    logQueue.setScheduleType(jobLogInfo.getScheduleType());
+                    logQueue.setComputeType(jobLogInfo.getComputeType());
+                    logQueue.setJobIdentifier(JSONObject.toJSONString(jobLogInfo.getJobIdentifier()));
+                    logQueues.add(logQueue);
+                }
+                scheduleJobLogQueueService.spillBatch(logQueues);
+                LOGGER.info("log dealer is full, spill {} jobs to db", logQueues.size());
+            } catch (Exception e) {
+                LOGGER.error("spill {} jobs to db error", jobLogInfos.size(), e);
+                for (JobLogInfo jobLogInfo : jobLogInfos) {
+                    if (pendingJobs.putIfAbsent(jobLogInfo.getJobId(), jobLogInfo) == null) {
+                        delayQueue.offer(jobLogInfo);
+                    }
+                }
+                return;
+            } finally {
+                jobLogInfos.clear();
+            }
+        }
+    }
+
+    /**
+     * 等待的请求少于 job.log.queue.size 一半时取回暂存的请求
+     */
+    private void loadSpilled() {
         try {
-            LOGGER.info("add job {} into log dealer", jobLogInfo.getJobId());
-            delayBlockingQueue.put(jobLogInfo);
-        } catch (InterruptedException e) {
-            LOGGER.error("", e);
+            int free = environmentContext.getJobLogQueueSize() / 2 - pendingJobs.size();
+            if (free <= 0) {
+                return;
+            }
+            List<ScheduleJobLogQueue> logQueues = scheduleJobLogQueueService.pollByNodeAddress(environmentContext.getLocalAddress(), free);
+            for (ScheduleJobLogQueue logQueue : logQueues) {
+                JobLogInfo jobLogInfo = new JobLogInfo(logQueue.getJobId(), parseJobIdentifier(logQueue.getJobIdentifier()),
+                        logQueue.getComputeType(), 0L, EJobLogType.FINISH_LOG);
+                jobLogInfo.setJobResource(logQueue.getJobResource());
+                jobLogInfo.setScheduleType(logQueue.getScheduleType());
+                if (pendingJobs.putIfAbsent(jobLogInfo.getJobId(), jobLogInfo) == null) {
+                    delayQueue.offer(jobLogInfo);
+                }
+            }
+            if (!logQueues.isEmpty()) {
+                LOGGER.info("load {} spilled jobs into log dealer", logQueues.size());
+            }
+        } catch (Exception e) {
+            LOGGER.error("load spilled jobs error", e);
         }
     }
 
+    private JobIdentifier parseJobIdentifier(String json) {
+        JSONObject jobIdentifierJson = JSONObject.parseObject(json);
+        JobIdentifier jobIdentifier = new JobIdentifier(jobIdentifierJson.getString("engineJobId"), jobIdentifierJson.getString("applicationId"),
+                jobIdentifierJson.getString("jobId"), jobIdentifierJson.getLong("tenantId"), jobIdentifierJson.getInteger("taskType"),
+                jobIdentifierJson.getInteger("deployMode"), jobIdentifierJson.getLong("userId"), jobIdentifierJson.getString("pluginInfo"),
+                jobIdentifierJson.getString("componentVersion"), jobIdentifierJson.getString("queueName"));
+        jobIdentifier.setTimeout(jobIdentifierJson.getLong("timeout"));
+        jobIdentifier.setArchiveFsDir(jobIdentifierJson.getString("archiveFsDir"));
+        return jobIdentifier;
+    }
+
 
     private void updateJobEngineLog(JobLogInfo jobLogInfo) {
         JobIdentifier jobIdentifier = jobLogInfo.getJobIdentifier();
@@ -112,10 +287,38 @@ public class JobLogDealer implements ApplicationListener<ApplicationStartedEvent
 
     @Override
     public void onApplicationEvent(ApplicationStartedEvent applicationStartedEvent) {
-        logGetPool = new ThreadPoolExecutor(2, environmentContext.getLogPoolSize(), 60L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(100), new CustomThreadFactory(this.getClass().getSimpleName()));
+        int poolSize = Math.max(2, environmentContext.getLogPoolSize());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomThreadFactory(this.getClass().getSimpleName()));
+        executor.allowCoreThreadTimeOut(true);
+        logGetPool = executor;
         logExecutePool.execute(this);
+        spillQueue = new LinkedBlockingQueue<>(Math.max(1, environmentContext.getJobLogQueueSize()));
+        spilledLoader = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory(this.getClass().getSimpleName() + "Spilled"));
+        spilledLoader.scheduleWithFixedDelay(this::flushSpilled, FLUSH_SPILL_INTERVAL, FLUSH_SPILL_INTERVAL, TimeUnit.SECONDS);
+        spilledLoader.scheduleWithFixedDelay(this::loadSpilled, LOAD_SPILLED_INTERVAL, LOAD_SPILLED_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    private static class ResourceLane {
+
+        private final PriorityQueue<LogTask> ready = new PriorityQueue<>(Comparator.comparingInt((LogTask task) -> task.priority)
+                .thenComparingLong(task -> task.sequence));
+
+        private int running;
     }
 
+    private static class LogTask {
+
+        private final int priority;
+
+        private final long sequence;
 
+        private final Runnable runnable;
+
+        private LogTask(int priority, long sequence, Runnable runnable) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+    }
 }
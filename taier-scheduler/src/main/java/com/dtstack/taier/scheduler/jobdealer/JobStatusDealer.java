@@ -46,8 +46,10 @@ import com.dtstack.taier.scheduler.jobdealer.bo.JobStatusFrequency;
 import com.dtstack.taier.scheduler.jobdealer.cache.ShardCache;
 import com.dtstack.taier.scheduler.jobdealer.cache.ShardManager;
 import com.dtstack.taier.scheduler.service.ClusterService;
+import com.dtstack.taier.scheduler.service.JobStatusJournal;
 import com.dtstack.taier.scheduler.service.ScheduleJobCacheService;
 import com.dtstack.taier.scheduler.service.ScheduleJobService;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -57,6 +59,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -66,6 +70,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -98,6 +103,7 @@ public class JobStatusDealer implements Runnable {
     private ShardCache shardCache;
     private String jobResource;
     private ScheduleJobService scheduleJobService;
+    private JobStatusJournal jobStatusJournal;
     private ScheduleJobCacheService scheduleJobCacheService;
     private JobRestartDealer jobRestartDealer;
     private WorkerOperator workerOperator;
@@ -109,6 +115,8 @@ public class JobStatusDealer implements Runnable {
 
     private int taskStatusDealerPoolSize;
 
+    private int taskStatusDealerBatchSize;
+
     /**
      * 记录job 连续某个状态的频次
      */
@@ -128,26 +136,26 @@ public class JobStatusDealer implements Runnable {
                 return;
             }
 
-            jobs = jobs.stream().filter(job -> !TaskStatus.needClean(job.getValue())).collect(Collectors.toList());
+            List<String> jobIds = jobs.stream().filter(job -> !TaskStatus.needClean(job.getValue())).map(Map.Entry::getKey).collect(Collectors.toList());
 
             Semaphore buildSemaphore = new Semaphore(taskStatusDealerPoolSize);
-            for (Map.Entry<String, Integer> job : jobs) {
+            for (List<String> batchJobIds : Lists.partition(jobIds, taskStatusDealerBatchSize)) {
                 try {
                     buildSemaphore.acquire();
                     taskStatusPool.submit(() -> {
                         try {
                             if (LOGGER.isDebugEnabled()) {
-                                LOGGER.debug("jobId:{} before dealJob status:{}", job.getKey(), job.getValue());
+                                LOGGER.debug("jobIds:{} before dealJobs", batchJobIds);
                             }
-                            dealJob(job.getKey());
+                            dealJobs(batchJobIds);
                         } catch (Throwable e) {
-                            LOGGER.error("jobId:{}", job.getKey(), e);
+                            LOGGER.error("jobIds:{}", batchJobIds, e);
                         } finally {
                             buildSemaphore.release();
                         }
                     });
                 } catch (Throwable e) {
-                    LOGGER.error("jobId:{} [acquire pool error]:",job.getKey(), e);
+                    LOGGER.error("jobIds:{} [acquire pool error]:", batchJobIds, e);
                     buildSemaphore.release();
                 }
             }
@@ -157,87 +165,148 @@ public class JobStatusDealer implements Runnable {
         }
     }
 
+    /**
+     * 批量处理一批实例的状态：实例和缓存各一次查询，同一集群的引擎状态一次获取，非结束状态按状态合并更新
+     *
+     * @param jobIds 实例id
+     */
+    private void dealJobs(List<String> jobIds) {
+        Map<String, ScheduleJob> scheduleJobMap = scheduleJobService.getByJobIds(jobIds).stream()
+                .collect(Collectors.toMap(ScheduleJob::getJobId, Function.identity(), (k1, k2) -> k1));
+        Map<String, ScheduleJobCache> jobCacheMap = scheduleJobCacheService.getByJobIds(jobIds).stream()
+                .collect(Collectors.toMap(ScheduleJobCache::getJobId, Function.identity(), (k1, k2) -> k1));
+
+        Map<String, JobIdentifier> jobIdentifierMap = new LinkedHashMap<>(jobIds.size());
+        Map<String, TaskStatus> jobStatusMap = new HashMap<>(jobIds.size());
+        for (String jobId : jobIds) {
+            ScheduleJob scheduleJob = scheduleJobMap.get(jobId);
+            ScheduleJobCache engineJobCache = jobCacheMap.get(jobId);
+            try {
+                if (scheduleJob == null || engineJobCache == null ||
+                        (StringUtils.isBlank(scheduleJob.getApplicationId()) && StringUtils.isBlank(scheduleJob.getEngineJobId()))) {
+                    dealLostJob(jobId, scheduleJob, engineJobCache);
+                    continue;
+                }
+                ParamAction paramAction = PublicUtil.jsonStrToObject(engineJobCache.getJobInfo(), ParamAction.class);
+                jobIdentifierMap.put(jobId, buildJobIdentifier(scheduleJob, paramAction));
+                if (EJobClientType.DATASOURCE_PLUGIN == EJobClientType.getJobClientTypeByTask(paramAction.getTaskType())) {
+                    jobStatusMap.put(jobId, TaskStatus.FAILED);
+                }
+            } catch (Throwable e) {
+                LOGGER.error("jobId:{}", jobId, e);
+            }
+        }
 
-    private void dealJob(String jobId) throws Exception {
-        ScheduleJob scheduleJob = scheduleJobService.getByJobId(jobId);
-        ScheduleJobCache engineJobCache = scheduleJobCacheService.getJobCacheByJobId(jobId);
-        if (scheduleJob == null || engineJobCache == null ||
-                (StringUtils.isBlank(scheduleJob.getApplicationId()) && StringUtils.isBlank(scheduleJob.getEngineJobId()))) {
-            shardCache.updateLocalMemTaskStatus(jobId, TaskStatus.CANCELED.getStatus());
-
-            Integer status = TaskStatus.CANCELED.getStatus();
-            String engineJobId = null;
-            if (scheduleJob != null) {
-                engineJobId = scheduleJob.getEngineJobId();
+        List<JobIdentifier> engineJobIdentifiers = jobIdentifierMap.values().stream()
+                .filter(jobIdentifier -> !jobStatusMap.containsKey(jobIdentifier.getJobId()))
+                .collect(Collectors.toList());
+        if (!engineJobIdentifiers.isEmpty()) {
+            jobStatusMap.putAll(workerOperator.getJobStatuses(engineJobIdentifiers));
+        }
 
-                if (TaskStatus.getStoppedStatus().contains(scheduleJob.getStatus())) {
-                    status = scheduleJob.getStatus();
-                } else {
-                    scheduleJobService.updateJobStatusAndExecTime(jobId, status);
+        Map<Integer, List<String>> statusUpdateJobIds = new HashMap<>();
+        for (Map.Entry<String, JobIdentifier> entry : jobIdentifierMap.entrySet()) {
+            String jobId = entry.getKey();
+            try {
+                Integer status = dealJobStatus(scheduleJobMap.get(jobId), jobCacheMap.get(jobId), entry.getValue(), jobStatusMap.get(jobId));
+                if (status != null) {
+                    statusUpdateJobIds.computeIfAbsent(status, k -> new ArrayList<>()).add(jobId);
                 }
-            } else {
-                scheduleJobService.updateJobStatusAndExecTime(jobId, status);
+            } catch (Throwable e) {
+                LOGGER.error("jobId:{}", jobId, e);
             }
+        }
 
+        for (Map.Entry<Integer, List<String>> entry : statusUpdateJobIds.entrySet()) {
+            jobStatusJournal.append(entry.getValue(), entry.getKey());
+        }
+    }
+
+    private JobIdentifier buildJobIdentifier(ScheduleJob scheduleJob, ParamAction paramAction) {
+        Integer taskType = paramAction.getTaskType();
+        Map<String, Object> pluginInfo = paramAction.getPluginInfo();
+        EDeployMode deployMode = pluginWrapper.getDeployMode(taskType, paramAction.getTaskParams(), paramAction.getComputeType(), paramAction.getTenantId());
+        return new JobIdentifier(scheduleJob.getEngineJobId(), scheduleJob.getApplicationId(), scheduleJob.getJobId(), scheduleJob.getTenantId(), taskType, deployMode.getType(),
+                null, MapUtils.isEmpty(pluginInfo) ? null : JSONObject.toJSONString(pluginInfo), paramAction.getComponentVersion(), paramAction.getQueueName());
+    }
+
+    private void dealLostJob(String jobId, ScheduleJob scheduleJob, ScheduleJobCache engineJobCache) {
+        shardCache.updateLocalMemTaskStatus(jobId, TaskStatus.CANCELED.getStatus());
+
+        Integer status = TaskStatus.CANCELED.getStatus();
+        String engineJobId = null;
+        if (scheduleJob != null) {
+            engineJobId = scheduleJob.getEngineJobId();
+        }
+
+        if (scheduleJob != null && TaskStatus.getStoppedStatus().contains(scheduleJob.getStatus())) {
+            status = scheduleJob.getStatus();
             scheduleJobCacheService.deleteByJobId(jobId);
-            LOGGER.info("jobId:{} set job finished, status:{}, scheduleJob is {} null, engineJobCache is {} null, engineJobId is {} blank.",
-                    jobId, status, scheduleJob == null ? "" : "not", engineJobCache == null ? "" : "not", engineJobId == null ? "" : "not");
         } else {
-            String engineTaskId = scheduleJob.getEngineJobId();
-            String appId = scheduleJob.getApplicationId();
-            ParamAction paramAction = PublicUtil.jsonStrToObject(engineJobCache.getJobInfo(), ParamAction.class);
-            Integer taskType = paramAction.getTaskType();
-            Map<String, Object> pluginInfo = paramAction.getPluginInfo();
-            EDeployMode deployMode = pluginWrapper.getDeployMode(taskType, paramAction.getTaskParams(), paramAction.getComputeType(), paramAction.getTenantId());
-            JobIdentifier jobIdentifier = new JobIdentifier(engineTaskId, appId, jobId, scheduleJob.getTenantId(), taskType, deployMode.getType(),
-                    null, MapUtils.isEmpty(pluginInfo) ? null : JSONObject.toJSONString(pluginInfo), paramAction.getComponentVersion(), paramAction.getQueueName());
-
-            TaskStatus taskStatus;
-            EJobClientType jobClientType = EJobClientType.getJobClientTypeByTask(taskType);
-            if(EJobClientType.DATASOURCE_PLUGIN == jobClientType){
-                taskStatus = TaskStatus.FAILED;
-            } else {
-                taskStatus = workerOperator.getJobStatus(jobIdentifier);
-            }
+            // 状态落库后再删除 job_cache，避免状态未写入时任务已不再被轮询
+            jobStatusJournal.appendWithExecTime(jobId, status, () -> scheduleJobCacheService.deleteByJobId(jobId));
+        }
 
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("------ jobId:{} dealJob status:{}", jobId, taskStatus);
-            }
+        LOGGER.info("jobId:{} set job finished, status:{}, scheduleJob is {} null, engineJobCache is {} null, engineJobId is {} blank.",
+                jobId, status, scheduleJob == null ? "" : "not", engineJobCache == null ? "" : "not", engineJobId == null ? "" : "not");
+    }
 
-            if (taskStatus != null) {
-
-                taskStatus = checkNotFoundStatus(taskStatus, jobId);
-                Integer status = taskStatus.getStatus();
-                // 重试状态 先不更新状态
-                boolean isRestart = jobRestartDealer.checkAndRestart(status, scheduleJob, engineJobCache, (job, client) -> jobLogDealer.executeLogRunnable(() -> {
-                    String engineLog = workerOperator.getEngineLog(jobIdentifier);
-                    jobRestartDealer.jobRetryRecord(job, client, engineLog);
-                }));
-                if (isRestart) {
-                    LOGGER.info("----- jobId:{} after dealJob status:{}", jobId, taskStatus);
-                    return;
-                }
+    /**
+     * 处理单个实例的引擎状态
+     *
+     * @return 需要合并更新的非结束状态，不需要更新时返回null
+     */
+    private Integer dealJobStatus(ScheduleJob scheduleJob, ScheduleJobCache engineJobCache, JobIdentifier jobIdentifier, TaskStatus taskStatus) {
+        String jobId = scheduleJob.getJobId();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("------ jobId:{} dealJob status:{}", jobId, taskStatus);
+        }
 
-                shardCache.updateLocalMemTaskStatus(jobId, status);
-                updateJobStatusWithPredicate(scheduleJob, jobId, status);
+        if (taskStatus == null) {
+            return null;
+        }
 
-                //数据的更新顺序，先更新job_cache，再更新engine_batch_job
-                if (TaskStatus.getStoppedStatus().contains(status)) {
-                    jobLogDelayDealer(jobId, jobIdentifier, engineJobCache.getComputeType(),scheduleJob.getType());
-                    jobStatusFrequency.remove(jobId);
-                    scheduleJobCacheService.deleteByJobId(jobId);
-                    updateHistoryEndTime(jobId,appId);
-                    LOGGER.info("------ jobId:{} is stop status {} delete jobCache", jobId, status);
-                }
+        taskStatus = checkNotFoundStatus(taskStatus, jobId);
+        Integer status = taskStatus.getStatus();
+        // 重试状态 先不更新状态
+        boolean isRestart = jobRestartDealer.checkAndRestart(status, scheduleJob, engineJobCache, (job, client) -> jobLogDealer.executeLogRunnable(engineJobCache.getJobResource(), () -> {
+            String engineLog = workerOperator.getEngineLog(jobIdentifier);
+            jobRestartDealer.jobRetryRecord(job, client, engineLog);
+        }));
+        if (isRestart) {
+            LOGGER.info("----- jobId:{} after dealJob status:{}", jobId, taskStatus);
+            return null;
+        }
 
+        shardCache.updateLocalMemTaskStatus(jobId, status);
+        boolean needUpdate = needUpdateJobStatus(scheduleJob, status);
 
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("------ jobId:{} after dealJob status:{}", jobId, taskStatus);
-                }
-            }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("------ jobId:{} after dealJob status:{}", jobId, taskStatus);
         }
-    }
 
+        if (!TaskStatus.getStoppedStatus().contains(status)) {
+            return needUpdate ? status : null;
+        }
+
+        // 结束状态无论是否需要回写 schedule_job，都要清理 job_cache、获取日志并结束轮询
+        String applicationId = scheduleJob.getApplicationId();
+        Runnable stoppedCleaner = () -> {
+            scheduleJobCacheService.deleteByJobId(jobId);
+            updateHistoryEndTime(jobId, applicationId);
+        };
+        if (needUpdate) {
+            //数据的更新顺序，先更新engine_batch_job，落库后再删除job_cache
+            // 如果是停止状态 更新停止时间
+            jobStatusJournal.appendWithExecTime(jobId, status, stoppedCleaner);
+        } else {
+            stoppedCleaner.run();
+        }
+        jobLogDelayDealer(jobId, jobIdentifier, engineJobCache, scheduleJob.getType());
+        jobStatusFrequency.remove(jobId);
+        LOGGER.info("------ jobId:{} is stop status {} delete jobCache", jobId, status);
+        return null;
+    }
 
     private void updateHistoryEndTime(String jobId, String appId) {
         ScheduleJobHistory scheduleJobHistory = new ScheduleJobHistory();
@@ -249,7 +318,7 @@ public class JobStatusDealer implements Runnable {
                 .eq(ScheduleJobHistory::getApplicationId, appId));
     }
 
-    private void updateJobStatusWithPredicate(ScheduleJob scheduleJob, String jobId, Integer status) {
+    private boolean needUpdateJobStatus(ScheduleJob scheduleJob, Integer status) {
         //流计算只有在状态变更(且任务没有被手动停止 进入CANCELLING)的时候才去更新schedule_job表
         Predicate<ScheduleJob> isStreamUpdateConditions = job ->
                 ComputeType.STREAM.getType().equals(job.getComputeType())
@@ -262,14 +331,7 @@ public class JobStatusDealer implements Runnable {
                         && TaskStatus.CANCELLING.getStatus().equals(job.getStatus())
                         && TaskStatus.STOPPED_STATUS.contains(status);
 
-        if (ComputeType.BATCH.getType().equals(scheduleJob.getComputeType()) || isStreamUpdateConditions.test(scheduleJob) || isStreamCancellingConditions.test(scheduleJob)) {
-            if (TaskStatus.getStoppedStatus().contains(status)) {
-                // 如果是停止状态 更新停止时间
-                scheduleJobService.updateJobStatusAndExecTime(jobId, status);
-            } else {
-                scheduleJobService.updateStatus(jobId, status);
-            }
-        }
+        return ComputeType.BATCH.getType().equals(scheduleJob.getComputeType()) || isStreamUpdateConditions.test(scheduleJob) || isStreamCancellingConditions.test(scheduleJob);
     }
 
     private TaskStatus checkNotFoundStatus(TaskStatus taskStatus, String jobId) {
@@ -285,10 +347,12 @@ public class JobStatusDealer implements Runnable {
     }
 
 
-    private void jobLogDelayDealer(String jobId, JobIdentifier jobIdentifier, int computeType, Integer type) {
+    private void jobLogDelayDealer(String jobId, JobIdentifier jobIdentifier, ScheduleJobCache engineJobCache, Integer type) {
         //临时运行的任务立马去获取日志
-        JobLogInfo jobLogInfo = new JobLogInfo(jobId, jobIdentifier, computeType, EScheduleType.TEMP_JOB.getType().equals(type) ?
+        JobLogInfo jobLogInfo = new JobLogInfo(jobId, jobIdentifier, engineJobCache.getComputeType(), EScheduleType.TEMP_JOB.getType().equals(type) ?
                 0 : environmentContext.getJobLogDelay(), EJobLogType.FINISH_LOG);
+        jobLogInfo.setJobResource(engineJobCache.getJobResource());
+        jobLogInfo.setScheduleType(type);
         jobLogDealer.addJobInfo(jobLogInfo);
     }
 
@@ -326,6 +390,7 @@ public class JobStatusDealer implements Runnable {
         this.applicationContext = applicationContext;
         setBean();
         this.taskStatusDealerPoolSize = environmentContext.getTaskStatusDealerPoolSize();
+        this.taskStatusDealerBatchSize = Math.max(1, environmentContext.getTaskStatusDealerBatchSize());
         this.taskStatusPool = new ThreadPoolExecutor(taskStatusDealerPoolSize, taskStatusDealerPoolSize, 60L, TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(1000), new CustomThreadFactory(jobResource + this.getClass().getSimpleName() + "DealJob"), new BlockCallerPolicy());
     }
@@ -335,6 +400,7 @@ public class JobStatusDealer implements Runnable {
         this.jobRestartDealer = applicationContext.getBean(JobRestartDealer.class);
         this.workerOperator = applicationContext.getBean(WorkerOperator.class);
         this.scheduleJobService = applicationContext.getBean(ScheduleJobService.class);
+        this.jobStatusJournal = applicationContext.getBean(JobStatusJournal.class);
         this.clusterService = applicationContext.getBean(ClusterService.class);
         this.scheduleJobCacheService = applicationContext.getBean(ScheduleJobCacheService.class);
         this.scheduleJobHistoryMapper = applicationContext.getBean(ScheduleJobHistoryMapper.class);
@@ -19,7 +19,6 @@
 package com.dtstack.taier.scheduler.jobdealer;
 
 import com.alibaba.fastjson.JSONObject;
-import com.dtstack.taier.common.BlockCallerPolicy;
 import com.dtstack.taier.common.enums.EJobCacheStage;
 import com.dtstack.taier.common.enums.EJobClientType;
 import com.dtstack.taier.common.enums.EScheduleJobType;
@@ -29,7 +28,7 @@ import com.dtstack.taier.common.exception.DtCenterDefException;
 import com.dtstack.taier.common.exception.TaierDefineException;
 import com.dtstack.taier.common.exception.WorkerAccessException;
 import com.dtstack.taier.common.queue.DelayBlockingQueue;
-import com.dtstack.taier.common.util.SleepUtil;
+import com.dtstack.taier.common.queue.JobClientPriorityQueue;
 import com.dtstack.taier.dao.domain.ScheduleJobCache;
 import com.dtstack.taier.pluginapi.CustomThreadFactory;
 import com.dtstack.taier.pluginapi.JobClient;
@@ -57,10 +56,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * company: www.dtstack.com
@@ -88,15 +86,18 @@ public class JobSubmitDealer implements Runnable {
     private long jobSubmitExpired;
     private long jobLackingCountLimited = 3;
     private boolean checkJobMaxPriorityStrategy = false;
-    private int jobSubmitConcurrent = 1;
 
     private String localAddress;
     private String jobResource = null;
     private GroupPriorityQueue priorityQueue;
-    private PriorityBlockingQueue<JobClient> queue = null;
+    private JobClientPriorityQueue queue = null;
     private DelayBlockingQueue<SimpleJobDelay<JobClient>> delayJobQueue = null;
     private JudgeResult workerNotFindResult = JudgeResult.notOk("worker not find");
-    private ExecutorService jobSubmitConcurrentService;
+    private JobSubmitExecutor jobSubmitExecutor;
+    /**
+     * 等待延时放回队列的任务数
+     */
+    private AtomicInteger lackingRequeueCount = new AtomicInteger();
     private ScheduleJobExpandService scheduleJobExpandService;
     private ApplicationContext applicationContext;
     private RdbJobExecutor rdbJobExecutor;
@@ -107,6 +108,7 @@ public class JobSubmitDealer implements Runnable {
         this.ScheduleJobCacheService = applicationContext.getBean(ScheduleJobCacheService.class);
         this.shardCache = applicationContext.getBean(ShardCache.class);
         this.scheduleJobExpandService = applicationContext.getBean(ScheduleJobExpandService.class);
+        this.jobSubmitExecutor = applicationContext.getBean(JobSubmitExecutor.class);
         this.applicationContext = applicationContext;
         EnvironmentContext environmentContext = applicationContext.getBean(EnvironmentContext.class);
         if (null == priorityQueue) {
@@ -120,7 +122,6 @@ public class JobSubmitDealer implements Runnable {
         jobSubmitExpired = environmentContext.getJobSubmitExpired();
         jobLackingCountLimited = environmentContext.getJobLackingCountLimited();
         checkJobMaxPriorityStrategy = environmentContext.isCheckJobMaxPriorityStrategy();
-        jobSubmitConcurrent = environmentContext.getJobSubmitConcurrent();
 
         this.localAddress = localAddress;
         this.priorityQueue = priorityQueue;
@@ -132,8 +133,6 @@ public class JobSubmitDealer implements Runnable {
                 new LinkedBlockingQueue<>(), new CustomThreadFactory(this.getClass().getSimpleName() + "_" + jobResource + "_DelayJobProcessor"));
         executorService.submit(new RestartJobProcessor());
 
-        this.jobSubmitConcurrentService = new ThreadPoolExecutor(1, jobSubmitConcurrent, 60L, TimeUnit.SECONDS,
-                new SynchronousQueue<>(true), new CustomThreadFactory(this.getClass().getSimpleName() + "_" + jobResource + "_JobSubmitConcurrent"), new BlockCallerPolicy());
         rdbJobExecutor = new RdbJobExecutor(applicationContext, jobResource);
     }
 
@@ -186,14 +185,19 @@ public class JobSubmitDealer implements Runnable {
     }
 
     public int getDelayJobQueueSize() {
-        return delayJobQueue.size();
+        return delayJobQueue.size() + lackingRequeueCount.get();
     }
 
     @Override
     public void run() {
         while (true) {
             JobClient jobClient = null;
+            boolean acquired = false;
+            boolean submitted = false;
             try {
+                // 先占提交名额再取任务，名额不足时任务留在优先级队列中
+                jobSubmitExecutor.acquire(jobResource);
+                acquired = true;
                 jobClient = queue.take();
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("jobId:{} jobResource:{} queue size:{} take job from priorityQueue.", jobClient.getJobId(), jobResource, queue.size());
@@ -210,14 +214,14 @@ public class JobSubmitDealer implements Runnable {
                 }
                 if (!checkMaxPriority(jobResource)) {
                     LOGGER.info("jobId:{} checkMaxPriority is false, wait other node job which priority higher.", jobClient.getJobId());
-                    queue.put(jobClient);
-                    SleepUtil.sleep(jobLackingInterval);
+                    requeueLater(jobClient);
                     continue;
                 }
 
                 //提交任务
                 JobClient finalJobClient = jobClient;
-                jobSubmitConcurrentService.submit(() -> submitJob(finalJobClient));
+                jobSubmitExecutor.execute(jobResource, () -> submitJob(finalJobClient));
+                submitted = true;
             } catch (Exception e) {
                 if (null != jobClient) {
                     LOGGER.error("jobId {} submit error", jobClient.getJobId(), e);
@@ -225,6 +229,10 @@ public class JobSubmitDealer implements Runnable {
                 } else {
                     LOGGER.error("submit error", e);
                 }
+            } finally {
+                if (acquired && !submitted) {
+                    jobSubmitExecutor.release(jobResource);
+                }
             }
         }
     }
@@ -437,13 +445,25 @@ public class JobSubmitDealer implements Runnable {
             putLackingJob(jobClient, judgeResult);
         } else {
             ScheduleJobCacheService.updateStage(jobClient.getJobId(), EJobCacheStage.PRIORITY.getStage(), localAddress, jobClient.getPriority(), null);
-            queue.put(jobClient);
-            SleepUtil.sleep(jobLackingInterval);
-            LOGGER.info("jobId:{} unlimited_lackingCount:{} add to priorityQueue.", jobClient.getJobId(), jobClient.getLackingCount());
+            requeueLater(jobClient);
+            LOGGER.info("jobId:{} unlimited_lackingCount:{} add to priorityQueue after {}ms.", jobClient.getJobId(), jobClient.getLackingCount(), jobLackingInterval);
 
         }
     }
 
+    /**
+     * 延时放回优先级队列，不阻塞提交线程
+     *
+     * @param jobClient 任务
+     */
+    private void requeueLater(JobClient jobClient) {
+        lackingRequeueCount.incrementAndGet();
+        jobSubmitExecutor.schedule(() -> {
+            lackingRequeueCount.decrementAndGet();
+            queue.put(jobClient);
+        }, jobLackingInterval);
+    }
+
     private void addToTaskListener(JobClient jobClient, JobResult jobResult) {
         jobClient.setJobResult(jobResult);
         //添加触发读取任务状态消息
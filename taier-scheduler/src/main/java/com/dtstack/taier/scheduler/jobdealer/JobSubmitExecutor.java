@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.jobdealer;
+
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.common.metric.LatencyHistogram;
+import com.dtstack.taier.pluginapi.CustomThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 所有 jobResource 共用的任务提交线程池
+ * <p>
+ * 1. 每个 jobResource 最多同时提交 job.submit.concurrent 个任务，超过时只阻塞该 jobResource 的取任务线程
+ * 2. 提交线程不区分 jobResource，空闲线程处理任意 jobResource 的任务，某个集群提交慢不影响其他集群
+ * 3. 资源不足的任务延时放回队列，不占用提交线程
+ */
+@Component
+public class JobSubmitExecutor implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobSubmitExecutor.class);
+
+    private static final long STATISTICS_INTERVAL = 60L;
+
+    /**
+     * 最近提交耗时的平滑系数，新样本占 1/8
+     */
+    private static final int LATENCY_SMOOTHING = 8;
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
+    private final Map<String, ResourceLane> lanes = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor submitService;
+
+    private ScheduledExecutorService delayService;
+
+    private final AtomicLong recentSubmitLatency = new AtomicLong();
+
+    /**
+     * 等待 jobResource 有空闲的提交名额
+     *
+     * @param jobResource 计算资源
+     */
+    public void acquire(String jobResource) throws InterruptedException {
+        getLane(jobResource).permits.acquire();
+    }
+
+    /**
+     * 归还 {@link #acquire} 获得的名额，任务没有交给 {@link #execute} 时调用
+     */
+    public void release(String jobResource) {
+        getLane(jobResource).permits.release();
+    }
+
+    /**
+     * 提交任务，调用前必须先 {@link #acquire}，任务结束后自动归还名额
+     *
+     * @param jobResource 计算资源
+     * @param task        提交任务
+     */
+    public void execute(String jobResource, Runnable task) {
+        ResourceLane lane = getLane(jobResource);
+        long enqueueTime = System.currentTimeMillis();
+        try {
+            submitService.execute(() -> {
+                long startTime = System.currentTimeMillis();
+                lane.queueWait.record(startTime - enqueueTime);
+                try {
+                    task.run();
+                } finally {
+                    long latency = System.currentTimeMillis() - startTime;
+                    lane.submitLatency.record(latency);
+                    recentSubmitLatency.updateAndGet(prev -> prev + (latency - prev) / LATENCY_SMOOTHING);
+                    lane.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lane.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 延时执行，不占用提交线程
+     *
+     * @param task  任务
+     * @param delay 延时毫秒
+     */
+    public void schedule(Runnable task, long delay) {
+        delayService.schedule(() -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.error("delay task error", e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 任务从交给线程池到开始提交的等待时间
+     */
+    public LatencyHistogram getQueueWaitHistogram(String jobResource) {
+        return getLane(jobResource).queueWait;
+    }
+
+    /**
+     * 任务提交(判断资源 + 提交到集群)耗时
+     */
+    public LatencyHistogram getSubmitLatencyHistogram(String jobResource) {
+        return getLane(jobResource).submitLatency;
+    }
+
+    /**
+     * 最近的提交耗时(指数平滑)，所有 jobResource 合并计算
+     */
+    public long getRecentSubmitLatency() {
+        return recentSubmitLatency.get();
+    }
+
+    /**
+     * 提交线程池还能立即处理的任务数
+     */
+    public int getFreeSlots() {
+        if (submitService == null) {
+            return 0;
+        }
+        return Math.max(0, submitService.getMaximumPoolSize() - submitService.getActiveCount() - submitService.getQueue().size());
+    }
+
+    private ResourceLane getLane(String jobResource) {
+        return lanes.computeIfAbsent(jobResource, k -> new ResourceLane(environmentContext.getJobSubmitConcurrent()));
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        int threadNum = environmentContext.getJobSubmitExecutorThread();
+        submitService = new ThreadPoolExecutor(threadNum, threadNum, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomThreadFactory("JobSubmitExecutor"));
+        submitService.allowCoreThreadTimeOut(true);
+        delayService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory("JobSubmitExecutorDelay"));
+        delayService.scheduleWithFixedDelay(this::logStatistics, STATISTICS_INTERVAL, STATISTICS_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    private void logStatistics() {
+        for (Map.Entry<String, ResourceLane> entry : lanes.entrySet()) {
+            ResourceLane lane = entry.getValue();
+            LOGGER.info("jobResource:{} submitting:{} queueWait[{}] submitLatency[{}]", entry.getKey(),
+                    lane.concurrent - lane.permits.availablePermits(), lane.queueWait, lane.submitLatency);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delayService != null) {
+            delayService.shutdownNow();
+        }
+        if (submitService != null) {
+            submitService.shutdownNow();
+        }
+    }
+
+    private static class ResourceLane {
+
+        private final int concurrent;
+
+        private final Semaphore permits;
+
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+
+        private final LatencyHistogram submitLatency = new LatencyHistogram();
+
+        private ResourceLane(int concurrent) {
+            this.concurrent = Math.max(1, concurrent);
+            this.permits = new Semaphore(this.concurrent, true);
+        }
+    }
+}
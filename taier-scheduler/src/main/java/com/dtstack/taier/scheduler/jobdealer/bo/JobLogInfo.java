@@ -32,6 +32,8 @@ public class JobLogInfo implements Delayed {
     private long expired;
     private String customLog;
     private EJobLogType logType;
+    private String jobResource;
+    private Integer scheduleType;
 
     public JobLogInfo(String jobId, JobIdentifier jobIdentifier, int computeType, long delay, EJobLogType logType){
         this.jobId = jobId;
@@ -48,6 +50,22 @@ public class JobLogInfo implements Delayed {
         return logType;
     }
 
+    public String getJobResource() {
+        return jobResource;
+    }
+
+    public void setJobResource(String jobResource) {
+        this.jobResource = jobResource;
+    }
+
+    public Integer getScheduleType() {
+        return scheduleType;
+    }
+
+    public void setScheduleType(Integer scheduleType) {
+        this.scheduleType = scheduleType;
+    }
+
     public String getCustomLog() {
         return customLog;
     }
@@ -113,6 +113,17 @@ public class ShardCache implements ApplicationContextAware {
         return false;
     }
 
+    /**
+     * 本节点正在轮询状态的实例数
+     */
+    public int getShardJobSize() {
+        int size = 0;
+        for (ShardManager shardManager : jobResourceShardManager.values()) {
+            size += shardManager.getShard().size();
+        }
+        return size;
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
@@ -18,24 +18,21 @@
 
 package com.dtstack.taier.scheduler.server;
 
-import com.alibaba.fastjson.JSONObject;
-import com.dtstack.taier.common.enums.Deleted;
 import com.dtstack.taier.common.enums.EJobCacheStage;
 import com.dtstack.taier.common.enums.EScheduleType;
 import com.dtstack.taier.common.env.EnvironmentContext;
 import com.dtstack.taier.common.util.GenerateErrorMsgUtil;
 import com.dtstack.taier.dao.domain.ScheduleJobCache;
-import com.dtstack.taier.dao.domain.ScheduleJob;
-import com.dtstack.taier.dao.domain.ScheduleJobOperatorRecord;
+import com.dtstack.taier.dao.domain.po.IdRangePO;
 import com.dtstack.taier.pluginapi.CustomThreadFactory;
 import com.dtstack.taier.pluginapi.enums.TaskStatus;
 import com.dtstack.taier.pluginapi.exception.ExceptionUtil;
 import com.dtstack.taier.pluginapi.http.PoolHttpClient;
 import com.dtstack.taier.scheduler.dto.scheduler.SimpleScheduleJobDTO;
-import com.dtstack.taier.scheduler.enums.JobPhaseStatus;
 import com.dtstack.taier.scheduler.server.builder.CycleJobBuilder;
 import com.dtstack.taier.scheduler.service.NodeRecoverService;
 import com.dtstack.taier.scheduler.service.ScheduleJobCacheService;
+import com.dtstack.taier.scheduler.service.ScheduleJobLogQueueService;
 import com.dtstack.taier.scheduler.service.ScheduleJobOperatorRecordService;
 import com.dtstack.taier.scheduler.service.ScheduleJobService;
 import com.dtstack.taier.scheduler.zookeeper.ZkService;
@@ -46,22 +43,24 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * company: www.dtstack.com
@@ -69,7 +68,7 @@ import java.util.concurrent.TimeUnit;
  * create: 2019/10/22
  */
 @Component
-public class FailoverStrategy {
+public class FailoverStrategy implements InitializingBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FailoverStrategy.class);
 
@@ -100,6 +99,9 @@ public class FailoverStrategy {
     @Autowired
     private ScheduleJobOperatorRecordService scheduleJobOperatorRecordService;
 
+    @Autowired
+    private ScheduleJobLogQueueService scheduleJobLogQueueService;
+
 
     private static final String MASTER_TRIGGER_NODE = "/node/nodeRecover/masterTriggerNode";
 
@@ -107,6 +109,8 @@ public class FailoverStrategy {
 
     private ExecutorService masterNodeDealer;
 
+    private ExecutorService failoverExecutor;
+
     private final BlockingQueue<String> queue = new LinkedBlockingDeque<>();
 
     private final FaultTolerantDealer faultTolerantDealer = new FaultTolerantDealer();
@@ -116,6 +120,15 @@ public class FailoverStrategy {
                 new LinkedBlockingQueue<>(), new CustomThreadFactory(this.getClass().getSimpleName()));
     }
 
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        int threadNum = Math.max(2, environmentContext.getFailoverThread());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadNum, threadNum, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomThreadFactory("FailoverExecutor"));
+        executor.allowCoreThreadTimeOut(true);
+        failoverExecutor = executor;
+    }
+
     public void setIsMaster(boolean isMaster) {
         if (isMaster && !currIsMaster) {
             currIsMaster = true;
@@ -182,8 +195,11 @@ public class FailoverStrategy {
                     String node = queue.take();
                     LOGGER.warn("----- nodeAddress:{} node disaster recovery tasks begin to recover----", node);
 
+                    //schedule_job 和 schedule_job_cache 同时恢复
+                    Future<?> jobCacheFuture = failoverExecutor.submit(() -> faultTolerantRecoverJobCache(node));
+                    Future<?> logQueueFuture = failoverExecutor.submit(() -> faultTolerantRecoverLogQueue(node));
                     faultTolerantRecoverBatchJob(node);
-                    faultTolerantRecoverJobCache(node);
+                    waitFutures(node, Lists.newArrayList(jobCacheFuture, logQueueFuture));
 
                     List<String> aliveNodes = zkService.getAliveBrokersChildren();
                     for (String nodeAddress : aliveNodes) {
@@ -217,106 +233,166 @@ public class FailoverStrategy {
 
             //节点容灾恢复任务
             LOGGER.warn("----- nodeAddress:{} BatchJob mission begins to resume----", nodeAddress);
-            long startId = 0L;
-            while (true) {
-                List<SimpleScheduleJobDTO> simpleScheduleJobDTOS = scheduleJobService.listSimpleJobByStatusAddress(startId, TaskStatus.getUnfinishedStatuses(), nodeAddress);
-                if (CollectionUtils.isEmpty(simpleScheduleJobDTOS)) {
-                    break;
-                }
-                Set<String> cronJobIds = new HashSet<>();
-                Set<String> fillJobIds = new HashSet<>();
-                List<String> phaseStatus = Lists.newArrayList();
-                for (SimpleScheduleJobDTO batchJob : simpleScheduleJobDTOS) {
-                    if (EScheduleType.NORMAL_SCHEDULE.getType().equals(batchJob.getType())) {
-                        cronJobIds.add(batchJob.getJobId());
-                        LOGGER.info("----- nodeAddress:{} distributeBatchJobs {} NORMAL_SCHEDULE -----", nodeAddress, batchJob.getJobId());
-                    } else {
-                        fillJobIds.add(batchJob.getJobId());
-                        LOGGER.info("----- nodeAddress:{} distributeBatchJobs {} FILL_DATA -----", nodeAddress, batchJob.getJobId());
-                    }
-                    if (JobPhaseStatus.JOIN_THE_TEAM.getCode().equals(batchJob.getPhaseStatus())) {
-                        phaseStatus.add(batchJob.getJobId());
-                    }
-                    startId = batchJob.getId();
+            long startTime = System.currentTimeMillis();
+            List<Integer> unfinishedStatuses = TaskStatus.getUnfinishedStatuses();
+            List<IdRangePO> idRanges = Lists.newArrayList();
+            List<Integer> types = Lists.newArrayList();
+            long total = 0L;
+            for (EScheduleType scheduleType : EScheduleType.values()) {
+                IdRangePO idRange = scheduleJobService.getIdRangeByStatusAddress(nodeAddress, unfinishedStatuses, scheduleType.getType());
+                if (idRange == null || idRange.getTotal() == null || idRange.getTotal() <= 0) {
+                    continue;
                 }
-                distributeBatchJobs(cronJobIds, EScheduleType.NORMAL_SCHEDULE.getType());
-                distributeBatchJobs(fillJobIds, EScheduleType.FILL_DATA.getType());
-                updatePhaseStatus(phaseStatus);
+                idRanges.add(idRange);
+                types.add(scheduleType.getType());
+                total += idRange.getTotal();
+            }
+
+            FailoverProgress progress = new FailoverProgress(nodeAddress, total, startTime);
+            List<Future<?>> futures = Lists.newArrayList();
+            for (int i = 0; i < idRanges.size(); i++) {
+                futures.addAll(distributeBatchJobs(nodeAddress, idRanges.get(i), types.get(i), unfinishedStatuses, progress));
             }
+            waitFutures(nodeAddress, futures);
 
             //在迁移任务的时候，可能出现要迁移的节点也宕机了，任务没有正常接收需要再次恢复（由HearBeatCheckListener监控）。
-            List<SimpleScheduleJobDTO> jobs = scheduleJobService.listSimpleJobByStatusAddress(0L, TaskStatus.getUnfinishedStatuses(), nodeAddress);
+            List<SimpleScheduleJobDTO> jobs = scheduleJobService.listSimpleJobByStatusAddress(0L, unfinishedStatuses, nodeAddress);
             if (CollectionUtils.isNotEmpty(jobs)) {
                 zkService.updateSynchronizedLocalBrokerHeartNode(nodeAddress, BrokerHeartNode.initNullBrokerHeartNode(), true);
             }
 
-            LOGGER.warn("----- nodeAddress:{} BatchJob mission end recovery-----", nodeAddress);
+            LOGGER.warn("----- nodeAddress:{} BatchJob mission end recovery, moved:{}/{} cost:{}ms-----", nodeAddress,
+                    progress.moved.get(), total, System.currentTimeMillis() - startTime);
         } catch (Exception e) {
             LOGGER.error("----nodeAddress:{} faultTolerantRecoverBatchJob error:", nodeAddress, e);
         }
     }
 
+    /**
+     * 按 id 区间把宕机节点的实例分片，每片整体迁移到剩余配额最多的节点，分片并行更新
+     *
+     * @param nodeAddress        宕机节点
+     * @param idRange            宕机节点未完成实例的 id 范围
+     * @param type               实例类型
+     * @param unfinishedStatuses 需要迁移的状态
+     * @param progress           迁移进度
+     * @return 分片更新任务
+     */
+    private List<Future<?>> distributeBatchJobs(String nodeAddress, IdRangePO idRange, Integer type,
+                                                List<Integer> unfinishedStatuses, FailoverProgress progress) {
+        List<Future<?>> futures = Lists.newArrayList();
+        long total = idRange.getTotal();
+        //补数据和临时运行共用补数据队列
+        Integer queueType = EScheduleType.NORMAL_SCHEDULE.getType().equals(type) ? type : EScheduleType.FILL_DATA.getType();
+        //任务多节点分发，每个节点要分发的任务量
+        Map<String, Integer> nodeJobSize = Maps.newHashMap(jobPartitioner.computeBatchJobSize(queueType, (int) total));
+        if (nodeJobSize.isEmpty()) {
+            LOGGER.warn("----- nodeAddress:{} type:{} no alive node to failover -----", nodeAddress, type);
+            return futures;
+        }
 
-    private void updatePhaseStatus(List<String> jobIds) {
-        if (CollectionUtils.isNotEmpty(jobIds)) {
-            LOGGER.info("----- updatePhaseStatus {} -----", JSONObject.toJSONString(jobIds));
-            ScheduleJob scheduleJob = new ScheduleJob();
-            scheduleJob.setPhaseStatus(JobPhaseStatus.CREATE.getCode());
-            scheduleJobService.lambdaUpdate()
-                    .in(ScheduleJob::getJobId, jobIds)
-                    .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
-                    .update(scheduleJob);
+        //按实例的平均 id 间隔估算每片 id 区间，使每片大约 failover.chunk.size 个实例
+        long minId = idRange.getMinId();
+        long maxId = idRange.getMaxId();
+        long span = maxId - minId + 1;
+        long chunkSize = Math.max(1, environmentContext.getFailoverChunkSize());
+        long idStep = Math.max(1, span * chunkSize / total);
+        for (long chunkStart = minId; chunkStart <= maxId; chunkStart += idStep) {
+            long chunkEnd = Math.min(maxId, chunkStart + idStep - 1);
+            long estimateSize = Math.max(1, total * (chunkEnd - chunkStart + 1) / span);
+            String targetAddress = selectNode(nodeJobSize, estimateSize);
+            long startId = chunkStart;
+            futures.add(failoverExecutor.submit(() -> {
+                int moved = scheduleJobService.updateNodeAddressByIdRange(startId, chunkEnd, nodeAddress, unfinishedStatuses, type, targetAddress);
+                if (moved > 0) {
+                    // 更新jobOperatorRecord
+                    scheduleJobOperatorRecordService.updateNodeAddressByJobIdRange(startId, chunkEnd, type, targetAddress);
+                }
+                LOGGER.info("id:[{}, {}] type:{} failover {} jobs to address:{}, progress:{}", startId, chunkEnd, type, moved, targetAddress, progress.add(moved));
+            }));
         }
+        return futures;
     }
 
     /**
-     * Ps：jobIds  为 batchJob 表的 id 字段（非job_id字段）
+     * 选择剩余配额最多的节点，并扣减配额
      */
-    private void distributeBatchJobs(Set<String> jobIds, Integer scheduleType) {
-        if (jobIds.isEmpty()) {
-            return;
+    private String selectNode(Map<String, Integer> nodeJobSize, long size) {
+        Map.Entry<String, Integer> target = null;
+        for (Map.Entry<String, Integer> entry : nodeJobSize.entrySet()) {
+            if (target == null || entry.getValue() > target.getValue()) {
+                target = entry;
+            }
+        }
+        target.setValue((int) (target.getValue() - size));
+        return target.getKey();
+    }
+
+    private void waitFutures(String nodeAddress, List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                LOGGER.error("----nodeAddress:{} failover chunk error:", nodeAddress, e.getCause());
+            }
         }
+    }
 
-        Iterator<String> jobIdsIterator = jobIds.iterator();
+    /**
+     * 容灾迁移进度
+     */
+    private static class FailoverProgress {
 
-        //任务多节点分发，每个节点要分发的任务量
-        Map<String, List<String>> nodeJobs = Maps.newHashMap();
+        private final String nodeAddress;
 
-        Map<String, Integer> nodeJobSize = jobPartitioner.computeBatchJobSize(scheduleType, jobIds.size());
-        for (Map.Entry<String, Integer> nodeJobSizeEntry : nodeJobSize.entrySet()) {
-            String nodeAddress = nodeJobSizeEntry.getKey();
-            int nodeSize = nodeJobSizeEntry.getValue();
-            while (nodeSize > 0 && jobIdsIterator.hasNext()) {
-                nodeSize--;
-                List<String> nodeJobIds = nodeJobs.computeIfAbsent(nodeAddress, k -> Lists.newArrayList());
-                nodeJobIds.add(jobIdsIterator.next());
-            }
+        private final long total;
+
+        private final long startTime;
+
+        private final AtomicLong moved = new AtomicLong();
+
+        private FailoverProgress(String nodeAddress, long total, long startTime) {
+            this.nodeAddress = nodeAddress;
+            this.total = total;
+            this.startTime = startTime;
         }
 
-        updateBatchJobs(nodeJobs);
+        private String add(int count) {
+            long current = moved.addAndGet(count);
+            return String.format("%s %d/%d %dms", nodeAddress, current, total, System.currentTimeMillis() - startTime);
+        }
     }
 
-    private void updateBatchJobs(Map<String, List<String>> nodeJobs) {
-        for (Map.Entry<String, List<String>> nodeEntry : nodeJobs.entrySet()) {
-            if (nodeEntry.getValue().isEmpty()) {
-                continue;
+    /**
+     * 宕机节点暂存的日志请求分批轮流转移到存活节点
+     *
+     * @param nodeAddress 宕机节点
+     */
+    public void faultTolerantRecoverLogQueue(String nodeAddress) {
+        try {
+            //再次判断broker是否alive
+            BrokerHeartNode brokerHeart = zkService.getBrokerHeartNode(nodeAddress);
+            if (brokerHeart.getAlive()) {
+                return;
             }
-
-            // 更新实例
-            ScheduleJob scheduleJob = new ScheduleJob();
-            scheduleJob.setNodeAddress(nodeEntry.getKey());
-            scheduleJobService.lambdaUpdate()
-                    .in(ScheduleJob::getJobId, nodeEntry.getValue())
-                    .update(scheduleJob);
-
-            // 更新jobOperatorRecord
-            ScheduleJobOperatorRecord scheduleJobOperatorRecord = new ScheduleJobOperatorRecord();
-            scheduleJobOperatorRecord.setNodeAddress(nodeEntry.getKey());
-            scheduleJobOperatorRecordService.lambdaUpdate()
-                    .in(ScheduleJobOperatorRecord::getJobId, nodeEntry.getValue())
-                    .update(scheduleJobOperatorRecord);
-
-            LOGGER.info("jobIds:{} failover to address:{}", nodeEntry.getValue(), nodeEntry.getKey());
+            List<String> aliveNodes = zkService.getAliveBrokersChildren();
+            aliveNodes.remove(nodeAddress);
+            if (CollectionUtils.isEmpty(aliveNodes)) {
+                LOGGER.warn("----- nodeAddress:{} no alive node to failover log queue -----", nodeAddress);
+                return;
+            }
+            int chunkSize = Math.max(1, environmentContext.getFailoverChunkSize());
+            long total = 0L;
+            int moved;
+            int index = 0;
+            do {
+                String targetAddress = aliveNodes.get(index++ % aliveNodes.size());
+                moved = scheduleJobLogQueueService.updateNodeAddress(nodeAddress, targetAddress, chunkSize);
+                total += moved;
+            } while (moved > 0);
+            LOGGER.warn("----- nodeAddress:{} LogQueue mission end recovery, moved:{}-----", nodeAddress, total);
+        } catch (Exception e) {
+            LOGGER.error("----nodeAddress:{} faultTolerantRecoverLogQueue error:", nodeAddress, e);
         }
     }
 
@@ -18,16 +18,18 @@
 
 package com.dtstack.taier.scheduler.server;
 
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.common.exception.TaierDefineException;
 import com.dtstack.taier.scheduler.server.listener.QueueListener;
+import com.dtstack.taier.scheduler.server.partition.PartitionStrategy;
+import com.dtstack.taier.scheduler.server.queue.ClusterView;
 import com.dtstack.taier.scheduler.server.queue.GroupInfo;
 import com.dtstack.taier.scheduler.server.queue.QueueInfo;
-import com.dtstack.taier.scheduler.zookeeper.ZkService;
-import com.google.common.collect.Maps;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -37,106 +39,62 @@ import java.util.Map;
  * create: 2020/01/17
  */
 @Component
-public class JobPartitioner {
+public class JobPartitioner implements InitializingBean {
 
     @Autowired
     private QueueListener queueListener;
 
     @Autowired
-    private ZkService zkService;
+    private EnvironmentContext environmentContext;
 
-    public Map<String, Integer> getDefaultStrategy(List<String> aliveNodes, int jobSize) {
-        Map<String, Integer> jobSizeInfo = new HashMap<>(aliveNodes.size());
-        int size = (jobSize / aliveNodes.size()) + 1;
-        for (String aliveNode : aliveNodes) {
-            jobSizeInfo.put(aliveNode, size);
+    @Autowired
+    private List<PartitionStrategy> partitionStrategies;
+
+    private PartitionStrategy partitionStrategy;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        for (PartitionStrategy strategy : partitionStrategies) {
+            if (strategy.getName().equalsIgnoreCase(environmentContext.getJobPartitionStrategy())) {
+                partitionStrategy = strategy;
+            }
+        }
+        if (partitionStrategy == null) {
+            throw new TaierDefineException("unsupported job.partition.strategy: " + environmentContext.getJobPartitionStrategy());
         }
-        return jobSizeInfo;
     }
 
     /**
      * compute job number per node
      */
     public Map<String, Integer> computeBatchJobSize(Integer type, int jobSize) {
-        //节点挂了就会迁移的
-        List<String> aliveNodes = zkService.getAliveBrokersChildren();
-        Map<Integer, Map<String, QueueInfo>> allNodesJobQueueInfo = queueListener.getAllNodesJobQueueInfo();
-        if (allNodesJobQueueInfo.isEmpty()) {
-            return getDefaultStrategy(aliveNodes, jobSize);
-        }
-        Map<String, QueueInfo> nodesJobQueue = allNodesJobQueueInfo.get(type);
-        if (nodesJobQueue == null || nodesJobQueue.isEmpty()) {
-            return getDefaultStrategy(aliveNodes, jobSize);
+        //节点挂了就会迁移的，批量分配前重新确认存活节点
+        ClusterView clusterView = queueListener.refreshJobQueueInfo();
+        Map<String, QueueInfo> nodesJobQueue = clusterView.getJobQueueInfo().get(type);
+        Map<String, Integer> nodesQueueSize = new HashMap<>();
+        if (nodesJobQueue != null) {
+            nodesJobQueue.forEach((nodeAddress, queueInfo) -> nodesQueueSize.put(nodeAddress, queueInfo.getSize()));
         }
-        Map<String, Integer> nodeSort = Maps.newHashMap();
-        int total = jobSize;
-        for (Map.Entry<String, QueueInfo> queueInfoEntry : nodesJobQueue.entrySet()) {
-            QueueInfo queueInfo = queueInfoEntry.getValue();
-            total += queueInfo.getSize();
-            //排除宕机节点
-            if (aliveNodes.contains(queueInfoEntry.getKey())) {
-                nodeSort.put(queueInfoEntry.getKey(), queueInfo.getSize());
-            }
-        }
-        if (nodeSort.isEmpty()) {
-            return getDefaultStrategy(aliveNodes, jobSize);
-        }
-        int avg = (total / nodeSort.size()) + 1;
-        for (Map.Entry<String, Integer> entry : nodeSort.entrySet()) {
-            entry.setValue(avg - entry.getValue());
-        }
-        return nodeSort;
+        return partitionStrategy.partition(clusterView, nodesQueueSize, jobSize);
     }
 
     public Map<String, Integer> computeJobCacheSize(String jobResource, int jobSize) {
-        List<String> aliveNodes = zkService.getAliveBrokersChildren();
-        Map<String, Map<String, GroupInfo>> allNodesGroupQueueJobResources = queueListener.getAllNodesGroupQueueInfo();
-        if (allNodesGroupQueueJobResources.isEmpty()) {
-            return getDefaultStrategy(aliveNodes, jobSize);
-        }
-        Map<String, GroupInfo> nodesGroupQueue = allNodesGroupQueueJobResources.get(jobResource);
-        if (nodesGroupQueue == null || nodesGroupQueue.isEmpty()) {
-            return getDefaultStrategy(aliveNodes, jobSize);
+        //节点宕机迁移实例时调用，重新确认存活节点，提交队列信息读取后台统计的快照
+        ClusterView clusterView = queueListener.refreshClusterView();
+        Map<String, GroupInfo> nodesGroupQueue = clusterView.getGroupQueueInfo().get(jobResource);
+        Map<String, Integer> nodesQueueSize = new HashMap<>();
+        if (nodesGroupQueue != null) {
+            nodesGroupQueue.forEach((nodeAddress, groupInfo) -> nodesQueueSize.put(nodeAddress, groupInfo.getSize()));
         }
-        Map<String, Integer> nodeSort = Maps.newHashMap();
-        int total = jobSize;
-        for (Map.Entry<String, GroupInfo> groupInfoEntry : nodesGroupQueue.entrySet()) {
-            GroupInfo groupInfo = groupInfoEntry.getValue();
-            total += groupInfo.getSize();
-            //排除宕机节点
-            if (aliveNodes.contains(groupInfoEntry.getKey())) {
-                nodeSort.put(groupInfoEntry.getKey(), groupInfo.getSize());
-            }
-        }
-        if (nodeSort.isEmpty()) {
-            return getDefaultStrategy(aliveNodes, jobSize);
-        }
-        int avg = (total / nodeSort.size()) + 1;
-        for (Map.Entry<String, Integer> entry : nodeSort.entrySet()) {
-            entry.setValue(avg - entry.getValue());
-        }
-        return nodeSort;
+        return partitionStrategy.partition(clusterView, nodesQueueSize, jobSize);
     }
 
+    /**
+     * 存活节点上 jobResource 的队列信息，只读取后台发布的集群视图快照
+     *
+     * @return 快照中的不可变 map，没有时返回 null
+     */
     public Map<String, GroupInfo> getGroupInfoByJobResource(String jobResource) {
-        Map<String, Map<String, GroupInfo>> allNodesGroupQueueJobResources = queueListener.getAllNodesGroupQueueInfo();
-        if (allNodesGroupQueueJobResources.isEmpty()) {
-            return null;
-        }
-        Map<String, GroupInfo> nodesGroupQueue = allNodesGroupQueueJobResources.get(jobResource);
-        if (nodesGroupQueue == null || nodesGroupQueue.isEmpty()) {
-            return null;
-        }
-        List<String> aliveBrokers = zkService.getAliveBrokersChildren();
-        //将不存活节点过滤
-        Iterator<Map.Entry<String, GroupInfo>> nodesGroupQueueIt = nodesGroupQueue.entrySet().iterator();
-        while (nodesGroupQueueIt.hasNext()) {
-            Map.Entry<String, GroupInfo> groupInfoEntry = nodesGroupQueueIt.next();
-            String nodeAddress = groupInfoEntry.getKey();
-            if (!aliveBrokers.contains(nodeAddress)) {
-                nodesGroupQueueIt.remove();
-            }
-        }
-        return nodesGroupQueue;
+        return queueListener.getClusterView().getAliveGroupInfo(jobResource);
     }
 }
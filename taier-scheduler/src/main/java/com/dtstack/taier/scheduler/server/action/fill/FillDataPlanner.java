@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.action.fill;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 补数据 all 集合规划
+ * <p>
+ * all 集合 = R 集合 + 位于两个 R 集合节点之间的路径上的节点，即：从 R 集合可达，且能到达 R 集合的节点。
+ * 不枚举路径，把边转成数组下标的邻接表后按拓扑序正反各扫一遍，用位图记录可达性，耗时与节点数、边数成线性关系
+ */
+public final class FillDataPlanner {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(FillDataPlanner.class);
+
+    /**
+     * 节点 taskId，下标即节点编号
+     */
+    private final long[] taskIds;
+
+    /**
+     * 邻接表: 节点 i 的下游为 targets[offsets[i]] ~ targets[offsets[i + 1] - 1]
+     */
+    private final int[] offsets;
+
+    private final int[] targets;
+
+    /**
+     * R 集合节点
+     */
+    private final BitSet run;
+
+    private FillDataPlanner(long[] taskIds, int[] offsets, int[] targets, BitSet run) {
+        this.taskIds = taskIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.run = run;
+    }
+
+    /**
+     * 计算需要补数据的节点
+     *
+     * @param run      R集合
+     * @param nodeSide R集合所在 dag 图的边，key 为上游，value 为下游
+     * @return all 集合
+     */
+    public static Set<Long> plan(Set<Long> run, Map<Long, List<Long>> nodeSide) {
+        long startTime = System.currentTimeMillis();
+        FillDataPlanner planner = build(run, nodeSide);
+        Set<Long> all = planner.select();
+        LOGGER.info("fill data plan run:{} nodes:{} sides:{} all:{} cost:{}ms", run.size(), planner.taskIds.length,
+                planner.targets.length, all.size(), System.currentTimeMillis() - startTime);
+        return all;
+    }
+
+    private static FillDataPlanner build(Set<Long> run, Map<Long, List<Long>> nodeSide) {
+        Map<Long, Integer> index = Maps.newHashMapWithExpectedSize(run.size() + nodeSide.size());
+        int sideSize = 0;
+        for (Long taskId : run) {
+            index.putIfAbsent(taskId, index.size());
+        }
+        for (Map.Entry<Long, List<Long>> entry : nodeSide.entrySet()) {
+            index.putIfAbsent(entry.getKey(), index.size());
+            List<Long> childTaskKeys = entry.getValue();
+            if (CollectionUtils.isNotEmpty(childTaskKeys)) {
+                for (Long childTaskKey : childTaskKeys) {
+                    index.putIfAbsent(childTaskKey, index.size());
+                }
+                sideSize += childTaskKeys.size();
+            }
+        }
+
+        int size = index.size();
+        long[] taskIds = new long[size];
+        for (Map.Entry<Long, Integer> entry : index.entrySet()) {
+            taskIds[entry.getValue()] = entry.getKey();
+        }
+
+        int[] offsets = new int[size + 1];
+        for (Map.Entry<Long, List<Long>> entry : nodeSide.entrySet()) {
+            if (entry.getValue() != null) {
+                offsets[index.get(entry.getKey()) + 1] += entry.getValue().size();
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[sideSize];
+        int[] cursor = new int[size];
+        for (Map.Entry<Long, List<Long>> entry : nodeSide.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            int parent = index.get(entry.getKey());
+            for (Long childTaskKey : entry.getValue()) {
+                targets[offsets[parent] + cursor[parent]++] = index.get(childTaskKey);
+            }
+        }
+
+        BitSet runBits = new BitSet(size);
+        for (Long taskId : run) {
+            runBits.set(index.get(taskId));
+        }
+        return new FillDataPlanner(taskIds, offsets, targets, runBits);
+    }
+
+    private Set<Long> select() {
+        int size = taskIds.length;
+        // fromRun: 从 R 集合可达(包含 R 集合自身)，toRun: 经过至少一条边能到达 R 集合
+        BitSet fromRun = new BitSet(size);
+        BitSet toRun = new BitSet(size);
+
+        int[] order = topologicalOrder();
+        if (order.length == size) {
+            for (int node : order) {
+                if (run.get(node)) {
+                    fromRun.set(node);
+                }
+                if (fromRun.get(node)) {
+                    for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                        fromRun.set(targets[i]);
+                    }
+                }
+            }
+            for (int k = order.length - 1; k >= 0; k--) {
+                int node = order[k];
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    int child = targets[i];
+                    if (run.get(child) || toRun.get(child)) {
+                        toRun.set(node);
+                        break;
+                    }
+                }
+            }
+        } else {
+            // 依赖关系成环，无法拓扑排序，退化成按边反复传播直到不再变化
+            LOGGER.warn("fill data plan find cycle, nodes:{} sorted:{}", size, order.length);
+            fromRun.or(run);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int node = 0; node < size; node++) {
+                    for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                        int child = targets[i];
+                        if (fromRun.get(node) && !fromRun.get(child)) {
+                            fromRun.set(child);
+                            changed = true;
+                        }
+                        if ((run.get(child) || toRun.get(child)) && !toRun.get(node)) {
+                            toRun.set(node);
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        toRun.and(fromRun);
+        toRun.or(run);
+        Set<Long> all = Sets.newHashSetWithExpectedSize(toRun.cardinality());
+        for (int node = toRun.nextSetBit(0); node >= 0; node = toRun.nextSetBit(node + 1)) {
+            all.add(taskIds[node]);
+        }
+        return all;
+    }
+
+    /**
+     * Kahn 算法求拓扑序，成环时返回的数组长度小于节点数
+     */
+    private int[] topologicalOrder() {
+        int size = taskIds.length;
+        int[] inDegree = new int[size];
+        for (int target : targets) {
+            inDegree[target]++;
+        }
+        int[] order = new int[size];
+        int tail = 0;
+        for (int node = 0; node < size; node++) {
+            if (inDegree[node] == 0) {
+                order[tail++] = node;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int node = order[head];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (--inDegree[targets[i]] == 0) {
+                    order[tail++] = targets[i];
+                }
+            }
+        }
+        return tail == size ? order : Arrays.copyOf(order, tail);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.action.fill;
+
+import com.alibaba.fastjson.JSON;
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.dao.domain.ScheduleFillDataJob;
+import com.dtstack.taier.scheduler.dto.fill.ScheduleFillDataInfoDTO;
+import com.dtstack.taier.scheduler.dto.fill.ScheduleFillJobParticipateDTO;
+import com.dtstack.taier.scheduler.service.ScheduleFillDataJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 节点重启后继续生成本节点上还在生成中的补数据，从 fill_cursor 的下一个分片开始
+ */
+@Component
+public class FillDataResumeListener implements ApplicationListener<ApplicationStartedEvent> {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(FillDataResumeListener.class);
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
+    @Autowired
+    private ScheduleFillDataJobService scheduleFillDataJobService;
+
+    @Autowired
+    private FillDataThreadPoolExecutor fillDataThreadPoolExecutor;
+
+    @Autowired
+    private FillDataRunnable.FillFinishEvent fillFinishEvent;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent applicationStartedEvent) {
+        List<ScheduleFillDataJob> fillDataJobs = scheduleFillDataJobService.listGeneratingFill(environmentContext.getLocalAddress());
+        for (ScheduleFillDataJob fillDataJob : fillDataJobs) {
+            try {
+                ScheduleFillJobParticipateDTO participateDTO = new ScheduleFillJobParticipateDTO();
+                participateDTO.setFillName(fillDataJob.getJobName());
+                participateDTO.setStartDay(fillDataJob.getFromDay());
+                participateDTO.setEndDay(fillDataJob.getToDay());
+                participateDTO.setBeginTime(fillDataJob.getBeginTime());
+                participateDTO.setEndTime(fillDataJob.getEndTime());
+                participateDTO.setUserId(fillDataJob.getCreateUserId());
+                participateDTO.setTenantId(fillDataJob.getTenantId());
+                ScheduleFillDataInfoDTO fillDataInfo = JSON.parseObject(fillDataJob.getFillDataInfo(), ScheduleFillDataInfoDTO.class);
+                participateDTO.setFillDataInfo(fillDataInfo);
+
+                fillDataThreadPoolExecutor.submit(new FillDataRunnable(fillDataJob.getId(), participateDTO, fillDataInfo, fillFinishEvent, applicationContext));
+                LOGGER.info("fillId:{} resume generating fill data from cursor:{}", fillDataJob.getId(), fillDataJob.getFillCursor());
+            } catch (Exception e) {
+                LOGGER.error("fillId:{} resume generating fill data error", fillDataJob.getId(), e);
+            }
+        }
+    }
+}
@@ -35,12 +35,6 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -112,20 +106,18 @@ public abstract class AbstractRestart {
     }
 
     /**
-     * 递归查找当前jobId下的子任务
+     * 按层查找当前jobId下的子任务
      *
      * @param jobId
      * @param isOnlyNextChild
      * @return
      */
-    protected Map<String, String> getAllChildJobWithSameDayByForkJoin(String jobId, boolean isOnlyNextChild) {
-        ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
-        ConcurrentHashMap<String, String> results = new ConcurrentHashMap<>();
-        ForkJoinJobTask forkJoinJobTask = new ForkJoinJobTask(jobId, results, scheduleJobService, scheduleJobJobService, isOnlyNextChild);
-        ForkJoinTask<Map<String, String>> submit = forkJoinPool.submit(forkJoinJobTask);
+    protected Map<String, String> getAllChildJobWithSameDay(String jobId, boolean isOnlyNextChild) {
+        ChildJobFinder childJobFinder = new ChildJobFinder(scheduleJobService, scheduleJobJobService,
+                environmentContext.getRestartChildMaxLevel(), environmentContext.getRestartChildMaxSize(), environmentContext.getForkJoinResultTimeOut());
         try {
-            return submit.get(environmentContext.getForkJoinResultTimeOut(), TimeUnit.SECONDS);
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            return childJobFinder.find(jobId, isOnlyNextChild);
+        } catch (Exception e) {
             LOGGER.error("get all child job {} error ", jobId, e);
         }
         return null;
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.action.restart;
+
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.dtstack.taier.common.enums.Deleted;
+import com.dtstack.taier.common.enums.EScheduleJobType;
+import com.dtstack.taier.dao.domain.ScheduleJob;
+import com.dtstack.taier.dao.domain.ScheduleJobJob;
+import com.dtstack.taier.scheduler.service.ScheduleJobJobService;
+import com.dtstack.taier.scheduler.service.ScheduleJobService;
+import com.dtstack.taier.scheduler.utils.JobKeyUtils;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 查询出当前任务的所有下游任务（同一调度日期内）
+ * <p>
+ * 按层遍历，每一层的依赖关系、工作流子任务、下游实例各用一次 in 查询批量获取，
+ * 查询次数和层数相关，和实例数无关
+ */
+public class ChildJobFinder {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(ChildJobFinder.class);
+
+    private static final List<Integer> SPECIAL_TASK_TYPES = Lists.newArrayList(EScheduleJobType.WORK_FLOW.getVal());
+
+    private static final int PARTITION_SIZE = 1000;
+
+    private final ScheduleJobService scheduleJobService;
+
+    private final ScheduleJobJobService scheduleJobJobService;
+
+    private final int maxLevel;
+
+    private final int maxSize;
+
+    private final long timeout;
+
+    /**
+     * @param maxLevel 最多向下查找的层数
+     * @param maxSize  最多查找的下游实例数
+     * @param timeout  超时时间，秒
+     */
+    public ChildJobFinder(ScheduleJobService scheduleJobService, ScheduleJobJobService scheduleJobJobService,
+                          int maxLevel, int maxSize, long timeout) {
+        this.scheduleJobService = scheduleJobService;
+        this.scheduleJobJobService = scheduleJobJobService;
+        this.maxLevel = maxLevel;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param jobId           实例id
+     * @param isOnlyNextChild 只查询直接下游
+     * @return 下游实例 jobId -> cycTime，不包含当前实例，超时返回null
+     */
+    public Map<String, String> find(String jobId, boolean isOnlyNextChild) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeout);
+        Map<String, String> results = new LinkedHashMap<>();
+        List<ScheduleJob> frontier = listJobs(ScheduleJob::getJobId, Lists.newArrayList(jobId));
+        int level = 0;
+        while (CollectionUtils.isNotEmpty(frontier)) {
+            if (level >= maxLevel) {
+                LOGGER.warn("jobId:{} find child job over max level {}, found {}", jobId, maxLevel, results.size());
+                break;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                LOGGER.error("jobId:{} find child job timeout, level {} found {}", jobId, level, results.size());
+                return null;
+            }
+            List<ScheduleJob> childJobs = listChildJobs(frontier);
+            List<ScheduleJob> nextFrontier = new ArrayList<>();
+            for (ScheduleJob childJob : childJobs) {
+                if (results.containsKey(childJob.getJobId())) {
+                    continue;
+                }
+                if (results.size() >= maxSize) {
+                    LOGGER.warn("jobId:{} find child job over max size {}, level {}", jobId, maxSize, level);
+                    return results;
+                }
+                results.put(childJob.getJobId(), childJob.getCycTime());
+                nextFrontier.add(childJob);
+            }
+            LOGGER.info("jobId:{} find child job level {} frontier {} next {} found {}", jobId, level, frontier.size(), nextFrontier.size(), results.size());
+            if (isOnlyNextChild) {
+                break;
+            }
+            frontier = nextFrontier;
+            level++;
+        }
+        return results;
+    }
+
+    /**
+     * 一层实例的直接下游实例
+     */
+    private List<ScheduleJob> listChildJobs(List<ScheduleJob> frontier) {
+        Map<String, ScheduleJob> parentJobs = Maps.newHashMapWithExpectedSize(frontier.size());
+        for (ScheduleJob scheduleJob : frontier) {
+            //从jobKey获取父任务的触发时间
+            if (!Strings.isNullOrEmpty(JobKeyUtils.getJobTriggerTimeFromJobKey(scheduleJob.getJobKey()))) {
+                parentJobs.put(scheduleJob.getJobKey(), scheduleJob);
+            }
+        }
+        if (parentJobs.isEmpty()) {
+            return Lists.newArrayList();
+        }
+
+        //查询子工作任务
+        Map<String, List<ScheduleJobJob>> jobJobMap = listJobJobs(parentJobs.keySet()).stream()
+                .collect(Collectors.groupingBy(ScheduleJobJob::getParentJobKey));
+        if (jobJobMap.isEmpty()) {
+            return Lists.newArrayList();
+        }
+
+        //如果工作流 和 实验任务 把子节点全部添加进来
+        List<String> flowJobIds = jobJobMap.keySet().stream()
+                .map(parentJobs::get)
+                .filter(scheduleJob -> SPECIAL_TASK_TYPES.contains(scheduleJob.getTaskType()))
+                .map(ScheduleJob::getJobId)
+                .collect(Collectors.toList());
+        Map<String, List<ScheduleJob>> flowJobMap = flowJobIds.isEmpty() ? Maps.newHashMap() :
+                listJobs(ScheduleJob::getFlowJobId, flowJobIds).stream().collect(Collectors.groupingBy(ScheduleJob::getFlowJobId));
+
+        Set<String> childJobKeys = new LinkedHashSet<>();
+        for (Map.Entry<String, List<ScheduleJobJob>> entry : jobJobMap.entrySet()) {
+            ScheduleJob parentJob = parentJobs.get(entry.getKey());
+            childJobKeys.addAll(filterJobKeyList(parentJob, entry.getValue(), flowJobMap.get(parentJob.getJobId())));
+        }
+        if (childJobKeys.isEmpty()) {
+            return Lists.newArrayList();
+        }
+        return listJobs(ScheduleJob::getJobKey, childJobKeys);
+    }
+
+    private Set<String> filterJobKeyList(ScheduleJob scheduleJob, List<ScheduleJobJob> scheduleJobJobList, List<ScheduleJob> flowJobList) {
+        Long jobTaskShadeId = JobKeyUtils.getTaskShadeIdFromJobKey(scheduleJob.getJobKey());
+        String parentJobDayStr = JobKeyUtils.getJobTriggerTimeFromJobKey(scheduleJob.getJobKey());
+        Set<String> jobKeyList = new HashSet<>();
+        if (null == jobTaskShadeId) {
+            return jobKeyList;
+        }
+
+        Set<String> flowJobKeys = new HashSet<>();
+        if (CollectionUtils.isNotEmpty(flowJobList)) {
+            for (ScheduleJob flowJob : flowJobList) {
+                flowJobKeys.add(flowJob.getJobKey().toLowerCase());
+                jobKeyList.add(flowJob.getJobKey());
+            }
+        }
+
+        for (ScheduleJobJob scheduleJobJob : scheduleJobJobList) {
+            String childJobKey = scheduleJobJob.getJobKey();
+            Long childJobShadeId = JobKeyUtils.getTaskShadeIdFromJobKey(childJobKey);
+            //排除自依赖
+            if (null != childJobShadeId && childJobShadeId.equals(jobTaskShadeId)) {
+                continue;
+            }
+            String childJobDayStr = JobKeyUtils.getJobTriggerTimeFromJobKey(childJobKey);
+            //排除不是同一天执行的
+            if (!parentJobDayStr.equals(childJobDayStr)) {
+                continue;
+            }
+            //添加除工作流内部子任务之外的下游任务依赖
+            if (flowJobKeys.contains(childJobKey.toLowerCase())) {
+                continue;
+            }
+            jobKeyList.add(childJobKey);
+        }
+        return jobKeyList;
+    }
+
+    private List<ScheduleJobJob> listJobJobs(Collection<String> parentJobKeys) {
+        List<ScheduleJobJob> scheduleJobJobs = new ArrayList<>();
+        for (List<String> partition : Lists.partition(new ArrayList<>(parentJobKeys), PARTITION_SIZE)) {
+            scheduleJobJobs.addAll(scheduleJobJobService.lambdaQuery()
+                    .select(ScheduleJobJob::getJobKey, ScheduleJobJob::getParentJobKey)
+                    .in(ScheduleJobJob::getParentJobKey, partition)
+                    .eq(ScheduleJobJob::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list());
+        }
+        return scheduleJobJobs;
+    }
+
+    private List<ScheduleJob> listJobs(SFunction<ScheduleJob, ?> column, Collection<String> values) {
+        List<ScheduleJob> scheduleJobs = new ArrayList<>();
+        for (List<String> partition : Lists.partition(new ArrayList<>(values), PARTITION_SIZE)) {
+            scheduleJobs.addAll(scheduleJobService.lambdaQuery()
+                    .select(ScheduleJob::getJobId, ScheduleJob::getJobKey, ScheduleJob::getCycTime,
+                            ScheduleJob::getTaskType, ScheduleJob::getFlowJobId)
+                    .in(column, partition)
+                    .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list());
+        }
+        return scheduleJobs;
+    }
+}
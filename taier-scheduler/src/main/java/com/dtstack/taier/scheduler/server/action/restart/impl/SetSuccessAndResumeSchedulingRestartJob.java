@@ -45,10 +45,10 @@ public class SetSuccessAndResumeSchedulingRestartJob extends AbstractRestartJob
     public Map<String, String> computeResumeBatchJobs(List<ScheduleJob> jobs) {
         Map<String, String> resumeBatchJobs = new HashMap<>();
         for (ScheduleJob job : jobs) {
-            Map<String, String> allChildJobWithSameDayByForkJoin = getAllChildJobWithSameDayByForkJoin(job.getJobId(), false);
-            setSuccess(job, allChildJobWithSameDayByForkJoin);
-            if (MapUtils.isNotEmpty(allChildJobWithSameDayByForkJoin)) {
-                resumeBatchJobs.putAll(allChildJobWithSameDayByForkJoin);
+            Map<String, String> allChildJobWithSameDay = getAllChildJobWithSameDay(job.getJobId(), false);
+            setSuccess(job, allChildJobWithSameDay);
+            if (MapUtils.isNotEmpty(allChildJobWithSameDay)) {
+                resumeBatchJobs.putAll(allChildJobWithSameDay);
             }
             if (!"0".equalsIgnoreCase(job.getFlowJobId())) {
                 ScheduleJob workFlowJob = scheduleJobService.lambdaQuery()
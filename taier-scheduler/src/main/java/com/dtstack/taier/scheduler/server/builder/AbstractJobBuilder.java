@@ -34,6 +34,7 @@ import com.dtstack.taier.scheduler.server.builder.cron.ScheduleConfManager;
 import com.dtstack.taier.scheduler.server.builder.cron.ScheduleCorn;
 import com.dtstack.taier.scheduler.server.builder.dependency.DependencyManager;
 import com.dtstack.taier.scheduler.server.builder.dependency.JobDependency;
+import com.dtstack.taier.scheduler.server.builder.dependency.TaskDependencyGraph;
 import com.dtstack.taier.scheduler.service.ScheduleActionService;
 import com.dtstack.taier.scheduler.service.ScheduleJobService;
 import com.dtstack.taier.scheduler.service.ScheduleTaskShadeService;
@@ -95,6 +96,23 @@ public abstract class AbstractJobBuilder implements JobBuilder, InitializingBean
                                              String endTime,
                                              Long fillId,
                                              JobSortWorker jobSortWorker) throws Exception {
+        return buildJob(scheduleTaskShade, name, triggerDay, beginTime, endTime, fillId, jobSortWorker,
+                dependencyManager.loadDependencyGraph(Lists.newArrayList(scheduleTaskShade)));
+    }
+
+    /**
+     * 构建周期实例，依赖关系从批量加载的 dependencyGraph 中获取
+     *
+     * @param dependencyGraph 任务所在批次的依赖关系
+     */
+    public List<ScheduleJobDetails> buildJob(ScheduleTaskShade scheduleTaskShade,
+                                             String name,
+                                             String triggerDay,
+                                             String beginTime,
+                                             String endTime,
+                                             Long fillId,
+                                             JobSortWorker jobSortWorker,
+                                             TaskDependencyGraph dependencyGraph) throws Exception {
 
         // 解析周期信息
         ScheduleCorn corn = ScheduleConfManager.parseFromJson(scheduleTaskShade.getScheduleConf());
@@ -115,18 +133,15 @@ public abstract class AbstractJobBuilder implements JobBuilder, InitializingBean
             if (next.after(endDate)) {
                 break;
             }
-            ScheduleJobDetails jobBuilderBean = buildJobBuilderBean(scheduleTaskShade, name, fillId, jobSortWorker, corn, scheduleConf, next, NORMAL_TASK_FLOW_ID);
+            ScheduleJobDetails jobBuilderBean = buildJobBuilderBean(scheduleTaskShade, name, fillId, jobSortWorker, corn, scheduleConf, next, NORMAL_TASK_FLOW_ID, dependencyGraph);
 
             if (EScheduleJobType.WORK_FLOW.getVal().equals(scheduleTaskShade.getTaskType())) {
                 // 该任务是工作流任务 先生成子任务
-                List<ScheduleTaskShade> subTasks = scheduleTaskService.lambdaQuery()
-                        .eq(ScheduleTaskShade::getFlowId, scheduleTaskShade.getTaskId())
-                        .eq(ScheduleTaskShade::getIsDeleted, Deleted.NORMAL.getStatus())
-                        .list();
+                List<ScheduleTaskShade> subTasks = dependencyGraph.getFlowSubTasks(scheduleTaskShade.getTaskId());
                 List<ScheduleJobDetails> flowBean = Lists.newArrayList();
                 ScheduleJob scheduleJob = jobBuilderBean.getScheduleJob();
                 for (ScheduleTaskShade subTask : subTasks) {
-                    flowBean.add(buildJobBuilderBean(subTask, name, fillId, jobSortWorker, corn, scheduleConf, next, scheduleJob.getJobId()));
+                    flowBean.add(buildJobBuilderBean(subTask, name, fillId, jobSortWorker, corn, scheduleConf, next, scheduleJob.getJobId(), dependencyGraph));
                 }
                 jobBuilderBean.setFlowBean(flowBean);
             }
@@ -149,6 +164,18 @@ public abstract class AbstractJobBuilder implements JobBuilder, InitializingBean
         return buildJob(batchTaskShade, "", triggerDay, "00:00", "23:59", 0L, sortWorker);
     }
 
+    /**
+     * 周期实例生成bean方法
+     *
+     * @param batchTaskShade  任务
+     * @param triggerDay      目标天
+     * @param sortWorker      排序器
+     * @param dependencyGraph 任务所在批次的依赖关系
+     */
+    public List<ScheduleJobDetails> buildJob(ScheduleTaskShade batchTaskShade, String triggerDay, AtomicJobSortWorker sortWorker, TaskDependencyGraph dependencyGraph) throws Exception {
+        return buildJob(batchTaskShade, "", triggerDay, "00:00", "23:59", 0L, sortWorker, dependencyGraph);
+    }
+
     /**
      * 获得实例名称
      *
@@ -173,6 +200,7 @@ public abstract class AbstractJobBuilder implements JobBuilder, InitializingBean
      * @param corn              周期实例
      * @param scheduleConf      调度配置
      * @param currentData       当前时间
+     * @param dependencyGraph   依赖关系
      * @return
      */
     private ScheduleJobDetails buildJobBuilderBean(ScheduleTaskShade scheduleTaskShade,
@@ -182,7 +210,8 @@ public abstract class AbstractJobBuilder implements JobBuilder, InitializingBean
                                                    ScheduleCorn corn,
                                                    ScheduleConf scheduleConf,
                                                    Date currentData,
-                                                   String flowJobId) {
+                                                   String flowJobId,
+                                                   TaskDependencyGraph dependencyGraph) {
         String triggerTime = DateUtil.getDate(currentData, DateUtil.STANDARD_DATETIME_FORMAT);
         String cycTime = DateUtil.getTimeStrWithoutSymbol(triggerTime);
         String jobKey = JobKeyUtils.generateJobKey(getKeyPreStr(name), scheduleTaskShade.getTaskId(), cycTime);
@@ -214,7 +243,7 @@ public abstract class AbstractJobBuilder implements JobBuilder, InitializingBean
 
         // 获得依赖
         List<ScheduleJobJob> jobJobList = Lists.newArrayList();
-        JobDependency dependencyHandler = dependencyManager.getDependencyHandler(getKeyPreStr(name), scheduleTaskShade, corn);
+        JobDependency dependencyHandler = dependencyManager.getDependencyHandler(getKeyPreStr(name), scheduleTaskShade, corn, dependencyGraph);
         jobJobList.addAll(dependencyHandler.generationJobJobForTask(corn, currentData, jobKey));
 
         ScheduleJobDetails jobBuilderBean = new ScheduleJobDetails();
@@ -26,6 +26,7 @@ import com.dtstack.taier.dao.domain.ScheduleTaskShade;
 import com.dtstack.taier.pluginapi.util.DateUtil;
 import com.dtstack.taier.pluginapi.util.RetryUtil;
 import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
+import com.dtstack.taier.scheduler.server.builder.dependency.TaskDependencyGraph;
 import com.dtstack.taier.scheduler.service.JobGraphTriggerService;
 import com.dtstack.taier.scheduler.utils.JobExecuteOrderUtil;
 import com.google.common.collect.Lists;
@@ -68,6 +69,7 @@ public class CycleJobBuilder extends AbstractJobBuilder {
         }
 
         lock.lock();
+        JobGraphWriter writer = null;
         try {
             String triggerTimeStr = triggerDay + " 00:00:00";
             Timestamp triggerTime = Timestamp.valueOf(triggerTimeStr);
@@ -97,6 +99,10 @@ public class CycleJobBuilder extends AbstractJobBuilder {
             Semaphore sph = new Semaphore(environmentContext.getMaxTaskBuildThread());
             CountDownLatch ctl = new CountDownLatch(totalBatch);
             AtomicJobSortWorker sortWorker = new AtomicJobSortWorker();
+            // 生成和写入分离，生成的实例交给写入线程批量落库
+            writer = new JobGraphWriter(getPrefix(), scheduleJobService, getType(), environmentContext.getJobGraphWriterThread(),
+                    environmentContext.getJobGraphWriterQueueSize(), environmentContext.getJobGraphWriterFlushSize());
+            writer.start();
 
             // 3. 查询db多线程生成周期实例
             Long startId = 0L;
@@ -115,16 +121,20 @@ public class CycleJobBuilder extends AbstractJobBuilder {
                 startId = batchTaskShades.get(batchTaskShades.size() - 1).getId();
                 LOGGER.info("job-number:{} startId:{}", i, startId);
 
+                final JobGraphWriter finalWriter = writer;
                 try {
                     sph.acquire();
                     jobGraphBuildPool.submit(() -> {
                         try {
+                            // 整批任务的依赖一次加载
+                            TaskDependencyGraph dependencyGraph = RetryUtil.executeWithRetry(() -> dependencyManager.loadDependencyGraph(batchTaskShades),
+                                    environmentContext.getBuildJobErrorRetry(), 200, false);
                             for (ScheduleTaskShade batchTaskShade : batchTaskShades) {
                                 try {
-                                    List<ScheduleJobDetails> scheduleJobDetails = RetryUtil.executeWithRetry(() -> buildJob(batchTaskShade, triggerDay, sortWorker),
+                                    List<ScheduleJobDetails> scheduleJobDetails = RetryUtil.executeWithRetry(() -> buildJob(batchTaskShade, triggerDay, sortWorker, dependencyGraph),
                                             environmentContext.getBuildJobErrorRetry(), 200, false);
-                                    // 插入周期实例
-                                    savaJobList(scheduleJobDetails);
+                                    // 插入周期实例，写入队列满时阻塞
+                                    finalWriter.put(flatJobDetails(scheduleJobDetails));
                                 } catch (Throwable e) {
                                     LOGGER.error("build task failure taskId:{}", batchTaskShade.getTaskId(), e);
                                 }
@@ -142,12 +152,20 @@ public class CycleJobBuilder extends AbstractJobBuilder {
                 }
             }
             ctl.await();
+            writer.close();
+            long failedInstanceCount = writer.getFailedInstanceCount();
+            writer = null;
+            if (failedInstanceCount > 0) {
+                // 有实例没有写入时不记录已生成，下次生成时清理当天已写入的实例后重新生成
+                throw new TaierDefineException(String.format("trigger day %s lost %s instances when writing job graph", triggerDay, failedInstanceCount));
+            }
 
             // 循环已经结束，说明周期实例已经全部生成了
             saveJobGraph(triggerDay);
         } catch (Exception e) {
             LOGGER.error("buildTaskJobGraph ！！！", e);
         } finally {
+            closeWriter(writer);
             LOGGER.info("buildTaskJobGraph exit & unlock ...");
             lock.unlock();
         }
@@ -167,6 +185,16 @@ public class CycleJobBuilder extends AbstractJobBuilder {
      */
     @Transactional(rollbackFor = Exception.class)
     public void savaJobList(List<ScheduleJobDetails> scheduleJobDetails) {
+        scheduleJobService.insertJobList(flatJobDetails(scheduleJobDetails), getType());
+    }
+
+    /**
+     * 展开工作流子任务的实例
+     *
+     * @param scheduleJobDetails 实例详情
+     * @return 包含工作流子任务的实例详情
+     */
+    private List<ScheduleJobDetails> flatJobDetails(List<ScheduleJobDetails> scheduleJobDetails) {
         List<ScheduleJobDetails> savaJobDetails = Lists.newArrayList();
         for (ScheduleJobDetails scheduleJobDetail : scheduleJobDetails) {
             savaJobDetails.add(scheduleJobDetail);
@@ -176,8 +204,22 @@ public class CycleJobBuilder extends AbstractJobBuilder {
                 savaJobDetails.addAll(flowBean);
             }
         }
+        return savaJobDetails;
+    }
 
-        scheduleJobService.insertJobList(savaJobDetails, getType());
+    /**
+     * 异常退出时也要等已经生成的实例写完，避免写入线程泄漏
+     */
+    private void closeWriter(JobGraphWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("close job graph writer interrupted", e);
+        }
     }
 
     /**
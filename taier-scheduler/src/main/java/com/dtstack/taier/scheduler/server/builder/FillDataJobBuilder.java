@@ -20,26 +20,26 @@ package com.dtstack.taier.scheduler.server.builder;
 
 import com.dtstack.taier.common.enums.Deleted;
 import com.dtstack.taier.common.enums.EScheduleType;
-import com.dtstack.taier.common.enums.ForceCancelFlag;
-import com.dtstack.taier.common.enums.OperatorType;
 import com.dtstack.taier.dao.domain.ScheduleJob;
-import com.dtstack.taier.dao.domain.ScheduleJobOperatorRecord;
 import com.dtstack.taier.dao.domain.ScheduleTaskShade;
 import com.dtstack.taier.pluginapi.util.DateUtil;
 import com.dtstack.taier.pluginapi.util.RetryUtil;
 import com.dtstack.taier.scheduler.enums.FillJobTypeEnum;
 import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
-import com.dtstack.taier.scheduler.service.ScheduleJobOperatorRecordService;
+import com.dtstack.taier.scheduler.service.ScheduleFillDataJobService;
 import com.google.common.collect.Lists;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
+import org.joda.time.Days;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -59,12 +59,18 @@ public class FillDataJobBuilder extends AbstractJobBuilder {
 
     private static final String FILL_DATA_TYPE = "fillData";
 
+    private static final String FILL_CURSOR_SPLIT = ",";
+
     @Autowired
-    private ScheduleJobOperatorRecordService scheduleJobOperatorRecordService;
+    private ScheduleFillDataJobService scheduleFillDataJobService;
 
 
     /**
      * 创建补数据实例
+     * <p>
+     * 按天、按任务分片流式生成：同时生成的分片数不超过 fill.data.pipeline.size，分片按顺序保存，
+     * 每个分片在一个事务里提交并推进 fill_cursor。当天最后一个分片保存时才插入当天的操作记录，
+     * 实例整天保存完才会被调度。节点重启后从游标的下一个分片继续生成
      *
      * @param all       all list 所有节点
      * @param run       run list 可运行节点
@@ -81,42 +87,83 @@ public class FillDataJobBuilder extends AbstractJobBuilder {
         Date startDate = DateUtil.parseDate(startDay, DateUtil.DATE_FORMAT, Locale.CHINA);
         Date endDate = DateUtil.parseDate(endDay, DateUtil.DATE_FORMAT, Locale.CHINA);
 
+        // 任务排序后再分片，重启后同一个游标对应同样的分片
+        List<Long> taskIds = all.stream().sorted().collect(Collectors.toList());
+        List<List<Long>> partitions = Lists.partition(taskIds, environmentContext.getJobGraphTaskLimitSize());
+        int pipelineSize = Math.max(1, environmentContext.getFillDataPipelineSize());
+
         DateTime startTime = new DateTime(startDate);
         DateTime finishTime = new DateTime(endDate);
-        while (startTime.getMillis() <= finishTime.getMillis()) {
-            String triggerDay = startTime.toString(DateUtil.DATE_FORMAT);
-            buildFillDataJobGraph(fillName, fillId, all, run, triggerDay, beginTime, endTime);
-            startTime = startTime.plusDays(1);
+        long total = (long) (Days.daysBetween(startTime, finishTime).getDays() + 1) * partitions.size();
+
+        // 从游标的下一个分片继续
+        int firstIndex = 0;
+        String fillCursor = scheduleFillDataJobService.getFillCursor(fillId);
+        if (StringUtils.isNotBlank(fillCursor)) {
+            String[] cursor = fillCursor.split(FILL_CURSOR_SPLIT);
+            DateTime cursorDay = new DateTime(DateUtil.parseDate(cursor[0], DateUtil.DATE_FORMAT, Locale.CHINA));
+            firstIndex = Integer.parseInt(cursor[1]) + 1;
+            if (firstIndex >= partitions.size()) {
+                cursorDay = cursorDay.plusDays(1);
+                firstIndex = 0;
+            }
+            total -= (long) Days.daysBetween(startTime, cursorDay).getDays() * partitions.size() + firstIndex;
+            startTime = cursorDay;
+            LOGGER.info("fillId:{} resume create fill job from cursor:{}", fillId, fillCursor);
+        }
+
+        FillProgress progress = new FillProgress(fillId, total);
+        Deque<FillChunk> pipeline = new ArrayDeque<>(pipelineSize);
+        try {
+            while (startTime.getMillis() <= finishTime.getMillis()) {
+                String triggerDay = startTime.toString(DateUtil.DATE_FORMAT);
+                AtomicJobSortWorker sortWorker = new AtomicJobSortWorker();
+                for (int i = firstIndex; i < partitions.size(); i++) {
+                    if (pipeline.size() >= pipelineSize) {
+                        saveFillChunk(fillId, pipeline.poll(), progress);
+                    }
+                    List<Long> taskKey = partitions.get(i);
+                    CompletableFuture<List<ScheduleJobDetails>> future = CompletableFuture.supplyAsync(() ->
+                            fillTaskPartition(fillName, fillId, all, run, triggerDay, beginTime, endTime, sortWorker, taskKey), jobGraphBuildPool);
+                    pipeline.add(new FillChunk(triggerDay, i, i == partitions.size() - 1, future));
+                }
+                firstIndex = 0;
+                startTime = startTime.plusDays(1);
+            }
+            while (!pipeline.isEmpty()) {
+                saveFillChunk(fillId, pipeline.poll(), progress);
+            }
+        } finally {
+            // 保存失败时还没开始生成的分片不再执行
+            pipeline.forEach(chunk -> chunk.jobs.cancel(false));
         }
+        LOGGER.info("fillId:{} create fill job finish, chunks:{} jobs:{} cost:{}ms", fillId, progress.total,
+                progress.jobs, System.currentTimeMillis() - progress.startTime);
     }
 
     /**
-     * 创建一天的补数据实例
+     * 等待分片生成完成并保存，当天最后一个分片同时让当天的实例可以被调度
+     */
+    private void saveFillChunk(Long fillId, FillChunk chunk, FillProgress progress) {
+        List<ScheduleJobDetails> jobList = chunk.jobs.join();
+        scheduleFillDataJobService.saveFillJob(fillId, chunk.triggerDay + FILL_CURSOR_SPLIT + chunk.index, jobList,
+                chunk.lastOfDay ? chunk.triggerDay : null);
+        progress.done(chunk, jobList.size());
+    }
+
+    /**
+     * 生成一个任务分片的补数据实例
      *
-     * @param fillName   补数据名称
-     * @param fillId     补数据id
      * @param all        all list 所有节点
      * @param run        run list 可运行节点
      * @param triggerDay 具体目标天
-     * @param beginTime  每天时间范围 开始范围
-     * @param endTime    每天时间范围 结束范围
-     * @throws Exception
+     * @param sortWorker 当天实例的执行顺序
+     * @param taskKey    分片内的任务
+     * @return 分片生成的实例
      */
-    public void buildFillDataJobGraph(String fillName, Long fillId, Set<Long> all, Set<Long> run, String triggerDay,
-                                      String beginTime, String endTime) throws Exception {
-        List<Long> allList = Lists.newArrayList(all);
-        List<List<Long>> partition = Lists.partition(allList, environmentContext.getJobGraphTaskLimitSize());
-        AtomicJobSortWorker sortWorker = new AtomicJobSortWorker();
+    private List<ScheduleJobDetails> fillTaskPartition(String fillName, Long fillId, Set<Long> all, Set<Long> run, String triggerDay, String beginTime, String endTime,
+                                                       AtomicJobSortWorker sortWorker, List<Long> taskKey) {
         List<ScheduleJobDetails> saveList = Lists.newArrayList();
-        CompletableFuture.allOf(partition.stream()
-                .map(taskKey ->
-                        CompletableFuture.runAsync(() ->
-                                        fillTaskPartition(fillName, fillId, run, triggerDay, beginTime, endTime, allList, sortWorker, saveList, taskKey),
-                                jobGraphBuildPool))
-                .toArray(CompletableFuture[]::new)).thenAccept(a -> savaFillJob(saveList)).join();
-    }
-
-    private void fillTaskPartition(String fillName, Long fillId, Set<Long> run, String triggerDay, String beginTime, String endTime, List<Long> allList, AtomicJobSortWorker sortWorker, List<ScheduleJobDetails> saveList, List<Long> taskKey) {
         for (Long taskId : taskKey) {
             try {
                 ScheduleTaskShade scheduleTaskShade = scheduleTaskService
@@ -134,7 +181,7 @@ public class FillDataJobBuilder extends AbstractJobBuilder {
                                 environmentContext.getBuildJobErrorRetry(), 200, false);
                     } else {
                         Long flowId = scheduleTaskShade.getFlowId();
-                        if (!allList.contains(flowId)) {
+                        if (!all.contains(flowId)) {
                             // 生成周期实例
                             jobBuilderBeanList = RetryUtil.executeWithRetry(() -> buildJob(scheduleTaskShade, fillName, triggerDay, beginTime, endTime, fillId, sortWorker),
                                     environmentContext.getBuildJobErrorRetry(), 200, false);
@@ -149,6 +196,7 @@ public class FillDataJobBuilder extends AbstractJobBuilder {
                 LOGGER.error("taskKey : {} error:", taskId, e);
             }
         }
+        return saveList;
     }
 
     /**
@@ -171,29 +219,6 @@ public class FillDataJobBuilder extends AbstractJobBuilder {
         }
     }
 
-    /**
-     * 持久化时间
-     *
-     * @param allJobList 所有集合
-     */
-    @Transactional(rollbackFor = Exception.class)
-    public void savaFillJob(List<ScheduleJobDetails> allJobList) {
-        scheduleJobService.insertJobList(allJobList, EScheduleType.FILL_DATA.getType());
-        Set<ScheduleJobOperatorRecord> operatorJobIds = allJobList
-                .stream()
-                .map(jobBuilderBean -> {
-                    ScheduleJobOperatorRecord record = new ScheduleJobOperatorRecord();
-                    record.setJobId(jobBuilderBean.getScheduleJob().getJobId());
-                    record.setForceCancelFlag(ForceCancelFlag.NO.getFlag());
-                    record.setOperatorType(OperatorType.FILL_DATA.getType());
-                    record.setNodeAddress(jobBuilderBean.getScheduleJob().getNodeAddress());
-                    return record;
-                })
-                .collect(Collectors.toSet());
-
-        scheduleJobOperatorRecordService.insertBatch(operatorJobIds);
-    }
-
     @Override
     protected String getPrefix() {
         return FILL_DATA_TYPE;
@@ -204,4 +229,46 @@ public class FillDataJobBuilder extends AbstractJobBuilder {
         return EScheduleType.FILL_DATA.getType();
     }
 
+    private static class FillChunk {
+
+        private final String triggerDay;
+
+        private final int index;
+
+        private final boolean lastOfDay;
+
+        private final CompletableFuture<List<ScheduleJobDetails>> jobs;
+
+        private FillChunk(String triggerDay, int index, boolean lastOfDay, CompletableFuture<List<ScheduleJobDetails>> jobs) {
+            this.triggerDay = triggerDay;
+            this.index = index;
+            this.lastOfDay = lastOfDay;
+            this.jobs = jobs;
+        }
+    }
+
+    private static class FillProgress {
+
+        private final Long fillId;
+
+        private final long total;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private long finish;
+
+        private long jobs;
+
+        private FillProgress(Long fillId, long total) {
+            this.fillId = fillId;
+            this.total = total;
+        }
+
+        private void done(FillChunk chunk, int jobSize) {
+            finish++;
+            jobs += jobSize;
+            LOGGER.info("fillId:{} triggerDay:{} chunk:{} jobs:{} progress:{}/{} cost:{}ms", fillId, chunk.triggerDay, chunk.index,
+                    jobSize, finish, total, System.currentTimeMillis() - startTime);
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.builder;
+
+import com.dtstack.taier.common.exception.TaierDefineException;
+import com.dtstack.taier.pluginapi.CustomThreadFactory;
+import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
+import com.dtstack.taier.scheduler.service.ScheduleJobService;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 周期实例的异步写入器
+ * <p>
+ * 生成线程把一个任务生成的实例作为一个整体放入有界队列，队列满时生成线程阻塞；
+ * 写入线程从队列中攒够 flushSize 个实例后调用一次 {@link ScheduleJobService#insertJobList}，
+ * 把原来每个任务一个小事务合并成大批量写入。同一个任务的实例(包括工作流子任务)不会被拆到两次写入中
+ */
+public class JobGraphWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobGraphWriter.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 200L;
+
+    private final String name;
+
+    private final ScheduleJobService scheduleJobService;
+
+    private final Integer scheduleType;
+
+    private final int writerThread;
+
+    private final int flushSize;
+
+    private final BlockingQueue<List<ScheduleJobDetails>> queue;
+
+    private final ExecutorService writerPool;
+
+    private volatile boolean closed = false;
+
+    private long startTime;
+
+    private final AtomicLong instanceCount = new AtomicLong();
+
+    private final AtomicLong failedInstanceCount = new AtomicLong();
+
+    private final AtomicLong rowCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * @param name               写入器名称，用于线程名和日志
+     * @param scheduleJobService 实例服务
+     * @param scheduleType       调度类型 正常调度 和 补数据
+     * @param writerThread       写入线程数
+     * @param queueSize          队列能缓存的任务数
+     * @param flushSize          每次写入的实例数
+     */
+    public JobGraphWriter(String name, ScheduleJobService scheduleJobService, Integer scheduleType,
+                          int writerThread, int queueSize, int flushSize) {
+        this.name = name;
+        this.scheduleJobService = scheduleJobService;
+        this.scheduleType = scheduleType;
+        this.writerThread = Math.max(1, writerThread);
+        this.flushSize = Math.max(1, flushSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.writerPool = Executors.newFixedThreadPool(this.writerThread, new CustomThreadFactory(name + "Writer"));
+    }
+
+    /**
+     * 启动写入线程
+     */
+    public void start() {
+        startTime = System.currentTimeMillis();
+        for (int i = 0; i < writerThread; i++) {
+            writerPool.submit(this::write);
+        }
+    }
+
+    /**
+     * 放入一个任务生成的实例，队列满时阻塞等待写入线程消费
+     *
+     * @param scheduleJobDetails 实例详情
+     */
+    public void put(List<ScheduleJobDetails> scheduleJobDetails) throws InterruptedException {
+        if (CollectionUtils.isEmpty(scheduleJobDetails)) {
+            return;
+        }
+        if (closed) {
+            throw new TaierDefineException(name + " writer is closed");
+        }
+        queue.put(scheduleJobDetails);
+        int depth = queue.size();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * 不再接收新的实例，等待队列中的实例全部写入后关闭写入线程
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        writerPool.shutdown();
+        while (!writerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+            LOGGER.info("{} writer wait for flush, queue depth:{}", name, queue.size());
+        }
+        long cost = Math.max(1L, System.currentTimeMillis() - startTime);
+        long batches = batchCount.get();
+        LOGGER.info("{} writer finish, instances:{} failed:{} rows:{} batches:{} cost:{}ms instances/s:{} rows/batch:{} maxQueueDepth:{}",
+                name, instanceCount.get(), failedInstanceCount.get(), rowCount.get(), batches, cost,
+                instanceCount.get() * 1000 / cost, batches == 0 ? 0 : rowCount.get() / batches, maxQueueDepth.get());
+    }
+
+    public long getInstanceCount() {
+        return instanceCount.get();
+    }
+
+    public long getFailedInstanceCount() {
+        return failedInstanceCount.get();
+    }
+
+    private void write() {
+        List<ScheduleJobDetails> buffer = Lists.newArrayListWithCapacity(flushSize);
+        while (true) {
+            List<ScheduleJobDetails> scheduleJobDetails;
+            try {
+                scheduleJobDetails = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("{} writer interrupted, flush {} instances", name, buffer.size());
+                flush(buffer);
+                return;
+            }
+
+            if (scheduleJobDetails != null) {
+                buffer.addAll(scheduleJobDetails);
+                if (buffer.size() < flushSize) {
+                    continue;
+                }
+            } else if (closed && queue.isEmpty()) {
+                flush(buffer);
+                return;
+            }
+            flush(buffer);
+        }
+    }
+
+    private void flush(List<ScheduleJobDetails> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        long rows = 0;
+        for (ScheduleJobDetails scheduleJobDetails : buffer) {
+            // schedule_job 和 schedule_job_expand 各一行
+            rows += 2;
+            if (scheduleJobDetails.getJobJobList() != null) {
+                rows += scheduleJobDetails.getJobJobList().size();
+            }
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // insertJobList 内部已经做了重试
+            scheduleJobService.insertJobList(buffer, scheduleType);
+            instanceCount.addAndGet(buffer.size());
+            rowCount.addAndGet(rows);
+            batchCount.incrementAndGet();
+            LOGGER.info("{} writer flush instances:{} rows:{} cost:{}ms queue depth:{}",
+                    name, buffer.size(), rows, System.currentTimeMillis() - start, queue.size());
+        } catch (Throwable e) {
+            failedInstanceCount.addAndGet(buffer.size());
+            LOGGER.error("{} writer flush {} instances error, first jobId:{}", name, buffer.size(), buffer.get(0).getScheduleJob().getJobId(), e);
+        } finally {
+            buffer.clear();
+        }
+    }
+}
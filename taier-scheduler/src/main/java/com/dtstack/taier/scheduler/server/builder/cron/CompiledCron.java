@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.builder.cron;
+
+import com.cronutils.model.Cron;
+import com.cronutils.model.definition.CronDefinition;
+import com.cronutils.model.definition.CronDefinitionBuilder;
+import com.cronutils.model.time.ExecutionTime;
+import com.cronutils.parser.CronParser;
+import com.dtstack.taier.common.exception.TaierDefineException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.cronutils.model.CronType.QUARTZ;
+
+/**
+ * 编译后的 cron 表达式，不可变，按 cron 字符串缓存复用
+ * <p>
+ * 分钟、小时、天调度生成的 cron 每天的执行时间都相同，预先算出一天内的执行秒数，
+ * next/last/isMatch 直接二分查找，其余 cron 交给 cron-utils 计算
+ *
+ */
+public final class CompiledCron {
+
+    private static final CronDefinition CRON_DEFINITION = CronDefinitionBuilder.instanceDefinitionFor(QUARTZ);
+
+    private static final int MAX_CACHE_SIZE = 10000;
+
+    private static final Cache<String, CompiledCron> COMPILED_CRON_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHE_SIZE)
+            .build();
+
+    /**
+     * 天调度 {@link ScheduleCronDayParser}
+     */
+    private static final Pattern DAY_PATTERN = Pattern.compile("^0 (\\d{1,2}) (\\d{1,2}) \\* \\* \\?$");
+
+    /**
+     * 分钟调度 {@link ScheduleCronMinParser}
+     */
+    private static final Pattern MIN_PATTERN = Pattern.compile("^0 0/(\\d{1,2}) (\\d{1,2})-(\\d{1,2}) \\* \\* \\?$");
+
+    /**
+     * 小时调度 {@link ScheduleCronHourParser}
+     */
+    private static final Pattern HOUR_PATTERN = Pattern.compile("^0 (\\d{1,2}) (\\d{1,2})-(\\d{1,2})/(\\d{1,2}) \\* \\* \\?$");
+
+    private static final int SECONDS_OF_MINUTE = 60;
+
+    private static final int SECONDS_OF_HOUR = 3600;
+
+    private final String cron;
+
+    private final ExecutionTime executionTime;
+
+    /**
+     * 一天内升序的执行秒数，不是固定周期的 cron 为 null
+     */
+    private final int[] secondsOfDay;
+
+    private CompiledCron(String cron) {
+        CronParser parser = new CronParser(CRON_DEFINITION);
+        Cron quartzCron = parser.parse(cron);
+        this.cron = cron;
+        this.executionTime = ExecutionTime.forCron(quartzCron);
+        this.secondsOfDay = parseSecondsOfDay(cron);
+    }
+
+    /**
+     * 获得编译后的 cron，相同的 cron 字符串共享同一个对象
+     *
+     * @param cron cron表达式
+     * @return 编译后的 cron
+     */
+    public static CompiledCron compile(String cron) {
+        if (cron == null) {
+            throw new TaierDefineException("cron is null");
+        }
+        try {
+            return COMPILED_CRON_CACHE.get(cron, () -> new CompiledCron(cron));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new TaierDefineException("compile cron " + cron + " error", e.getCause());
+        }
+    }
+
+    /**
+     * 获得距离date的上一次执行最近的时间
+     *
+     * @param date 时间
+     * @return 上一次执行最近的时间
+     */
+    public Date last(Date date) {
+        if (date == null) {
+            return null;
+        }
+
+        if (secondsOfDay != null && date.getTime() % 1000 == 0) {
+            ZonedDateTime dateTime = ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+            if (isStable(dateTime)) {
+                int index = Arrays.binarySearch(secondsOfDay, dateTime.toLocalTime().toSecondOfDay());
+                int position = index >= 0 ? index - 1 : -index - 2;
+                if (position >= 0) {
+                    return toDate(dateTime.toLocalDate(), secondsOfDay[position], dateTime.getZone());
+                }
+                return toDate(dateTime.toLocalDate().minusDays(1), secondsOfDay[secondsOfDay.length - 1], dateTime.getZone());
+            }
+        }
+
+        ZonedDateTime zonedDateTime = executionTime.lastExecution(ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault())).orElse(null);
+        if (zonedDateTime == null) {
+            return null;
+        }
+        return Date.from(zonedDateTime.toInstant());
+    }
+
+    /**
+     * 获得距离date的下一次执行最近的时间
+     *
+     * @param date 时间
+     * @return 下一次执行最近的时间
+     */
+    public Date next(Date date) {
+        if (date == null) {
+            return null;
+        }
+
+        if (secondsOfDay != null && date.getTime() % 1000 == 0) {
+            ZonedDateTime dateTime = ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+            if (isStable(dateTime)) {
+                int index = Arrays.binarySearch(secondsOfDay, dateTime.toLocalTime().toSecondOfDay());
+                int position = index >= 0 ? index + 1 : -index - 1;
+                if (position < secondsOfDay.length) {
+                    return toDate(dateTime.toLocalDate(), secondsOfDay[position], dateTime.getZone());
+                }
+                return toDate(dateTime.toLocalDate().plusDays(1), secondsOfDay[0], dateTime.getZone());
+            }
+        }
+
+        ZonedDateTime zonedDateTime = executionTime.nextExecution(ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault())).orElse(null);
+        if (zonedDateTime == null) {
+            return null;
+        }
+        return Date.from(zonedDateTime.toInstant());
+    }
+
+    /**
+     * 判断当前时间是否是执行时间
+     *
+     * @param date 当前时间
+     */
+    public Boolean isMatch(Date date) {
+        if (date == null) {
+            return null;
+        }
+
+        ZonedDateTime dateTime = ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        if (secondsOfDay != null && isStable(dateTime)) {
+            return Arrays.binarySearch(secondsOfDay, dateTime.truncatedTo(ChronoUnit.SECONDS).toLocalTime().toSecondOfDay()) >= 0;
+        }
+        return executionTime.isMatch(dateTime);
+    }
+
+    public String getCron() {
+        return cron;
+    }
+
+    /**
+     * 前后各一天内没有时区切换(夏令时)时，按天计算的执行时间和 cron-utils 一致
+     */
+    private static boolean isStable(ZonedDateTime dateTime) {
+        ZoneRules rules = dateTime.getZone().getRules();
+        if (rules.isFixedOffset()) {
+            return true;
+        }
+        LocalDate day = dateTime.toLocalDate();
+        ZoneOffsetTransition transition = rules.nextTransition(day.minusDays(1).atStartOfDay(dateTime.getZone()).toInstant());
+        return transition == null || !transition.getInstant().isBefore(day.plusDays(2).atStartOfDay(dateTime.getZone()).toInstant());
+    }
+
+    private static Date toDate(LocalDate day, int secondOfDay, ZoneId zoneId) {
+        return Date.from(LocalDateTime.of(day, LocalTime.ofSecondOfDay(secondOfDay)).atZone(zoneId).toInstant());
+    }
+
+    /**
+     * 解析固定周期 cron 一天内的执行秒数
+     *
+     * @param cron cron表达式
+     * @return 升序的执行秒数，不是固定周期或参数超出范围时返回 null
+     */
+    private static int[] parseSecondsOfDay(String cron) {
+        Matcher matcher = DAY_PATTERN.matcher(cron);
+        if (matcher.matches()) {
+            int minute = Integer.parseInt(matcher.group(1));
+            int hour = Integer.parseInt(matcher.group(2));
+            if (!isMinute(minute) || !isHour(hour)) {
+                return null;
+            }
+            return new int[]{hour * SECONDS_OF_HOUR + minute * SECONDS_OF_MINUTE};
+        }
+
+        matcher = MIN_PATTERN.matcher(cron);
+        if (matcher.matches()) {
+            int gapMin = Integer.parseInt(matcher.group(1));
+            int beginHour = Integer.parseInt(matcher.group(2));
+            int endHour = Integer.parseInt(matcher.group(3));
+            if (gapMin < 1 || !isMinute(gapMin) || !isHour(beginHour) || !isHour(endHour) || beginHour > endHour) {
+                return null;
+            }
+            int perHour = (SECONDS_OF_MINUTE - 1) / gapMin + 1;
+            int[] seconds = new int[(endHour - beginHour + 1) * perHour];
+            int index = 0;
+            for (int hour = beginHour; hour <= endHour; hour++) {
+                for (int minute = 0; minute < SECONDS_OF_MINUTE; minute += gapMin) {
+                    seconds[index++] = hour * SECONDS_OF_HOUR + minute * SECONDS_OF_MINUTE;
+                }
+            }
+            return seconds;
+        }
+
+        matcher = HOUR_PATTERN.matcher(cron);
+        if (matcher.matches()) {
+            int beginMin = Integer.parseInt(matcher.group(1));
+            int beginHour = Integer.parseInt(matcher.group(2));
+            int endHour = Integer.parseInt(matcher.group(3));
+            int gapHour = Integer.parseInt(matcher.group(4));
+            if (gapHour < 1 || !isHour(gapHour) || !isMinute(beginMin) || !isHour(beginHour) || !isHour(endHour) || beginHour > endHour) {
+                return null;
+            }
+            int[] seconds = new int[(endHour - beginHour) / gapHour + 1];
+            int index = 0;
+            for (int hour = beginHour; hour <= endHour; hour += gapHour) {
+                seconds[index++] = hour * SECONDS_OF_HOUR + beginMin * SECONDS_OF_MINUTE;
+            }
+            return seconds;
+        }
+        return null;
+    }
+
+    private static boolean isMinute(int minute) {
+        return minute >= 0 && minute < 60;
+    }
+
+    private static boolean isHour(int hour) {
+        return hour >= 0 && hour < 24;
+    }
+}
@@ -18,19 +18,10 @@
 
 package com.dtstack.taier.scheduler.server.builder.cron;
 
-import com.cronutils.model.Cron;
-import com.cronutils.model.definition.CronDefinition;
-import com.cronutils.model.definition.CronDefinitionBuilder;
-import com.cronutils.model.time.ExecutionTime;
-import com.cronutils.parser.CronParser;
 import com.dtstack.taier.scheduler.server.builder.ScheduleConf;
 
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.Date;
 
-import static com.cronutils.model.CronType.QUARTZ;
-
 /**
  * @Auther: dazhi
  * @Date: 2021/12/30 7:05 PM
@@ -39,13 +30,16 @@ import static com.cronutils.model.CronType.QUARTZ;
  */
 public class ScheduleCorn {
 
-    private final CronDefinition CRON_DEFINITION = CronDefinitionBuilder.instanceDefinitionFor(QUARTZ);
-
     /**
      * cron表达式
      */
     private String cron;
 
+    /**
+     * 编译后的cron表达式，按cron字符串共享
+     */
+    private CompiledCron compiledCron;
+
     /**
      * 调度配置
      */
@@ -60,17 +54,7 @@ public class ScheduleCorn {
         if (date == null) {
             return null;
         }
-
-        CronParser parser = new CronParser(CRON_DEFINITION);
-        Cron quartzCron = parser.parse(cron);
-
-        ExecutionTime executionTime = ExecutionTime.forCron(quartzCron);
-        ZonedDateTime zonedDateTime = executionTime.lastExecution(ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault())).orElse(null);
-
-        if (zonedDateTime == null) {
-            return null;
-        }
-        return Date.from(zonedDateTime.toInstant());
+        return getCompiledCron().last(date);
     }
 
     /**
@@ -83,17 +67,7 @@ public class ScheduleCorn {
         if (date == null) {
             return null;
         }
-
-        CronParser parser = new CronParser(CRON_DEFINITION);
-        Cron quartzCron = parser.parse(cron);
-
-        ExecutionTime executionTime = ExecutionTime.forCron(quartzCron);
-        ZonedDateTime zonedDateTime = executionTime.nextExecution(ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault())).orElse(null);
-
-        if (zonedDateTime == null) {
-            return null;
-        }
-        return Date.from(zonedDateTime.toInstant());
+        return getCompiledCron().next(date);
     }
 
     /**
@@ -104,12 +78,14 @@ public class ScheduleCorn {
         if (date == null) {
             return null;
         }
+        return getCompiledCron().isMatch(date);
+    }
 
-        CronParser parser = new CronParser(CRON_DEFINITION);
-        Cron quartzCron = parser.parse(cron);
-
-        ExecutionTime executionTime = ExecutionTime.forCron(quartzCron);
-        return executionTime.isMatch(ZonedDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+    private CompiledCron getCompiledCron() {
+        if (compiledCron == null) {
+            compiledCron = CompiledCron.compile(cron);
+        }
+        return compiledCron;
     }
 
     public String getCron() {
@@ -118,6 +94,7 @@ public class ScheduleCorn {
 
     public void setCron(String cron) {
         this.cron = cron;
+        this.compiledCron = null;
     }
 
     public ScheduleConf getScheduleConf() {
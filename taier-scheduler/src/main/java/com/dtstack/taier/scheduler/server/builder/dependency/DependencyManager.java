@@ -20,6 +20,7 @@ package com.dtstack.taier.scheduler.server.builder.dependency;
 
 import com.dtstack.taier.common.enums.DependencyType;
 import com.dtstack.taier.common.enums.Deleted;
+import com.dtstack.taier.common.enums.EScheduleJobType;
 import com.dtstack.taier.dao.domain.ScheduleTaskShade;
 import com.dtstack.taier.dao.domain.ScheduleTaskTaskShade;
 import com.dtstack.taier.scheduler.server.builder.ScheduleConf;
@@ -27,11 +28,17 @@ import com.dtstack.taier.scheduler.server.builder.cron.ScheduleCorn;
 import com.dtstack.taier.scheduler.service.ScheduleJobService;
 import com.dtstack.taier.scheduler.service.ScheduleTaskShadeService;
 import com.dtstack.taier.scheduler.service.ScheduleTaskTaskService;
+import com.google.common.collect.Lists;
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -43,6 +50,8 @@ import java.util.stream.Collectors;
 @Component
 public class DependencyManager {
 
+    private static final int PARTITION_SIZE = 1000;
+
     @Autowired
     private ScheduleJobService scheduleJobService;
 
@@ -52,32 +61,63 @@ public class DependencyManager {
     @Autowired
     private ScheduleTaskTaskService scheduleTaskTaskService;
 
+    /**
+     * 一次加载一批任务(包含工作流子任务)的上游依赖，生成实例期间不再逐个任务查询
+     *
+     * @param taskShades 任务
+     * @return 依赖关系快照
+     */
+    public TaskDependencyGraph loadDependencyGraph(Collection<ScheduleTaskShade> taskShades) {
+        List<Long> flowTaskIds = taskShades.stream()
+                .filter(taskShade -> EScheduleJobType.WORK_FLOW.getVal().equals(taskShade.getTaskType()))
+                .map(ScheduleTaskShade::getTaskId)
+                .collect(Collectors.toList());
+
+        // 查询工作流子任务
+        Map<Long, List<ScheduleTaskShade>> flowSubTasks = new HashMap<>(flowTaskIds.size());
+        for (List<Long> partFlowTaskIds : Lists.partition(flowTaskIds, PARTITION_SIZE)) {
+            scheduleTaskService.lambdaQuery()
+                    .in(ScheduleTaskShade::getFlowId, partFlowTaskIds)
+                    .eq(ScheduleTaskShade::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list()
+                    .forEach(subTask -> flowSubTasks.computeIfAbsent(subTask.getFlowId(), k -> new ArrayList<>()).add(subTask));
+        }
+
+        Set<Long> taskIds = taskShades.stream().map(ScheduleTaskShade::getTaskId).collect(Collectors.toSet());
+        flowSubTasks.values().forEach(subTasks -> subTasks.forEach(subTask -> taskIds.add(subTask.getTaskId())));
+
+        // 查询上游任务
+        List<ScheduleTaskTaskShade> scheduleTaskTaskShadeList = new ArrayList<>();
+        for (List<Long> partTaskIds : Lists.partition(new ArrayList<>(taskIds), PARTITION_SIZE)) {
+            scheduleTaskTaskShadeList.addAll(scheduleTaskTaskService.lambdaQuery()
+                    .in(ScheduleTaskTaskShade::getTaskId, partTaskIds)
+                    .eq(ScheduleTaskTaskShade::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list());
+        }
+
+        List<Long> parentTaskIds = scheduleTaskTaskShadeList.stream().map(ScheduleTaskTaskShade::getParentTaskId).distinct().collect(Collectors.toList());
+        List<ScheduleTaskShade> parentTaskShades = new ArrayList<>(parentTaskIds.size());
+        for (List<Long> partParentTaskIds : Lists.partition(parentTaskIds, PARTITION_SIZE)) {
+            parentTaskShades.addAll(scheduleTaskService.lambdaQuery()
+                    .in(ScheduleTaskShade::getTaskId, partParentTaskIds)
+                    .eq(ScheduleTaskShade::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list());
+        }
+        return new TaskDependencyGraph(scheduleTaskTaskShadeList, parentTaskShades, flowSubTasks);
+    }
+
     /**
      * 获得依赖处理器链
      *
      * @param keyPreStr        前缀
      * @param currentTaskShade 任务
      * @param corn             执行周期
+     * @param dependencyGraph  任务所在批次的依赖关系
      * @return 依赖处理器链
      */
-    public JobDependency getDependencyHandler(String keyPreStr, ScheduleTaskShade currentTaskShade, ScheduleCorn corn) {
-        // 查询上游任务
-        List<ScheduleTaskTaskShade> scheduleTaskTaskShadeList = scheduleTaskTaskService.lambdaQuery()
-                .eq(ScheduleTaskTaskShade::getTaskId, currentTaskShade.getTaskId())
-                .eq(ScheduleTaskTaskShade::getIsDeleted, Deleted.NORMAL.getStatus())
-                .list();
-
-        List<Long> parentTaskIds = scheduleTaskTaskShadeList.stream().map(ScheduleTaskTaskShade::getParentTaskId).collect(Collectors.toList());
-
+    public JobDependency getDependencyHandler(String keyPreStr, ScheduleTaskShade currentTaskShade, ScheduleCorn corn, TaskDependencyGraph dependencyGraph) {
         // 如果没有上游任务，就不需要UpstreamDependencyHandler
-        List<ScheduleTaskShade> taskShadeList = null;
-        if (CollectionUtils.isNotEmpty(parentTaskIds)) {
-            // 查询任务
-            taskShadeList = scheduleTaskService.lambdaQuery()
-                    .in(ScheduleTaskShade::getTaskId, parentTaskIds)
-                    .eq(ScheduleTaskShade::getIsDeleted, Deleted.NORMAL.getStatus())
-                    .list();
-        }
+        List<ScheduleTaskShade> taskShadeList = dependencyGraph.getParentTasks(currentTaskShade.getTaskId());
 
         // 上游任务的依赖处理器
         JobDependency jobDependency = new UpstreamDependencyHandler(keyPreStr, currentTaskShade,scheduleJobService,taskShadeList);
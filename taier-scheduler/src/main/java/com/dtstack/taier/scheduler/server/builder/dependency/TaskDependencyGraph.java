@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.builder.dependency;
+
+import com.dtstack.taier.dao.domain.ScheduleTaskShade;
+import com.dtstack.taier.dao.domain.ScheduleTaskTaskShade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一批任务在生成周期实例期间使用的依赖关系快照，一次加载后只读，可以在多个线程之间共享
+ * <p>
+ * 任务和上游任务的关系按 taskId 排序后存放在 long 数组里(类似 CSR 的邻接表)，
+ * 查询上游任务只做二分查找，不再访问数据库
+ */
+public class TaskDependencyGraph {
+
+    /**
+     * 有上游任务的 taskId，升序
+     */
+    private final long[] taskIds;
+
+    /**
+     * taskIds[i] 的上游任务在 parentTaskIds 中的范围为 [parentOffsets[i], parentOffsets[i + 1])
+     */
+    private final int[] parentOffsets;
+
+    private final long[] parentTaskIds;
+
+    /**
+     * 上游任务，按 taskId 升序
+     */
+    private final long[] shadeTaskIds;
+
+    private final ScheduleTaskShade[] shades;
+
+    /**
+     * 工作流 taskId -> 子任务
+     */
+    private final Map<Long, List<ScheduleTaskShade>> flowSubTasks;
+
+    TaskDependencyGraph(List<ScheduleTaskTaskShade> taskTaskShades, Collection<ScheduleTaskShade> parentTaskShades, Map<Long, List<ScheduleTaskShade>> flowSubTasks) {
+        List<ScheduleTaskTaskShade> edges = new ArrayList<>(taskTaskShades);
+        edges.sort(Comparator.comparing(ScheduleTaskTaskShade::getTaskId).thenComparing(ScheduleTaskTaskShade::getParentTaskId));
+
+        long[] keys = new long[edges.size()];
+        int[] offsets = new int[edges.size() + 1];
+        long[] parents = new long[edges.size()];
+        int keySize = 0;
+        int parentSize = 0;
+        for (ScheduleTaskTaskShade edge : edges) {
+            long taskId = edge.getTaskId();
+            long parentTaskId = edge.getParentTaskId();
+            if (keySize == 0 || keys[keySize - 1] != taskId) {
+                keys[keySize] = taskId;
+                offsets[keySize] = parentSize;
+                keySize++;
+            } else if (parents[parentSize - 1] == parentTaskId) {
+                // 重复的依赖边只保留一条
+                continue;
+            }
+            parents[parentSize++] = parentTaskId;
+        }
+        offsets[keySize] = parentSize;
+        this.taskIds = Arrays.copyOf(keys, keySize);
+        this.parentOffsets = Arrays.copyOf(offsets, keySize + 1);
+        this.parentTaskIds = Arrays.copyOf(parents, parentSize);
+
+        List<ScheduleTaskShade> sortedShades = new ArrayList<>(parentTaskShades);
+        sortedShades.sort(Comparator.comparing(ScheduleTaskShade::getTaskId));
+        this.shadeTaskIds = new long[sortedShades.size()];
+        this.shades = new ScheduleTaskShade[sortedShades.size()];
+        for (int i = 0; i < sortedShades.size(); i++) {
+            this.shadeTaskIds[i] = sortedShades.get(i).getTaskId();
+            this.shades[i] = sortedShades.get(i);
+        }
+        this.flowSubTasks = flowSubTasks;
+    }
+
+    /**
+     * 获得任务的上游任务，已删除的上游任务不返回
+     *
+     * @param taskId 任务id
+     * @return 上游任务，没有上游时返回null，和原来的查询保持一致
+     */
+    public List<ScheduleTaskShade> getParentTasks(long taskId) {
+        int index = Arrays.binarySearch(taskIds, taskId);
+        if (index < 0) {
+            return null;
+        }
+        List<ScheduleTaskShade> parentTasks = new ArrayList<>(parentOffsets[index + 1] - parentOffsets[index]);
+        for (int i = parentOffsets[index]; i < parentOffsets[index + 1]; i++) {
+            int shadeIndex = Arrays.binarySearch(shadeTaskIds, parentTaskIds[i]);
+            if (shadeIndex >= 0) {
+                parentTasks.add(shades[shadeIndex]);
+            }
+        }
+        return parentTasks;
+    }
+
+    /**
+     * 获得工作流的子任务
+     *
+     * @param flowTaskId 工作流任务id
+     * @return 子任务
+     */
+    public List<ScheduleTaskShade> getFlowSubTasks(long flowTaskId) {
+        List<ScheduleTaskShade> subTasks = flowSubTasks.get(flowTaskId);
+        return subTasks == null ? Collections.emptyList() : subTasks;
+    }
+}
@@ -47,8 +47,11 @@ public class HeartBeatListener implements Listener {
 
     private ZkService zkService;
 
-    public HeartBeatListener(ZkService zkService) {
+    private HeartBeatMetrics heartBeatMetrics;
+
+    public HeartBeatListener(ZkService zkService, HeartBeatMetrics heartBeatMetrics) {
         this.zkService = zkService;
+        this.heartBeatMetrics = heartBeatMetrics;
 
         scheduledService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory(this.getClass().getSimpleName()));
         scheduledService.scheduleWithFixedDelay(
@@ -65,6 +68,7 @@ public class HeartBeatListener implements Listener {
             BrokerHeartNode brokerHeartNode = BrokerHeartNode.initBrokerHeartNode();
             brokerHeartNode.setSeq(1L);
             brokerHeartNode.setAlive(true);
+            heartBeatMetrics.fill(brokerHeartNode);
             zkService.updateSynchronizedLocalBrokerHeartNode(zkService.getLocalAddress(), brokerHeartNode, false);
             if (LogCountUtil.count(logOutput, MULTIPLES)) {
                 LOGGER.info("HeartBeatListener start again...");
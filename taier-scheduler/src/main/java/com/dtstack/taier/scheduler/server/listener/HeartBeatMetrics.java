@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.listener;
+
+import com.dtstack.taier.scheduler.jobdealer.JobSubmitExecutor;
+import com.dtstack.taier.scheduler.jobdealer.cache.ShardCache;
+import com.dtstack.taier.scheduler.zookeeper.data.BrokerHeartNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 随心跳上报到 zk 的节点负载指标，供其他节点分配实例时参考
+ */
+@Component
+public class HeartBeatMetrics {
+
+    @Autowired
+    private JobSubmitExecutor jobSubmitExecutor;
+
+    @Autowired
+    private ShardCache shardCache;
+
+    /**
+     * 填充本节点当前的负载指标
+     *
+     * @param brokerHeartNode 本次上报的心跳
+     */
+    public void fill(BrokerHeartNode brokerHeartNode) {
+        brokerHeartNode.setSubmitLatency(jobSubmitExecutor.getRecentSubmitLatency());
+        brokerHeartNode.setStatusBacklog(shardCache.getShardJobSize());
+        brokerHeartNode.setFreeSlots(jobSubmitExecutor.getFreeSlots());
+    }
+}
@@ -27,7 +27,6 @@ import com.dtstack.taier.scheduler.server.scheduler.AbstractJobSummitScheduler;
 import com.dtstack.taier.scheduler.server.scheduler.CycleJobScheduler;
 import com.dtstack.taier.scheduler.server.scheduler.FillDataJobScheduler;
 import com.dtstack.taier.scheduler.server.scheduler.RestartJobScheduler;
-import com.dtstack.taier.scheduler.zookeeper.ZkService;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -43,6 +42,7 @@ import org.springframework.stereotype.Component;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -72,9 +72,6 @@ public class JobSchedulerListener implements DisposableBean, ApplicationListener
     @Autowired
     private CycleJobScheduler cycleJobScheduler;
 
-    @Autowired
-    private ZkService zkService;
-
     @Autowired
     private EnvironmentContext environmentContext;
 
@@ -87,10 +84,10 @@ public class JobSchedulerListener implements DisposableBean, ApplicationListener
      * 同步所有节点的 type类型下的 job实例信息
      * key1: nodeAddress,
      * key2: scheduleType
+     *
+     * @param allNodeAddress 存活节点
      */
-    public Map<String, Map<Integer, QueueInfo>> getAllNodesJobQueueInfo() {
-
-        List<String> allNodeAddress = zkService.getAliveBrokersChildren();
+    public Map<String, Map<Integer, QueueInfo>> getAllNodesJobQueueInfo(Collection<String> allNodeAddress) {
         Pair<String, String> cycTime = getCycTimeLimit();
         Map<String, Map<Integer, QueueInfo>> allNodeJobInfo = Maps.newHashMap();
         for (String nodeAddress : allNodeAddress) {
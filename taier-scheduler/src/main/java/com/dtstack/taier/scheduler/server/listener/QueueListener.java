@@ -18,28 +18,45 @@
 
 package com.dtstack.taier.scheduler.server.listener;
 
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.pluginapi.CustomThreadFactory;
 import com.dtstack.taier.scheduler.jobdealer.JobDealer;
+import com.dtstack.taier.scheduler.server.queue.ClusterView;
 import com.dtstack.taier.scheduler.server.queue.GroupInfo;
 import com.dtstack.taier.scheduler.server.queue.QueueInfo;
+import com.dtstack.taier.scheduler.zookeeper.ZkService;
+import com.dtstack.taier.scheduler.zookeeper.data.BrokerHeartNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * company: www.dtstack.com
  * author: toutian
  * create: 2019/10/22
+ * <p>
+ * 维护集群视图快照 {@link ClusterView}：后台每秒检查 zk 心跳，存活节点变化时生成新的快照；
+ * 各节点的提交队列信息需要查询数据库，由后台线程每隔 queue.info.refresh.interval 统计一次后发布；
+ * 实例队列信息只在批量分配实例时按需统计。
+ * 快照通过 volatile 引用整体替换，分配实例、判断优先级时直接读取，不做任何查询
  */
 @Component
-public class QueueListener {
+public class QueueListener implements InitializingBean, DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QueueListener.class);
 
+    private static final int CHECK_INTERVAL = 1000;
 
     @Autowired
     private JobDealer jobDealer;
@@ -47,62 +64,154 @@ public class QueueListener {
     @Autowired
     private JobSchedulerListener jobExecutorTrigger;
 
-    private boolean checkJobMaxPriorityStrategy = false;
+    @Autowired
+    private ZkService zkService;
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
+    private volatile ClusterView clusterView = ClusterView.EMPTY;
+
+    /**
+     * 实例队列信息的统计时间
+     */
+    private volatile long jobQueueInfoTime;
+
+    /**
+     * 提交队列信息的统计时间
+     */
+    private volatile long groupQueueInfoTime;
+
+    private ScheduledExecutorService scheduledService;
+
+    /**
+     * 当前集群视图，还没有生成过时同步生成一次，不统计队列信息
+     */
+    public ClusterView getClusterView() {
+        ClusterView view = clusterView;
+        if (view.getVersion() == 0L) {
+            return refreshClusterView();
+        }
+        return view;
+    }
+
+    /**
+     * 重新读取 zk 存活节点，存活节点变化时生成新的快照，节点心跳上报的负载指标随快照一起更新，不统计队列信息
+     * <p>
+     * 节点宕机迁移实例前需要调用，保证不会把实例分配给刚被判定宕机的节点
+     *
+     * @return 最新的集群视图
+     */
+    public synchronized ClusterView refreshClusterView() {
+        ClusterView current = clusterView;
+        Map<String, BrokerHeartNode> aliveHeartNodes = zkService.getAliveBrokerHeartNodes();
+        if (current.getVersion() != 0L && current.getAliveNodes().equals(aliveHeartNodes.keySet())) {
+            return current;
+        }
+        ClusterView view = publish(aliveHeartNodes, current.getJobQueueInfo(), current.getGroupQueueInfo());
+        LOGGER.info("cluster view version:{} alive nodes changed:{}", view.getVersion(), view.getAliveNodes());
+        return view;
+    }
+
+    /**
+     * 批量分配实例前调用：重新读取 zk 存活节点，实例队列信息过期时重新统计。
+     * 统计时不持有锁，避免节点宕机检查等待数据库查询
+     *
+     * @return 包含最新实例队列信息的集群视图
+     */
+    public ClusterView refreshJobQueueInfo() {
+        long now = System.currentTimeMillis();
+        if (now - jobQueueInfoTime < environmentContext.getQueueInfoRefreshInterval()) {
+            return refreshClusterView();
+        }
+        Map<String, BrokerHeartNode> aliveHeartNodes = zkService.getAliveBrokerHeartNodes();
+        Map<Integer, ? extends Map<String, QueueInfo>> jobQueueInfo = computeAllNodesJobQueueTypes(aliveHeartNodes.keySet(), clusterView.getJobQueueInfo());
+        synchronized (this) {
+            jobQueueInfoTime = now;
+            return publish(aliveHeartNodes, jobQueueInfo, clusterView.getGroupQueueInfo());
+        }
+    }
 
-    private volatile Map<Integer, Map<String, QueueInfo>> allNodesJobQueueTypes = new HashMap<>();
-    private volatile Map<String, Map<String, GroupInfo>> allNodesGroupQueueJobResources = new HashMap<>();
+    /**
+     * 后台线程调用：重新统计各节点的提交队列信息并发布，存活节点沿用当前快照
+     */
+    private void refreshGroupQueueInfo() {
+        long now = System.currentTimeMillis();
+        Map<String, ? extends Map<String, GroupInfo>> groupQueueInfo = computeAllNodesGroupQueueJobResources(clusterView.getGroupQueueInfo());
+        synchronized (this) {
+            ClusterView current = getClusterView();
+            groupQueueInfoTime = now;
+            publish(current.getHeartNodes(), current.getJobQueueInfo(), groupQueueInfo);
+        }
+    }
 
+    private ClusterView publish(Map<String, BrokerHeartNode> aliveHeartNodes, Map<Integer, ? extends Map<String, QueueInfo>> jobQueueInfo,
+                                Map<String, ? extends Map<String, GroupInfo>> groupQueueInfo) {
+        ClusterView view = new ClusterView(clusterView.getVersion() + 1, aliveHeartNodes, jobQueueInfo, groupQueueInfo,
+                Math.max(jobQueueInfoTime, groupQueueInfoTime));
+        clusterView = view;
+        return view;
+    }
 
-    private void computeAllNodesGroupQueueJobResources() {
+    private Map<String, ? extends Map<String, GroupInfo>> computeAllNodesGroupQueueJobResources(Map<String, ? extends Map<String, GroupInfo>> current) {
         try {
             Map<String, Map<String, GroupInfo>> allNodesGroupQueueInfo = jobDealer.getAllNodesGroupQueueInfo();
             if (allNodesGroupQueueInfo != null) {
                 Map<String, Map<String, GroupInfo>> tmpAllNodesGroupQueueJobResources = new HashMap<>();
                 allNodesGroupQueueInfo.forEach((address, jobResourceGroupQueueInfo) -> {
                     jobResourceGroupQueueInfo.forEach((jobResource, groupInfo) -> {
-                        Map<String, GroupInfo> nodesGroupQueue = tmpAllNodesGroupQueueJobResources.computeIfAbsent(jobResource, k -> {
-                            Map<String, GroupInfo> value = new HashMap<>();
-                            value.put(address, groupInfo);
-                            return value;
-                        });
-                        nodesGroupQueue.put(address, groupInfo);
+                        tmpAllNodesGroupQueueJobResources.computeIfAbsent(jobResource, k -> new HashMap<>()).put(address, groupInfo);
                     });
                 });
-                this.allNodesGroupQueueJobResources = tmpAllNodesGroupQueueJobResources;
+                return tmpAllNodesGroupQueueJobResources;
             }
         } catch (Throwable e) {
             LOGGER.error("allNodesGroupQueueInfo error:", e);
         }
+        return current;
     }
 
-    public Map<Integer, Map<String, QueueInfo>> getAllNodesJobQueueInfo() {
+    private Map<Integer, ? extends Map<String, QueueInfo>> computeAllNodesJobQueueTypes(Set<String> aliveNodes, Map<Integer, ? extends Map<String, QueueInfo>> current) {
         try {
-            Map<String, Map<Integer, QueueInfo>> allNodesJobQueueInfo = jobExecutorTrigger.getAllNodesJobQueueInfo();
+            Map<String, Map<Integer, QueueInfo>> allNodesJobQueueInfo = jobExecutorTrigger.getAllNodesJobQueueInfo(aliveNodes);
             if (allNodesJobQueueInfo != null) {
                 Map<Integer, Map<String, QueueInfo>> tmpAllNodesJobQueueTypes = new HashMap<>();
                 allNodesJobQueueInfo.forEach((address, typeJobQueueInfo) -> {
                     typeJobQueueInfo.forEach((type, queueInfo) -> {
-                        Map<String, QueueInfo> nodesJobQueue = tmpAllNodesJobQueueTypes.computeIfAbsent(type, k -> {
-                            Map<String, QueueInfo> value = new HashMap<>();
-                            value.put(address, queueInfo);
-                            return value;
-                        });
-                        nodesJobQueue.put(address, queueInfo);
+                        tmpAllNodesJobQueueTypes.computeIfAbsent(type, k -> new HashMap<>()).put(address, queueInfo);
                     });
                 });
-                this.allNodesJobQueueTypes = tmpAllNodesJobQueueTypes;
+                return tmpAllNodesJobQueueTypes;
             }
         } catch (Throwable e) {
             LOGGER.error("allNodesJobQueueInfo error:", e);
         }
-        return allNodesJobQueueTypes;
+        return current;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        scheduledService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory(this.getClass().getSimpleName()));
+        scheduledService.scheduleWithFixedDelay(() -> {
+            try {
+                refreshClusterView();
+            } catch (Throwable e) {
+                LOGGER.error("refresh cluster view error:", e);
+            }
+        }, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        scheduledService.scheduleWithFixedDelay(() -> {
+            try {
+                refreshGroupQueueInfo();
+            } catch (Throwable e) {
+                LOGGER.error("refresh group queue info error:", e);
+            }
+        }, CHECK_INTERVAL, environmentContext.getQueueInfoRefreshInterval(), TimeUnit.MILLISECONDS);
     }
 
-    public Map<String, Map<String, GroupInfo>> getAllNodesGroupQueueInfo() {
-        //默认false，在获取 allNodesGroupQueueJobResources 之前需要先计算一次
-        if (!checkJobMaxPriorityStrategy) {
-            computeAllNodesGroupQueueJobResources();
+    @Override
+    public void destroy() throws Exception {
+        if (scheduledService != null) {
+            scheduledService.shutdownNow();
         }
-        return allNodesGroupQueueJobResources;
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.partition;
+
+import com.dtstack.taier.scheduler.server.queue.ClusterView;
+
+import java.util.Map;
+
+/**
+ * 实例分配策略，决定批量生成或迁移的实例在各存活节点之间如何分配
+ * <p>
+ * 实现类注册为 spring bean，由 job.partition.strategy 按 {@link #getName()} 选择
+ */
+public interface PartitionStrategy {
+
+    /**
+     * @return 策略名称
+     */
+    String getName();
+
+    /**
+     * 计算每个存活节点分配的实例数
+     *
+     * @param clusterView    集群视图，提供存活节点和节点心跳上报的负载指标
+     * @param nodesQueueSize 各节点等待提交的实例数，可能包含非存活节点，没有队列信息时为空
+     * @param jobSize        本次分配的实例数
+     * @return key: 存活节点, value: 分配给该节点的实例数上限
+     */
+    Map<String, Integer> partition(ClusterView clusterView, Map<String, Integer> nodesQueueSize, int jobSize);
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.partition;
+
+import com.dtstack.taier.scheduler.server.queue.ClusterView;
+import com.google.common.collect.Maps;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按等待提交的实例数分配：队列越短分得越多，没有队列信息时平均分配
+ */
+@Component
+public class QueueSizePartitionStrategy implements PartitionStrategy {
+
+    public static final String NAME = "queue";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Integer> partition(ClusterView clusterView, Map<String, Integer> nodesQueueSize, int jobSize) {
+        List<String> aliveNodes = clusterView.getAliveNodeList();
+        if (nodesQueueSize.isEmpty()) {
+            return evenly(aliveNodes, jobSize);
+        }
+        Map<String, Integer> nodeSort = Maps.newHashMap();
+        int total = jobSize;
+        for (Map.Entry<String, Integer> queueSizeEntry : nodesQueueSize.entrySet()) {
+            total += queueSizeEntry.getValue();
+            //排除宕机节点
+            if (clusterView.isAlive(queueSizeEntry.getKey())) {
+                nodeSort.put(queueSizeEntry.getKey(), queueSizeEntry.getValue());
+            }
+        }
+        if (nodeSort.isEmpty()) {
+            return evenly(aliveNodes, jobSize);
+        }
+        int avg = (total / nodeSort.size()) + 1;
+        for (Map.Entry<String, Integer> entry : nodeSort.entrySet()) {
+            entry.setValue(avg - entry.getValue());
+        }
+        return nodeSort;
+    }
+
+    private Map<String, Integer> evenly(List<String> aliveNodes, int jobSize) {
+        Map<String, Integer> jobSizeInfo = new HashMap<>(aliveNodes.size());
+        int size = (jobSize / aliveNodes.size()) + 1;
+        for (String aliveNode : aliveNodes) {
+            jobSizeInfo.put(aliveNode, size);
+        }
+        return jobSizeInfo;
+    }
+}
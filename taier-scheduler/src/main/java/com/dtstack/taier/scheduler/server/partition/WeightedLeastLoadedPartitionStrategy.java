@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.partition;
+
+import com.dtstack.taier.common.exception.TaierDefineException;
+import com.dtstack.taier.scheduler.server.queue.ClusterView;
+import com.dtstack.taier.scheduler.zookeeper.data.BrokerHeartNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 加权最小负载分配
+ * <p>
+ * 每个节点的处理能力权重由心跳上报的指标计算，与集群中位数/平均值相比：
+ * 1. 提交耗时越长权重越低
+ * 2. 提交线程池空闲线程越多权重越高
+ * 3. 正在轮询状态的实例越多权重越低，影响较小
+ * 逐个实例分配给 (等待提交数 + 已分配数 + 1) / 权重 最小的节点，使各节点的预计等待时间接近。
+ * 没有上报指标的节点权重为 1
+ */
+@Component
+public class WeightedLeastLoadedPartitionStrategy implements PartitionStrategy {
+
+    public static final String NAME = "weighted";
+
+    private static final double MIN_WEIGHT = 0.2D;
+
+    private static final double MAX_WEIGHT = 5D;
+
+    private static final double MIN_BACKLOG_WEIGHT = 0.5D;
+
+    private static final double MAX_BACKLOG_WEIGHT = 2D;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Integer> partition(ClusterView clusterView, Map<String, Integer> nodesQueueSize, int jobSize) {
+        List<String> aliveNodes = clusterView.getAliveNodeList();
+        int nodeSize = aliveNodes.size();
+        if (nodeSize == 0) {
+            throw new TaierDefineException("no alive node to partition jobs");
+        }
+        double[] weights = computeWeights(clusterView, aliveNodes);
+        long[] loads = new long[nodeSize];
+        int[] assigned = new int[nodeSize];
+        for (int i = 0; i < nodeSize; i++) {
+            Integer queueSize = nodesQueueSize.get(aliveNodes.get(i));
+            loads[i] = queueSize == null ? 0 : Math.max(0, queueSize);
+        }
+
+        PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(nodeSize, (a, b) -> {
+            int compare = Double.compare((loads[a] + assigned[a] + 1) / weights[a], (loads[b] + assigned[b] + 1) / weights[b]);
+            return compare != 0 ? compare : Integer.compare(a, b);
+        });
+        for (int i = 0; i < nodeSize; i++) {
+            leastLoaded.add(i);
+        }
+        for (int j = 0; j < jobSize; j++) {
+            Integer node = leastLoaded.poll();
+            assigned[node]++;
+            leastLoaded.add(node);
+        }
+
+        Map<String, Integer> jobSizeInfo = new HashMap<>(nodeSize);
+        for (int i = 0; i < nodeSize; i++) {
+            jobSizeInfo.put(aliveNodes.get(i), assigned[i]);
+        }
+        return jobSizeInfo;
+    }
+
+    /**
+     * 计算各节点的处理能力权重
+     */
+    static double[] computeWeights(ClusterView clusterView, List<String> aliveNodes) {
+        int nodeSize = aliveNodes.size();
+        long[] latencies = new long[nodeSize];
+        int latencyCount = 0;
+        long freeSlotsSum = 0;
+        int freeSlotsCount = 0;
+        long backlogSum = 0;
+        int backlogCount = 0;
+        for (String node : aliveNodes) {
+            BrokerHeartNode heartNode = clusterView.getHeartNode(node);
+            if (heartNode == null) {
+                continue;
+            }
+            if (heartNode.getSubmitLatency() != null && heartNode.getSubmitLatency() > 0) {
+                latencies[latencyCount++] = heartNode.getSubmitLatency();
+            }
+            if (heartNode.getFreeSlots() != null) {
+                freeSlotsSum += heartNode.getFreeSlots();
+                freeSlotsCount++;
+            }
+            if (heartNode.getStatusBacklog() != null) {
+                backlogSum += heartNode.getStatusBacklog();
+                backlogCount++;
+            }
+        }
+        long medianLatency = 0;
+        if (latencyCount > 0) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            medianLatency = sorted[latencyCount / 2];
+        }
+        double meanFreeSlots = freeSlotsCount == 0 ? 0D : (double) freeSlotsSum / freeSlotsCount;
+        double meanBacklog = backlogCount == 0 ? 0D : (double) backlogSum / backlogCount;
+
+        double[] weights = new double[nodeSize];
+        for (int i = 0; i < nodeSize; i++) {
+            double weight = 1D;
+            BrokerHeartNode heartNode = clusterView.getHeartNode(aliveNodes.get(i));
+            if (heartNode != null) {
+                Long latency = heartNode.getSubmitLatency();
+                if (medianLatency > 0 && latency != null && latency > 0) {
+                    weight *= clamp((double) medianLatency / latency, MIN_WEIGHT, MAX_WEIGHT);
+                }
+                if (freeSlotsCount > 0 && heartNode.getFreeSlots() != null) {
+                    weight *= clamp((1D + heartNode.getFreeSlots()) / (1D + meanFreeSlots), MIN_WEIGHT, MAX_WEIGHT);
+                }
+                if (backlogCount > 0 && heartNode.getStatusBacklog() != null) {
+                    weight *= clamp((1D + meanBacklog) / (1D + heartNode.getStatusBacklog()), MIN_BACKLOG_WEIGHT, MAX_BACKLOG_WEIGHT);
+                }
+            }
+            weights[i] = clamp(weight, MIN_WEIGHT, MAX_WEIGHT);
+        }
+        return weights;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -21,13 +21,16 @@ package com.dtstack.taier.scheduler.server.pipeline;
 import com.dtstack.taier.common.enums.EParamType;
 import com.dtstack.taier.common.util.TimeParamOperator;
 import com.dtstack.taier.dao.dto.ScheduleTaskParamShade;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 变量替换
@@ -43,35 +46,56 @@ public class JobParamReplace {
     private static final Logger LOGGER = LoggerFactory.getLogger(JobParamReplace.class);
 
 
-    private static final Pattern PARAM_PATTERN = Pattern.compile("\\$\\{(.*?)\\}|\\@@\\{(.*?)\\}");
+    private static final String SYSTEM_RUNTIME = "bdp.system.runtime";
 
-    private final static String VAR_FORMAT = "${%s}";
+    private static final String SYSTEM_CURRENTTIME = "bdp.system.currenttime";
+
+    private static final String CURRENT_TIME_PREFIX = "$(";
+
+    /**
+     * (类型, 参数名, 表达式, cycTime) -> 计算结果，同一周期的实例共用
+     */
+    private static final Cache<String, String> CONVERT_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
 
     public static String paramReplace(String sql, List<ScheduleTaskParamShade> paramList, String cycTime) {
 
-        if (CollectionUtils.isEmpty(paramList)) {
+        if (CollectionUtils.isEmpty(paramList) || sql == null) {
             return sql;
         }
 
-        Matcher matcher = PARAM_PATTERN.matcher(sql);
-        if (!matcher.find()) {
+        ParamTemplate template = ParamTemplate.compile(sql);
+        if (!template.hasPlaceholder()) {
             return sql;
         }
 
-        for (Object param : paramList) {
-            Integer type;
-            String paramName;
-            String paramCommand;
-            type = ((ScheduleTaskParamShade) param).getType();
-            paramName = ((ScheduleTaskParamShade) param).getParamName();
-            paramCommand = ((ScheduleTaskParamShade) param).getParamCommand();
-
-            String targetVal = convertParam(type, paramName, paramCommand, cycTime, ((ScheduleTaskParamShade) param).getTaskId());
-            String replaceStr = String.format(VAR_FORMAT, paramName);
-            sql = sql.replace(replaceStr, targetVal);
+        Map<String, String> values = Maps.newHashMapWithExpectedSize(paramList.size());
+        for (ScheduleTaskParamShade param : paramList) {
+            String paramName = param.getParamName();
+            // 同名参数以第一个为准，和逐个替换一致
+            if (!template.contains(paramName) || values.containsKey(paramName)) {
+                continue;
+            }
+            values.put(paramName, convertParamWithCache(param.getType(), paramName, param.getParamCommand(), cycTime, param.getTaskId()));
         }
 
-        return sql;
+        return template.render(values);
+    }
+
+    private static String convertParamWithCache(Integer type, String paramName, String paramCommand, String cycTime, Long taskId) {
+        // 基于当前时间计算的表达式每次重新计算
+        if (paramCommand == null || paramCommand.trim().startsWith(CURRENT_TIME_PREFIX) || paramCommand.contains(SYSTEM_CURRENTTIME)) {
+            return convertParam(type, paramName, paramCommand, cycTime, taskId);
+        }
+        String key = type + "\u0001" + paramName + "\u0001" + paramCommand + "\u0001" + cycTime;
+        String value = CONVERT_CACHE.getIfPresent(key);
+        if (value == null) {
+            value = convertParam(type, paramName, paramCommand, cycTime, taskId);
+            CONVERT_CACHE.put(key, value);
+        }
+        return value;
     }
 
 
@@ -80,7 +104,7 @@ public class JobParamReplace {
         String command = paramCommand;
         if (EParamType.SYS_TYPE.getType().equals(type)) {
             // 特殊处理 bdp.system.currenttime
-            if ("bdp.system.runtime".equals(paramName)) {
+            if (SYSTEM_RUNTIME.equals(paramName)) {
                 return TimeParamOperator.dealCustomizeTimeOperator(command, cycTime);
             }
 
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.pipeline;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 预编译的 sql 模板，按 ${name} 拆成字面量和变量，替换时只遍历一次
+ * <p>
+ * 同一个任务版本的 sql 相同，模板按 sql 内容缓存
+ */
+public final class ParamTemplate {
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+
+    private static final char PLACEHOLDER_SUFFIX = '}';
+
+    /**
+     * 缓存的 sql 总字符数上限
+     */
+    private static final long MAX_CACHE_WEIGHT = 32 * 1024 * 1024;
+
+    /**
+     * 超过该长度的 builder 不再复用，避免线程长期占用大块内存
+     */
+    private static final int MAX_REUSE_CAPACITY = 1024 * 1024;
+
+    private static final Cache<String, ParamTemplate> TEMPLATE_CACHE = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHE_WEIGHT)
+            .weigher((String sql, ParamTemplate template) -> sql.length())
+            .build();
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final String sql;
+
+    /**
+     * literals.length == names.length + 1，第 i 个变量在第 i 个字面量之后
+     */
+    private final String[] literals;
+
+    private final String[] names;
+
+    private final Set<String> nameSet;
+
+    private ParamTemplate(String sql, String[] literals, String[] names) {
+        this.sql = sql;
+        this.literals = literals;
+        this.names = names;
+        this.nameSet = Sets.newHashSet(names);
+    }
+
+    public static ParamTemplate compile(String sql) {
+        try {
+            return TEMPLATE_CACHE.get(sql, () -> parse(sql));
+        } catch (ExecutionException e) {
+            return parse(sql);
+        }
+    }
+
+    static ParamTemplate parse(String sql) {
+        List<String> literals = Lists.newArrayList();
+        List<String> names = Lists.newArrayList();
+        int literalStart = 0;
+        int start = sql.indexOf(PLACEHOLDER_PREFIX);
+        while (start >= 0) {
+            int end = sql.indexOf(PLACEHOLDER_SUFFIX, start + PLACEHOLDER_PREFIX.length());
+            if (end < 0) {
+                break;
+            }
+            // ${a${b} 与逐个替换一致，取离 } 最近的 ${
+            start = sql.lastIndexOf(PLACEHOLDER_PREFIX, end);
+            literals.add(sql.substring(literalStart, start));
+            names.add(sql.substring(start + PLACEHOLDER_PREFIX.length(), end));
+            literalStart = end + 1;
+            start = sql.indexOf(PLACEHOLDER_PREFIX, literalStart);
+        }
+        literals.add(sql.substring(literalStart));
+        return new ParamTemplate(sql, literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    public boolean hasPlaceholder() {
+        return names.length > 0;
+    }
+
+    public boolean contains(String name) {
+        return nameSet.contains(name);
+    }
+
+    /**
+     * 替换变量，没有值的变量保持原样
+     *
+     * @param values 变量名 -> 替换值
+     * @return 替换后的 sql
+     */
+    public String render(Map<String, String> values) {
+        if (names.length == 0) {
+            return sql;
+        }
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        for (int i = 0; i < names.length; i++) {
+            builder.append(literals[i]);
+            String value = values.get(names[i]);
+            if (value == null) {
+                builder.append(PLACEHOLDER_PREFIX).append(names[i]).append(PLACEHOLDER_SUFFIX);
+            } else {
+                builder.append(value);
+            }
+        }
+        builder.append(literals[names.length]);
+        String result = builder.toString();
+        if (builder.capacity() > MAX_REUSE_CAPACITY) {
+            BUILDER.remove();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.queue;
+
+import com.dtstack.taier.scheduler.zookeeper.data.BrokerHeartNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Map;
+
+/**
+ * 集群视图快照：存活节点、节点心跳上报的负载指标和各节点的队列信息
+ * <p>
+ * 快照创建后不再修改，由 QueueListener 在存活节点变化或按需重新统计队列信息时重新生成并整体替换，
+ * 读取方拿到引用后可以无锁、无 IO 地反复查询
+ */
+public final class ClusterView {
+
+    public static final ClusterView EMPTY = new ClusterView(0L, ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of(), 0L);
+
+    /**
+     * 快照版本，每次重新生成加一
+     */
+    private final long version;
+
+    private final ImmutableSet<String> aliveNodes;
+
+    private final ImmutableList<String> aliveNodeList;
+
+    /**
+     * 存活节点的心跳，包含节点上报的负载指标
+     */
+    private final ImmutableMap<String, BrokerHeartNode> heartNodes;
+
+    /**
+     * key1: scheduleType, key2: nodeAddress，包含非存活节点
+     */
+    private final ImmutableMap<Integer, ImmutableMap<String, QueueInfo>> jobQueueInfo;
+
+    /**
+     * key1: jobResource, key2: nodeAddress，包含非存活节点
+     */
+    private final ImmutableMap<String, ImmutableMap<String, GroupInfo>> groupQueueInfo;
+
+    /**
+     * 同 groupQueueInfo，只保留存活节点
+     */
+    private final ImmutableMap<String, ImmutableMap<String, GroupInfo>> aliveGroupQueueInfo;
+
+    /**
+     * 队列信息的统计时间
+     */
+    private final long queueInfoTime;
+
+    public ClusterView(long version,
+                       Map<String, BrokerHeartNode> aliveHeartNodes,
+                       Map<Integer, ? extends Map<String, QueueInfo>> jobQueueInfo,
+                       Map<String, ? extends Map<String, GroupInfo>> groupQueueInfo,
+                       long queueInfoTime) {
+        this.version = version;
+        this.heartNodes = ImmutableMap.copyOf(aliveHeartNodes);
+        this.aliveNodes = this.heartNodes.keySet();
+        this.aliveNodeList = this.aliveNodes.asList();
+        this.queueInfoTime = queueInfoTime;
+
+        ImmutableMap.Builder<Integer, ImmutableMap<String, QueueInfo>> jobQueueBuilder = ImmutableMap.builder();
+        jobQueueInfo.forEach((type, nodeQueue) -> jobQueueBuilder.put(type, ImmutableMap.copyOf(nodeQueue)));
+        this.jobQueueInfo = jobQueueBuilder.build();
+
+        ImmutableMap.Builder<String, ImmutableMap<String, GroupInfo>> groupQueueBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<String, ImmutableMap<String, GroupInfo>> aliveGroupQueueBuilder = ImmutableMap.builder();
+        groupQueueInfo.forEach((jobResource, nodeGroup) -> {
+            groupQueueBuilder.put(jobResource, ImmutableMap.copyOf(nodeGroup));
+            ImmutableMap.Builder<String, GroupInfo> aliveNodeGroup = ImmutableMap.builder();
+            nodeGroup.forEach((nodeAddress, groupInfo) -> {
+                if (this.aliveNodes.contains(nodeAddress)) {
+                    aliveNodeGroup.put(nodeAddress, groupInfo);
+                }
+            });
+            aliveGroupQueueBuilder.put(jobResource, aliveNodeGroup.build());
+        });
+        this.groupQueueInfo = groupQueueBuilder.build();
+        this.aliveGroupQueueInfo = aliveGroupQueueBuilder.build();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getQueueInfoTime() {
+        return queueInfoTime;
+    }
+
+    public boolean isAlive(String nodeAddress) {
+        return aliveNodes.contains(nodeAddress);
+    }
+
+    public ImmutableSet<String> getAliveNodes() {
+        return aliveNodes;
+    }
+
+    public ImmutableList<String> getAliveNodeList() {
+        return aliveNodeList;
+    }
+
+    public ImmutableMap<String, BrokerHeartNode> getHeartNodes() {
+        return heartNodes;
+    }
+
+    /**
+     * @return 存活节点的心跳，节点不存活时返回 null
+     */
+    public BrokerHeartNode getHeartNode(String nodeAddress) {
+        return heartNodes.get(nodeAddress);
+    }
+
+    public ImmutableMap<Integer, ImmutableMap<String, QueueInfo>> getJobQueueInfo() {
+        return jobQueueInfo;
+    }
+
+    public ImmutableMap<String, ImmutableMap<String, GroupInfo>> getGroupQueueInfo() {
+        return groupQueueInfo;
+    }
+
+    /**
+     * 存活节点上 jobResource 的队列信息
+     *
+     * @param jobResource 计算资源
+     * @return key: nodeAddress，没有时返回 null
+     */
+    public ImmutableMap<String, GroupInfo> getAliveGroupInfo(String jobResource) {
+        ImmutableMap<String, GroupInfo> nodesGroupQueue = aliveGroupQueueInfo.get(jobResource);
+        return nodesGroupQueue == null || nodesGroupQueue.isEmpty() ? null : nodesGroupQueue;
+    }
+}
@@ -20,7 +20,7 @@ package com.dtstack.taier.scheduler.server.queue;
 
 import com.dtstack.taier.common.enums.EJobCacheStage;
 import com.dtstack.taier.common.env.EnvironmentContext;
-import com.dtstack.taier.common.queue.comparator.JobClientComparator;
+import com.dtstack.taier.common.queue.JobClientPriorityQueue;
 import com.dtstack.taier.dao.domain.ScheduleJobCache;
 import com.dtstack.taier.pluginapi.CustomThreadFactory;
 import com.dtstack.taier.pluginapi.JobClient;
@@ -40,7 +40,6 @@ import org.springframework.context.ApplicationContext;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -70,7 +69,7 @@ public class GroupPriorityQueue {
     private JobPartitioner jobPartitioner;
     private WorkerOperator workerOperator;
 
-    private PriorityBlockingQueue<JobClient> queue = null;
+    private JobClientPriorityQueue queue = null;
     private JobSubmitDealer jobSubmitDealer = null;
 
     private GroupPriorityQueue() {
@@ -114,15 +113,12 @@ public class GroupPriorityQueue {
         return jobSubmitDealer.tryPutRestartJob(jobClient);
     }
 
-    public PriorityBlockingQueue<JobClient> getQueue() {
+    public JobClientPriorityQueue getQueue() {
         return queue;
     }
 
     public boolean remove(JobClient jobClient) {
-        if (queue.remove(jobClient)) {
-            return true;
-        }
-        return false;
+        return queue.remove(jobClient);
     }
 
     private boolean isBlocked() {
@@ -272,7 +268,7 @@ public class GroupPriorityQueue {
 
         checkParams();
 
-        this.queue = new PriorityBlockingQueue<>(queueSizeLimited * 2, new JobClientComparator());
+        this.queue = new JobClientPriorityQueue(queueSizeLimited * 2);
         this.jobSubmitDealer = new JobSubmitDealer(environmentContext.getLocalAddress(), this, applicationContext);
 
         ScheduledExecutorService scheduledService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory(this.getClass().getSimpleName() + "_" + jobResource + "_AcquireJob"));
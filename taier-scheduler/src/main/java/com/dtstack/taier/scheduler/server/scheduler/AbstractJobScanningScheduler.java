@@ -22,9 +22,12 @@ import com.dtstack.taier.common.enums.Deleted;
 import com.dtstack.taier.common.enums.JobCheckStatus;
 import com.dtstack.taier.common.env.EnvironmentContext;
 import com.dtstack.taier.dao.domain.ScheduleJob;
+import com.dtstack.taier.dao.domain.ScheduleJobJob;
 import com.dtstack.taier.dao.domain.ScheduleTaskShade;
 import com.dtstack.taier.pluginapi.CustomThreadFactory;
 import com.dtstack.taier.pluginapi.enums.TaskStatus;
+import com.dtstack.taier.scheduler.enums.JobPhaseStatus;
+import com.dtstack.taier.scheduler.event.ScheduleJobEventPublisher;
 import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
 import com.dtstack.taier.scheduler.server.scheduler.interceptor.InterceptorInvocation;
 import com.dtstack.taier.scheduler.server.scheduler.interceptor.SubmitInterceptor;
@@ -41,8 +44,11 @@ import org.springframework.context.ApplicationListener;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -68,6 +74,16 @@ public abstract class AbstractJobScanningScheduler implements Scheduler, Applica
     @Autowired
     protected ScheduleTaskShadeService scheduleTaskService;
 
+    @Autowired
+    protected JobStatusIndex jobStatusIndex;
+
+    /**
+     * 等待上游结束的实例，上游结束后立即重新提交
+     */
+    private JobReadinessTracker readinessTracker;
+
+    private ExecutorService readinessExecutor;
+
     /**
      * 获得实例列表
      *
@@ -107,6 +123,7 @@ public abstract class AbstractJobScanningScheduler implements Scheduler, Applica
                 return;
             }
             LOGGER.info("scanningJob start scheduleType : {} nodeAddress:{}", getSchedulerName(), nodeAddress);
+            long scanStartTime = System.currentTimeMillis();
 
             // 2. 获得排序最小序号
             Long minSort = getMinSort();
@@ -123,6 +140,8 @@ public abstract class AbstractJobScanningScheduler implements Scheduler, Applica
                         .list()
                         .stream()
                         .collect(Collectors.toMap(ScheduleTaskShade::getTaskId, g -> (g)));
+                // 整页实例的上游状态一次加载
+                jobStatusIndex.load(scheduleJobDetails);
 
                 for (ScheduleJobDetails scheduleJobDetail : scheduleJobDetails) {
                     // 提交实例
@@ -138,8 +157,7 @@ public abstract class AbstractJobScanningScheduler implements Scheduler, Applica
                     scheduleJobDetail.setScheduleTaskShade(scheduleTaskShade);
 
                     // 提交任务
-                    InterceptorInvocation interceptorInvocation = new InterceptorInvocation(this, getInterceptor());
-                    interceptorInvocation.submit(scheduleJobDetail);
+                    dispatch(scheduleJobDetail);
 
                     if (minSort < scheduleJob.getJobExecuteOrder()) {
                         minSort = scheduleJob.getJobExecuteOrder();
@@ -147,14 +165,77 @@ public abstract class AbstractJobScanningScheduler implements Scheduler, Applica
                 }
                 scheduleJobDetails = listExecJob(minSort, nodeAddress, Boolean.FALSE);
             }
+            // 本次扫描没有再遇到的实例已经提交或者不再是待提交状态
+            readinessTracker.purge(scanStartTime);
+            LOGGER.info("scanningJob end scheduleType:{} waiting upstream jobs:{}", getSchedulerName(), readinessTracker.size());
         } catch (Exception e) {
             LOGGER.error("scheduleType:{} emitJob2Queue error:", getSchedulerName(), e);
         }
     }
 
 
+    /**
+     * 经过拦截器提交实例，因为上游没有结束而没有提交的实例记录下来，等上游结束后再提交
+     *
+     * @param scheduleJobDetail 实例详情
+     */
+    private void dispatch(ScheduleJobDetails scheduleJobDetail) {
+        InterceptorInvocation interceptorInvocation = new InterceptorInvocation(this, getInterceptor());
+        if (interceptorInvocation.submit(scheduleJobDetail)) {
+            readinessTracker.remove(scheduleJobDetail.getScheduleJob().getJobId());
+            return;
+        }
+
+        List<ScheduleJobJob> jobJobList = scheduleJobDetail.getJobJobList();
+        if (CollectionUtils.isEmpty(jobJobList)) {
+            return;
+        }
+        String jobKey = scheduleJobDetail.getScheduleJob().getJobKey();
+        List<String> parentJobKeys = jobJobList.stream()
+                .map(ScheduleJobJob::getParentJobKey)
+                .filter(key -> !key.equals(jobKey))
+                .collect(Collectors.toList());
+        // 上游状态在提交时已经加载到索引
+        List<String> unfinishedParentJobIds = jobStatusIndex.getByJobKeys(parentJobKeys).values().stream()
+                .filter(parent -> !TaskStatus.getStoppedStatus().contains(parent.getStatus()))
+                .map(ScheduleJob::getJobId)
+                .collect(Collectors.toList());
+        readinessTracker.await(scheduleJobDetail, unfinishedParentJobIds);
+    }
+
+    /**
+     * 上游结束后重新提交，等待期间实例可能已经被扫描提交，先从数据库读取最新的实例，
+     * 入队时再由队列状态保证同一个实例只入队一次
+     *
+     * @param scheduleJobDetails 等待上游结束的实例
+     */
+    private void redispatch(ScheduleJobDetails scheduleJobDetails) {
+        ScheduleJob snapshot = scheduleJobDetails.getScheduleJob();
+        ScheduleJob scheduleJob = scheduleJobService.getByJobId(snapshot.getJobId());
+        if (scheduleJob == null
+                || !JobPhaseStatus.CREATE.getCode().equals(scheduleJob.getPhaseStatus())
+                || !TaskStatus.UNSUBMIT.getStatus().equals(scheduleJob.getStatus())) {
+            return;
+        }
+        scheduleJobDetails.setScheduleJob(scheduleJob);
+        dispatch(scheduleJobDetails);
+    }
+
     @Override
     public void onApplicationEvent(ApplicationStartedEvent applicationStartedEvent) {
+        readinessExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(env.getQueueSize()), new CustomThreadFactory(getSchedulerName() + "_Readiness"),
+                (r, executor) -> LOGGER.warn("scheduleType:{} readiness queue is full, wait for scanning", getSchedulerName()));
+        readinessTracker = new JobReadinessTracker(getSchedulerName(), env.getJobReadinessMaxSize(),
+                job -> readinessExecutor.execute(() -> {
+                    try {
+                        redispatch(job);
+                    } catch (Exception e) {
+                        LOGGER.error("jobId:{} scheduleType:{} resubmit error", job.getScheduleJob().getJobId(), getSchedulerName(), e);
+                    }
+                }));
+        ScheduleJobEventPublisher.getInstance().register(readinessTracker);
+
         LOGGER.info("Initializing scheduleType:{} acquireQueueJobInterval:{} queueSize:{}", getSchedulerName(), env.getJobAcquireQueueJobInterval(), env.getQueueSize());
         ScheduledExecutorService scheduledService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory(getSchedulerName() + "_AcquireJob"));
         scheduledService.scheduleWithFixedDelay(this::scanningJob, 0, env.getJobAcquireQueueJobInterval(), TimeUnit.MILLISECONDS);
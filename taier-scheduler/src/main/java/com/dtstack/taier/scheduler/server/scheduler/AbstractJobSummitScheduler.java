@@ -31,6 +31,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -60,10 +62,19 @@ public abstract class AbstractJobSummitScheduler extends AbstractJobScanningSche
      */
     private LinkedBlockingQueue<ScheduleJobDetails> scheduleJobQueue;
 
+    /**
+     * 队列中实例的 jobId，代替 scheduleJobQueue.contains 的线性查找
+     */
+    private final Set<String> queuedJobIds = ConcurrentHashMap.newKeySet();
+
     @Autowired
     private ScheduleJobService scheduleJobService;
 
-    Predicate<ScheduleJob> workFlowSubmit = job -> EScheduleJobType.WORK_FLOW.getType().equals(job.getTaskType()) && TaskStatus.UNSUBMIT.getStatus().equals(job.getStatus());
+    /**
+     * 工作流实例运行期间队列状态保持创建，入队时同时校验实例状态，避免根据过期的快照重复入队
+     */
+    Predicate<ScheduleJob> workFlowSubmit = job -> EScheduleJobType.WORK_FLOW.getType().equals(job.getTaskType()) && TaskStatus.UNSUBMIT.getStatus().equals(job.getStatus()) &&
+            scheduleJobService.updatePhaseStatusByIdAndStatus(job.getId(), TaskStatus.UNSUBMIT.getStatus(), JobPhaseStatus.CREATE, JobPhaseStatus.JOIN_THE_TEAM);
     Predicate<ScheduleJob> normalJobSubmit = job -> !EScheduleJobType.WORK_FLOW.getType().equals(job.getTaskType()) &&
             scheduleJobService.updatePhaseStatusById(job.getId(), JobPhaseStatus.CREATE, JobPhaseStatus.JOIN_THE_TEAM);
     Predicate<ScheduleJob> putFlagPredicate = workFlowSubmit.or(normalJobSubmit);
@@ -78,14 +89,22 @@ public abstract class AbstractJobSummitScheduler extends AbstractJobScanningSche
     public Boolean submitJob(ScheduleJobDetails scheduleJobDetails) {
         try {
             ScheduleJob scheduleJob = scheduleJobDetails.getScheduleJob();
-            if (scheduleJobQueue.contains(scheduleJobDetails)) {
+            if (!queuedJobIds.add(scheduleJob.getJobId())) {
                 //元素已存在，返回true
                 LOGGER.info("jobId:{} scheduleType:{} queue has contains ", scheduleJob.getJobId(), getSchedulerName());
                 return false;
             }
-            if (putFlagPredicate.test(scheduleJob)) {
-                scheduleJobQueue.put(scheduleJobDetails);
-                LOGGER.info("jobId:{} scheduleType:{} enter queue", scheduleJob.getJobId(), getSchedulerName());
+            boolean queued = false;
+            try {
+                if (putFlagPredicate.test(scheduleJob)) {
+                    scheduleJobQueue.put(scheduleJobDetails);
+                    queued = true;
+                    LOGGER.info("jobId:{} scheduleType:{} enter queue", scheduleJob.getJobId(), getSchedulerName());
+                }
+            } finally {
+                if (!queued) {
+                    queuedJobIds.remove(scheduleJob.getJobId());
+                }
             }
             return true;
         } catch (InterruptedException e) {
@@ -128,7 +147,9 @@ public abstract class AbstractJobSummitScheduler extends AbstractJobScanningSche
                     LOGGER.info("--- jobId:{} scheduleType:{} send to engine error:", scheduleJob.getJobId(), getSchedulerName(), e);
                     scheduleJobService.updateStatusAndLogInfoById(scheduleJob.getJobId(), TaskStatus.FAILED.getStatus(), ExceptionUtil.getErrorMessage(e));
                 } finally {
-                    scheduleJobService.updatePhaseStatusById(scheduleJob.getId(), JobPhaseStatus.JOIN_THE_TEAM, JobPhaseStatus.EXECUTE_OVER);
+                    // 工作流提交后回到创建状态，继续由扫描检查子任务状态
+                    JobPhaseStatus phaseStatus = EScheduleJobType.WORK_FLOW.getType().equals(scheduleJob.getTaskType()) ? JobPhaseStatus.CREATE : JobPhaseStatus.EXECUTE_OVER;
+                    scheduleJobService.updatePhaseStatusById(scheduleJob.getId(), JobPhaseStatus.JOIN_THE_TEAM, phaseStatus);
                 }
             });
         } catch (Exception e) {
@@ -155,6 +176,7 @@ public abstract class AbstractJobSummitScheduler extends AbstractJobScanningSche
             try {
                 ScheduleJobDetails scheduleJobDetails = scheduleJobQueue.take();
                 scheduleJob = scheduleJobDetails.getScheduleJob();
+                queuedJobIds.remove(scheduleJob.getJobId());
                 LOGGER.info("jobId:{} scheduleType:{} take job from queue.", scheduleJob.getJobId(), getSchedulerName());
                 this.submit(scheduleJobDetails);
             } catch (InterruptedException ie) {
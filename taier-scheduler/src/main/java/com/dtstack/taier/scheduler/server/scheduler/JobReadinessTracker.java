@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.scheduler;
+
+import com.dtstack.taier.pluginapi.enums.TaskStatus;
+import com.dtstack.taier.scheduler.event.ScheduleJobBatchEvent;
+import com.dtstack.taier.scheduler.event.ScheduleJobEventLister;
+import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 等待上游实例结束的下游实例
+ * <p>
+ * 每个下游实例记录还没有结束的上游实例，上游实例结束时从中移除，
+ * 全部移除后立即交给调度器重新提交，不用等下一次扫描。
+ * 状态变更事件只用来加快提交：其他节点上的状态变更和不经过 ScheduleJobService 的状态更新都没有事件，
+ * 这些实例仍然靠定时扫描提交
+ */
+public class JobReadinessTracker implements ScheduleJobEventLister {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobReadinessTracker.class);
+
+    private final String schedulerName;
+
+    private final int maxSize;
+
+    private final Consumer<ScheduleJobDetails> readyConsumer;
+
+    /**
+     * 下游实例 jobId -> 等待信息
+     */
+    private final Map<String, WaitingJob> waitingJobs = new HashMap<>();
+
+    /**
+     * 上游实例 jobId -> 下游实例 jobId
+     */
+    private final Map<String, Set<String>> parentChildren = new HashMap<>();
+
+    /**
+     * @param schedulerName 调度器名称
+     * @param maxSize       最多等待的下游实例数，超过后只靠定时扫描
+     * @param readyConsumer 上游全部结束时的回调，在发布状态变更的线程中执行，不能阻塞
+     */
+    public JobReadinessTracker(String schedulerName, int maxSize, Consumer<ScheduleJobDetails> readyConsumer) {
+        this.schedulerName = schedulerName;
+        this.maxSize = maxSize;
+        this.readyConsumer = readyConsumer;
+    }
+
+    /**
+     * 记录下游实例等待的上游实例，重复记录时覆盖
+     *
+     * @param scheduleJobDetails     下游实例
+     * @param unfinishedParentJobIds 还没有结束的上游实例id
+     */
+    public synchronized void await(ScheduleJobDetails scheduleJobDetails, Collection<String> unfinishedParentJobIds) {
+        String jobId = scheduleJobDetails.getScheduleJob().getJobId();
+        remove(jobId);
+        if (unfinishedParentJobIds.isEmpty() || waitingJobs.size() >= maxSize) {
+            return;
+        }
+        waitingJobs.put(jobId, new WaitingJob(scheduleJobDetails, new HashSet<>(unfinishedParentJobIds), System.currentTimeMillis()));
+        for (String parentJobId : unfinishedParentJobIds) {
+            parentChildren.computeIfAbsent(parentJobId, k -> new HashSet<>()).add(jobId);
+        }
+    }
+
+    /**
+     * 下游实例不再等待
+     *
+     * @param jobId 下游实例id
+     */
+    public synchronized void remove(String jobId) {
+        WaitingJob waitingJob = waitingJobs.remove(jobId);
+        if (waitingJob == null) {
+            return;
+        }
+        for (String parentJobId : waitingJob.unfinishedParentJobIds) {
+            removeChild(parentJobId, jobId);
+        }
+    }
+
+    /**
+     * 清理 registerTime 之前记录且之后没有再记录的实例，这些实例已经不在扫描范围内
+     *
+     * @param registerTime 记录时间
+     */
+    public synchronized void purge(long registerTime) {
+        Iterator<Map.Entry<String, WaitingJob>> iterator = waitingJobs.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, WaitingJob> entry = iterator.next();
+            if (entry.getValue().registerTime < registerTime) {
+                iterator.remove();
+                for (String parentJobId : entry.getValue().unfinishedParentJobIds) {
+                    removeChild(parentJobId, entry.getKey());
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return waitingJobs.size();
+    }
+
+    @Override
+    public void publishBatchEvent(ScheduleJobBatchEvent event) {
+        if (!TaskStatus.getStoppedStatus().contains(event.getStatus())) {
+            return;
+        }
+        List<ScheduleJobDetails> readyJobs = Lists.newArrayList();
+        synchronized (this) {
+            for (String parentJobId : event.getJobIds()) {
+                Set<String> children = parentChildren.remove(parentJobId);
+                if (children == null) {
+                    continue;
+                }
+                for (String childJobId : children) {
+                    WaitingJob waitingJob = waitingJobs.get(childJobId);
+                    if (waitingJob == null) {
+                        continue;
+                    }
+                    waitingJob.unfinishedParentJobIds.remove(parentJobId);
+                    if (waitingJob.unfinishedParentJobIds.isEmpty()) {
+                        waitingJobs.remove(childJobId);
+                        readyJobs.add(waitingJob.scheduleJobDetails);
+                    }
+                }
+            }
+        }
+        for (ScheduleJobDetails readyJob : readyJobs) {
+            LOGGER.info("jobId:{} scheduleType:{} all parent job stopped, resubmit", readyJob.getScheduleJob().getJobId(), schedulerName);
+            readyConsumer.accept(readyJob);
+        }
+    }
+
+    private void removeChild(String parentJobId, String childJobId) {
+        Set<String> children = parentChildren.get(parentJobId);
+        if (children != null) {
+            children.remove(childJobId);
+            if (children.isEmpty()) {
+                parentChildren.remove(parentJobId);
+            }
+        }
+    }
+
+    private static class WaitingJob {
+
+        private final ScheduleJobDetails scheduleJobDetails;
+
+        private final Set<String> unfinishedParentJobIds;
+
+        private final long registerTime;
+
+        private WaitingJob(ScheduleJobDetails scheduleJobDetails, Set<String> unfinishedParentJobIds, long registerTime) {
+            this.scheduleJobDetails = scheduleJobDetails;
+            this.unfinishedParentJobIds = unfinishedParentJobIds;
+            this.registerTime = registerTime;
+        }
+    }
+}
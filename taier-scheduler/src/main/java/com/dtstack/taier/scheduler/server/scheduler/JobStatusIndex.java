@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.scheduler;
+
+import com.dtstack.taier.common.enums.Deleted;
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.dao.domain.ScheduleJob;
+import com.dtstack.taier.dao.domain.ScheduleJobJob;
+import com.dtstack.taier.scheduler.event.ScheduleJobBatchEvent;
+import com.dtstack.taier.scheduler.event.ScheduleJobEventLister;
+import com.dtstack.taier.scheduler.event.ScheduleJobEventPublisher;
+import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
+import com.dtstack.taier.scheduler.service.ScheduleJobService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本节点的 jobKey -> 实例状态索引，供判断上游实例状态使用
+ * <p>
+ * 1. 扫描实例时按页批量加载上游实例的状态
+ * 2. 通过 {@link ScheduleJobService} 修改的状态通过 {@link ScheduleJobEventPublisher} 增量更新
+ * 3. 其他节点的修改以及直接通过 mapper 修改的状态(置成功、停止、重跑等)收不到变更事件，
+ * 所以不区分实例属于哪个节点，加载或者收到事件后只在 job.status.index.fresh.time 内有效
+ * <p>
+ * 索引中没有或者已经过期的实例回查数据库，job.status.index.expire 只用于回收长时间不用的实例
+ */
+@Component
+public class JobStatusIndex implements ScheduleJobEventLister, InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobStatusIndex.class);
+
+    private static final int PARTITION_SIZE = 1000;
+
+    @Autowired
+    private ScheduleJobService scheduleJobService;
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
+    /**
+     * jobKey -> 实例状态
+     */
+    private Cache<String, IndexEntry> jobKeyIndex;
+
+    /**
+     * jobId -> jobKey，状态变更事件只有 jobId
+     */
+    private Cache<String, String> jobIdIndex;
+
+    /**
+     * 批量加载一页实例的上游实例状态
+     *
+     * @param scheduleJobDetails 扫描出的实例
+     */
+    public void load(List<ScheduleJobDetails> scheduleJobDetails) {
+        if (CollectionUtils.isEmpty(scheduleJobDetails)) {
+            return;
+        }
+        Set<String> missJobKeys = new LinkedHashSet<>();
+        for (ScheduleJobDetails scheduleJobDetail : scheduleJobDetails) {
+            List<ScheduleJobJob> jobJobList = scheduleJobDetail.getJobJobList();
+            if (CollectionUtils.isEmpty(jobJobList)) {
+                continue;
+            }
+            String jobKey = scheduleJobDetail.getScheduleJob().getJobKey();
+            for (ScheduleJobJob scheduleJobJob : jobJobList) {
+                String parentJobKey = scheduleJobJob.getParentJobKey();
+                if (!parentJobKey.equals(jobKey) && getFresh(parentJobKey) == null) {
+                    missJobKeys.add(parentJobKey);
+                }
+            }
+        }
+        loadFromDb(missJobKeys);
+    }
+
+    /**
+     * 获得实例状态，索引中没有的实例回查数据库
+     *
+     * @param jobKeys 实例 jobKey
+     * @return jobKey -> 实例(只包含 status jobId jobKey jobName)，没有生成的实例不返回
+     */
+    public Map<String, ScheduleJob> getByJobKeys(Collection<String> jobKeys) {
+        Map<String, ScheduleJob> scheduleJobMap = Maps.newHashMapWithExpectedSize(jobKeys.size());
+        Set<String> missJobKeys = new LinkedHashSet<>();
+        for (String jobKey : jobKeys) {
+            IndexEntry entry = getFresh(jobKey);
+            if (entry == null) {
+                missJobKeys.add(jobKey);
+            } else {
+                scheduleJobMap.put(jobKey, entry.scheduleJob);
+            }
+        }
+        for (ScheduleJob scheduleJob : loadFromDb(missJobKeys)) {
+            scheduleJobMap.put(scheduleJob.getJobKey(), scheduleJob);
+        }
+        return scheduleJobMap;
+    }
+
+    @Override
+    public void publishBatchEvent(ScheduleJobBatchEvent event) {
+        long now = System.currentTimeMillis();
+        for (String jobId : event.getJobIds()) {
+            String jobKey = jobIdIndex.getIfPresent(jobId);
+            if (jobKey == null) {
+                continue;
+            }
+            IndexEntry entry = jobKeyIndex.getIfPresent(jobKey);
+            if (entry == null) {
+                continue;
+            }
+            ScheduleJob scheduleJob = copy(entry.scheduleJob);
+            scheduleJob.setStatus(event.getStatus());
+            jobKeyIndex.put(jobKey, new IndexEntry(scheduleJob, now));
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        jobKeyIndex = CacheBuilder.newBuilder()
+                .maximumSize(environmentContext.getJobStatusIndexSize())
+                .expireAfterWrite(environmentContext.getJobStatusIndexExpire(), TimeUnit.MILLISECONDS)
+                .build();
+        jobIdIndex = CacheBuilder.newBuilder()
+                .maximumSize(environmentContext.getJobStatusIndexSize())
+                .expireAfterWrite(environmentContext.getJobStatusIndexExpire(), TimeUnit.MILLISECONDS)
+                .build();
+        ScheduleJobEventPublisher.getInstance().register(this);
+    }
+
+    private IndexEntry getFresh(String jobKey) {
+        IndexEntry entry = jobKeyIndex.getIfPresent(jobKey);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.updateTime > environmentContext.getJobStatusIndexFreshTime()) {
+            return null;
+        }
+        return entry;
+    }
+
+    private List<ScheduleJob> loadFromDb(Collection<String> jobKeys) {
+        List<ScheduleJob> scheduleJobs = Lists.newArrayList();
+        if (CollectionUtils.isEmpty(jobKeys)) {
+            return scheduleJobs;
+        }
+        for (List<String> partition : Lists.partition(Lists.newArrayList(jobKeys), PARTITION_SIZE)) {
+            long now = System.currentTimeMillis();
+            List<ScheduleJob> partitionJobs = scheduleJobService.lambdaQuery()
+                    .select(ScheduleJob::getStatus, ScheduleJob::getJobId,
+                            ScheduleJob::getJobKey, ScheduleJob::getJobName)
+                    .in(ScheduleJob::getJobKey, partition)
+                    .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list();
+            for (ScheduleJob scheduleJob : partitionJobs) {
+                jobKeyIndex.put(scheduleJob.getJobKey(), new IndexEntry(scheduleJob, now));
+                jobIdIndex.put(scheduleJob.getJobId(), scheduleJob.getJobKey());
+            }
+            scheduleJobs.addAll(partitionJobs);
+        }
+        LOGGER.debug("load job status index jobKeys:{} found:{}", jobKeys.size(), scheduleJobs.size());
+        return scheduleJobs;
+    }
+
+    private ScheduleJob copy(ScheduleJob source) {
+        ScheduleJob scheduleJob = new ScheduleJob();
+        scheduleJob.setStatus(source.getStatus());
+        scheduleJob.setJobId(source.getJobId());
+        scheduleJob.setJobKey(source.getJobKey());
+        scheduleJob.setJobName(source.getJobName());
+        return scheduleJob;
+    }
+
+    /**
+     * 索引中的实例不会被修改，状态变更时整体替换
+     */
+    private static class IndexEntry {
+
+        private final ScheduleJob scheduleJob;
+
+        private final long updateTime;
+
+        private IndexEntry(ScheduleJob scheduleJob, long updateTime) {
+            this.scheduleJob = scheduleJob;
+            this.updateTime = updateTime;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.dtstack.taier.scheduler.server.Sort;
 import com.dtstack.taier.scheduler.server.scheduler.Scheduler;
 import org.apache.commons.collections.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -51,8 +52,10 @@ public class InterceptorInvocation {
 
         // 对拦截器进行排序
         if (CollectionUtils.isNotEmpty(interceptorList)) {
-            interceptorList.sort(Comparator.comparingInt(Sort::getSort));
-            iterator = interceptorList.iterator();
+            // 扫描线程和上游结束后重新提交的线程共用拦截器列表，排序副本
+            List<SubmitInterceptor> sortedInterceptorList = new ArrayList<>(interceptorList);
+            sortedInterceptorList.sort(Comparator.comparingInt(Sort::getSort));
+            iterator = sortedInterceptorList.iterator();
         }
 
     }
@@ -18,7 +18,6 @@
 
 package com.dtstack.taier.scheduler.server.scheduler.interceptor;
 
-import com.dtstack.taier.common.enums.Deleted;
 import com.dtstack.taier.common.enums.EScheduleType;
 import com.dtstack.taier.common.enums.JobCheckStatus;
 import com.dtstack.taier.dao.domain.ScheduleJob;
@@ -27,6 +26,7 @@ import com.dtstack.taier.pluginapi.enums.TaskStatus;
 import com.dtstack.taier.scheduler.enums.RelyRule;
 import com.dtstack.taier.scheduler.enums.RelyType;
 import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
+import com.dtstack.taier.scheduler.server.scheduler.JobStatusIndex;
 import com.dtstack.taier.scheduler.service.ScheduleJobService;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -52,6 +52,9 @@ public class JobUpStreamSubmitInterceptor extends SubmitInterceptorAdapter {
     @Autowired
     private ScheduleJobService scheduleJobService;
 
+    @Autowired
+    private JobStatusIndex jobStatusIndex;
+
     @Override
     public Integer getSort() {
         return 0;
@@ -68,12 +71,8 @@ public class JobUpStreamSubmitInterceptor extends SubmitInterceptorAdapter {
                     .filter(key -> !key.equals(scheduleJob.getJobKey()))
                     .collect(Collectors.toList());
 
-            Map<String, ScheduleJob> scheduleJobMap = scheduleJobService.lambdaQuery()
-                    .select(ScheduleJob::getStatus, ScheduleJob::getJobId,
-                            ScheduleJob::getJobKey, ScheduleJob::getJobName)
-                    .in(ScheduleJob::getJobKey, parentJobKeys)
-                    .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
-                    .list().stream().collect(Collectors.toMap(ScheduleJob::getJobKey, g -> (g)));
+            // 扫描时已经按页加载，索引中没有的才查库
+            Map<String, ScheduleJob> scheduleJobMap = jobStatusIndex.getByJobKeys(parentJobKeys);
 
 
             for (ScheduleJobJob scheduleJobJob : jobJobList) {
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service;
+
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.dao.domain.ScheduleJob;
+import com.dtstack.taier.dao.mapper.ScheduleJobMapper;
+import com.dtstack.taier.pluginapi.CustomThreadFactory;
+import com.dtstack.taier.pluginapi.enums.TaskStatus;
+import com.dtstack.taier.scheduler.event.ScheduleJobBatchEvent;
+import com.dtstack.taier.scheduler.event.ScheduleJobEventPublisher;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 实例状态延迟合并写入
+ * <p>
+ * 1. 同一实例在一个刷新间隔内的多次状态变更只保留最后一次，已进入结束状态的不会被之后的非结束状态覆盖
+ * 2. 每个间隔把积攒的状态按是否需要更新运行时间分两组，各用一条 case when 语句批量更新
+ * 3. 其他组件需要立即看到的状态通过 {@link #writeThrough} 同步写库，写之前先落库该实例未刷新的状态，保证先后顺序，
+ *    未刷新的状态落库失败时放回并抛出异常，不再执行同步写入
+ * 4. 写库成功后再通知本节点的状态监听者，回调也在写库成功后执行
+ */
+@Component
+public class JobStatusJournal implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobStatusJournal.class);
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
+    @Autowired
+    private ScheduleJobMapper scheduleJobMapper;
+
+    private final Map<String, PendingStatus> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 同步写入持有读锁可以并发，批量刷新持有写锁，保证已取出未落库的状态不会被同步写入越过
+     */
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService flushService;
+
+    /**
+     * 记录实例状态，延迟合并写入
+     *
+     * @param jobIds 实例id
+     * @param status 状态
+     */
+    public void append(Collection<String> jobIds, Integer status) {
+        if (CollectionUtils.isEmpty(jobIds) || status == null) {
+            return;
+        }
+        for (String jobId : jobIds) {
+            append(jobId, new PendingStatus(status, false, null));
+        }
+    }
+
+    /**
+     * 记录实例结束状态，落库时同时更新运行时间
+     *
+     * @param jobId      实例id
+     * @param status     状态
+     * @param afterFlush 状态落库后执行，可以为空
+     */
+    public void appendWithExecTime(String jobId, Integer status, Runnable afterFlush) {
+        if (jobId == null || status == null) {
+            return;
+        }
+        append(jobId, new PendingStatus(status, true, afterFlush == null ? null : Lists.newArrayList(afterFlush)));
+    }
+
+    private void append(String jobId, PendingStatus status) {
+        if (!Boolean.TRUE.equals(environmentContext.getJobStatusWriteBehind())) {
+            writeThrough(Collections.singletonList(jobId), () -> {
+                write(Collections.singletonMap(jobId, status), false, true);
+                return null;
+            });
+            return;
+        }
+        pending.merge(jobId, status, PendingStatus::merge);
+    }
+
+    /**
+     * 同步写入实例状态，写入前先落库这些实例未刷新的状态，落库失败时不执行同步写入
+     *
+     * @param jobIds 实例id
+     * @param write  同步写入
+     * @return 同步写入的结果
+     */
+    public <T> T writeThrough(Collection<String> jobIds, Supplier<T> write) {
+        flushLock.readLock().lock();
+        try {
+            if (!pending.isEmpty() && CollectionUtils.isNotEmpty(jobIds)) {
+                Map<String, PendingStatus> drained = new HashMap<>();
+                for (String jobId : jobIds) {
+                    PendingStatus status = pending.remove(jobId);
+                    if (status != null) {
+                        drained.put(jobId, status);
+                    }
+                }
+                if (!drained.isEmpty()) {
+                    write(drained, true, true);
+                }
+            }
+            return write.get();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 落库所有未刷新的状态
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.writeLock().lock();
+        try {
+            Map<String, PendingStatus> drained = new HashMap<>(pending.size());
+            for (String jobId : pending.keySet()) {
+                PendingStatus status = pending.remove(jobId);
+                if (status != null) {
+                    drained.put(jobId, status);
+                }
+            }
+            if (!drained.isEmpty()) {
+                write(drained, true, false);
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    public int getPendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * @param drained 需要落库的状态
+     * @param requeue 落库失败时是否放回等待下次刷新
+     * @param rethrow 落库失败时是否抛出异常
+     */
+    private void write(Map<String, PendingStatus> drained, boolean requeue, boolean rethrow) {
+        List<String> statusJobIds = new ArrayList<>();
+        List<String> execTimeJobIds = new ArrayList<>();
+        for (Map.Entry<String, PendingStatus> entry : drained.entrySet()) {
+            (entry.getValue().execTime ? execTimeJobIds : statusJobIds).add(entry.getKey());
+        }
+        int batchSize = Math.max(1, environmentContext.getJobStatusFlushBatchSize());
+        // 某一批失败后其余批次照常落库，全部处理完再抛出
+        RuntimeException failure = null;
+        for (List<String> jobIds : Lists.partition(statusJobIds, batchSize)) {
+            RuntimeException e = writeBatch(jobIds, drained, false, requeue);
+            failure = failure == null ? e : failure;
+        }
+        for (List<String> jobIds : Lists.partition(execTimeJobIds, batchSize)) {
+            RuntimeException e = writeBatch(jobIds, drained, true, requeue);
+            failure = failure == null ? e : failure;
+        }
+        if (rethrow && failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return 落库失败的异常，成功时返回 null
+     */
+    private RuntimeException writeBatch(List<String> jobIds, Map<String, PendingStatus> drained, boolean execTime, boolean requeue) {
+        List<ScheduleJob> jobs = new ArrayList<>(jobIds.size());
+        Map<Integer, List<String>> statusJobIds = new HashMap<>();
+        for (String jobId : jobIds) {
+            Integer status = drained.get(jobId).status;
+            ScheduleJob job = new ScheduleJob();
+            job.setJobId(jobId);
+            job.setStatus(status);
+            jobs.add(job);
+            statusJobIds.computeIfAbsent(status, k -> new ArrayList<>()).add(jobId);
+        }
+
+        try {
+            if (execTime) {
+                scheduleJobMapper.updateJobStatusAndExecTimeByCase(jobs);
+            } else {
+                scheduleJobMapper.updateJobStatusByCase(jobs);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("flush job status error, jobSize:{}", jobIds.size(), e);
+            if (requeue) {
+                // 放回等待下次刷新，期间新记录的状态按合并规则优先
+                for (String jobId : jobIds) {
+                    pending.merge(jobId, drained.get(jobId), (newer, failed) -> failed.merge(newer));
+                }
+            }
+            return e;
+        }
+
+        for (Map.Entry<Integer, List<String>> entry : statusJobIds.entrySet()) {
+            ScheduleJobEventPublisher.getInstance().publishBatchEvent(new ScheduleJobBatchEvent(entry.getValue(), entry.getKey()));
+        }
+        for (String jobId : jobIds) {
+            drained.get(jobId).runAfterFlush(jobId);
+        }
+        return null;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        long interval = Math.max(10L, environmentContext.getJobStatusFlushInterval());
+        flushService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory("JobStatusJournal"));
+        flushService.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Throwable e) {
+                LOGGER.error("flush job status error", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (flushService != null) {
+            flushService.shutdown();
+            flushService.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        flush();
+    }
+
+    private static class PendingStatus {
+
+        private final Integer status;
+
+        private final boolean execTime;
+
+        private final List<Runnable> afterFlush;
+
+        private PendingStatus(Integer status, boolean execTime, List<Runnable> afterFlush) {
+            this.status = status;
+            this.execTime = execTime;
+            this.afterFlush = afterFlush;
+        }
+
+        /**
+         * 合并同一实例先后两次状态，结束状态不会被之后的非结束状态覆盖，回调按记录顺序全部保留
+         */
+        private PendingStatus merge(PendingStatus newer) {
+            boolean keepOlder = TaskStatus.isStopped(status) && !TaskStatus.isStopped(newer.status);
+            List<Runnable> callbacks;
+            if (afterFlush == null) {
+                callbacks = newer.afterFlush;
+            } else if (newer.afterFlush == null) {
+                callbacks = afterFlush;
+            } else {
+                callbacks = new ArrayList<>(afterFlush);
+                callbacks.addAll(newer.afterFlush);
+            }
+            if (keepOlder) {
+                return new PendingStatus(status, execTime, callbacks);
+            }
+            return new PendingStatus(newer.status, execTime || newer.execTime, callbacks);
+        }
+
+        private void runAfterFlush(String jobId) {
+            if (afterFlush == null) {
+                return;
+            }
+            for (Runnable runnable : afterFlush) {
+                try {
+                    runnable.run();
+                } catch (Throwable e) {
+                    LOGGER.error("jobId:{} after flush status error", jobId, e);
+                }
+            }
+        }
+    }
+}
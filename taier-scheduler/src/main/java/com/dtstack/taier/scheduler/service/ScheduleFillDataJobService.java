@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.dtstack.taier.common.enums.Deleted;
+import com.dtstack.taier.common.enums.EScheduleType;
+import com.dtstack.taier.common.enums.ForceCancelFlag;
+import com.dtstack.taier.common.enums.OperatorType;
+import com.dtstack.taier.dao.domain.ScheduleFillDataJob;
+import com.dtstack.taier.dao.domain.ScheduleJob;
+import com.dtstack.taier.dao.domain.ScheduleJobOperatorRecord;
+import com.dtstack.taier.dao.mapper.ScheduleFillDataJobMapper;
+import com.dtstack.taier.scheduler.enums.FillGeneratStatusEnum;
+import com.dtstack.taier.scheduler.server.ScheduleJobDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 补数据实例生成
+ */
+@Service
+public class ScheduleFillDataJobService extends ServiceImpl<ScheduleFillDataJobMapper, ScheduleFillDataJob> {
+
+    @Autowired
+    private ScheduleJobService scheduleJobService;
+
+    @Autowired
+    private ScheduleJobOperatorRecordService scheduleJobOperatorRecordService;
+
+    /**
+     * 查询补数据实例生成游标
+     *
+     * @param fillId 补数据id
+     * @return 游标，没有生成过返回 null
+     */
+    public String getFillCursor(Long fillId) {
+        ScheduleFillDataJob fillDataJob = this.lambdaQuery()
+                .select(ScheduleFillDataJob::getId, ScheduleFillDataJob::getFillCursor)
+                .eq(ScheduleFillDataJob::getId, fillId)
+                .one();
+        return fillDataJob == null ? null : fillDataJob.getFillCursor();
+    }
+
+    /**
+     * 查询当前节点上还在生成中的补数据，节点重启后从游标继续生成
+     *
+     * @param nodeAddress 节点地址
+     * @return 生成中的补数据
+     */
+    public List<ScheduleFillDataJob> listGeneratingFill(String nodeAddress) {
+        return this.lambdaQuery()
+                .eq(ScheduleFillDataJob::getNodeAddress, nodeAddress)
+                .eq(ScheduleFillDataJob::getFillGenerateStatus, FillGeneratStatusEnum.REALLY_GENERATED.getType())
+                .eq(ScheduleFillDataJob::getIsDeleted, Deleted.NORMAL.getStatus())
+                .list();
+    }
+
+    /**
+     * 保存一个分片的补数据实例，并在同一个事务里推进游标，中断后从游标继续生成不会重复插入。
+     * 一天的最后一个分片保存时才插入这一天所有实例的操作记录，实例在整天保存完之后才会被调度，
+     * 避免下游分片先于上游分片被扫描
+     *
+     * @param fillId     补数据id
+     * @param fillCursor 保存完成后的游标
+     * @param jobList    分片生成的实例
+     * @param finishDay  这个分片是当天最后一个分片时为当天 yyyy-MM-dd，否则为 null
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void saveFillJob(Long fillId, String fillCursor, List<ScheduleJobDetails> jobList, String finishDay) {
+        scheduleJobService.insertJobList(jobList, EScheduleType.FILL_DATA.getType());
+
+        if (finishDay != null) {
+            List<ScheduleJob> dayJobs = scheduleJobService.lambdaQuery()
+                    .select(ScheduleJob::getJobId, ScheduleJob::getNodeAddress)
+                    .eq(ScheduleJob::getFillId, fillId)
+                    .likeRight(ScheduleJob::getCycTime, finishDay.replace("-", ""))
+                    .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
+                    .list();
+            Set<ScheduleJobOperatorRecord> operatorJobIds = dayJobs
+                    .stream()
+                    .map(scheduleJob -> {
+                        ScheduleJobOperatorRecord record = new ScheduleJobOperatorRecord();
+                        record.setJobId(scheduleJob.getJobId());
+                        record.setForceCancelFlag(ForceCancelFlag.NO.getFlag());
+                        record.setOperatorType(OperatorType.FILL_DATA.getType());
+                        record.setNodeAddress(scheduleJob.getNodeAddress());
+                        return record;
+                    })
+                    .collect(Collectors.toSet());
+            scheduleJobOperatorRecordService.insertBatch(operatorJobIds);
+        }
+
+        ScheduleFillDataJob updateFillDataJob = new ScheduleFillDataJob();
+        updateFillDataJob.setFillCursor(fillCursor);
+        this.lambdaUpdate()
+                .eq(ScheduleFillDataJob::getId, fillId)
+                .update(updateFillDataJob);
+    }
+}
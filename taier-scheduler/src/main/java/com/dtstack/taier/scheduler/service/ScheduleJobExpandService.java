@@ -18,18 +18,30 @@
 
 package com.dtstack.taier.scheduler.service;
 
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
 import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.parser.Feature;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.dtstack.taier.common.enums.Deleted;
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.common.exception.TaierDefineException;
 import com.dtstack.taier.dao.domain.ScheduleJobExpand;
 import com.dtstack.taier.dao.mapper.ScheduleJobExpandMapper;
 import com.dtstack.taier.pluginapi.constrant.JobResultConstant;
+import com.dtstack.taier.scheduler.service.log.JobLogStore;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -39,9 +51,31 @@ import java.util.Set;
  * @Description:
  */
 @Service
-public class ScheduleJobExpandService extends ServiceImpl<ScheduleJobExpandMapper, ScheduleJobExpand> {
+public class ScheduleJobExpandService extends ServiceImpl<ScheduleJobExpandMapper, ScheduleJobExpand> implements InitializingBean {
     private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleJobExpandService.class);
 
+    private static final String TRUNCATED_HEADER = "...(only the last %s of %s characters are shown, download the log for the full content)\n";
+
+    @Autowired
+    private EnvironmentContext environmentContext;
+
+    @Autowired
+    private List<JobLogStore> jobLogStores;
+
+    private JobLogStore jobLogStore;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        for (JobLogStore store : jobLogStores) {
+            if (store.getType().equalsIgnoreCase(environmentContext.getJobLogStore())) {
+                jobLogStore = store;
+            }
+        }
+        if (jobLogStore == null) {
+            throw new TaierDefineException("unsupported job.log.store: " + environmentContext.getJobLogStore());
+        }
+    }
+
     /**
      * 清楚扩展表数据
      *
@@ -50,6 +84,7 @@ public class ScheduleJobExpandService extends ServiceImpl<ScheduleJobExpandMappe
      */
     public Integer clearData(Set<String> jobIds) {
         if (CollectionUtils.isNotEmpty(jobIds)) {
+            jobLogStore.delete(jobIds);
             return this.baseMapper.updateLogByJobIds(jobIds, Deleted.NORMAL.getStatus(), "", "");
         }
         return 0;
@@ -63,7 +98,7 @@ public class ScheduleJobExpandService extends ServiceImpl<ScheduleJobExpandMappe
     public void updateEngineLog(String jobId,String engineLog) {
         ScheduleJobExpand scheduleJobExpand = new ScheduleJobExpand();
         scheduleJobExpand.setJobId(jobId);
-        scheduleJobExpand.setEngineLog(engineLog);
+        scheduleJobExpand.setEngineLog(storeEngineLog(jobId, engineLog));
         getBaseMapper().update(scheduleJobExpand, Wrappers.lambdaQuery(ScheduleJobExpand.class)
                 .eq(ScheduleJobExpand::getJobId, jobId));
     }
@@ -81,11 +116,155 @@ public class ScheduleJobExpandService extends ServiceImpl<ScheduleJobExpandMappe
         scheduleJobExpand.setJobId(jobId);
         scheduleJobExpand.setJobExtraInfo(jobExtraInfo);
         scheduleJobExpand.setLogInfo(logInfo);
-        scheduleJobExpand.setEngineLog(engineLog);
+        scheduleJobExpand.setEngineLog(storeEngineLog(jobId, engineLog));
         getBaseMapper().update(scheduleJobExpand, Wrappers.lambdaQuery(ScheduleJobExpand.class)
                 .eq(ScheduleJobExpand::getJobId, jobId));
     }
 
+    /**
+     * 超过 job.log.tail.size 的引擎日志完整写入 {@link JobLogStore}，扩展表只保留不超过 job.log.tail.size 的摘要。
+     * JSON 格式的日志会被页面和任务运行器整体解析，摘要保留原来的结构，只截断其中过长的字符串
+     *
+     * @return 扩展表中保存的引擎日志
+     */
+    private String storeEngineLog(String jobId, String engineLog) {
+        int tailSize = environmentContext.getJobLogTailSize();
+        if (engineLog == null || tailSize <= 0) {
+            return engineLog;
+        }
+        if (engineLog.length() <= tailSize) {
+            // 重新获取的日志不再截断时删除之前保存的完整日志
+            if (jobLogStore.length(jobId) > 0) {
+                jobLogStore.delete(Collections.singletonList(jobId));
+            }
+            return engineLog;
+        }
+        jobLogStore.write(jobId, engineLog);
+        if (isJson(engineLog)) {
+            String summary = summaryJson(engineLog, tailSize);
+            if (summary != null) {
+                return summary;
+            }
+        }
+        return tail(engineLog, tailSize);
+    }
+
+    /**
+     * 保留 JSON 结构，字符串只保留末尾，逐步缩小每个字符串保留的长度直到整体不超过 tailSize
+     *
+     * @return 无法解析或者结构本身超过 tailSize 时返回 null
+     */
+    private String summaryJson(String engineLog, int tailSize) {
+        Object json;
+        try {
+            json = JSON.parse(engineLog, Feature.OrderedField);
+        } catch (JSONException e) {
+            return null;
+        }
+        if (!(json instanceof JSONObject) && !(json instanceof JSONArray)) {
+            return null;
+        }
+        int stringSize = tailSize;
+        while (true) {
+            String summary = JSON.toJSONString(summaryJsonValue(json, stringSize));
+            if (summary.length() <= tailSize) {
+                return summary;
+            }
+            if (stringSize == 0) {
+                return null;
+            }
+            stringSize /= 2;
+        }
+    }
+
+    private Object summaryJsonValue(Object value, int stringSize) {
+        if (value instanceof JSONObject) {
+            JSONObject summary = new JSONObject(true);
+            for (Map.Entry<String, Object> entry : ((JSONObject) value).entrySet()) {
+                summary.put(entry.getKey(), summaryJsonValue(entry.getValue(), stringSize));
+            }
+            return summary;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray summary = new JSONArray(((JSONArray) value).size());
+            for (Object item : (JSONArray) value) {
+                summary.add(summaryJsonValue(item, stringSize));
+            }
+            return summary;
+        }
+        if (value instanceof String && ((String) value).length() > stringSize) {
+            String tail = tail((String) value, stringSize);
+            // 短字符串加上截断说明反而更长，保留原值
+            return tail.length() < ((String) value).length() ? tail : value;
+        }
+        return value;
+    }
+
+    private String tail(String log, int tailSize) {
+        int tailStart = log.length() - tailSize;
+        if (tailStart < log.length() && Character.isLowSurrogate(log.charAt(tailStart))) {
+            tailStart++;
+        }
+        return String.format(TRUNCATED_HEADER, log.length() - tailStart, log.length()) + log.substring(tailStart);
+    }
+
+    private boolean isJson(String engineLog) {
+        for (int i = 0; i < engineLog.length(); i++) {
+            char c = engineLog.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{' || c == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 引擎日志字符数，日志没有超过 job.log.tail.size 时返回扩展表中的日志长度
+     */
+    public long getEngineLogLength(String jobId) {
+        long length = jobLogStore.length(jobId);
+        if (length > 0) {
+            return length;
+        }
+        ScheduleJobExpand scheduleJobExpand = getByJobId(jobId);
+        return scheduleJobExpand == null || scheduleJobExpand.getEngineLog() == null ? 0 : scheduleJobExpand.getEngineLog().length();
+    }
+
+    /**
+     * 按范围读取引擎日志，用于日志分页展示
+     *
+     * @param jobId  实例id
+     * @param offset 开始位置(字符)
+     * @param length 读取的字符数
+     * @return 日志片段
+     */
+    public String getEngineLog(String jobId, long offset, int length) {
+        String log = jobLogStore.read(jobId, offset, length);
+        if (log != null) {
+            return log;
+        }
+        ScheduleJobExpand scheduleJobExpand = getByJobId(jobId);
+        if (scheduleJobExpand == null || scheduleJobExpand.getEngineLog() == null) {
+            return "";
+        }
+        String engineLog = scheduleJobExpand.getEngineLog();
+        int start = (int) Math.min(engineLog.length(), Math.max(0L, offset));
+        return engineLog.substring(start, (int) Math.min(engineLog.length(), (long) start + Math.max(0, length)));
+    }
+
+    /**
+     * 完整的引擎日志，用于日志下载
+     *
+     * @param scheduleJobExpand 实例扩展信息
+     */
+    public String getFullEngineLog(ScheduleJobExpand scheduleJobExpand) {
+        long length = jobLogStore.length(scheduleJobExpand.getJobId());
+        if (length <= 0 || length > Integer.MAX_VALUE) {
+            return scheduleJobExpand.getEngineLog();
+        }
+        return jobLogStore.read(scheduleJobExpand.getJobId(), 0L, (int) length);
+    }
+
     public String getJobGraphJson(String jobId) {
         String jobExtraInfo =getByJobId(jobId).getJobExtraInfo();
         JSONObject jobExtraObj = JSONObject.parseObject(jobExtraInfo);
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.dtstack.taier.dao.domain.ScheduleJobLogQueue;
+import com.dtstack.taier.dao.mapper.ScheduleJobLogQueueMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 日志获取请求在内存队列满时暂存到数据库，队列空闲后再取回
+ */
+@Service
+public class ScheduleJobLogQueueService extends ServiceImpl<ScheduleJobLogQueueMapper, ScheduleJobLogQueue> {
+
+    /**
+     * 批量暂存请求，同一个实例只保留一条
+     */
+    public void spillBatch(List<ScheduleJobLogQueue> logQueues) {
+        if (!logQueues.isEmpty()) {
+            this.baseMapper.insertIgnoreBatch(logQueues);
+        }
+    }
+
+    /**
+     * 把宕机节点暂存的请求转移到其他节点
+     *
+     * @param nodeAddress   宕机节点
+     * @param targetAddress 接收请求的节点
+     * @param limit         最多转移的数量
+     * @return 转移的数量
+     */
+    public int updateNodeAddress(String nodeAddress, String targetAddress, int limit) {
+        Integer moved = this.baseMapper.updateNodeAddress(nodeAddress, targetAddress, limit);
+        return moved == null ? 0 : moved;
+    }
+
+    /**
+     * 取回节点暂存的请求，取回后删除
+     *
+     * @param nodeAddress 节点
+     * @param limit       最多取回的数量
+     * @return 暂存的请求
+     */
+    public List<ScheduleJobLogQueue> pollByNodeAddress(String nodeAddress, int limit) {
+        List<ScheduleJobLogQueue> logQueues = this.baseMapper.listByNodeAddress(nodeAddress, limit);
+        if (!logQueues.isEmpty()) {
+            removeByIds(logQueues.stream().map(ScheduleJobLogQueue::getId).collect(Collectors.toList()));
+        }
+        return logQueues;
+    }
+}
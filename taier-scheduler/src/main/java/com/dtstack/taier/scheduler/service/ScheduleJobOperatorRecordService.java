@@ -69,6 +69,14 @@ public class ScheduleJobOperatorRecordService extends ServiceImpl<ScheduleJobOpe
     }
 
 
+    /**
+     * 操作记录跟随 id 范围内已经迁移到目标节点的实例
+     */
+    public int updateNodeAddressByJobIdRange(Long startId, Long endId, Integer type, String nodeAddress) {
+        Integer count = this.baseMapper.updateNodeAddressByJobIdRange(startId, endId, type, nodeAddress);
+        return count == null ? 0 : count;
+    }
+
     public void deleteById(Long stopJobId) {
         this.baseMapper.deleteById(stopJobId);
     }
@@ -35,12 +35,15 @@ import com.dtstack.taier.dao.domain.ScheduleJobExpand;
 import com.dtstack.taier.dao.domain.ScheduleJobJob;
 import com.dtstack.taier.dao.domain.ScheduleJobOperatorRecord;
 import com.dtstack.taier.dao.domain.ScheduleTaskShade;
+import com.dtstack.taier.dao.domain.po.IdRangePO;
 import com.dtstack.taier.dao.domain.po.SimpleScheduleJobPO;
 import com.dtstack.taier.dao.mapper.ScheduleJobMapper;
 import com.dtstack.taier.pluginapi.enums.TaskStatus;
 import com.dtstack.taier.pluginapi.util.RetryUtil;
 import com.dtstack.taier.scheduler.dto.scheduler.SimpleScheduleJobDTO;
 import com.dtstack.taier.scheduler.enums.JobPhaseStatus;
+import com.dtstack.taier.scheduler.event.ScheduleJobBatchEvent;
+import com.dtstack.taier.scheduler.event.ScheduleJobEventPublisher;
 import com.dtstack.taier.scheduler.impl.pojo.ParamActionExt;
 import com.dtstack.taier.scheduler.mapstruct.ScheduleJobMapStruct;
 import com.dtstack.taier.scheduler.server.JobPartitioner;
@@ -108,6 +111,9 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
     @Autowired
     private UnnecessaryPreprocessJobPipeline unnecessaryPreprocessJobPipeline;
 
+    @Autowired
+    private JobStatusJournal jobStatusJournal;
+
     /**
      * 开始运行实例
      *
@@ -176,6 +182,7 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
                         .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
                         .in(ScheduleJob::getJobId, jobIds)
                         .update(scheduleJob);
+                publishStatusChange(new ArrayList<>(jobIds), TaskStatus.UNSUBMIT.getStatus());
 
                 // 清除日志
                 scheduleJobExpandService.clearData(jobIds);
@@ -316,10 +323,12 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
         ScheduleJob scheduleJob = new ScheduleJob();
         scheduleJob.setStatus(status);
         scheduleJob.setVersionId(versionId);
-        return this.lambdaUpdate()
+        Boolean update = jobStatusJournal.writeThrough(Lists.newArrayList(jobId), () -> this.lambdaUpdate()
                 .eq(ScheduleJob::getJobId, jobId)
                 .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
-                .update(scheduleJob);
+                .update(scheduleJob));
+        publishStatusChange(Lists.newArrayList(jobId), status);
+        return update;
     }
 
     /**
@@ -355,7 +364,10 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
      */
     public Integer updateJobStatusAndExecTime(String jobId, Integer status) {
         if (StringUtils.isNotBlank(jobId) && status != null) {
-            return this.baseMapper.updateJobStatusAndExecTime(jobId, status);
+            Integer update = jobStatusJournal.writeThrough(Lists.newArrayList(jobId),
+                    () -> this.baseMapper.updateJobStatusAndExecTime(jobId, status));
+            publishStatusChange(Lists.newArrayList(jobId), status);
+            return update;
         }
         return 0;
     }
@@ -399,6 +411,28 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
         return Boolean.FALSE;
     }
 
+    /**
+     * 更新实例队列状态，同时校验实例状态，实例状态已经变化时不更新
+     *
+     * @param id       实例id
+     * @param status   实例当前状态
+     * @param original 实例当前队列状态
+     * @param update   实例需要变更的队列状态
+     * @return 是否更新成功
+     */
+    public boolean updatePhaseStatusByIdAndStatus(Long id, Integer status, JobPhaseStatus original, JobPhaseStatus update) {
+        if (id == null || status == null || original == null || update == null) {
+            return Boolean.FALSE;
+        }
+        return this.lambdaUpdate()
+                .set(ScheduleJob::getPhaseStatus, update.getCode())
+                .eq(ScheduleJob::getId, id)
+                .eq(ScheduleJob::getStatus, status)
+                .eq(ScheduleJob::getPhaseStatus, original.getCode())
+                .eq(ScheduleJob::getIsDeleted, Deleted.NORMAL.getStatus())
+                .update();
+    }
+
     /**
      * 扫描周期实例接口
      *
@@ -450,9 +484,11 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
         if (null == scheduleJob || StringUtils.isBlank(scheduleJob.getJobId())) {
             return 0;
         }
-        return this.baseMapper.update(scheduleJob,
+        int update = jobStatusJournal.writeThrough(Lists.newArrayList(scheduleJob.getJobId()), () -> this.baseMapper.update(scheduleJob,
                 Wrappers.lambdaQuery(ScheduleJob.class)
-                        .eq(ScheduleJob::getJobId, scheduleJob.getJobId()));
+                        .eq(ScheduleJob::getJobId, scheduleJob.getJobId())));
+        publishStatusChange(Lists.newArrayList(scheduleJob.getJobId()), scheduleJob.getStatus());
+        return update;
     }
 
     /**
@@ -515,8 +551,10 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
         ScheduleJob scheduleJob = new ScheduleJob();
         scheduleJob.setStatus(status);
         scheduleJob.setPhaseStatus(phaseStatus);
-        return this.baseMapper.update(scheduleJob, Wrappers.lambdaQuery(ScheduleJob.class)
-                .in(ScheduleJob::getJobId, jobIds));
+        int update = jobStatusJournal.writeThrough(jobIds, () -> this.baseMapper.update(scheduleJob, Wrappers.lambdaQuery(ScheduleJob.class)
+                .in(ScheduleJob::getJobId, jobIds)));
+        publishStatusChange(jobIds, status);
+        return update;
     }
 
     /**
@@ -561,8 +599,38 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
         ScheduleJob updateScheduleJob = new ScheduleJob();
         updateScheduleJob.setJobId(jobId);
         updateScheduleJob.setStatus(status);
-        this.baseMapper.update(updateScheduleJob, Wrappers.lambdaQuery(ScheduleJob.class)
-                .eq(ScheduleJob::getJobId, jobId));
+        jobStatusJournal.writeThrough(Lists.newArrayList(jobId), () -> this.baseMapper.update(updateScheduleJob, Wrappers.lambdaQuery(ScheduleJob.class)
+                .eq(ScheduleJob::getJobId, jobId)));
+        publishStatusChange(Lists.newArrayList(jobId), status);
+    }
+
+    /**
+     * 批量更新状态
+     *
+     * @param jobIds 实例id
+     * @param status 状态
+     * @return 更新数
+     */
+    public Integer updateStatusByJobIds(List<String> jobIds, Integer status) {
+        if (CollectionUtils.isEmpty(jobIds) || status == null) {
+            return 0;
+        }
+        Integer update = jobStatusJournal.writeThrough(jobIds, () -> this.baseMapper.updateJobStatusByJobIds(jobIds, status));
+        publishStatusChange(jobIds, status);
+        return update;
+    }
+
+    /**
+     * 通知本节点的监听者实例状态已经变更，例如上游实例状态索引 JobStatusIndex
+     *
+     * @param jobIds 实例id
+     * @param status 新状态，为空时不通知
+     */
+    private void publishStatusChange(List<String> jobIds, Integer status) {
+        if (status == null) {
+            return;
+        }
+        ScheduleJobEventPublisher.getInstance().publishBatchEvent(new ScheduleJobBatchEvent(jobIds, status));
     }
 
     /**
@@ -602,14 +670,44 @@ public class ScheduleJobService extends ServiceImpl<ScheduleJobMapper, ScheduleJ
         return ScheduleJobMapStruct.INSTANCE.scheduleJobTOSimpleScheduleJobDTO(simpleScheduleJobPOS);
     }
 
+    /**
+     * 统计节点上未完成实例的 id 范围，用于容灾
+     *
+     * @param nodeAddress        地址
+     * @param unfinishedStatuses 需求查询的状态
+     * @param type               实例类型
+     * @return id 范围和数量，没有实例时 total 为0
+     */
+    public IdRangePO getIdRangeByStatusAddress(String nodeAddress, List<Integer> unfinishedStatuses, Integer type) {
+        return this.baseMapper.getIdRangeByStatusAddress(nodeAddress, unfinishedStatuses, type);
+    }
+
+    /**
+     * 迁移 id 范围内节点上的未完成实例，已入队的实例重置为未入队
+     *
+     * @param startId            开始id(包含)
+     * @param endId              结束id(包含)
+     * @param nodeAddress        原节点
+     * @param unfinishedStatuses 需求迁移的状态
+     * @param type               实例类型
+     * @param targetAddress      目标节点
+     * @return 迁移的实例数
+     */
+    public int updateNodeAddressByIdRange(Long startId, Long endId, String nodeAddress, List<Integer> unfinishedStatuses, Integer type, String targetAddress) {
+        Integer count = this.baseMapper.updateNodeAddressByIdRange(startId, endId, nodeAddress, unfinishedStatuses, type, targetAddress,
+                JobPhaseStatus.JOIN_THE_TEAM.getCode(), JobPhaseStatus.CREATE.getCode());
+        return count == null ? 0 : count;
+    }
+
     public void updateStatusWithExecTime(ScheduleJob job) {
         ScheduleJob updateScheduleJob = new ScheduleJob();
         updateScheduleJob.setExecStartTime(job.getExecStartTime());
         updateScheduleJob.setExecEndTime(job.getExecEndTime());
         updateScheduleJob.setExecTime(job.getExecTime());
         updateScheduleJob.setStatus(job.getStatus());
-        this.baseMapper.update(updateScheduleJob, Wrappers.lambdaQuery(ScheduleJob.class)
-                .eq(ScheduleJob::getJobId, job.getJobId()));
+        jobStatusJournal.writeThrough(Lists.newArrayList(job.getJobId()), () -> this.baseMapper.update(updateScheduleJob, Wrappers.lambdaQuery(ScheduleJob.class)
+                .eq(ScheduleJob::getJobId, job.getJobId())));
+        publishStatusChange(Lists.newArrayList(job.getJobId()), job.getStatus());
     }
 
     /**
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service.log;
+
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.common.exception.TaierDefineException;
+import com.google.common.collect.Lists;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 日志按 job.log.chunk.size 个字符分片，每片单独压缩，按范围读取时只解压涉及的分片
+ */
+public abstract class AbstractChunkedJobLogStore implements JobLogStore {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Autowired
+    protected EnvironmentContext environmentContext;
+
+    /**
+     * 覆盖保存实例的全部分片
+     */
+    protected abstract void writeChunks(String jobId, List<LogChunk> chunks);
+
+    /**
+     * 按分片序号返回每片压缩前的字符数
+     */
+    protected abstract List<Integer> listRawLengths(String jobId);
+
+    /**
+     * 读取 [fromIndex, toIndex] 的分片
+     *
+     * @return 分片序号 -> 压缩后的内容
+     */
+    protected abstract Map<Integer, byte[]> readChunks(String jobId, int fromIndex, int toIndex);
+
+    @Override
+    public void write(String jobId, String log) {
+        writeChunks(jobId, split(log, environmentContext.getJobLogChunkSize()));
+    }
+
+    @Override
+    public long length(String jobId) {
+        long length = 0L;
+        for (Integer rawLength : listRawLengths(jobId)) {
+            length += rawLength;
+        }
+        return length;
+    }
+
+    @Override
+    public String read(String jobId, long offset, int length) {
+        List<Integer> rawLengths = listRawLengths(jobId);
+        if (rawLengths.isEmpty()) {
+            return null;
+        }
+        long start = Math.max(0L, offset);
+        long end = start + Math.max(0, length);
+        int fromIndex = -1;
+        int toIndex = -1;
+        long fromPosition = 0L;
+        long position = 0L;
+        for (int i = 0; i < rawLengths.size() && position < end; i++) {
+            long next = position + rawLengths.get(i);
+            if (fromIndex < 0 && next > start) {
+                fromIndex = i;
+                fromPosition = position;
+            }
+            if (fromIndex >= 0) {
+                toIndex = i;
+            }
+            position = next;
+        }
+        if (fromIndex < 0) {
+            return "";
+        }
+        Map<Integer, byte[]> contents = readChunks(jobId, fromIndex, toIndex);
+        StringBuilder log = new StringBuilder();
+        for (int i = fromIndex; i <= toIndex; i++) {
+            byte[] content = contents.get(i);
+            if (content == null) {
+                throw new TaierDefineException(String.format("jobId:%s log chunk %s is missing", jobId, i));
+            }
+            log.append(decompress(content));
+        }
+        int subStart = (int) (start - fromPosition);
+        int subEnd = (int) Math.min(log.length(), end - fromPosition);
+        return log.substring(subStart, subEnd);
+    }
+
+    static List<LogChunk> split(String log, int chunkSize) {
+        List<LogChunk> chunks = Lists.newArrayList();
+        int size = Math.max(2, chunkSize);
+        int start = 0;
+        while (start < log.length()) {
+            int end = Math.min(log.length(), start + size);
+            // 不拆开代理对，否则两片各自编码后无法还原
+            if (end < log.length() && Character.isHighSurrogate(log.charAt(end - 1))) {
+                end--;
+            }
+            String text = log.substring(start, end);
+            chunks.add(new LogChunk(chunks.size(), text.length(), compress(text)));
+            start = end;
+        }
+        return chunks;
+    }
+
+    static byte[] compress(String text) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String decompress(byte[] content) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(content);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(content.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new TaierDefineException("job log chunk is truncated");
+                }
+                out.write(buffer, 0, count);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new TaierDefineException("job log chunk is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    protected static class LogChunk {
+
+        private final int index;
+
+        private final int rawLength;
+
+        private final byte[] content;
+
+        LogChunk(int index, int rawLength, byte[] content) {
+            this.index = index;
+            this.rawLength = rawLength;
+            this.content = content;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getRawLength() {
+            return rawLength;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service.log;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.dtstack.taier.common.enums.Deleted;
+import com.dtstack.taier.dao.domain.ScheduleJobLogChunk;
+import com.dtstack.taier.dao.mapper.ScheduleJobLogChunkMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.collections.CollectionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志分片保存在 schedule_job_log_chunk 表
+ */
+@Component
+public class DbJobLogStore extends AbstractChunkedJobLogStore {
+
+    public static final String TYPE = "db";
+
+    private static final int PARTITION_SIZE = 500;
+
+    @Autowired
+    private ScheduleJobLogChunkMapper scheduleJobLogChunkMapper;
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void write(String jobId, String log) {
+        super.write(jobId, log);
+    }
+
+    @Override
+    protected void writeChunks(String jobId, List<LogChunk> chunks) {
+        scheduleJobLogChunkMapper.delete(Wrappers.lambdaQuery(ScheduleJobLogChunk.class)
+                .eq(ScheduleJobLogChunk::getJobId, jobId));
+        for (LogChunk chunk : chunks) {
+            ScheduleJobLogChunk logChunk = new ScheduleJobLogChunk();
+            logChunk.setJobId(jobId);
+            logChunk.setChunkIndex(chunk.getIndex());
+            logChunk.setRawLength(chunk.getRawLength());
+            logChunk.setContent(chunk.getContent());
+            logChunk.setIsDeleted(Deleted.NORMAL.getStatus());
+            scheduleJobLogChunkMapper.insert(logChunk);
+        }
+    }
+
+    @Override
+    protected List<Integer> listRawLengths(String jobId) {
+        List<ScheduleJobLogChunk> logChunks = scheduleJobLogChunkMapper.selectList(Wrappers.lambdaQuery(ScheduleJobLogChunk.class)
+                .select(ScheduleJobLogChunk::getChunkIndex, ScheduleJobLogChunk::getRawLength)
+                .eq(ScheduleJobLogChunk::getJobId, jobId)
+                .orderByAsc(ScheduleJobLogChunk::getChunkIndex));
+        List<Integer> rawLengths = Lists.newArrayListWithCapacity(logChunks.size());
+        for (ScheduleJobLogChunk logChunk : logChunks) {
+            rawLengths.add(logChunk.getRawLength());
+        }
+        return rawLengths;
+    }
+
+    @Override
+    protected Map<Integer, byte[]> readChunks(String jobId, int fromIndex, int toIndex) {
+        List<ScheduleJobLogChunk> logChunks = scheduleJobLogChunkMapper.selectList(Wrappers.lambdaQuery(ScheduleJobLogChunk.class)
+                .select(ScheduleJobLogChunk::getChunkIndex, ScheduleJobLogChunk::getContent)
+                .eq(ScheduleJobLogChunk::getJobId, jobId)
+                .between(ScheduleJobLogChunk::getChunkIndex, fromIndex, toIndex));
+        Map<Integer, byte[]> contents = Maps.newHashMapWithExpectedSize(logChunks.size());
+        for (ScheduleJobLogChunk logChunk : logChunks) {
+            contents.put(logChunk.getChunkIndex(), logChunk.getContent());
+        }
+        return contents;
+    }
+
+    @Override
+    public void delete(Collection<String> jobIds) {
+        if (CollectionUtils.isEmpty(jobIds)) {
+            return;
+        }
+        for (List<String> partition : Lists.partition(Lists.newArrayList(jobIds), PARTITION_SIZE)) {
+            scheduleJobLogChunkMapper.delete(Wrappers.lambdaQuery(ScheduleJobLogChunk.class)
+                    .in(ScheduleJobLogChunk::getJobId, partition));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service.log;
+
+import com.dtstack.taier.common.exception.TaierDefineException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 日志分片保存在 job.log.store.dir 目录，每个实例一个目录，分片文件名为 序号-压缩前字符数
+ * <p>
+ * job.log.store.dir 可以挂载共享存储，否则只能读到本节点写入的日志
+ */
+@Component
+public class FileJobLogStore extends AbstractChunkedJobLogStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileJobLogStore.class);
+
+    public static final String TYPE = "file";
+
+    private static final String SEPARATOR = "-";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void writeChunks(String jobId, List<LogChunk> chunks) {
+        File jobDir = getJobDir(jobId);
+        File tmpDir = new File(jobDir.getParentFile(), jobId + TMP_SUFFIX + System.nanoTime());
+        try {
+            FileUtils.forceMkdir(tmpDir);
+            for (LogChunk chunk : chunks) {
+                Files.write(new File(tmpDir, chunk.getIndex() + SEPARATOR + chunk.getRawLength()).toPath(), chunk.getContent());
+            }
+            FileUtils.deleteDirectory(jobDir);
+            if (!tmpDir.renameTo(jobDir)) {
+                throw new IOException("rename " + tmpDir + " to " + jobDir + " failed");
+            }
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(tmpDir);
+            throw new TaierDefineException(String.format("jobId:%s write log failed", jobId), e);
+        }
+    }
+
+    @Override
+    protected List<Integer> listRawLengths(String jobId) {
+        List<Integer> rawLengths = Lists.newArrayList();
+        for (File file : listChunkFiles(jobId).values()) {
+            rawLengths.add(Integer.valueOf(file.getName().split(SEPARATOR)[1]));
+        }
+        return rawLengths;
+    }
+
+    @Override
+    protected Map<Integer, byte[]> readChunks(String jobId, int fromIndex, int toIndex) {
+        Map<Integer, byte[]> contents = Maps.newHashMap();
+        for (Map.Entry<Integer, File> entry : listChunkFiles(jobId).subMap(fromIndex, true, toIndex, true).entrySet()) {
+            try {
+                contents.put(entry.getKey(), Files.readAllBytes(entry.getValue().toPath()));
+            } catch (IOException e) {
+                throw new TaierDefineException(String.format("jobId:%s read log chunk %s failed", jobId, entry.getKey()), e);
+            }
+        }
+        return contents;
+    }
+
+    @Override
+    public void delete(Collection<String> jobIds) {
+        if (CollectionUtils.isEmpty(jobIds)) {
+            return;
+        }
+        for (String jobId : jobIds) {
+            try {
+                FileUtils.deleteDirectory(getJobDir(jobId));
+            } catch (IOException e) {
+                LOGGER.warn("jobId:{} delete log failed", jobId, e);
+            }
+        }
+    }
+
+    private File getJobDir(String jobId) {
+        return new File(environmentContext.getJobLogStoreDir(), jobId);
+    }
+
+    /**
+     * @return 分片序号 -> 分片文件
+     */
+    private TreeMap<Integer, File> listChunkFiles(String jobId) {
+        TreeMap<Integer, File> chunkFiles = new TreeMap<>();
+        File[] files = getJobDir(jobId).listFiles();
+        if (files == null) {
+            return chunkFiles;
+        }
+        for (File file : files) {
+            String[] names = file.getName().split(SEPARATOR);
+            chunkFiles.put(Integer.valueOf(names[0]), file);
+        }
+        return chunkFiles;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service.log;
+
+import java.util.Collection;
+
+/**
+ * 实例引擎日志存储，日志压缩后分片保存，支持按范围读取
+ */
+public interface JobLogStore {
+
+    /**
+     * 存储类型，对应配置 job.log.store
+     */
+    String getType();
+
+    /**
+     * 覆盖写入实例的完整日志
+     *
+     * @param jobId 实例id
+     * @param log   日志
+     */
+    void write(String jobId, String log);
+
+    /**
+     * 日志字符数
+     *
+     * @param jobId 实例id
+     * @return 没有存储日志时返回0
+     */
+    long length(String jobId);
+
+    /**
+     * 按范围读取日志
+     *
+     * @param jobId  实例id
+     * @param offset 开始位置(字符)
+     * @param length 读取的字符数
+     * @return 没有存储日志时返回 null
+     */
+    String read(String jobId, long offset, int length);
+
+    /**
+     * 删除实例日志
+     *
+     * @param jobIds 实例id
+     */
+    void delete(Collection<String> jobIds);
+}
@@ -27,6 +27,7 @@ import com.dtstack.taier.pluginapi.leader.LockService;
 import com.dtstack.taier.scheduler.server.FailoverStrategy;
 import com.dtstack.taier.scheduler.server.listener.HeartBeatCheckListener;
 import com.dtstack.taier.scheduler.server.listener.HeartBeatListener;
+import com.dtstack.taier.scheduler.server.listener.HeartBeatMetrics;
 import com.dtstack.taier.scheduler.server.listener.Listener;
 import com.dtstack.taier.scheduler.server.listener.MasterListener;
 import com.dtstack.taier.scheduler.utils.PathUtil;
@@ -51,6 +52,7 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -95,6 +97,9 @@ public class ZkService implements InitializingBean, DisposableBean {
     @Autowired
     private FailoverStrategy failoverStrategy;
 
+    @Autowired
+    private HeartBeatMetrics heartBeatMetrics;
+
     private static class LockServiceImpl implements LockService {
 
         private final CuratorFramework zkClient;
@@ -187,7 +192,7 @@ public class ZkService implements InitializingBean, DisposableBean {
     }
 
     private void initScheduledExecutorService() throws Exception {
-        listeners.add(new HeartBeatListener(this));
+        listeners.add(new HeartBeatListener(this, heartBeatMetrics));
         String latchPath = String.format("%s/%s", this.distributeRootNode, "masterLatchLock");
         MasterListener masterListener = new MasterListener(failoverStrategy, zkClient, latchPath, localAddress);
         listeners.add(masterListener);
@@ -267,14 +272,23 @@ public class ZkService implements InitializingBean, DisposableBean {
     }
 
     public List<String> getAliveBrokersChildren() {
-        List<String> alives = Lists.newArrayList();
+        return Lists.newArrayList(getAliveBrokerHeartNodes().keySet());
+    }
+
+    /**
+     * 存活节点和心跳
+     *
+     * @return key: 节点地址, value: 心跳，按 zk 子节点顺序
+     */
+    public Map<String, BrokerHeartNode> getAliveBrokerHeartNodes() {
+        Map<String, BrokerHeartNode> alives = new LinkedHashMap<>();
         try {
             if (null != zkClient) {
                 List<String> brokers = zkClient.getChildren().forPath(this.brokersNode);
                 for (String broker : brokers) {
                     BrokerHeartNode brokerHeartNode = getBrokerHeartNode(broker);
                     if (brokerHeartNode.getAlive()) {
-                        alives.add(broker);
+                        alives.put(broker, brokerHeartNode);
                     }
                 }
             }
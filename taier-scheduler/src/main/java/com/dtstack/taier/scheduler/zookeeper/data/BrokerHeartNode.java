@@ -18,17 +18,35 @@
 
 package com.dtstack.taier.scheduler.zookeeper.data;
 
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+
 /**
  * company: www.dtstack.com
  * author: toutian
  * create: 2019/10/22
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class BrokerHeartNode {
 	
 	private  Long seq;
 	
 	private  Boolean alive;
 
+	/**
+	 * 最近的任务提交平均耗时，毫秒
+	 */
+	private Long submitLatency;
+
+	/**
+	 * 本节点正在轮询状态的实例数
+	 */
+	private Integer statusBacklog;
+
+	/**
+	 * 任务提交线程池的空闲线程数
+	 */
+	private Integer freeSlots;
+
 	public Long getSeq() {
 		return seq;
 	}
@@ -45,6 +63,30 @@ public class BrokerHeartNode {
 		this.alive = alive;
 	}
 	
+	public Long getSubmitLatency() {
+		return submitLatency;
+	}
+
+	public void setSubmitLatency(Long submitLatency) {
+		this.submitLatency = submitLatency;
+	}
+
+	public Integer getStatusBacklog() {
+		return statusBacklog;
+	}
+
+	public void setStatusBacklog(Integer statusBacklog) {
+		this.statusBacklog = statusBacklog;
+	}
+
+	public Integer getFreeSlots() {
+		return freeSlots;
+	}
+
+	public void setFreeSlots(Integer freeSlots) {
+		this.freeSlots = freeSlots;
+	}
+
 	public static BrokerHeartNode initBrokerHeartNode(){
 		BrokerHeartNode brokerHeartNode = new BrokerHeartNode();
 		brokerHeartNode.setAlive(true);
@@ -70,5 +112,14 @@ public class BrokerHeartNode {
     	if(source.getAlive()!=null){
     		target.setAlive(source.getAlive());
     	}
+		if (source.getSubmitLatency() != null) {
+			target.setSubmitLatency(source.getSubmitLatency());
+		}
+		if (source.getStatusBacklog() != null) {
+			target.setStatusBacklog(source.getStatusBacklog());
+		}
+		if (source.getFreeSlots() != null) {
+			target.setFreeSlots(source.getFreeSlots());
+		}
 	}
 }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.action.fill;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FillDataPlannerTest {
+
+    @Test
+    public void testNodesBetweenRun() {
+        // 1 -> 2 -> 3 -> 4, 1 -> 5, 2 -> 6 -> 4, 6 -> 7
+        Map<Long, List<Long>> nodeSide = new HashMap<>();
+        nodeSide.put(1L, Arrays.asList(2L, 5L));
+        nodeSide.put(2L, Arrays.asList(3L, 6L));
+        nodeSide.put(3L, Arrays.asList(4L));
+        nodeSide.put(6L, Arrays.asList(4L, 7L));
+
+        Set<Long> all = FillDataPlanner.plan(set(1L, 4L), nodeSide);
+        Assert.assertEquals(set(1L, 2L, 3L, 4L, 6L), all);
+
+        all = FillDataPlanner.plan(set(2L, 5L), nodeSide);
+        Assert.assertEquals(set(2L, 5L), all);
+    }
+
+    @Test
+    public void testCycle() {
+        // 1 -> 2 -> 3 -> 2, 3 -> 4
+        Map<Long, List<Long>> nodeSide = new HashMap<>();
+        nodeSide.put(1L, Arrays.asList(2L));
+        nodeSide.put(2L, Arrays.asList(3L));
+        nodeSide.put(3L, Arrays.asList(2L, 4L));
+
+        Assert.assertEquals(set(1L, 2L, 3L, 4L), FillDataPlanner.plan(set(1L, 4L), nodeSide));
+    }
+
+    private static Set<Long> set(Long... taskIds) {
+        return new HashSet<>(Arrays.asList(taskIds));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.builder.cron;
+
+import com.cronutils.model.definition.CronDefinitionBuilder;
+import com.cronutils.model.time.ExecutionTime;
+import com.cronutils.parser.CronParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import static com.cronutils.model.CronType.QUARTZ;
+
+public class CompiledCronTest {
+
+    private static final String[] CRONS = {
+            "0 30 2 * * ?",
+            "0 0 0 * * ?",
+            "0 59 23 * * ?",
+            "0 0/5 0-23 * * ?",
+            "0 0/7 3-20 * * ?",
+            "0 0/45 8-8 * * ?",
+            "0 15 0-23/1 * * ?",
+            "0 0 2-22/3 * * ?",
+            "0 10 5-21/7 * * ?",
+    };
+
+    @Test
+    public void testSameAsCronUtils() {
+        CronParser parser = new CronParser(CronDefinitionBuilder.instanceDefinitionFor(QUARTZ));
+        LocalDateTime start = LocalDateTime.of(2022, 3, 1, 0, 0, 0);
+        for (String cron : CRONS) {
+            CompiledCron compiledCron = CompiledCron.compile(cron);
+            ExecutionTime executionTime = ExecutionTime.forCron(parser.parse(cron));
+            // 两天内每隔 7 分 13 秒取样，覆盖跨天、整点和非执行时间
+            for (LocalDateTime time = start; time.isBefore(start.plusDays(2)); time = time.plusSeconds(433)) {
+                assertSame(cron, compiledCron, executionTime, time);
+                assertSame(cron, compiledCron, executionTime, time.withSecond(0));
+            }
+        }
+    }
+
+    @Test
+    public void testCompileShared() {
+        Assert.assertSame(CompiledCron.compile("0 0/5 0-23 * * ?"), CompiledCron.compile("0 0/5 0-23 * * ?"));
+    }
+
+    private void assertSame(String cron, CompiledCron compiledCron, ExecutionTime executionTime, LocalDateTime time) {
+        ZonedDateTime zonedDateTime = time.atZone(ZoneId.systemDefault());
+        Date date = Date.from(zonedDateTime.toInstant());
+
+        Date next = Date.from(executionTime.nextExecution(zonedDateTime).get().toInstant());
+        Date last = Date.from(executionTime.lastExecution(zonedDateTime).get().toInstant());
+        Assert.assertEquals(cron + " next " + time, next, compiledCron.next(date));
+        Assert.assertEquals(cron + " last " + time, last, compiledCron.last(date));
+        Assert.assertEquals(cron + " isMatch " + time, executionTime.isMatch(zonedDateTime), compiledCron.isMatch(date));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.partition;
+
+import com.dtstack.taier.scheduler.server.queue.ClusterView;
+import com.dtstack.taier.scheduler.zookeeper.data.BrokerHeartNode;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 模拟 4 个提交能力不同的节点持续接收实例，比较分配策略下各节点的预计等待时间
+ */
+public class PartitionStrategySimulationTest {
+
+    private static final String[] NODES = {"node1:8090", "node2:8090", "node3:8090", "node4:8090"};
+
+    /**
+     * 每轮每个节点能提交的实例数，node4 对应的集群很慢
+     */
+    private static final int[] CAPACITY = {40, 40, 20, 5};
+
+    private static final int JOBS_PER_ROUND = 100;
+
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void testWeightedBalanceBetterThanQueueSize() {
+        double queueWait = simulate(new QueueSizePartitionStrategy());
+        double weightedWait = simulate(new WeightedLeastLoadedPartitionStrategy());
+        Assert.assertTrue("queue:" + queueWait + " weighted:" + weightedWait, weightedWait < queueWait);
+    }
+
+    @Test
+    public void testWeightedAssignExactly() {
+        Map<String, Integer> nodesQueueSize = new LinkedHashMap<>();
+        Map<String, Integer> jobSize = new WeightedLeastLoadedPartitionStrategy()
+                .partition(view(new int[NODES.length], new long[NODES.length]), nodesQueueSize, 1001);
+        Assert.assertEquals(1001, jobSize.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    /**
+     * @return 后半程各节点最大预计等待轮数(等待提交数 / 每轮提交能力)的平均值
+     */
+    private double simulate(PartitionStrategy strategy) {
+        int[] pending = new int[NODES.length];
+        long[] latency = new long[NODES.length];
+        double maxWaitSum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            Map<String, Integer> nodesQueueSize = new LinkedHashMap<>();
+            for (int i = 0; i < NODES.length; i++) {
+                nodesQueueSize.put(NODES[i], pending[i]);
+            }
+            Map<String, Integer> quota = strategy.partition(view(pending, latency), nodesQueueSize, JOBS_PER_ROUND);
+
+            // 与 ScheduleJobService.insertJobList 一致，按节点顺序填满额度
+            int remain = JOBS_PER_ROUND;
+            for (int i = 0; i < NODES.length && remain > 0; i++) {
+                int size = Math.max(0, Math.min(remain, quota.getOrDefault(NODES[i], 0)));
+                pending[i] += size;
+                remain -= size;
+            }
+            pending[0] += remain;
+
+            double maxWait = 0;
+            for (int i = 0; i < NODES.length; i++) {
+                int submitted = Math.min(pending[i], CAPACITY[i]);
+                pending[i] -= submitted;
+                latency[i] = 1000L / CAPACITY[i];
+                maxWait = Math.max(maxWait, (double) pending[i] / CAPACITY[i]);
+            }
+            if (round >= ROUNDS / 2) {
+                maxWaitSum += maxWait;
+            }
+        }
+        return maxWaitSum / (ROUNDS - ROUNDS / 2);
+    }
+
+    private ClusterView view(int[] pending, long[] latency) {
+        Map<String, BrokerHeartNode> heartNodes = new LinkedHashMap<>();
+        for (int i = 0; i < NODES.length; i++) {
+            BrokerHeartNode heartNode = BrokerHeartNode.initBrokerHeartNode();
+            if (latency[i] > 0) {
+                heartNode.setSubmitLatency(latency[i]);
+            }
+            heartNode.setStatusBacklog(CAPACITY[i]);
+            heartNode.setFreeSlots(Math.max(0, CAPACITY[i] / 5 - pending[i] / 10));
+            heartNodes.put(NODES[i], heartNode);
+        }
+        return new ClusterView(1L, heartNodes, ImmutableMap.of(), ImmutableMap.of(), System.currentTimeMillis());
+    }
+}
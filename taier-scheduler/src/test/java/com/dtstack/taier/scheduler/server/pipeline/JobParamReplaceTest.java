@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.server.pipeline;
+
+import com.dtstack.taier.common.enums.EParamType;
+import com.dtstack.taier.dao.dto.ScheduleTaskParamShade;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class JobParamReplaceTest {
+
+    private static final String CYC_TIME = "20220301000000";
+
+    @Test
+    public void testSameAsReplaceOneByOne() {
+        List<ScheduleTaskParamShade> params = new ArrayList<>();
+        params.add(param(EParamType.CUSTOMIZE_TYPE, "a", "1"));
+        params.add(param(EParamType.CUSTOMIZE_TYPE, "b", "two"));
+        params.add(param(EParamType.CUSTOMIZE_TYPE, "a", "ignored"));
+        params.add(param(EParamType.SYS_TYPE, "bdp.system.bizdate", "yyyyMMdd-1"));
+        params.add(param(EParamType.CUSTOMIZE_TYPE, "day", "20220301"));
+
+        String[] sqls = {
+                "select ${a}, ${b} from t where ds = '${bdp.system.bizdate}' and d = ${day}",
+                "select '${a}${a}${missing}' @@{b} ${",
+                "${a${b}} ${} ${b}}",
+                "no param at all",
+                "",
+        };
+        for (String sql : sqls) {
+            Assert.assertEquals(sql, replaceOneByOne(sql, params), JobParamReplace.paramReplace(sql, params, CYC_TIME));
+            // 第二次命中模板和计算结果缓存
+            Assert.assertEquals(sql, replaceOneByOne(sql, params), JobParamReplace.paramReplace(sql, params, CYC_TIME));
+        }
+    }
+
+    @Test
+    public void testCacheKeyedByCycTime() {
+        List<ScheduleTaskParamShade> params = new ArrayList<>();
+        params.add(param(EParamType.SYS_TYPE, "bdp.system.cyctime", "yyyyMMddHHmmss"));
+        String sql = "select ${bdp.system.cyctime}";
+        Assert.assertEquals("select 20220301000000", JobParamReplace.paramReplace(sql, params, "20220301000000"));
+        Assert.assertEquals("select 20220302000000", JobParamReplace.paramReplace(sql, params, "20220302000000"));
+    }
+
+    private static String replaceOneByOne(String sql, List<ScheduleTaskParamShade> params) {
+        for (ScheduleTaskParamShade param : params) {
+            String placeholder = String.format("${%s}", param.getParamName());
+            if (sql.contains(placeholder)) {
+                sql = sql.replace(placeholder, JobParamReplace.convertParam(param.getType(), param.getParamName(),
+                        param.getParamCommand(), CYC_TIME, param.getTaskId()));
+            }
+        }
+        return sql;
+    }
+
+    private static ScheduleTaskParamShade param(EParamType type, String name, String command) {
+        ScheduleTaskParamShade param = new ScheduleTaskParamShade();
+        param.setType(type.getType());
+        param.setParamName(name);
+        param.setParamCommand(command);
+        param.setTaskId(1L);
+        return param;
+    }
+}
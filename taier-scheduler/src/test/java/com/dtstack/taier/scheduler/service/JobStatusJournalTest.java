@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service;
+
+import com.dtstack.taier.common.env.EnvironmentContext;
+import com.dtstack.taier.dao.domain.ScheduleJob;
+import com.dtstack.taier.dao.mapper.ScheduleJobMapper;
+import com.dtstack.taier.pluginapi.enums.TaskStatus;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JobStatusJournalTest {
+
+    private static final String JOB_ID = "job";
+
+    @Mock
+    private EnvironmentContext environmentContext;
+
+    @Mock
+    private ScheduleJobMapper scheduleJobMapper;
+
+    @InjectMocks
+    private JobStatusJournal jobStatusJournal;
+
+    /**
+     * 按顺序记录的写库操作，格式 status|exec:jobId=状态 或 sync:jobId
+     */
+    private final List<String> writes = new ArrayList<>();
+
+    /**
+     * 之后失败的写库次数
+     */
+    private final AtomicInteger failTimes = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(environmentContext.getJobStatusWriteBehind()).thenReturn(Boolean.TRUE);
+        Mockito.when(environmentContext.getJobStatusFlushBatchSize()).thenReturn(100);
+        Mockito.when(scheduleJobMapper.updateJobStatusByCase(Mockito.anyList())).thenAnswer(new RecordAnswer("status"));
+        Mockito.when(scheduleJobMapper.updateJobStatusAndExecTimeByCase(Mockito.anyList())).thenAnswer(new RecordAnswer("exec"));
+    }
+
+    @Test
+    public void testStoppedStatusNotOverwritten() {
+        jobStatusJournal.append(Collections.singletonList(JOB_ID), TaskStatus.RUNNING.getStatus());
+        jobStatusJournal.appendWithExecTime(JOB_ID, TaskStatus.FINISHED.getStatus(), null);
+        // 结束后迟到的运行中状态不能覆盖结束状态
+        jobStatusJournal.append(Collections.singletonList(JOB_ID), TaskStatus.RUNNING.getStatus());
+        jobStatusJournal.flush();
+
+        Assert.assertEquals(Lists.newArrayList("exec:" + JOB_ID + "=" + TaskStatus.FINISHED.getStatus()), writes);
+        Assert.assertEquals(0, jobStatusJournal.getPendingSize());
+    }
+
+    @Test
+    public void testCallbacksRunInOrderAfterFlush() {
+        List<String> callbacks = new ArrayList<>();
+        jobStatusJournal.appendWithExecTime(JOB_ID, TaskStatus.FAILED.getStatus(), () -> callbacks.add("first"));
+        jobStatusJournal.appendWithExecTime(JOB_ID, TaskStatus.FAILED.getStatus(), () -> callbacks.add("second"));
+        Assert.assertTrue(callbacks.isEmpty());
+
+        jobStatusJournal.flush();
+        Assert.assertEquals(Lists.newArrayList("first", "second"), callbacks);
+    }
+
+    @Test
+    public void testRemergeAfterFailedFlush() {
+        List<String> callbacks = new ArrayList<>();
+        jobStatusJournal.appendWithExecTime(JOB_ID, TaskStatus.FINISHED.getStatus(), () -> callbacks.add("finished"));
+        failTimes.set(1);
+        jobStatusJournal.flush();
+        Assert.assertTrue(writes.isEmpty());
+        Assert.assertTrue(callbacks.isEmpty());
+        Assert.assertEquals(1, jobStatusJournal.getPendingSize());
+
+        // 失败期间记录的非结束状态不能覆盖放回的结束状态，回调只执行一次
+        jobStatusJournal.append(Collections.singletonList(JOB_ID), TaskStatus.RUNNING.getStatus());
+        jobStatusJournal.flush();
+        Assert.assertEquals(Lists.newArrayList("exec:" + JOB_ID + "=" + TaskStatus.FINISHED.getStatus()), writes);
+        Assert.assertEquals(Lists.newArrayList("finished"), callbacks);
+    }
+
+    @Test
+    public void testWriteThroughAfterPendingStatus() {
+        jobStatusJournal.append(Collections.singletonList(JOB_ID), TaskStatus.RUNNING.getStatus());
+        jobStatusJournal.writeThrough(Collections.singletonList(JOB_ID), () -> writes.add("sync:" + JOB_ID));
+
+        Assert.assertEquals(Lists.newArrayList("status:" + JOB_ID + "=" + TaskStatus.RUNNING.getStatus(), "sync:" + JOB_ID), writes);
+        Assert.assertEquals(0, jobStatusJournal.getPendingSize());
+    }
+
+    @Test
+    public void testWriteThroughSkippedWhenPendingStatusFails() {
+        jobStatusJournal.append(Collections.singletonList(JOB_ID), TaskStatus.RUNNING.getStatus());
+        failTimes.set(1);
+        try {
+            jobStatusJournal.writeThrough(Collections.singletonList(JOB_ID), () -> writes.add("sync:" + JOB_ID));
+            Assert.fail("pending status write error should be thrown");
+        } catch (RuntimeException e) {
+            // 未刷新的状态写库失败时不能执行同步写入，否则之后刷新的旧状态会覆盖同步写入的状态
+            Assert.assertTrue(writes.isEmpty());
+            Assert.assertEquals(1, jobStatusJournal.getPendingSize());
+        }
+    }
+
+    private class RecordAnswer implements Answer<Integer> {
+
+        private final String type;
+
+        private RecordAnswer(String type) {
+            this.type = type;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Integer answer(InvocationOnMock invocation) {
+            if (failTimes.getAndDecrement() > 0) {
+                throw new IllegalStateException("mock write error");
+            }
+            List<ScheduleJob> jobs = (List<ScheduleJob>) invocation.getArguments()[0];
+            for (ScheduleJob job : jobs) {
+                writes.add(type + ":" + job.getJobId() + "=" + job.getStatus());
+            }
+            return jobs.size();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.scheduler.service.log;
+
+import com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class ChunkedJobLogStoreTest {
+
+    private static final String JOB_ID = "job";
+
+    @Test
+    public void testRangedRead() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append("line ").append(i).append(" 日志😀\n");
+        }
+        String log = builder.toString();
+        MemoryJobLogStore store = new MemoryJobLogStore();
+        store.writeChunks(JOB_ID, AbstractChunkedJobLogStore.split(log, 97));
+
+        Assert.assertEquals(log.length(), store.length(JOB_ID));
+        Assert.assertEquals(log, store.read(JOB_ID, 0L, log.length()));
+        // 每次只解压涉及的分片
+        for (int offset = 0; offset < log.length(); offset += 53) {
+            Assert.assertEquals(log.substring(offset, Math.min(log.length(), offset + 150)), store.read(JOB_ID, offset, 150));
+        }
+        Assert.assertEquals("", store.read(JOB_ID, log.length(), 10));
+        Assert.assertNull(store.read("missing", 0L, 10));
+    }
+
+    @Test
+    public void testSplitKeepsSurrogatePair() {
+        String log = "ab😀cd";
+        List<AbstractChunkedJobLogStore.LogChunk> chunks = AbstractChunkedJobLogStore.split(log, 3);
+        StringBuilder restored = new StringBuilder();
+        for (AbstractChunkedJobLogStore.LogChunk chunk : chunks) {
+            restored.append(AbstractChunkedJobLogStore.decompress(chunk.getContent()));
+        }
+        Assert.assertEquals(log, restored.toString());
+    }
+
+    private static class MemoryJobLogStore extends AbstractChunkedJobLogStore {
+
+        private final Map<String, List<LogChunk>> logs = Maps.newHashMap();
+
+        @Override
+        public String getType() {
+            return "memory";
+        }
+
+        @Override
+        protected void writeChunks(String jobId, List<LogChunk> chunks) {
+            logs.put(jobId, chunks);
+        }
+
+        @Override
+        protected List<Integer> listRawLengths(String jobId) {
+            List<Integer> rawLengths = new ArrayList<>();
+            for (LogChunk chunk : logs.getOrDefault(jobId, new ArrayList<>())) {
+                rawLengths.add(chunk.getRawLength());
+            }
+            return rawLengths;
+        }
+
+        @Override
+        protected Map<Integer, byte[]> readChunks(String jobId, int fromIndex, int toIndex) {
+            Map<Integer, byte[]> contents = Maps.newHashMap();
+            for (LogChunk chunk : logs.get(jobId).subList(fromIndex, toIndex + 1)) {
+                contents.put(chunk.getIndex(), chunk.getContent());
+            }
+            return contents;
+        }
+
+        @Override
+        public void delete(Collection<String> jobIds) {
+            jobIds.forEach(logs::remove);
+        }
+    }
+}
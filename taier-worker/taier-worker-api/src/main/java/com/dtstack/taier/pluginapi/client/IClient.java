@@ -27,7 +27,9 @@ import com.dtstack.taier.pluginapi.pojo.JobResult;
 import com.dtstack.taier.pluginapi.pojo.JudgeResult;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -45,6 +47,28 @@ public interface IClient {
 
     TaskStatus getJobStatus(JobIdentifier jobIdentifier) throws IOException;
 
+    /**
+     * 批量获取任务状态，默认逐个调用 getJobStatus，插件可以覆盖为一次集群请求
+     * <p>
+     * 单个任务获取失败时该任务为 NOTFOUND，不影响同批次的其他任务
+     *
+     * @param jobIdentifiers 任务标识
+     * @return key 为 jobId，value 为任务状态
+     */
+    default Map<String, TaskStatus> getJobStatuses(List<JobIdentifier> jobIdentifiers) throws IOException {
+        Map<String, TaskStatus> jobStatuses = new HashMap<>(jobIdentifiers.size());
+        for (JobIdentifier jobIdentifier : jobIdentifiers) {
+            TaskStatus taskStatus;
+            try {
+                taskStatus = getJobStatus(jobIdentifier);
+            } catch (Exception e) {
+                taskStatus = TaskStatus.NOTFOUND;
+            }
+            jobStatuses.put(jobIdentifier.getJobId(), taskStatus);
+        }
+        return jobStatuses;
+    }
+
     String getJobMaster(JobIdentifier jobIdentifier);
 
     String getMessageByHttp(String path);
@@ -50,6 +50,28 @@ public class BaseConfig {
 
     private String dtProxyUserName;
 
+    /** yarn 资源快照刷新间隔(毫秒)，小于等于0时每次判断资源都请求 ResourceManager */
+    private long yarnResourceSnapshotInterval = 3000L;
+
+    /** 判断资源通过后预留资源的有效时间(毫秒)，小于等于0时为两个刷新间隔 */
+    private long yarnResourceReserveTimeout;
+
+    public long getYarnResourceSnapshotInterval() {
+        return yarnResourceSnapshotInterval;
+    }
+
+    public void setYarnResourceSnapshotInterval(long yarnResourceSnapshotInterval) {
+        this.yarnResourceSnapshotInterval = yarnResourceSnapshotInterval;
+    }
+
+    public long getYarnResourceReserveTimeout() {
+        return yarnResourceReserveTimeout > 0 ? yarnResourceReserveTimeout : yarnResourceSnapshotInterval * 2;
+    }
+
+    public void setYarnResourceReserveTimeout(long yarnResourceReserveTimeout) {
+        this.yarnResourceReserveTimeout = yarnResourceReserveTimeout;
+    }
+
     public String getHadoopUserName() {
         return hadoopUserName;
     }
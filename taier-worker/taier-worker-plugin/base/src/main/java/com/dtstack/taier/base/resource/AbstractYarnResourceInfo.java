@@ -72,6 +72,19 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
     protected int containerCoreMax;
     protected int containerMemoryMax;
 
+    /**
+     * 资源快照缓存，为空时每次判断资源都请求 ResourceManager
+     */
+    private YarnResourceSnapshotCache snapshotCache;
+    private String snapshotQueueName;
+    private String[] nmNodeIds = null;
+    private int[] nmInitFreeCore = null;
+    private int[] nmInitFreeMem = null;
+
+    public void setSnapshotCache(YarnResourceSnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
     protected JudgeResult judgeYarnResource(List<InstanceInfo> instanceInfos) {
         if (totalFreeCore == 0 || totalFreeMem == 0) {
             logger.info("judgeYarnResource, totalFreeCore={}, totalFreeMem={}", totalFreeCore, totalFreeMem);
@@ -115,9 +128,26 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
                 return judgeInstanceResource;
             }
         }
+        reserve();
         return JudgeResult.ok();
     }
 
+    /**
+     * 资源来自快照时，预留本次分配的资源，直到下一次快照能反映出来
+     */
+    private void reserve() {
+        if (snapshotCache == null || snapshotQueueName == null) {
+            return;
+        }
+        int[] reservedCores = new int[nmNodeIds.length];
+        int[] reservedMem = new int[nmNodeIds.length];
+        for (int i = 0; i < nmNodeIds.length; i++) {
+            reservedCores[i] = nmInitFreeCore[i] - nmFreeCore[i];
+            reservedMem[i] = nmInitFreeMem[i] - nmFreeMem[i];
+        }
+        snapshotCache.reserve(snapshotQueueName, nmNodeIds, reservedCores, reservedMem);
+    }
+
     private JudgeResult judgeInstanceResource(int instances, int coresPerInstance, int memPerInstance) {
         if (instances == 0 || coresPerInstance == 0 || memPerInstance == 0) {
             return JudgeResult.limitError("Yarn task resource configuration error，instance：" + instances + ", coresPerInstance：" + coresPerInstance + ", memPerInstance：" + memPerInstance);
@@ -160,20 +190,59 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
     }
 
     public JudgeResult getYarnSlots(YarnClient yarnClient, String queueName, int yarnAccepterTaskNumber) {
+        YarnResourceSnapshot snapshot;
+        if (snapshotCache != null) {
+            snapshot = snapshotCache.get(queueName);
+            snapshotQueueName = queueName;
+        } else {
+            snapshot = takeSnapshot(yarnClient, queueName);
+        }
+        return getYarnSlots(snapshot, queueName, yarnAccepterTaskNumber);
+    }
+
+    private JudgeResult getYarnSlots(YarnResourceSnapshot snapshot, String queueName, int yarnAccepterTaskNumber) {
+        if (snapshot.getAcceptedApps() > yarnAccepterTaskNumber) {
+            logger.info("queueName:{} acceptedApps:{} >= yarnAccepterTaskNumber:{}", queueName, snapshot.getAcceptedApps(), yarnAccepterTaskNumber);
+            return JudgeResult.notOk( "queueName:" + queueName + " acceptedApps:" + snapshot.getAcceptedApps() + " >= yarnAccepterTaskNumber:" + yarnAccepterTaskNumber);
+        }
+        if (!elasticCapacity && snapshot.getQueueCapacity() > 0) {
+            this.queueCapacity = snapshot.getQueueCapacity();
+            this.capacity = snapshot.getCapacity();
+        }
+        for (NodeResourceDetail resourceDetail : snapshot.getNodeResources()) {
+            if (resourceDetail.coresFree > containerCoreMax) {
+                containerCoreMax = resourceDetail.coresFree;
+            }
+            if (resourceDetail.memoryFree > containerMemoryMax) {
+                containerMemoryMax = resourceDetail.memoryFree;
+            }
+            this.addNodeResource(resourceDetail);
+        }
+
+        calc();
+        return JudgeResult.ok();
+    }
+
+    /**
+     * 请求 ResourceManager 获取队列中 ACCEPTED 的任务数和各个节点的资源
+     *
+     * @param yarnClient yarn客户端
+     * @param queueName  队列名称
+     * @return 资源快照
+     */
+    public YarnResourceSnapshot takeSnapshot(YarnClient yarnClient, String queueName) {
         try {
             EnumSet<YarnApplicationState> enumSet = EnumSet.noneOf(YarnApplicationState.class);
             enumSet.add(YarnApplicationState.ACCEPTED);
             List<ApplicationReport> acceptedApps = yarnClient.getApplications(enumSet).stream().
                     filter(report -> report.getQueue().endsWith(queueName)).collect(Collectors.toList());
-            if (acceptedApps.size() > yarnAccepterTaskNumber) {
-                logger.info("queueName:{} acceptedApps:{} >= yarnAccepterTaskNumber:{}", queueName, acceptedApps.size(), yarnAccepterTaskNumber);
-                return JudgeResult.notOk( "queueName:" + queueName + " acceptedApps:" + acceptedApps.size() + " >= yarnAccepterTaskNumber:" + yarnAccepterTaskNumber);
-            }
 
             List<NodeReport> nodeReports = yarnClient.getNodeReports(NodeState.RUNNING);
+            float[] queueCapacities = new float[]{0, 0};
             if (!elasticCapacity) {
-                getQueueRemainCapacity(1, queueName, yarnClient.getRootQueueInfos());
+                getQueueRemainCapacity(1, queueName, yarnClient.getRootQueueInfos(), queueCapacities);
             }
+            List<NodeResourceDetail> nodeResourceDetails = Lists.newArrayListWithCapacity(nodeReports.size());
             for (NodeReport report : nodeReports) {
                 Resource capability = report.getCapability();
                 Resource used = report.getUsed();
@@ -186,33 +255,30 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
                 int freeCores = totalCores - usedCores;
                 int freeMem = totalMem - usedMem;
 
-                if (freeCores > containerCoreMax) {
-                    containerCoreMax = freeCores;
-                }
-                if (freeMem > containerMemoryMax) {
-                    containerMemoryMax = freeMem;
-                }
-                this.addNodeResource(new NodeResourceDetail(report.getNodeId().toString(), totalCores, usedCores, freeCores, totalMem, usedMem, freeMem));
+                nodeResourceDetails.add(new NodeResourceDetail(report.getNodeId().toString(), totalCores, usedCores, freeCores, totalMem, usedMem, freeMem));
             }
-
-            calc();
-            return JudgeResult.ok();
+            return new YarnResourceSnapshot(System.currentTimeMillis(), acceptedApps.size(),
+                    queueCapacities[0], queueCapacities[1], nodeResourceDetails);
         } catch (IOException | YarnException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private float getQueueRemainCapacity(float coefficient, String queueName, List<QueueInfo> queueInfos) {
+    /**
+     * @param queueCapacities 找到队列时写入 [队列容量, 队列剩余容量]
+     */
+    private static float getQueueRemainCapacity(float coefficient, String queueName, List<QueueInfo> queueInfos, float[] queueCapacities) {
         float capacity = 0;
         for (QueueInfo queueInfo : queueInfos) {
             if (CollectionUtils.isNotEmpty(queueInfo.getChildQueues())) {
                 float subCoefficient = queueInfo.getCapacity() * coefficient;
-                capacity = getQueueRemainCapacity(subCoefficient, queueName, queueInfo.getChildQueues());
+                capacity = getQueueRemainCapacity(subCoefficient, queueName, queueInfo.getChildQueues(), queueCapacities);
             }
             if (queueInfo.getQueueName().equalsIgnoreCase(queueName)) {
-                this.queueCapacity = coefficient * queueInfo.getCapacity();
+                float queueCapacity = coefficient * queueInfo.getCapacity();
                 capacity = queueCapacity * (1 - queueInfo.getCurrentCapacity());
-                this.capacity = capacity;
+                queueCapacities[0] = queueCapacity;
+                queueCapacities[1] = capacity;
             }
             if (capacity > 0) {
                 return capacity;
@@ -224,6 +290,7 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
     protected void calc() {
         nmFreeCore = new int[nodeResources.size()];
         nmFreeMem = new int[nodeResources.size()];
+        nmNodeIds = new String[nodeResources.size()];
         int index = 0;
         //yarn 方式执行时，统一对每个node保留512M和1core
         for (NodeResourceDetail resourceDetail : nodeResources) {
@@ -239,8 +306,11 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
 
             nmFreeMem[index] = nodeFreeMem;
             nmFreeCore[index] = nodeFreeCores;
+            nmNodeIds[index] = resourceDetail.nodeId;
             index++;
         }
+        nmInitFreeCore = nmFreeCore.clone();
+        nmInitFreeMem = nmFreeMem.clone();
     }
 
     public static class InstanceInfo {
@@ -282,6 +352,34 @@ public abstract class AbstractYarnResourceInfo implements EngineResourceInfo {
             this.memoryUsed = memoryUsed;
             this.memoryFree = memoryFree;
         }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public int getCoresTotal() {
+            return coresTotal;
+        }
+
+        public int getCoresUsed() {
+            return coresUsed;
+        }
+
+        public int getCoresFree() {
+            return coresFree;
+        }
+
+        public int getMemoryTotal() {
+            return memoryTotal;
+        }
+
+        public int getMemoryUsed() {
+            return memoryUsed;
+        }
+
+        public int getMemoryFree() {
+            return memoryFree;
+        }
     }
 
     public void setElasticCapacity(boolean elasticCapacity) {
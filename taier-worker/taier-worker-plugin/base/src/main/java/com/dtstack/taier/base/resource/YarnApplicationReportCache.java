@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.base.resource;
+
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量获取任务状态时使用的 yarn application 列表缓存，每个插件客户端一个
+ * <p>
+ * 同一个轮询周期内的多批任务共用一次 application 列表请求，
+ * 列表由 loader 按 application 类型、状态过滤，不在列表中的任务由调用方单独查询
+ */
+public class YarnApplicationReportCache {
+
+    /**
+     * 小于任务状态轮询间隔，保证每个周期都会重新获取
+     */
+    public static final long DEFAULT_EXPIRE = 2000L;
+
+    private final long expire;
+
+    private final ReportLoader loader;
+
+    private volatile Map<String, ApplicationReport> reports = Collections.emptyMap();
+
+    private volatile long loadTime = 0L;
+
+    public YarnApplicationReportCache(long expire, ReportLoader loader) {
+        this.expire = expire;
+        this.loader = loader;
+    }
+
+    /**
+     * 获取 application 列表，key 为 applicationId
+     */
+    public Map<String, ApplicationReport> get() throws Exception {
+        if (System.currentTimeMillis() - loadTime <= expire) {
+            return reports;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - loadTime <= expire) {
+                // 其他线程已经刷新过
+                return reports;
+            }
+            List<ApplicationReport> applications = loader.load();
+            Map<String, ApplicationReport> current = new HashMap<>(applications.size());
+            for (ApplicationReport report : applications) {
+                current.put(report.getApplicationId().toString(), report);
+            }
+            reports = current;
+            loadTime = System.currentTimeMillis();
+            return current;
+        }
+    }
+
+    public interface ReportLoader {
+
+        /**
+         * 请求 ResourceManager 获取过滤后的 application 列表，需要自行处理 kerberos 认证
+         */
+        List<ApplicationReport> load() throws Exception;
+    }
+}
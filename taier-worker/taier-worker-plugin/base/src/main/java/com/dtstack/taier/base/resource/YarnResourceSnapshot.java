@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.base.resource;
+
+import java.util.List;
+
+/**
+ * 某个时刻 yarn 队列的资源，创建后不再修改
+ */
+public class YarnResourceSnapshot {
+
+    private final long captureTime;
+
+    private final int acceptedApps;
+
+    /**
+     * 队列容量，没有计算队列容量时为0
+     */
+    private final float queueCapacity;
+
+    private final float capacity;
+
+    private final List<AbstractYarnResourceInfo.NodeResourceDetail> nodeResources;
+
+    public YarnResourceSnapshot(long captureTime, int acceptedApps, float queueCapacity, float capacity,
+                                List<AbstractYarnResourceInfo.NodeResourceDetail> nodeResources) {
+        this.captureTime = captureTime;
+        this.acceptedApps = acceptedApps;
+        this.queueCapacity = queueCapacity;
+        this.capacity = capacity;
+        this.nodeResources = nodeResources;
+    }
+
+    public long getCaptureTime() {
+        return captureTime;
+    }
+
+    public int getAcceptedApps() {
+        return acceptedApps;
+    }
+
+    public float getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public float getCapacity() {
+        return capacity;
+    }
+
+    public List<AbstractYarnResourceInfo.NodeResourceDetail> getNodeResources() {
+        return nodeResources;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.taier.base.resource;
+
+import com.dtstack.taier.base.BaseConfig;
+import com.dtstack.taier.pluginapi.CustomThreadFactory;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * yarn 队列资源快照缓存，每个插件客户端一个
+ * <p>
+ * 1. 按队列定时异步刷新快照，判断资源时直接使用快照，不再每次请求 ResourceManager
+ * 2. 判断资源通过后预留本次需要的资源，在 reserveTimeout 内从快照中扣除，避免同一个快照放行过多任务
+ * 3. 快照超过 3 个刷新周期没有更新时同步刷新；队列 10 个刷新周期没有使用时暂停刷新
+ */
+public class YarnResourceSnapshotCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(YarnResourceSnapshotCache.class);
+
+    private static final int STALE_TIMES = 3;
+
+    private static final int IDLE_TIMES = 10;
+
+    private final long refreshInterval;
+
+    private final long reserveTimeout;
+
+    private final SnapshotLoader loader;
+
+    private final Map<String, QueueSnapshot> queueSnapshots = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService refreshService;
+
+    /**
+     * @param name            线程名称
+     * @param refreshInterval 刷新间隔，毫秒
+     * @param reserveTimeout  预留资源的有效时间，毫秒
+     * @param loader          请求 ResourceManager 获取快照，在刷新线程中执行，需要自行处理 kerberos 认证
+     */
+    public YarnResourceSnapshotCache(String name, long refreshInterval, long reserveTimeout, SnapshotLoader loader) {
+        this.refreshInterval = refreshInterval;
+        this.reserveTimeout = reserveTimeout;
+        this.loader = loader;
+        this.refreshService = new ScheduledThreadPoolExecutor(1, new CustomThreadFactory(name + "_resourceSnapshot"));
+    }
+
+    /**
+     * 按插件配置创建，没有开启快照时返回null
+     */
+    public static YarnResourceSnapshotCache create(String name, BaseConfig config, SnapshotLoader loader) {
+        if (config == null || config.getYarnResourceSnapshotInterval() <= 0) {
+            return null;
+        }
+        return new YarnResourceSnapshotCache(name, config.getYarnResourceSnapshotInterval(), config.getYarnResourceReserveTimeout(), loader);
+    }
+
+    /**
+     * 获取扣除预留资源后的队列资源
+     *
+     * @param queueName 队列名称
+     */
+    public YarnResourceSnapshot get(String queueName) {
+        QueueSnapshot queueSnapshot = queueSnapshots.computeIfAbsent(queueName, QueueSnapshot::new);
+        long now = System.currentTimeMillis();
+        queueSnapshot.lastAccessTime = now;
+        YarnResourceSnapshot snapshot = queueSnapshot.snapshot;
+        if (snapshot == null || now - snapshot.getCaptureTime() > refreshInterval * STALE_TIMES) {
+            snapshot = queueSnapshot.refresh(true);
+        }
+        if (queueSnapshot.scheduled.compareAndSet(false, true)) {
+            refreshService.scheduleWithFixedDelay(queueSnapshot::scheduledRefresh, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        }
+        return queueSnapshot.subtractReserved(snapshot, now);
+    }
+
+    /**
+     * 预留资源，数组按节点对应
+     *
+     * @param queueName 队列名称
+     * @param nodeIds   节点
+     * @param cores     每个节点预留的core
+     * @param memory    每个节点预留的内存
+     */
+    public void reserve(String queueName, String[] nodeIds, int[] cores, int[] memory) {
+        QueueSnapshot queueSnapshot = queueSnapshots.get(queueName);
+        if (queueSnapshot == null) {
+            return;
+        }
+        Map<String, int[]> reserved = Maps.newHashMapWithExpectedSize(nodeIds.length);
+        for (int i = 0; i < nodeIds.length; i++) {
+            if (cores[i] > 0 || memory[i] > 0) {
+                reserved.put(nodeIds[i], new int[]{cores[i], memory[i]});
+            }
+        }
+        synchronized (queueSnapshot.reservations) {
+            queueSnapshot.reservations.addLast(new Reservation(System.currentTimeMillis(), reserved));
+        }
+    }
+
+    public void close() {
+        refreshService.shutdownNow();
+    }
+
+    public interface SnapshotLoader {
+
+        YarnResourceSnapshot load(String queueName) throws Exception;
+    }
+
+    private class QueueSnapshot {
+
+        private final String queueName;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private final Deque<Reservation> reservations = new ArrayDeque<>();
+
+        private volatile YarnResourceSnapshot snapshot;
+
+        private volatile long lastAccessTime;
+
+        private QueueSnapshot(String queueName) {
+            this.queueName = queueName;
+        }
+
+        private synchronized YarnResourceSnapshot refresh(boolean onlyStale) {
+            YarnResourceSnapshot current = snapshot;
+            if (onlyStale && current != null
+                    && System.currentTimeMillis() - current.getCaptureTime() <= refreshInterval * STALE_TIMES) {
+                // 其他线程已经刷新过
+                return current;
+            }
+            try {
+                current = loader.load(queueName);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            snapshot = current;
+            return current;
+        }
+
+        private void scheduledRefresh() {
+            if (System.currentTimeMillis() - lastAccessTime > refreshInterval * IDLE_TIMES) {
+                return;
+            }
+            try {
+                refresh(false);
+            } catch (Throwable e) {
+                LOG.warn("queueName:{} refresh yarn resource snapshot error", queueName, e);
+            }
+        }
+
+        private YarnResourceSnapshot subtractReserved(YarnResourceSnapshot snapshot, long now) {
+            Map<String, int[]> reservedByNode = Maps.newHashMap();
+            int reservedApps = 0;
+            synchronized (reservations) {
+                while (!reservations.isEmpty() && now - reservations.peekFirst().reserveTime > reserveTimeout) {
+                    reservations.pollFirst();
+                }
+                for (Reservation reservation : reservations) {
+                    reservedApps++;
+                    for (Map.Entry<String, int[]> entry : reservation.reserved.entrySet()) {
+                        int[] total = reservedByNode.computeIfAbsent(entry.getKey(), k -> new int[2]);
+                        total[0] += entry.getValue()[0];
+                        total[1] += entry.getValue()[1];
+                    }
+                }
+            }
+            if (reservedApps == 0) {
+                return snapshot;
+            }
+            List<AbstractYarnResourceInfo.NodeResourceDetail> nodeResources = Lists.newArrayListWithCapacity(snapshot.getNodeResources().size());
+            for (AbstractYarnResourceInfo.NodeResourceDetail node : snapshot.getNodeResources()) {
+                int[] reserved = reservedByNode.get(node.getNodeId());
+                if (reserved == null) {
+                    nodeResources.add(node);
+                    continue;
+                }
+                int freeCores = Math.max(node.getCoresFree() - reserved[0], 0);
+                int freeMem = Math.max(node.getMemoryFree() - reserved[1], 0);
+                nodeResources.add(new AbstractYarnResourceInfo.NodeResourceDetail(node.getNodeId(),
+                        node.getCoresTotal(), node.getCoresTotal() - freeCores, freeCores,
+                        node.getMemoryTotal(), node.getMemoryTotal() - freeMem, freeMem));
+            }
+            return new YarnResourceSnapshot(snapshot.getCaptureTime(), snapshot.getAcceptedApps() + reservedApps,
+                    snapshot.getQueueCapacity(), snapshot.getCapacity(), nodeResources);
+        }
+    }
+
+    private static class Reservation {
+
+        private final long reserveTime;
+
+        /**
+         * nodeId -> [core, memory]
+         */
+        private final Map<String, int[]> reserved;
+
+        private Reservation(long reserveTime, Map<String, int[]> reserved) {
+            this.reserveTime = reserveTime;
+            this.reserved = reserved;
+        }
+    }
+}
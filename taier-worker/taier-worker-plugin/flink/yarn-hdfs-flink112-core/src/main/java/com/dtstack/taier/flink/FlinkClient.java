@@ -21,6 +21,8 @@ package com.dtstack.taier.flink;
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import com.dtstack.taier.base.filesystem.FilesystemManager;
+import com.dtstack.taier.base.resource.YarnApplicationReportCache;
+import com.dtstack.taier.base.resource.YarnResourceSnapshotCache;
 import com.dtstack.taier.base.util.HadoopUtils;
 import com.dtstack.taier.base.util.HttpClientUtil;
 import com.dtstack.taier.base.util.KerberosUtils;
@@ -84,6 +86,7 @@ import org.apache.flink.configuration.ResourceManagerOptions;
 import org.apache.flink.runtime.jobgraph.JobGraph;
 import org.apache.flink.runtime.jobgraph.SavepointRestoreSettings;
 import org.apache.flink.yarn.YarnClusterDescriptor;
+import org.apache.flink.yarn.configuration.YarnConfigOptions;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
 import org.apache.hadoop.yarn.api.records.ApplicationReport;
 import org.apache.hadoop.yarn.api.records.FinalApplicationStatus;
@@ -102,12 +105,15 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
@@ -128,6 +134,10 @@ public class FlinkClient extends AbstractClient {
 
     private Properties flinkExtProp;
 
+    private YarnResourceSnapshotCache resourceSnapshotCache;
+
+    private YarnApplicationReportCache applicationReportCache;
+
     private PluginConfig pluginConfig;
 
     /**
@@ -161,6 +171,10 @@ public class FlinkClient extends AbstractClient {
         filesystemManager = new FilesystemManager(
                 clientManager.getHadoopConfig().getCoreConfiguration(),
                 flinkConfig.getSftpConf());
+        resourceSnapshotCache = YarnResourceSnapshotCache.create("flink_client", flinkConfig,
+                queueName -> KerberosUtils.login(flinkConfig, () -> buildPerJobResourceInfo(queueName).takeSnapshot(clientManager.getYarnClient(), queueName),
+                        clientManager.getHadoopConfig().getYarnConfiguration()));
+        applicationReportCache = new YarnApplicationReportCache(YarnApplicationReportCache.DEFAULT_EXPIRE, this::loadNotRunningApplications);
         LOG.info("<== init Flink client");
     }
 
@@ -503,13 +517,11 @@ public class FlinkClient extends AbstractClient {
                 return judgeSessionSlot(jobClient, true);
             }
             judgeResult = KerberosUtils.login(flinkConfig, () -> {
-                FlinkPerJobResourceInfo perJobResourceInfo = FlinkPerJobResourceInfo.FlinkPerJobResourceInfoBuilder()
-                        .withYarnClient(clientManager.getYarnClient())
-                        .withQueueName(flinkConfig.getQueue())
-                        .withYarnAccepterTaskNumber(flinkConfig.getYarnAccepterTaskNumber())
-                        .withProperties(flinkExtProp)
-                        .build();
-
+                FlinkPerJobResourceInfo perJobResourceInfo = buildPerJobResourceInfo(flinkConfig.getQueue());
+                if (isPerJob) {
+                    // session 模式不会新建 yarn 应用，不需要预留资源
+                    perJobResourceInfo.setSnapshotCache(resourceSnapshotCache);
+                }
                 return perJobResourceInfo.judgeSlots(jobClient);
             }, clientManager.getHadoopConfig().getYarnConfiguration());
 
@@ -524,6 +536,15 @@ public class FlinkClient extends AbstractClient {
         return judgeResult;
     }
 
+    private FlinkPerJobResourceInfo buildPerJobResourceInfo(String queueName) {
+        return FlinkPerJobResourceInfo.FlinkPerJobResourceInfoBuilder()
+                .withYarnClient(clientManager.getYarnClient())
+                .withQueueName(queueName)
+                .withYarnAccepterTaskNumber(flinkConfig.getYarnAccepterTaskNumber())
+                .withProperties(flinkExtProp)
+                .build();
+    }
+
     /**
      * judge slot of flink session
      *
@@ -642,43 +663,7 @@ public class FlinkClient extends AbstractClient {
                 ApplicationId appId = ConverterUtils.toApplicationId(applicationId);
                 try {
                     ApplicationReport report = clientManager.getYarnClient().getApplicationReport(appId);
-                    YarnApplicationState applicationState = report.getYarnApplicationState();
-                    switch (applicationState) {
-                        case KILLED:
-                            return TaskStatus.KILLED;
-                        case NEW:
-                        case NEW_SAVING:
-                            return TaskStatus.CREATED;
-                        case SUBMITTED:
-                            //FIXME 特殊逻辑,认为已提交到计算引擎的状态为等待资源状态
-                            return TaskStatus.WAITCOMPUTE;
-                        case ACCEPTED:
-                            return TaskStatus.SCHEDULED;
-                        case RUNNING:
-                            return TaskStatus.RUNNING;
-                        case FINISHED:
-                            //state 为finished状态下需要兼顾判断finalStatus.
-                            FinalApplicationStatus finalApplicationStatus = report.getFinalApplicationStatus();
-                            switch (finalApplicationStatus) {
-                                case FAILED:
-                                case UNDEFINED: {
-                                    return TaskStatus.FAILED;
-                                }
-                                case SUCCEEDED: {
-                                    return TaskStatus.FINISHED;
-                                }
-                                case KILLED: {
-                                    return TaskStatus.KILLED;
-                                }
-                                default: {
-                                    return TaskStatus.RUNNING;
-                                }
-                            }
-                        case FAILED:
-                            return TaskStatus.FAILED;
-                        default:
-                            throw new PluginDefineException("Unsupported application state");
-                    }
+                    return convertToTaskStatus(report);
                 } catch (YarnException | IOException e) {
                     LOG.error("appId: {}, getPerJobStatus with yarnClient error: ", applicationId, e);
                     return TaskStatus.NOTFOUND;
@@ -691,6 +676,99 @@ public class FlinkClient extends AbstractClient {
         }
     }
 
+    /**
+     * 带有 applicationId 的任务先通过 yarn 上非运行状态的 flink application 列表判断状态，
+     * yarn 上仍在运行或者不在列表中的任务再按原有方式从 flink 获取具体的 job 状态
+     */
+    @Override
+    public Map<String, TaskStatus> getJobStatuses(List<JobIdentifier> jobIdentifiers) {
+        Map<String, TaskStatus> jobStatuses = Maps.newHashMapWithExpectedSize(jobIdentifiers.size());
+        Map<String, ApplicationReport> reports = Collections.emptyMap();
+        boolean hasApplication = jobIdentifiers.stream().anyMatch(jobIdentifier -> StringUtils.isNotEmpty(jobIdentifier.getApplicationId()));
+        if (hasApplication) {
+            try {
+                reports = applicationReportCache.get();
+            } catch (Exception e) {
+                LOG.error("get yarn applications error, fallback to single job status", e);
+            }
+        }
+
+        for (JobIdentifier jobIdentifier : jobIdentifiers) {
+            TaskStatus taskStatus = null;
+            String applicationId = jobIdentifier.getApplicationId();
+            ApplicationReport report = StringUtils.isEmpty(applicationId) ? null : reports.get(applicationId);
+            if (report != null && YarnApplicationState.RUNNING != report.getYarnApplicationState()) {
+                try {
+                    taskStatus = convertToTaskStatus(report);
+                } catch (Exception e) {
+                    LOG.error("appId: {}, convert application state error: ", applicationId, e);
+                }
+            }
+            if (taskStatus == null) {
+                taskStatus = getJobStatus(jobIdentifier);
+            }
+            jobStatuses.put(jobIdentifier.getJobId(), taskStatus);
+        }
+        return jobStatuses;
+    }
+
+    /**
+     * 运行中的任务需要从 flink 获取 job 状态，application 列表中只需要非运行状态的 flink 任务
+     */
+    private List<ApplicationReport> loadNotRunningApplications() throws Exception {
+        String applicationType = clientManager.getFlinkConfiguration().getString(YarnConfigOptions.APPLICATION_TYPE);
+        // 和 YarnClusterDescriptor 提交时使用的类型保持一致
+        Set<String> applicationTypes = Collections.singleton(applicationType != null ? applicationType : "Apache Flink");
+        EnumSet<YarnApplicationState> applicationStates = EnumSet.complementOf(EnumSet.of(YarnApplicationState.RUNNING));
+        return KerberosUtils.login(flinkConfig, () -> {
+            try {
+                return clientManager.getYarnClient().getApplications(applicationTypes, applicationStates);
+            } catch (YarnException | IOException e) {
+                throw new PluginDefineException(e);
+            }
+        }, clientManager.getHadoopConfig().getYarnConfiguration());
+    }
+
+    private TaskStatus convertToTaskStatus(ApplicationReport report) {
+        YarnApplicationState applicationState = report.getYarnApplicationState();
+        switch (applicationState) {
+            case KILLED:
+                return TaskStatus.KILLED;
+            case NEW:
+            case NEW_SAVING:
+                return TaskStatus.CREATED;
+            case SUBMITTED:
+                //FIXME 特殊逻辑,认为已提交到计算引擎的状态为等待资源状态
+                return TaskStatus.WAITCOMPUTE;
+            case ACCEPTED:
+                return TaskStatus.SCHEDULED;
+            case RUNNING:
+                return TaskStatus.RUNNING;
+            case FINISHED:
+                //state 为finished状态下需要兼顾判断finalStatus.
+                FinalApplicationStatus finalApplicationStatus = report.getFinalApplicationStatus();
+                switch (finalApplicationStatus) {
+                    case FAILED:
+                    case UNDEFINED: {
+                        return TaskStatus.FAILED;
+                    }
+                    case SUCCEEDED: {
+                        return TaskStatus.FINISHED;
+                    }
+                    case KILLED: {
+                        return TaskStatus.KILLED;
+                    }
+                    default: {
+                        return TaskStatus.RUNNING;
+                    }
+                }
+            case FAILED:
+                return TaskStatus.FAILED;
+            default:
+                throw new PluginDefineException("Unsupported application state");
+        }
+    }
+
     @Override
     public String getJobLog(JobIdentifier jobIdentifier) {
         String taskId = jobIdentifier.getJobId();
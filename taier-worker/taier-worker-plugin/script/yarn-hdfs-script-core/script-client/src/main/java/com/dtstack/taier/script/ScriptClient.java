@@ -21,6 +21,7 @@ package com.dtstack.taier.script;
 import com.dtstack.taier.base.BaseConfig;
 import com.dtstack.taier.base.exception.EnginePluginsBaseException;
 import com.dtstack.taier.base.monitor.AcceptedApplicationMonitor;
+import com.dtstack.taier.base.resource.YarnResourceSnapshotCache;
 import com.dtstack.taier.base.util.HadoopUtils;
 import com.dtstack.taier.base.util.KerberosUtils;
 import com.dtstack.taier.script.client.Client;
@@ -78,6 +79,8 @@ public class ScriptClient extends AbstractClient {
      */
     private ScriptConfiguration dtconf = new ScriptConfiguration(false);
 
+    private YarnResourceSnapshotCache resourceSnapshotCache;
+
     private static final Gson GSON = new Gson();
 
     @Override
@@ -96,6 +99,13 @@ public class ScriptClient extends AbstractClient {
         if (dtconf.getBoolean("monitorAcceptedApp", false)) {
             AcceptedApplicationMonitor.start(yarnconf, prop.getProperty(ScriptConfiguration.APP_QUEUE), configMap);
         }
+        resourceSnapshotCache = YarnResourceSnapshotCache.create("script_client", configMap,
+                queueName -> KerberosUtils.login(configMap, () -> ScriptResourceInfo.scriptResourceInfoBuilder()
+                        .withYarnClient(client.getYarnClient())
+                        .withQueueName(queueName)
+                        .withScriptConf(dtconf)
+                        .build()
+                        .takeSnapshot(client.getYarnClient(), queueName), yarnconf));
         LOG.info("ScriptClient init ok");
     }
 
@@ -141,6 +151,7 @@ public class ScriptClient extends AbstractClient {
                             .withYarnAccepterTaskNumber(dtconf.getInt(ScriptConfiguration.APP_YARN_ACCEPTER_TASK_NUMBER,1))
                             .withScriptConf(ScriptUtil.buildScriptConf(jobClient, dtconf))
                             .build();
+                    resourceInfo.setSnapshotCache(resourceSnapshotCache);
                     return resourceInfo.judgeSlots(jobClient);
                 } catch (Exception e) {
                     LOG.error("jobId:{} judgeSlots error:", jobClient.getJobId(), e);
@@ -21,6 +21,8 @@ package com.dtstack.taier.sparkyarn.sparkyarn;
 import com.alibaba.fastjson.JSON;
 import com.dtstack.taier.base.filesystem.FilesystemManager;
 import com.dtstack.taier.base.monitor.AcceptedApplicationMonitor;
+import com.dtstack.taier.base.resource.YarnApplicationReportCache;
+import com.dtstack.taier.base.resource.YarnResourceSnapshotCache;
 import com.dtstack.taier.base.util.HadoopConfTool;
 import com.dtstack.taier.base.util.KerberosUtils;
 import com.dtstack.taier.base.util.Splitter;
@@ -74,11 +76,14 @@ import java.net.URLEncoder;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -119,10 +124,18 @@ public class SparkYarnClient extends AbstractClient {
      */
     private static final String ALIVE_WEB_FLAG = "clusterInfo";
 
+    private static final Set<String> SPARK_APPLICATION_TYPES = Collections.singleton("SPARK");
+
+    private static final EnumSet<YarnApplicationState> ACTIVE_APPLICATION_STATES = EnumSet.of(YarnApplicationState.NEW,
+            YarnApplicationState.NEW_SAVING, YarnApplicationState.SUBMITTED, YarnApplicationState.ACCEPTED, YarnApplicationState.RUNNING);
+
     private List<String> webAppAddrList = Lists.newArrayList();
 
     private SparkYarnConfig sparkYarnConfig;
 
+    private final YarnApplicationReportCache applicationReportCache =
+            new YarnApplicationReportCache(YarnApplicationReportCache.DEFAULT_EXPIRE, this::loadActiveApplications);
+
     private YarnConfiguration yarnConf;
 
     private volatile YarnClient yarnClient;
@@ -133,6 +146,8 @@ public class SparkYarnClient extends AbstractClient {
 
     private ThreadPoolExecutor threadPoolExecutor;
 
+    private YarnResourceSnapshotCache resourceSnapshotCache;
+
     public static final String SPARK_LOG4J_FILE_NAME = "log4j-spark.properties";
 
     public static final String SPARK_LOCAL_LOG4J_KEY = "spark_local_log4j_key";
@@ -165,6 +180,9 @@ public class SparkYarnClient extends AbstractClient {
                 0L, TimeUnit.MILLISECONDS,
                 new LinkedBlockingQueue<Runnable>(), new CustomThreadFactory("spark_yarnclient"));
 
+        this.resourceSnapshotCache = YarnResourceSnapshotCache.create("spark_yarnclient", sparkYarnConfig,
+                queueName -> KerberosUtils.login(sparkYarnConfig, () -> buildResourceInfo(queueName).takeSnapshot(getYarnClient(), queueName), yarnConf, false));
+
     }
 
     private void initYarnConf(SparkYarnConfig sparkConfig) {
@@ -617,38 +635,7 @@ public class SparkYarnClient extends AbstractClient {
                 ApplicationId appId = ConverterUtils.toApplicationId(jobId);
                 try {
                     ApplicationReport report = getYarnClient().getApplicationReport(appId);
-                    YarnApplicationState applicationState = report.getYarnApplicationState();
-                    switch (applicationState) {
-                        case KILLED:
-                            return TaskStatus.KILLED;
-                        case NEW:
-                        case NEW_SAVING:
-                            return TaskStatus.CREATED;
-                        case SUBMITTED:
-                            //FIXME 特殊逻辑,认为已提交到计算引擎的状态为等待资源状态
-                            return TaskStatus.WAITCOMPUTE;
-                        case ACCEPTED:
-                            return TaskStatus.SCHEDULED;
-                        case RUNNING:
-                            return TaskStatus.RUNNING;
-                        case FINISHED:
-                            //state 为finished状态下需要兼顾判断finalStatus.
-                            FinalApplicationStatus finalApplicationStatus = report.getFinalApplicationStatus();
-                            if (finalApplicationStatus == FinalApplicationStatus.FAILED) {
-                                return TaskStatus.FAILED;
-                            } else if (finalApplicationStatus == FinalApplicationStatus.SUCCEEDED) {
-                                return TaskStatus.FINISHED;
-                            } else if (finalApplicationStatus == FinalApplicationStatus.KILLED) {
-                                return TaskStatus.KILLED;
-                            } else {
-                                return TaskStatus.RUNNING;
-                            }
-
-                        case FAILED:
-                            return TaskStatus.FAILED;
-                        default:
-                            throw new PluginDefineException("Unsupported application state");
-                    }
+                    return convertToTaskStatus(report);
                 } catch (Exception e) {
                     logger.error("", e);
                     return TaskStatus.NOTFOUND;
@@ -660,6 +647,84 @@ public class SparkYarnClient extends AbstractClient {
         }
     }
 
+    /**
+     * 通过 yarn 上未结束的 spark application 列表获取整批任务的状态，列表中不存在(已结束)的任务再单独查询
+     */
+    @Override
+    public Map<String, TaskStatus> getJobStatuses(List<JobIdentifier> jobIdentifiers) throws IOException {
+        Map<String, TaskStatus> jobStatuses = new HashMap<>(jobIdentifiers.size());
+        Map<String, ApplicationReport> reports = Collections.emptyMap();
+        try {
+            reports = applicationReportCache.get();
+        } catch (Exception e) {
+            logger.error("get yarn applications error, fallback to single application report", e);
+        }
+
+        for (JobIdentifier jobIdentifier : jobIdentifiers) {
+            String applicationId = jobIdentifier.getApplicationId();
+            ApplicationReport report = StringUtils.isEmpty(applicationId) ? null : reports.get(applicationId);
+            TaskStatus taskStatus = null;
+            if (report != null) {
+                try {
+                    taskStatus = convertToTaskStatus(report);
+                } catch (Exception e) {
+                    logger.error("", e);
+                    taskStatus = TaskStatus.NOTFOUND;
+                }
+            }
+            if (taskStatus == null) {
+                taskStatus = getJobStatus(jobIdentifier);
+            }
+            jobStatuses.put(jobIdentifier.getJobId(), taskStatus);
+        }
+        return jobStatuses;
+    }
+
+    private List<ApplicationReport> loadActiveApplications() throws Exception {
+        return KerberosUtils.login(sparkYarnConfig, () -> {
+            try {
+                return getYarnClient().getApplications(SPARK_APPLICATION_TYPES, ACTIVE_APPLICATION_STATES);
+            } catch (Exception e) {
+                throw new PluginDefineException(e);
+            }
+        }, yarnConf, false);
+    }
+
+    private TaskStatus convertToTaskStatus(ApplicationReport report) {
+        YarnApplicationState applicationState = report.getYarnApplicationState();
+        switch (applicationState) {
+            case KILLED:
+                return TaskStatus.KILLED;
+            case NEW:
+            case NEW_SAVING:
+                return TaskStatus.CREATED;
+            case SUBMITTED:
+                //FIXME 特殊逻辑,认为已提交到计算引擎的状态为等待资源状态
+                return TaskStatus.WAITCOMPUTE;
+            case ACCEPTED:
+                return TaskStatus.SCHEDULED;
+            case RUNNING:
+                return TaskStatus.RUNNING;
+            case FINISHED:
+                //state 为finished状态下需要兼顾判断finalStatus.
+                FinalApplicationStatus finalApplicationStatus = report.getFinalApplicationStatus();
+                if (finalApplicationStatus == FinalApplicationStatus.FAILED) {
+                    return TaskStatus.FAILED;
+                } else if (finalApplicationStatus == FinalApplicationStatus.SUCCEEDED) {
+                    return TaskStatus.FINISHED;
+                } else if (finalApplicationStatus == FinalApplicationStatus.KILLED) {
+                    return TaskStatus.KILLED;
+                } else {
+                    return TaskStatus.RUNNING;
+                }
+
+            case FAILED:
+                return TaskStatus.FAILED;
+            default:
+                throw new PluginDefineException("Unsupported application state");
+        }
+    }
+
     @Override
     public String getJobMaster(JobIdentifier jobIdentifier) {
         //解析config,获取web-address
@@ -762,11 +827,8 @@ public class SparkYarnClient extends AbstractClient {
 
         try {
             return KerberosUtils.login(sparkYarnConfig, () -> {
-                SparkYarnResourceInfo resourceInfo = SparkYarnResourceInfo.SparkYarnResourceInfoBuilder()
-                        .withYarnClient(getYarnClient())
-                        .withQueueName(sparkYarnConfig.getQueue())
-                        .withYarnAccepterTaskNumber(sparkYarnConfig.getYarnAccepterTaskNumber())
-                        .build();
+                SparkYarnResourceInfo resourceInfo = buildResourceInfo(sparkYarnConfig.getQueue());
+                resourceInfo.setSnapshotCache(resourceSnapshotCache);
                 return resourceInfo.judgeSlots(jobClient);
             }, yarnConf, false);
         } catch (Exception e) {
@@ -775,6 +837,14 @@ public class SparkYarnClient extends AbstractClient {
         }
     }
 
+    private SparkYarnResourceInfo buildResourceInfo(String queueName) {
+        return SparkYarnResourceInfo.SparkYarnResourceInfoBuilder()
+                .withYarnClient(getYarnClient())
+                .withQueueName(queueName)
+                .withYarnAccepterTaskNumber(sparkYarnConfig.getYarnAccepterTaskNumber())
+                .build();
+    }
+
     public void setHadoopUserName(SparkYarnConfig sparkYarnConfig) {
         if (Strings.isNullOrEmpty(sparkYarnConfig.getHadoopUserName())) {
             return;